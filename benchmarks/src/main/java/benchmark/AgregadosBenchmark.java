@@ -0,0 +1,61 @@
+package benchmark;
+
+import dto.ConsultaRequest;
+import dto.Resultado;
+import dto.ResumoMensal;
+import model.Consulta;
+import model.Medico;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.YearMonth;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura dos totais por médico e mês e do valor a receber, e o custo de mantê-los numa troca
+ * de status, com 100 mil a 1 milhão de consultas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class AgregadosBenchmark {
+
+    private static final ConsultaRequest REALIZADA = new ConsultaRequest(null, null, null, "REALIZADA",
+            null, null, null, null, null);
+    private static final ConsultaRequest AGENDADA = new ConsultaRequest(null, null, null, "AGENDADA",
+            null, null, null, null, null);
+
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private Medico medico;
+    private YearMonth mes;
+    private boolean realizada;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comConsultas(tamanho);
+        medico = dados.medicoService.buscaPorCrm(Dados.crm(0));
+        mes = YearMonth.from(Dados.PRIMEIRO_DIA);
+    }
+
+    @Benchmark
+    public ResumoMensal resumoMensal() {
+        return dados.consultaService.resumoMensal(medico, mes);
+    }
+
+    @Benchmark
+    public double valorAReceber() {
+        return dados.consultaService.getValorAReceber();
+    }
+
+    // Alterna o status da primeira consulta, que move a sua parte entre os totais
+    @Benchmark
+    public Resultado<Consulta> atualizarStatus() {
+        realizada = !realizada;
+        return dados.consultaService.atualizarConsulta(0, realizada ? REALIZADA : AGENDADA);
+    }
+}
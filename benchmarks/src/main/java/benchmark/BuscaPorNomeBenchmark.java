@@ -0,0 +1,66 @@
+package benchmark;
+
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca aproximada de pacientes pelo nome (10 candidatos) em cadastros de 100 mil e 1 milhão:
+ * nome completo com uma letra faltando, só nome e um sobrenome, e o mesmo com a data de nascimento.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class BuscaPorNomeBenchmark {
+
+    private static final int CONSULTAS_PREPARADAS = 1 << 10;
+
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private String[] nomesComErro;
+    private String[] nomesIncompletos;
+    private LocalDate[] nascimentos;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comPacientesComNomes(tamanho);
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        nomesComErro = new String[CONSULTAS_PREPARADAS];
+        nomesIncompletos = new String[CONSULTAS_PREPARADAS];
+        nascimentos = new LocalDate[CONSULTAS_PREPARADAS];
+        for (int i = 0; i < CONSULTAS_PREPARADAS; i++) {
+            Paciente paciente = dados.pacienteService.buscarPorCpf(Dados.cpf(aleatorio.nextInt(tamanho)));
+            String nome = paciente.getNome();
+            int falta = aleatorio.nextInt(nome.length());
+            nomesComErro[i] = nome.substring(0, falta) + nome.substring(falta + 1);
+            nomesIncompletos[i] = nome.substring(0, nome.lastIndexOf(' '));
+            nascimentos[i] = paciente.getDataNascimento();
+        }
+    }
+
+    @Benchmark
+    public List<Paciente> nomeComErro() {
+        return dados.pacienteService.buscarPorNome(nomesComErro[proximo++ & (CONSULTAS_PREPARADAS - 1)], null, 10);
+    }
+
+    @Benchmark
+    public List<Paciente> nomeIncompleto() {
+        return dados.pacienteService.buscarPorNome(nomesIncompletos[proximo++ & (CONSULTAS_PREPARADAS - 1)], null, 10);
+    }
+
+    @Benchmark
+    public List<Paciente> nomeIncompletoComNascimento() {
+        int i = proximo++ & (CONSULTAS_PREPARADAS - 1);
+        return dados.pacienteService.buscarPorNome(nomesIncompletos[i], nascimentos[i], 10);
+    }
+}
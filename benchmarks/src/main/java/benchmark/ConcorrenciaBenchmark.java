@@ -0,0 +1,87 @@
+package benchmark;
+
+import dto.ConsultaRequest;
+import model.Medico;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Vazão de agendamentos com várias threads usando os mesmos serviços, como vários balcões de
+ * atendimento. Cada thread agenda para o seu próprio médico e os seus 16 pacientes (16 horários
+ * por dia, um dia depois do outro), então os agendamentos não conflitam entre si e medem só o
+ * custo da sincronização. A clínica é recriada a cada iteração para o tamanho não crescer sem limite.
+ *
+ * O número de threads vem da linha de comando (-t); a curva de 1 a 32 threads é montada rodando
+ * o benchmark uma vez para cada valor (ver README).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ConcorrenciaBenchmark {
+
+    static final int MAXIMO_THREADS = 64;
+    private static final int PACIENTES_POR_THREAD = Dados.HORARIOS_POR_DIA;
+
+    private static final AtomicInteger PROXIMA_THREAD = new AtomicInteger();
+
+    private Dados dados;
+
+    @Setup(Level.Iteration)
+    public void preparar() {
+        dados = Dados.comPacientesEMedicos(MAXIMO_THREADS * PACIENTES_POR_THREAD, MAXIMO_THREADS);
+    }
+
+    @State(Scope.Thread)
+    public static class Balcao {
+
+        private int indice;
+        private String crm;
+        private Medico medico;
+        private int proxima;
+
+        @Setup(Level.Trial)
+        public void numerar() {
+            indice = PROXIMA_THREAD.getAndIncrement() % MAXIMO_THREADS;
+            crm = Dados.crm(indice);
+        }
+
+        @Setup(Level.Iteration)
+        public void reiniciar(ConcorrenciaBenchmark clinica) {
+            medico = clinica.dados.medicoService.buscaPorCrm(crm);
+            proxima = 0;
+        }
+    }
+
+    /**
+     * Agendamento completo (validações, verificações de agenda e inclusão). O valor é zero para
+     * o paciente não ficar com pagamento pendente e poder agendar de novo no dia seguinte.
+     */
+    @Benchmark
+    public boolean agendar(Balcao balcao) {
+        int consulta = balcao.proxima++;
+        int horario = consulta % PACIENTES_POR_THREAD;
+        String cpf = Dados.cpf(balcao.indice * PACIENTES_POR_THREAD + horario);
+        return dados.consultaService.agendarConsulta(new ConsultaRequest(
+                Dados.PRIMEIRO_DIA.plusDays(consulta / PACIENTES_POR_THREAD),
+                LocalTime.of(8, 0).plusMinutes(30L * horario), 30, "AGENDADA", cpf, balcao.crm,
+                null, null, 0.0)).isSucesso();
+    }
+
+    /**
+     * Verificação de disponibilidade na agenda do médico da thread (só leitura, sem trava).
+     */
+    @Benchmark
+    public boolean isMedicoDisponivel(Balcao balcao) {
+        int consulta = balcao.proxima++;
+        LocalDate data = Dados.PRIMEIRO_DIA.plusDays(consulta & 31);
+        return dados.consultaService.isMedicoDisponivel(balcao.medico, data,
+                LocalTime.of(8, 0).plusMinutes(30L * (consulta % PACIENTES_POR_THREAD)), 30);
+    }
+}
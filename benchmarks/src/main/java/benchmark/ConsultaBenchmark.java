@@ -0,0 +1,75 @@
+package benchmark;
+
+import model.Medico;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Verificações feitas a cada agendamento (agenda do médico e regra de uma consulta por dia do
+ * paciente) e leitura do total pendente, com históricos de 1 mil a 10 milhões de consultas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ConsultaBenchmark {
+
+    private static final int CONSULTAS_PREPARADAS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private Medico[] medicos;
+    private Paciente[] pacientes;
+    private LocalDate[] datas;
+    private LocalTime[] horarios;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comConsultas(tamanho);
+        int dias = Math.max(1, tamanho / (Dados.MEDICOS_POR_CLINICA * Dados.HORARIOS_POR_DIA));
+        List<Paciente> cadastrados = dados.pacienteService.getPacientes();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+
+        medicos = new Medico[CONSULTAS_PREPARADAS];
+        pacientes = new Paciente[CONSULTAS_PREPARADAS];
+        datas = new LocalDate[CONSULTAS_PREPARADAS];
+        horarios = new LocalTime[CONSULTAS_PREPARADAS];
+        for (int i = 0; i < CONSULTAS_PREPARADAS; i++) {
+            medicos[i] = dados.medicoService.buscaPorCrm(Dados.crm(aleatorio.nextInt(Dados.MEDICOS_POR_CLINICA)));
+            pacientes[i] = cadastrados.get(aleatorio.nextInt(cadastrados.size()));
+            datas[i] = Dados.PRIMEIRO_DIA.plusDays(aleatorio.nextInt(dias));
+            horarios[i] = LocalTime.of(7, 0).plusMinutes(15L * aleatorio.nextInt(48));
+        }
+    }
+
+    @Benchmark
+    public boolean isMedicoDisponivel() {
+        int i = proximo++ & (CONSULTAS_PREPARADAS - 1);
+        return dados.consultaService.isMedicoDisponivel(medicos[i], datas[i], horarios[i], 30);
+    }
+
+    @Benchmark
+    public boolean hasPacienteConsultaNoDia() {
+        int i = proximo++ & (CONSULTAS_PREPARADAS - 1);
+        return dados.consultaService.hasPacienteConsultaNoDia(pacientes[i], datas[i]);
+    }
+
+    /**
+     * Total pendente exibido por PagamentoService antes de um pagamento.
+     */
+    @Benchmark
+    public double totalPendente() {
+        return pacientes[proximo++ & (CONSULTAS_PREPARADAS - 1)].getSaldoDevedor();
+    }
+}
@@ -0,0 +1,237 @@
+package benchmark;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+import dto.Resultado;
+import model.Consulta;
+import model.Paciente;
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+import service.PagamentoService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+
+/**
+ * Geração dos dados usados pelos benchmarks. Tudo passa pela API dos serviços,
+ * então os índices ficam no mesmo estado de uma clínica real.
+ */
+final class Dados {
+
+    static final int MEDICOS_POR_CLINICA = 100;
+    static final int HORARIOS_POR_DIA = 16; // Consultas de 30 minutos, das 08:00 às 16:00
+    static final LocalDate PRIMEIRO_DIA = LocalDate.now().plusDays(1);
+    static final String ESPECIALIDADE = "Clínica Geral";
+
+    final PacienteService pacienteService = new PacienteService();
+    final MedicoService medicoService = new MedicoService();
+    final ExameService exameService = new ExameService();
+    final MedicamentoService medicamentoService = new MedicamentoService();
+    final ConsultaService consultaService = new ConsultaService(pacienteService, medicoService,
+            exameService, medicamentoService);
+    final PagamentoService pagamentoService = new PagamentoService(consultaService);
+
+    private Dados() {
+    }
+
+    static String cpf(int i) {
+        return Long.toString(10_000_000_000L + i);
+    }
+
+    static String crm(int i) {
+        return "CRM" + i;
+    }
+
+    static Dados comPacientes(int quantidade) {
+        Dados dados = new Dados();
+        dados.cadastrarPacientes(quantidade);
+        return dados;
+    }
+
+    static Dados comMedicos(int quantidade) {
+        Dados dados = new Dados();
+        dados.cadastrarMedicos(quantidade);
+        return dados;
+    }
+
+    static Dados comPacientesEMedicos(int pacientes, int medicos) {
+        Dados dados = new Dados();
+        dados.cadastrarPacientes(pacientes);
+        dados.cadastrarMedicos(medicos);
+        return dados;
+    }
+
+    /**
+     * Agenda "quantidade" consultas distribuídas entre {@link #MEDICOS_POR_CLINICA} médicos,
+     * 16 horários por dia e um paciente diferente para cada consulta do dia. Cada consulta é paga
+     * logo após o agendamento, exceto a última de cada paciente, que fica pendente.
+     */
+    static Dados comConsultas(int quantidade) {
+        Dados dados = new Dados();
+        int consultasPorDia = MEDICOS_POR_CLINICA * HORARIOS_POR_DIA;
+        int pacientes = Math.min(quantidade, consultasPorDia);
+        dados.cadastrarPacientes(pacientes);
+        dados.cadastrarMedicos(MEDICOS_POR_CLINICA);
+
+        for (int i = 0; i < quantidade; i++) {
+            int dia = i / consultasPorDia;
+            int posicaoNoDia = i % consultasPorDia;
+            int medico = posicaoNoDia % MEDICOS_POR_CLINICA;
+            int horario = posicaoNoDia / MEDICOS_POR_CLINICA;
+
+            Paciente paciente = dados.pacienteService.buscarPorCpf(cpf(posicaoNoDia));
+            if (paciente.temPagamentoPendente()) {
+                dados.pagamentoService.realizarPagamento(paciente, paciente.getSaldoDevedor());
+            }
+            Resultado<Consulta> resultado = dados.consultaService.agendarConsulta(new ConsultaRequest(
+                    PRIMEIRO_DIA.plusDays(dia), LocalTime.of(8, 0).plusMinutes(30L * horario), 30, "AGENDADA",
+                    paciente.getCpf(), crm(medico), null, null, 100.0 + (i % 50)));
+            if (!resultado.isSucesso()) {
+                throw new IllegalStateException("Falha ao gerar consulta " + i + ": " + resultado.getErro());
+            }
+        }
+        return dados;
+    }
+
+    /**
+     * Cadastra "medicos" médicos (todos da mesma especialidade) e ocupa a agenda de cada um por
+     * "dias" dias a partir de {@link #PRIMEIRO_DIA}, com "consultasPorDia" consultas de 30 minutos
+     * em horários sorteados entre os 20 do expediente (08:00 às 18:00). Cada médico tem os seus
+     * pacientes, um por consulta do dia; o valor é zero para nenhum ficar com pagamento pendente.
+     */
+    static Dados comAgendas(int medicos, int dias, int consultasPorDia) {
+        Dados dados = new Dados();
+        dados.cadastrarPacientes(medicos * consultasPorDia);
+        dados.cadastrarMedicos(medicos);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        int[] horarios = new int[20];
+        for (int dia = 0; dia < dias; dia++) {
+            LocalDate data = PRIMEIRO_DIA.plusDays(dia);
+            for (int medico = 0; medico < medicos; medico++) {
+                for (int i = 0; i < horarios.length; i++) {
+                    horarios[i] = i;
+                }
+                for (int i = 0; i < consultasPorDia; i++) {
+                    // Sorteio sem repetição: troca o escolhido para o começo do vetor
+                    int j = i + aleatorio.nextInt(horarios.length - i);
+                    int horario = horarios[j];
+                    horarios[j] = horarios[i];
+                    horarios[i] = horario;
+                    Resultado<Consulta> resultado = dados.consultaService.agendarConsulta(new ConsultaRequest(data,
+                            LocalTime.of(8, 0).plusMinutes(30L * horario), 30, "AGENDADA",
+                            cpf(medico * consultasPorDia + i), crm(medico), null, null, 0.0));
+                    if (!resultado.isSucesso()) {
+                        throw new IllegalStateException("Falha ao gerar consulta: " + resultado.getErro());
+                    }
+                }
+            }
+        }
+        return dados;
+    }
+
+    static Dados comExamesEMedicamentos(int quantidade) {
+        Dados dados = new Dados();
+        String[] tipos = {"SANGUE", "RAIO_X", "ULTRASSOM"};
+        LocalDate hoje = LocalDate.now();
+        for (int i = 0; i < quantidade; i++) {
+            dados.exameService.cadastrarExame(new ExameRequest(tipos[i % tipos.length], hoje.minusDays(10),
+                    hoje.minusDays(i % 10), "Resultado " + i, 50.0));
+            dados.medicamentoService.cadastrarMedicamento(new MedicamentoRequest("Medicamento " + i, "500mg",
+                    "1 comprimido a cada 8 horas", 10.0));
+        }
+        return dados;
+    }
+
+    /**
+     * Pacientes com nome e dois sobrenomes sorteados de listas comuns, como numa recepção real:
+     * muitos nomes repetidos e trigramas muito frequentes.
+     */
+    static Dados comPacientesComNomes(int quantidade) {
+        Dados dados = new Dados();
+        LocalDate nascimento = LocalDate.of(1950, 1, 1);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 0; i < quantidade; i++) {
+            dados.pacienteService.cadastrarPaciente(new PacienteRequest(nomePaciente(aleatorio), cpf(i),
+                    nascimento.plusDays(aleatorio.nextInt(20_000))));
+        }
+        return dados;
+    }
+
+    static String nomePaciente(SplittableRandom aleatorio) {
+        String[] nomes = {"Maria", "José", "Ana", "João", "Antônio", "Francisco", "Carlos", "Paulo", "Pedro",
+                "Lucas", "Luiz", "Marcos", "Luís", "Gabriel", "Rafael", "Francisca", "Daniel", "Marcelo",
+                "Bruno", "Eduardo", "Juliana", "Márcia", "Fernanda", "Patrícia", "Aline", "Sandra", "Camila",
+                "Amanda", "Bruna", "Jéssica", "Letícia", "Júlia", "Luciana", "Vanessa", "Mariana", "Gabriela"};
+        String[] sobrenomes = {"Silva", "Santos", "Oliveira", "Souza", "Rodrigues", "Ferreira", "Alves", "Pereira",
+                "Lima", "Gomes", "Costa", "Ribeiro", "Martins", "Carvalho", "Almeida", "Lopes", "Soares",
+                "Fernandes", "Vieira", "Barbosa", "Rocha", "Dias", "Nascimento", "Andrade", "Moreira", "Nunes",
+                "Marques", "Machado", "Mendes", "Freitas", "Cardoso", "Ramos", "Gonçalves", "Santana", "Teixeira"};
+        return nomes[aleatorio.nextInt(nomes.length)] + " " + sobrenomes[aleatorio.nextInt(sobrenomes.length)]
+                + " " + sobrenomes[aleatorio.nextInt(sobrenomes.length)];
+    }
+
+    /**
+     * Exames prescritos ao longo do último ano, um terço deles ainda pendentes.
+     */
+    static Dados comExames(int quantidade) {
+        Dados dados = new Dados();
+        String[] tipos = {"SANGUE", "RAIO_X", "ULTRASSOM"};
+        LocalDate hoje = LocalDate.now();
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        for (int i = 0; i < quantidade; i++) {
+            LocalDate prescricao = hoje.minusDays(aleatorio.nextInt(365));
+            boolean pendente = aleatorio.nextInt(3) == 0;
+            dados.exameService.cadastrarExame(new ExameRequest(tipos[i % tipos.length], prescricao,
+                    pendente ? null : prescricao, pendente ? null : "Resultado " + i, 50.0));
+        }
+        return dados;
+    }
+
+    /**
+     * Catálogo com nomes inventados, distintos e formados por sílabas espalhadas pelo alfabeto,
+     * para que as buscas por prefixo tenham poucos e muitos resultados conforme o prefixo.
+     */
+    static Dados comCatalogoDeMedicamentos(int quantidade) {
+        Dados dados = new Dados();
+        for (int i = 0; i < quantidade; i++) {
+            dados.medicamentoService.cadastrarMedicamento(new MedicamentoRequest(nomeMedicamento(i), "500mg",
+                    "1 comprimido a cada 8 horas", 10.0));
+        }
+        return dados;
+    }
+
+    static String nomeMedicamento(int i) {
+        String[] silabas = {"Ba", "Ce", "Di", "Fo", "Gu", "La", "Me", "Ni", "Po", "Ra",
+                "Sé", "Ti", "Vo", "Xa", "Zi", "Câ", "Tro", "Pla", "Cri", "Flu"};
+        // Embaralha o índice (multiplicação por um ímpar é uma bijeção) para os nomes não saírem em ordem
+        long resto = Integer.toUnsignedLong(i * 0x9E3779B1);
+        StringBuilder nome = new StringBuilder();
+        do {
+            nome.append(silabas[(int) (resto % silabas.length)]);
+            resto /= silabas.length;
+        } while (resto > 0);
+        return nome.substring(0, 1) + nome.substring(1).toLowerCase();
+    }
+
+    private void cadastrarPacientes(int quantidade) {
+        LocalDate nascimento = LocalDate.of(1980, 1, 1);
+        for (int i = 0; i < quantidade; i++) {
+            pacienteService.cadastrarPaciente(new PacienteRequest("Paciente " + i, cpf(i), nascimento));
+        }
+    }
+
+    private void cadastrarMedicos(int quantidade) {
+        LocalDate nascimento = LocalDate.of(1970, 1, 1);
+        for (int i = 0; i < quantidade; i++) {
+            medicoService.cadastrarMedico(new MedicoRequest("Medico " + i, cpf(20_000_000 + i), nascimento,
+                    crm(i), ESPECIALIDADE));
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package benchmark;
+
+import dto.ConsultaRequest;
+import dto.Resultado;
+import eventos.BarramentoEventos;
+import model.Consulta;
+import org.openjdk.jmh.annotations.*;
+import persistencia.Diario;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo de publicar as alterações no BarramentoEventos: a publicação sozinha e uma alteração de
+ * consulta com e sem o barramento ligado ao ConsultaService, com um assinante que só conta.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class EventosBenchmark {
+
+    private static final ConsultaRequest REALIZADA = new ConsultaRequest(null, null, null, "REALIZADA",
+            null, null, null, null, null);
+    private static final ConsultaRequest AGENDADA = new ConsultaRequest(null, null, null, "AGENDADA",
+            null, null, null, null, null);
+
+    @Param({"nenhum", "barramento"})
+    public String diario;
+
+    private Dados dados;
+    private BarramentoEventos barramento;
+    private long recebidos;
+    private boolean realizada;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comConsultas(100_000);
+        barramento = new BarramentoEventos(1 << 14, (evento, fimDoLote) -> recebidos++);
+        dados.consultaService.setDiario(diario.equals("barramento") ? barramento : Diario.NENHUM);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        barramento.close();
+    }
+
+    @Benchmark
+    public void publicar() {
+        barramento.consultaAtualizada(0, 0, REALIZADA);
+        barramento.confirmar();
+    }
+
+    // Alterna o status da primeira consulta; com o barramento, cada alteração publica um evento
+    @Benchmark
+    public Resultado<Consulta> atualizarStatus() {
+        realizada = !realizada;
+        return dados.consultaService.atualizarConsulta(0, realizada ? REALIZADA : AGENDADA);
+    }
+}
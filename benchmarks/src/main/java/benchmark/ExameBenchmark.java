@@ -0,0 +1,51 @@
+package benchmark;
+
+import dto.Resultado;
+import model.Exame;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Buscas de exames de um tipo por período (uma semana) e contagem de pendentes, em catálogos
+ * de 100 mil a 1 milhão de exames prescritos ao longo de um ano.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class ExameBenchmark {
+
+    @Param({"100000", "1000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private LocalDate inicio;
+    private LocalDate fim;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comExames(tamanho);
+        fim = LocalDate.now().minusDays(30);
+        inicio = fim.minusDays(6);
+    }
+
+    @Benchmark
+    public Resultado<List<Exame>> buscarExamesPendentes() {
+        return dados.exameService.buscarExamesPendentes("RAIO_X", inicio, fim);
+    }
+
+    @Benchmark
+    public Resultado<List<Exame>> buscarExamesRealizados() {
+        return dados.exameService.buscarExamesRealizados("RAIO_X", inicio, fim);
+    }
+
+    @Benchmark
+    public int contarExamesPendentes() {
+        return dados.exameService.contarExamesPendentes("RAIO_X");
+    }
+}
@@ -0,0 +1,51 @@
+package benchmark;
+
+import model.Consulta;
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura do histórico de um paciente com 1 milhão de consultas na clínica, com a tabela toda
+ * na memória e com as páginas antigas no arquivo (lidas direto do mapeamento, que o sistema
+ * operacional mantém em cache enquanto houver memória: aqui se mede o custo de ler fora do heap).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HistoricoBenchmark {
+
+    @Param({"1000000"})
+    public int tamanho;
+
+    @Param({"false", "true"})
+    public boolean arquivarPaginas;
+
+    private Paciente paciente;
+
+    @Setup(Level.Trial)
+    public void preparar() throws IOException {
+        Dados dados = Dados.comConsultas(tamanho);
+        if (arquivarPaginas) {
+            Path arquivo = Files.createTempFile("consultas", ".paginas");
+            dados.consultaService.getTabela().arquivarPaginasAntigas(arquivo);
+        }
+        paciente = dados.pacienteService.buscarPorCpf(Dados.cpf(0));
+    }
+
+    @Benchmark
+    public double somarHistorico() {
+        double total = 0;
+        for (Consulta consulta : paciente.getHistoricoMedico()) {
+            total += consulta.getValor() + consulta.getDuracao();
+        }
+        return total;
+    }
+}
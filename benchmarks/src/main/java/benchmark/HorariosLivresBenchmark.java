@@ -0,0 +1,60 @@
+package benchmark;
+
+import dto.HorarioLivre;
+import dto.Resultado;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca dos próximos horários livres entre os médicos de uma especialidade, com mil e 5 mil
+ * médicos e um ano de consultas na agenda de cada um (4 consultas de 30 minutos por dia em
+ * horários sorteados). A janela de cada busca vai de um dia sorteado dentro do ano até o fim dele.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class HorariosLivresBenchmark {
+
+    private static final int DIAS = 365;
+    private static final int CONSULTAS_POR_DIA = 4;
+    private static final int BUSCAS_PREPARADAS = 1 << 10;
+
+    @Param({"1000", "5000"})
+    public int medicos;
+
+    @Param({"30", "120"})
+    public int duracao;
+
+    @Param({"10"})
+    public int quantidade;
+
+    private Dados dados;
+    private LocalDate[] inicios;
+    private LocalDate fim;
+    private int proxima;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comAgendas(medicos, DIAS, CONSULTAS_POR_DIA);
+        fim = Dados.PRIMEIRO_DIA.plusDays(DIAS - 1);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        inicios = new LocalDate[BUSCAS_PREPARADAS];
+        for (int i = 0; i < inicios.length; i++) {
+            inicios[i] = Dados.PRIMEIRO_DIA.plusDays(aleatorio.nextInt(DIAS));
+        }
+    }
+
+    @Benchmark
+    public List<HorarioLivre> buscarHorariosLivres() {
+        Resultado<List<HorarioLivre>> resultado = dados.consultaService.buscarHorariosLivres(Dados.ESPECIALIDADE,
+                inicios[proxima++ & (BUSCAS_PREPARADAS - 1)], fim, duracao, quantidade);
+        return resultado.getValor();
+    }
+}
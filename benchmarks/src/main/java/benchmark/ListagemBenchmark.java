@@ -0,0 +1,82 @@
+package benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo completo dos métodos listar* (formatação e escrita), com a saída padrão descartada, e de
+ * uma página de 20 itens do meio da lista, como nas telas do console.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx12g")
+public class ListagemBenchmark {
+
+    private static final int ITENS_POR_PAGINA = 20;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private Dados pacientes;
+    private Dados medicos;
+    private Dados consultas;
+    private Dados examesEMedicamentos;
+    private PrintStream saidaOriginal;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        pacientes = Dados.comPacientes(tamanho);
+        medicos = Dados.comMedicos(tamanho);
+        consultas = Dados.comConsultas(tamanho);
+        examesEMedicamentos = Dados.comExamesEMedicamentos(tamanho);
+        saidaOriginal = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown(Level.Trial)
+    public void restaurarSaida() {
+        System.setOut(saidaOriginal);
+    }
+
+    @Benchmark
+    public void listarPacientes() {
+        pacientes.pacienteService.listarPacientes();
+    }
+
+    @Benchmark
+    public void listarMedicos() {
+        medicos.medicoService.listarMedicos();
+    }
+
+    @Benchmark
+    public void listarConsultas() {
+        consultas.consultaService.listarConsultas();
+    }
+
+    @Benchmark
+    public void listarExames() {
+        examesEMedicamentos.exameService.listarExames();
+    }
+
+    @Benchmark
+    public void listarMedicamentos() {
+        examesEMedicamentos.medicamentoService.listarMedicamentos();
+    }
+
+    @Benchmark
+    public void paginaDePacientes() {
+        pacientes.pacienteService.imprimirPagina(pacientes.pacienteService.buscarPagina(tamanho / 2, ITENS_POR_PAGINA));
+    }
+
+    // Sem remoções, a linha da consulta na tabela é a sua posição na lista
+    @Benchmark
+    public void paginaDeConsultas() {
+        consultas.consultaService.imprimirPagina(consultas.consultaService.buscarPagina(tamanho / 2, ITENS_POR_PAGINA));
+    }
+}
@@ -0,0 +1,55 @@
+package benchmark;
+
+import model.Medicamento;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de medicamentos pelo nome (em minúsculas, para passar pela normalização) e sugestões
+ * das 10 primeiras completações de um prefixo de 3 letras, em catálogos de 1 mil a 1 milhão.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class MedicamentoBenchmark {
+
+    private static final int CONSULTAS_PREPARADAS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private String[] nomes;
+    private String[] prefixos;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comCatalogoDeMedicamentos(tamanho);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        nomes = new String[CONSULTAS_PREPARADAS];
+        prefixos = new String[CONSULTAS_PREPARADAS];
+        for (int i = 0; i < nomes.length; i++) {
+            String nome = Dados.nomeMedicamento(aleatorio.nextInt(tamanho));
+            nomes[i] = nome.toLowerCase(Locale.ROOT);
+            prefixos[i] = nome.substring(0, Math.min(3, nome.length()));
+        }
+    }
+
+    @Benchmark
+    public Medicamento buscarMedicamento() {
+        return dados.medicamentoService.buscarMedicamento(nomes[proximo++ & (CONSULTAS_PREPARADAS - 1)]);
+    }
+
+    @Benchmark
+    public List<Medicamento> sugerirMedicamentos() {
+        return dados.medicamentoService.sugerirMedicamentos(prefixos[proximo++ & (CONSULTAS_PREPARADAS - 1)], 10);
+    }
+}
@@ -0,0 +1,52 @@
+package benchmark;
+
+import model.Medico;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de médicos por CRM e por CPF em cadastros de 1 mil a 10 milhões.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class MedicoBenchmark {
+
+    private static final int CONSULTAS_PREPARADAS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private String[] crms;
+    private String[] cpfs;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comMedicos(tamanho);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        crms = new String[CONSULTAS_PREPARADAS];
+        cpfs = new String[CONSULTAS_PREPARADAS];
+        for (int i = 0; i < crms.length; i++) {
+            int medico = aleatorio.nextInt(tamanho);
+            crms[i] = Dados.crm(medico);
+            cpfs[i] = Dados.cpf(20_000_000 + medico);
+        }
+    }
+
+    @Benchmark
+    public Medico buscaPorCrm() {
+        return dados.medicoService.buscaPorCrm(crms[proximo++ & (CONSULTAS_PREPARADAS - 1)]);
+    }
+
+    @Benchmark
+    public Medico buscarPorCpf() {
+        return dados.medicoService.buscarPorCpf(cpfs[proximo++ & (CONSULTAS_PREPARADAS - 1)]);
+    }
+}
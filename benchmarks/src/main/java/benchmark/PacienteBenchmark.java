@@ -0,0 +1,48 @@
+package benchmark;
+
+import model.Paciente;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Busca de pacientes por CPF (formatado e apenas com números) em cadastros de 1 mil a 10 milhões.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class PacienteBenchmark {
+
+    private static final int CONSULTAS_PREPARADAS = 1 << 12;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int tamanho;
+
+    private Dados dados;
+    private String[] cpfs;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        dados = Dados.comPacientes(tamanho);
+        SplittableRandom aleatorio = new SplittableRandom(42);
+        cpfs = new String[CONSULTAS_PREPARADAS];
+        for (int i = 0; i < cpfs.length; i++) {
+            cpfs[i] = Dados.cpf(aleatorio.nextInt(tamanho));
+        }
+    }
+
+    @Benchmark
+    public Paciente buscarPorCpf() {
+        return dados.pacienteService.buscarPorCpf(cpfs[proximo++ & (CONSULTAS_PREPARADAS - 1)]);
+    }
+
+    @Benchmark
+    public Paciente buscarPorCpfInexistente() {
+        return dados.pacienteService.buscarPorCpf("99999999999");
+    }
+}
@@ -0,0 +1,53 @@
+package benchmark;
+
+import dto.LinhaRelatorio;
+import org.openjdk.jmh.annotations.*;
+import service.RelatorioService;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Relatórios por varredura paralela (RelatorioService) com 1 milhão de consultas, variando o
+ * número de threads do pool. O ganho depende dos núcleos da máquina.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class RelatorioBenchmark {
+
+    @Param({"1000000"})
+    public int tamanho;
+
+    @Param({"1", "2", "4"})
+    public int paralelismo;
+
+    private ForkJoinPool pool;
+    private RelatorioService relatorioService;
+
+    @Setup(Level.Trial)
+    public void preparar() {
+        Dados dados = Dados.comConsultas(tamanho);
+        pool = new ForkJoinPool(paralelismo);
+        relatorioService = new RelatorioService(dados.consultaService, pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void encerrar() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<LinhaRelatorio> receitaPorEspecialidadeETrimestre() {
+        return relatorioService.receitaPorEspecialidadeETrimestre(null, null).getValor();
+    }
+
+    @Benchmark
+    public List<LinhaRelatorio> duracaoPorMedico() {
+        return relatorioService.duracaoPorMedico(null, null).getValor();
+    }
+}
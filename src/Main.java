@@ -1,11 +1,14 @@
-import exception.PagamentoPendenteException;
-import model.Paciente;
+import console.*;
+import dto.Referencias;
+import importacao.ImportadorCsv;
+import persistencia.PersistenciaClinica;
+import persistencia.ResumoRecuperacao;
 import service.*;
 
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.util.Scanner;
 
-import static util.ValidaCPF.formatarCPF;
-
 public class Main {
     public static void main(String[] args) {
         // Instancia os serviços já existentes
@@ -15,10 +18,37 @@ public class Main {
         MedicamentoService medicamentoService = new MedicamentoService();
         ConsultaService consultaService = new ConsultaService(pacienteService, medicoService,
                 exameService, medicamentoService);
-        PagamentoService pagamentoService = new PagamentoService();
+        PagamentoService pagamentoService = new PagamentoService(consultaService);
+
+        // Restaura o estado gravado (snapshot + diário) e passa a registrar as novas alterações
+        PersistenciaClinica persistencia = new PersistenciaClinica(Paths.get("."), pacienteService, medicoService,
+                exameService, medicamentoService, consultaService, pagamentoService);
+        try {
+            ResumoRecuperacao recuperacao = persistencia.abrir();
+            if (recuperacao.getGeracaoSnapshot() > 0 || recuperacao.getRegistros() > 0
+                    || recuperacao.getBytesDescartados() > 0) {
+                System.out.println(recuperacao);
+            }
+        } catch (IOException e) {
+            System.out.println("Não foi possível restaurar os dados da clínica: " + e.getMessage());
+            return;
+        }
 
-        // Scanner principal
+        // Scanner principal, compartilhado por todas as telas
         Scanner scanner = new Scanner(System.in);
+
+        // Telas de console, que apenas coletam os dados e delegam aos serviços
+        PacienteConsole pacienteConsole = new PacienteConsole(pacienteService, scanner);
+        MedicoConsole medicoConsole = new MedicoConsole(medicoService, scanner);
+        ExameConsole exameConsole = new ExameConsole(exameService, scanner);
+        MedicamentoConsole medicamentoConsole = new MedicamentoConsole(medicamentoService, scanner);
+        ConsultaConsole consultaConsole = new ConsultaConsole(consultaService, pacienteService, medicoService,
+                exameService, medicamentoService, scanner);
+        PagamentoConsole pagamentoConsole = new PagamentoConsole(pagamentoService, pacienteService, medicoService,
+                consultaService, scanner);
+        RelatorioConsole relatorioConsole = new RelatorioConsole(new RelatorioService(consultaService), scanner);
+        ImportacaoConsole importacaoConsole = new ImportacaoConsole(new ImportadorCsv(pacienteService, medicoService,
+                exameService, medicamentoService), scanner);
         int opcao = 0;
 
         do {
@@ -30,44 +60,73 @@ public class Main {
             System.out.println("3. Agendamento de Consultas");
             System.out.println("4. Prescrição de Exames e Medicamentos");
             System.out.println("5. Gestão de Pagamentos");
-            System.out.println("6. Sair");
+            System.out.println("6. Importar Dados (CSV)");
+            System.out.println("7. Sair");
             System.out.print("Selecione uma opção: ");
 
             try {
                 opcao = Integer.parseInt(scanner.nextLine());
                 switch (opcao) {
                     case 1:
-                        gerenciarPacientes(pacienteService);
+                        gerenciarPacientes(pacienteService, consultaService, pacienteConsole, scanner);
                         break;
                     case 2:
-                        gerenciarMedicos(medicoService);
+                        gerenciarMedicos(medicoService, consultaService, medicoConsole, scanner);
                         break;
                     case 3:
-                        gerenciarConsultas(consultaService);
+                        gerenciarConsultas(consultaConsole, relatorioConsole, scanner);
                         break;
                     case 4:
-                        gerenciarExamesEMedicamentos(exameService, medicamentoService);
+                        gerenciarExamesEMedicamentos(exameConsole, medicamentoConsole, scanner);
                         break;
                     case 5:
-                        gerenciarPagamentos(pagamentoService, pacienteService);
+                        gerenciarPagamentos(pagamentoConsole, scanner);
                         break;
                     case 6:
+                        importacaoConsole.importar();
+                        break;
+                    case 7:
                         System.out.println("\nEncerrando o sistema. Até logo!");
                         break;
                     default:
                         System.out.println("\nOpção inválida! Tente novamente.");
                 }
+                persistencia.gravarSnapshotSeNecessario();
             } catch (NumberFormatException e) {
                 System.out.println("\nValor inválido! Por favor, insira um número.");
+            } catch (IOException e) {
+                System.out.println("\nErro ao gravar o snapshot: " + e.getMessage());
             }
-        } while (opcao != 6);
+        } while (opcao != 7);
 
         scanner.close();
+        try {
+            persistencia.close();
+        } catch (IOException e) {
+            System.out.println("Erro ao gravar os dados da clínica: " + e.getMessage());
+        }
+        long falhasPaginas = consultaService.getTabela().contarFalhasArquivo();
+        if (falhasPaginas > 0) {
+            System.out.println("Aviso: " + falhasPaginas + " gravação(ões) no arquivo de páginas falharam (consultas,"
+                    + " históricos ou agendas), e os dados ficaram na memória (" + consultaService.getTabela().getUltimaFalhaArquivo()
+                    .getMessage() + ").");
+        }
+    }
+
+    // Pergunta se as consultas que ainda apontam para o paciente ou médico devem ser removidas junto
+    private static boolean confirmarRemocaoDasConsultas(Referencias referencias, Scanner scanner) {
+        if (referencias.getConsultas() == 0) {
+            return false;
+        }
+        System.out.println("Há " + referencias.getConsultas() + " consulta(s) cadastrada(s), "
+                + referencias.getConsultasPendentes() + " sem pagamento.");
+        System.out.print("Remover também as consultas? (S/N): ");
+        return scanner.nextLine().trim().equalsIgnoreCase("S");
     }
 
     // Submenu para gerenciamento de Pacientes (igual ao seu exemplo)
-    private static void gerenciarPacientes(PacienteService pacienteService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarPacientes(PacienteService pacienteService, ConsultaService consultaService,
+                                           PacienteConsole pacienteConsole, Scanner scanner) {
         int opcaoPaciente = 0;
 
         do {
@@ -76,7 +135,8 @@ public class Main {
             System.out.println("2. Atualizar Paciente");
             System.out.println("3. Listar Pacientes");
             System.out.println("4. Remover Paciente");
-            System.out.println("5. Voltar ao Menu Principal");
+            System.out.println("5. Buscar Paciente por Nome");
+            System.out.println("6. Voltar ao Menu Principal");
             System.out.print("Selecione uma opção: ");
 
             try {
@@ -84,29 +144,38 @@ public class Main {
                 switch (opcaoPaciente) {
                     case 1:
                         System.out.println("\n[Cadastrar Paciente].");
-                        pacienteService.cadastrarPaciente();
+                        pacienteConsole.cadastrarPaciente();
                         break;
                     case 2:
                         System.out.println("\n[Atualizar Paciente].");
                         System.out.print("Digite o CPF do paciente que deseja atualizar o cadastro: ");
                         String cpf = scanner.nextLine();
-                        var paciente = pacienteService.buscarPorCpf(formatarCPF(cpf));
-                        pacienteService.atualizarCadastroPaciente(paciente);
-                        System.out.println("Paciente atualizado com sucesso!");
+                        var paciente = pacienteService.buscarPorCpf(cpf);
+                        pacienteConsole.atualizarCadastroPaciente(paciente);
                         break;
                     case 3:
                         System.out.println("\n[Listar Pacientes].");
-                        pacienteService.listarPacientes();
+                        pacienteConsole.listarPacientes();
                         break;
                     case 4:
                         System.out.println("\n[Remover Paciente].");
                         System.out.print("Digite o CPF do paciente que deseja remover: ");
                         String cpfPaciente = scanner.nextLine();
-                        var pacienteR = pacienteService.buscarPorCpf(formatarCPF(cpfPaciente));
-                        pacienteService.removerPaciente(pacienteR);
-                        System.out.println("Paciente removido com sucesso!");
+                        var pacienteR = pacienteService.buscarPorCpf(cpfPaciente);
+                        if (pacienteR == null) {
+                            System.out.println("Paciente não encontrado.");
+                            break;
+                        }
+                        var remocaoPaciente = consultaService.removerPaciente(pacienteR,
+                                confirmarRemocaoDasConsultas(consultaService.buscarReferencias(pacienteR), scanner));
+                        System.out.println(remocaoPaciente.isSucesso() ? "Paciente removido com sucesso!"
+                                : remocaoPaciente.getErro());
                         break;
                     case 5:
+                        System.out.println("\n[Buscar Paciente por Nome].");
+                        pacienteConsole.buscarPorNome();
+                        break;
+                    case 6:
                         System.out.println("\nRetornando ao Menu Principal.");
                         break;
                     default:
@@ -115,12 +184,12 @@ public class Main {
             } catch (NumberFormatException e) {
                 System.out.println("\nValor inválido! Por favor, insira um número.");
             }
-        } while (opcaoPaciente != 5);
+        } while (opcaoPaciente != 6);
     }
 
     // Submenu para gerenciamento de Médicos (igual ao seu exemplo)
-    private static void gerenciarMedicos(MedicoService medicoService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarMedicos(MedicoService medicoService, ConsultaService consultaService,
+                                         MedicoConsole medicoConsole, Scanner scanner) {
         int opcaoMedico = 0;
 
         do {
@@ -129,7 +198,8 @@ public class Main {
             System.out.println("2. Atualizar Médico");
             System.out.println("3. Listar Médicos");
             System.out.println("4. Remover Médico");
-            System.out.println("5. Voltar ao Menu Principal");
+            System.out.println("5. Listar Médicos por Especialidade");
+            System.out.println("6. Voltar ao Menu Principal");
             System.out.print("Selecione uma opção: ");
 
             try {
@@ -137,29 +207,40 @@ public class Main {
                 switch (opcaoMedico) {
                     case 1:
                         System.out.println("\n[Cadastrar Médico].");
-                        medicoService.cadastrarMedico();
+                        medicoConsole.cadastrarMedico();
                         break;
                     case 2:
                         System.out.println("\n[Atualizar Médico].");
                         System.out.print("Digite o CRM do médico que deseja atualizar o cadastro: ");
                         String crm = scanner.nextLine();
                         var medico = medicoService.buscaPorCrm(crm);
-                        medicoService.atualizarCadastroMedico(medico);
-                        System.out.println("Médico atualizado com sucesso!");
+                        medicoConsole.atualizarCadastroMedico(medico);
                         break;
                     case 3:
                         System.out.println("\n[Listar Médicos].");
-                        medicoService.listarMedicos();
+                        medicoConsole.listarMedicos();
                         break;
                     case 4:
                         System.out.println("\n[Remover Médico].");
                         System.out.print("Digite o CPF do médico que deseja remover: ");
                         String cpfMedico = scanner.nextLine();
                         var medicoR = medicoService.buscarPorCpf(cpfMedico);
-                        medicoService.removerMedico(medicoR);
-                        System.out.println("Médico removido com sucesso!");
+                        if (medicoR == null) {
+                            System.out.println("Médico não encontrado.");
+                            break;
+                        }
+                        var remocaoMedico = consultaService.removerMedico(medicoR,
+                                confirmarRemocaoDasConsultas(consultaService.buscarReferencias(medicoR), scanner));
+                        System.out.println(remocaoMedico.isSucesso() ? "Médico removido com sucesso!"
+                                : remocaoMedico.getErro());
                         break;
                     case 5:
+                        System.out.println("\n[Listar Médicos por Especialidade].");
+                        System.out.println("Especialidades: " + String.join(", ", medicoService.getEspecialidades()));
+                        System.out.print("Digite a especialidade: ");
+                        medicoService.listarMedicos(scanner.nextLine());
+                        break;
+                    case 6:
                         System.out.println("\nRetornando ao Menu Principal.");
                         break;
                     default:
@@ -168,12 +249,12 @@ public class Main {
             } catch (NumberFormatException e) {
                 System.out.println("\nValor inválido! Por favor, insira um número.");
             }
-        } while (opcaoMedico != 5);
+        } while (opcaoMedico != 6);
     }
 
     // Adicione esta função ao seu código, dentro da classe Main
-    private static void gerenciarConsultas(ConsultaService consultaService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarConsultas(ConsultaConsole consultaConsole, RelatorioConsole relatorioConsole,
+                                           Scanner scanner) {
         int opcaoConsulta = 0;
 
         do {
@@ -182,7 +263,12 @@ public class Main {
             System.out.println("2. Atualizar Consulta");
             System.out.println("3. Listar Consultas");
             System.out.println("4. Remover Consulta");
-            System.out.println("5. Voltar ao Menu Principal");
+            System.out.println("5. Listar Consultas por Status");
+            System.out.println("6. Buscar Horários Livres");
+            System.out.println("7. Receita por Especialidade e Trimestre");
+            System.out.println("8. Duração Média por Médico");
+            System.out.println("9. Verificar Consultas Órfãs");
+            System.out.println("10. Voltar ao Menu Principal");
             System.out.print("Selecione uma opção: ");
 
             try {
@@ -190,21 +276,41 @@ public class Main {
                 switch (opcaoConsulta) {
                     case 1:
                         System.out.println("\n[Cadastrar Consulta].");
-                        consultaService.cadastrarConsulta();
+                        consultaConsole.cadastrarConsulta();
                         break;
                     case 2:
                         System.out.println("\n[Atualizar Consulta].");
-                        consultaService.atualizarConsulta();
+                        consultaConsole.atualizarConsulta();
                         break;
                     case 3:
                         System.out.println("\n[Listar Consultas].");
-                        consultaService.listarConsultas();
+                        consultaConsole.listarConsultas();
                         break;
                     case 4:
                         System.out.println("\n[Remover Consulta].");
-                        consultaService.removerConsulta();
+                        consultaConsole.removerConsulta();
                         break;
                     case 5:
+                        System.out.println("\n[Listar Consultas por Status].");
+                        consultaConsole.listarConsultasPorStatus();
+                        break;
+                    case 6:
+                        System.out.println("\n[Buscar Horários Livres].");
+                        consultaConsole.buscarHorariosLivres();
+                        break;
+                    case 7:
+                        System.out.println("\n[Receita por Especialidade e Trimestre].");
+                        relatorioConsole.receitaPorEspecialidadeETrimestre();
+                        break;
+                    case 8:
+                        System.out.println("\n[Duração Média por Médico].");
+                        relatorioConsole.duracaoMediaPorMedico();
+                        break;
+                    case 9:
+                        System.out.println("\n[Verificar Consultas Órfãs].");
+                        consultaConsole.listarConsultasOrfas();
+                        break;
+                    case 10:
                         System.out.println("\nRetornando ao Menu Principal.");
                         break;
                     default:
@@ -213,12 +319,12 @@ public class Main {
             } catch (NumberFormatException e) {
                 System.out.println("\nValor inválido! Por favor, insira um número.");
             }
-        } while (opcaoConsulta != 5);
+        } while (opcaoConsulta != 10);
     }
 
     // Submenu para Prescrição de Exames e Medicamentos
-    private static void gerenciarExamesEMedicamentos(ExameService exameService, MedicamentoService medicamentoService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarExamesEMedicamentos(ExameConsole exameConsole, MedicamentoConsole medicamentoConsole,
+                                                     Scanner scanner) {
         int opcao = 0;
 
         do {
@@ -232,10 +338,10 @@ public class Main {
                 opcao = Integer.parseInt(scanner.nextLine());
                 switch (opcao) {
                     case 1:
-                        gerenciarExames(exameService);
+                        gerenciarExames(exameConsole, scanner);
                         break;
                     case 2:
-                        gerenciarMedicamentosSubmenu(medicamentoService);
+                        gerenciarMedicamentosSubmenu(medicamentoConsole, scanner);
                         break;
                     case 3:
                         System.out.println("Retornando ao Menu Principal.");
@@ -250,8 +356,7 @@ public class Main {
     }
 
     // Submenu para gerenciamento de Exames
-    private static void gerenciarExames(ExameService exameService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarExames(ExameConsole exameConsole, Scanner scanner) {
         int opcaoExame = 0;
 
         do {
@@ -260,7 +365,8 @@ public class Main {
             System.out.println("2. Atualizar Exame");
             System.out.println("3. Listar Exames");
             System.out.println("4. Remover Exame");
-            System.out.println("5. Voltar ao Menu de Prescrição");
+            System.out.println("5. Listar Exames Pendentes");
+            System.out.println("6. Voltar ao Menu de Prescrição");
             System.out.print("Selecione uma opção: ");
 
             try {
@@ -268,21 +374,25 @@ public class Main {
                 switch (opcaoExame) {
                     case 1:
                         System.out.println("\n[Cadastrar Exame].");
-                        exameService.cadastrarExame();
+                        exameConsole.cadastrarExame();
                         break;
                     case 2:
                         System.out.println("\n[Atualizar Exame].");
-                        exameService.atualizarExame();
+                        exameConsole.atualizarExame();
                         break;
                     case 3:
                         System.out.println("\n[Listar Exames].");
-                        exameService.listarExames();
+                        exameConsole.listarExames();
                         break;
                     case 4:
                         System.out.println("\n[Remover Exame].");
-                        System.out.println(exameService.removerExame());
+                        System.out.println(exameConsole.removerExame());
                         break;
                     case 5:
+                        System.out.println("\n[Listar Exames Pendentes].");
+                        exameConsole.listarExamesPendentes();
+                        break;
+                    case 6:
                         System.out.println("Retornando ao Menu de Prescrição.");
                         break;
                     default:
@@ -291,12 +401,11 @@ public class Main {
             } catch (NumberFormatException e) {
                 System.out.println("Valor inválido! Por favor, insira um número.");
             }
-        } while (opcaoExame != 5);
+        } while (opcaoExame != 6);
     }
 
     // Submenu para gerenciamento de Medicamentos
-    private static void gerenciarMedicamentosSubmenu(MedicamentoService medicamentoService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarMedicamentosSubmenu(MedicamentoConsole medicamentoConsole, Scanner scanner) {
         int opcaoMedicamento = 0;
 
         do {
@@ -313,19 +422,19 @@ public class Main {
                 switch (opcaoMedicamento) {
                     case 1:
                         System.out.println("\n[Cadastrar Medicamento].");
-                        medicamentoService.cadastrarMedicamento();
+                        medicamentoConsole.cadastrarMedicamento();
                         break;
                     case 2:
                         System.out.println("\n[Atualizar Medicamento].");
-                        medicamentoService.atualizarMedicamento();
+                        medicamentoConsole.atualizarMedicamento();
                         break;
                     case 3:
                         System.out.println("\n[Listar Medicamentos].");
-                        medicamentoService.listarMedicamentos();
+                        medicamentoConsole.listarMedicamentos();
                         break;
                     case 4:
                         System.out.println("\n[Remover Medicamento].");
-                        System.out.println(medicamentoService.removerMedicamento());
+                        System.out.println(medicamentoConsole.removerMedicamento());
                         break;
                     case 5:
                         System.out.println("Retornando ao Menu de Prescrição.");
@@ -339,14 +448,14 @@ public class Main {
         } while (opcaoMedicamento != 5);
     }
 
-    private static void gerenciarPagamentos(PagamentoService pagamentoService, PacienteService pacienteService) {
-        Scanner scanner = new Scanner(System.in);
+    private static void gerenciarPagamentos(PagamentoConsole pagamentoConsole, Scanner scanner) {
         int opcaoPagamento = 0;
 
         do {
             System.out.println("\n=== Gerenciar Pagamentos ===");
             System.out.println("1. Realizar Pagamento");
-            System.out.println("2. Voltar ao Menu Principal");
+            System.out.println("2. Resumo Financeiro por Médico");
+            System.out.println("3. Voltar ao Menu Principal");
             System.out.print("Selecione uma opção: ");
 
             try {
@@ -354,9 +463,13 @@ public class Main {
                 switch (opcaoPagamento) {
                     case 1:
                         System.out.println("\n[Realizar Pagamento].");
-                        pagamentoService.realizarPagamento(pacienteService);
+                        pagamentoConsole.realizarPagamento();
                         break;
                     case 2:
+                        System.out.println("\n[Resumo Financeiro por Médico].");
+                        pagamentoConsole.resumoFinanceiro();
+                        break;
+                    case 3:
                         System.out.println("\nRetornando ao Menu Principal.");
                         break;
                     default:
@@ -365,6 +478,6 @@ public class Main {
             } catch (NumberFormatException e) {
                 System.out.println("\nValor inválido! Por favor, insira um número válido.");
             }
-        } while (opcaoPagamento != 2);
+        } while (opcaoPagamento != 3);
     }
 }
\ No newline at end of file
@@ -0,0 +1,415 @@
+package console;
+
+import dto.CargaMedico;
+import dto.ConsultaRequest;
+import dto.HorarioLivre;
+import dto.Resultado;
+import model.Consulta;
+import model.Medicamento;
+import model.Medico;
+import model.Paciente;
+import model.StatusConsulta;
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Scanner;
+import java.util.StringJoiner;
+
+import static util.Validacoes.validarStatusConsulta;
+import static util.Validacoes.validarTipoExame;
+
+/**
+ * Telas de console do agendamento de consultas: coletam os dados e delegam ao ConsultaService.
+ */
+public class ConsultaConsole {
+
+    // Sugestões mostradas quando o nome do medicamento não é encontrado
+    private static final int SUGESTOES = 5;
+
+    private final ConsultaService consultaService;
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+
+    public ConsultaConsole(ConsultaService consultaService, PacienteService pacienteService,
+                           MedicoService medicoService, ExameService exameService,
+                           MedicamentoService medicamentoService, Scanner scanner) {
+        this.consultaService = consultaService;
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    // Método para cadastrar uma nova consulta
+    public void cadastrarConsulta() {
+        System.out.println("=== Cadastro de Consulta ===");
+
+        // Validação da data da consulta
+        LocalDate data = lerDataConsulta();
+
+        // Validação do horário da consulta
+        LocalTime horario = lerHorarioConsulta();
+
+        // Validação da duração da consulta
+        int duracao = lerDuracaoConsulta();
+
+        // Validação do status da consulta
+        String status = lerStatusConsulta();
+
+        // Escolha do paciente
+        Paciente paciente = adicionarPaciente();
+        if (paciente == null) {
+            return;
+        }
+
+        // Escolha do médico
+        Medico medico = adicionarMedico(data);
+        if (medico == null) {
+            System.out.println("Médico não encontrado.");
+            return;
+        }
+
+        // Verificação de disponibilidade do médico
+        if (!consultaService.isMedicoDisponivel(medico, data, horario, duracao)) {
+            System.out.println("Médico não disponível no horário selecionado.");
+            return;
+        }
+
+        // Verificação de consulta do paciente no mesmo dia
+        if (consultaService.hasPacienteConsultaNoDia(paciente, data)) {
+            System.out.println("Paciente já possui uma consulta agendada para este dia.");
+            return;
+        }
+
+        // Adição de exames
+        List<String> examesPrescritos = adicionarExames();
+
+        // Adição de medicamentos prescritos
+        List<String> medicamentosPrescritos = adicionarMedicamentos();
+
+        // Validação do valor da consulta
+        double valor = lerValorConsulta();
+
+        Resultado<Consulta> resultado = consultaService.agendarConsulta(new ConsultaRequest(data, horario, duracao,
+                status, paciente.getCpf(), medico.getCrm(), examesPrescritos, medicamentosPrescritos, valor));
+        System.out.println(resultado.isSucesso() ? "Consulta cadastrada com sucesso!" : resultado.getErro());
+    }
+
+    // Método para atualizar uma consulta existente
+    public void atualizarConsulta() {
+        Integer indice = lerIndice("Informe o índice da consulta que deseja atualizar");
+        if (indice == null) {
+            return;
+        }
+        List<Consulta> consultas = consultaService.getConsultas();
+        if (indice < 0 || indice >= consultas.size()) {
+            System.out.println("Índice inválido.");
+            return;
+        }
+
+        Consulta consulta = consultas.get(indice);
+
+        try {
+            // Atualização da data
+            System.out.printf("Nova data (atual: %s): ", consulta.getData().format(dateFormatter));
+            String novaDataStr = scanner.nextLine();
+            LocalDate novaData = novaDataStr.isEmpty() ? null : LocalDate.parse(novaDataStr, dateFormatter);
+
+            // Atualização do horário
+            System.out.printf("Novo horário (atual: %s): ", consulta.getHorario().format(timeFormatter));
+            String novoHorarioStr = scanner.nextLine();
+            LocalTime novoHorario = novoHorarioStr.isEmpty() ? null : LocalTime.parse(novoHorarioStr, timeFormatter);
+
+            // Atualização da duração
+            System.out.printf("Nova duração (atual: %d minutos): ", consulta.getDuracao());
+            String novaDuracaoStr = scanner.nextLine();
+            Integer novaDuracao = novaDuracaoStr.isEmpty() ? null : Integer.parseInt(novaDuracaoStr);
+
+            // Atualização do status
+            System.out.printf("Novo status (atual: %s): ", consulta.getStatus());
+            String novoStatus = scanner.nextLine();
+
+            // Atualização do valor
+            System.out.printf("Novo valor (atual: R$ %.2f): ", consulta.getValor());
+            String novoValorStr = scanner.nextLine();
+            Double novoValor = novoValorStr.isEmpty() ? null : Double.parseDouble(novoValorStr);
+
+            Resultado<Consulta> resultado = consultaService.atualizarConsulta(indice, new ConsultaRequest(novaData,
+                    novoHorario, novaDuracao, novoStatus, null, null, null, null, novoValor));
+            System.out.println(resultado.isSucesso() ? "Consulta atualizada com sucesso!" : resultado.getErro());
+        } catch (Exception e) {
+            System.out.println("Valor inválido. Nenhuma alteração foi feita.");
+        }
+    }
+
+    // Método para remover uma consulta
+    public void removerConsulta() {
+        Integer indice = lerIndice("Informe o índice da consulta que deseja remover");
+        if (indice == null) {
+            return;
+        }
+
+        Resultado<Consulta> resultado = consultaService.removerConsulta(indice);
+        if (resultado.isSucesso()) {
+            System.out.printf("Consulta do paciente %s removida com sucesso!%n",
+                    resultado.getValor().getPaciente().getNome());
+        } else {
+            System.out.println(resultado.getErro());
+        }
+    }
+
+    // Método para listar as consultas, uma página por vez
+    public void listarConsultas() {
+        paginacao.navegar(cursor -> consultaService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                consultaService::imprimirPagina);
+    }
+
+    // Método para listar as consultas de um status, com a contagem de cada status
+    public void listarConsultasPorStatus() {
+        for (StatusConsulta status : StatusConsulta.values()) {
+            System.out.printf("%s: %d%n", status, consultaService.contarPorStatus(status));
+        }
+        consultaService.listarConsultasPorStatus(StatusConsulta.deTexto(lerStatusConsulta()));
+    }
+
+    public void listarConsultasOrfas() {
+        consultaService.listarConsultasOrfas();
+    }
+
+    // Método para buscar os próximos horários livres dos médicos de uma especialidade
+    public void buscarHorariosLivres() {
+        System.out.print("Especialidade: ");
+        String especialidade = scanner.nextLine();
+        LocalDate inicio = lerData("Data inicial (DD-MM-YYYY): ");
+        LocalDate fim = lerData("Data final (DD-MM-YYYY): ");
+        int duracao = lerDuracaoConsulta();
+        System.out.print("Quantidade de horários: ");
+        int quantidade;
+        try {
+            quantidade = Integer.parseInt(scanner.nextLine().trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Valor inválido. Informe um número.");
+            return;
+        }
+
+        Resultado<List<HorarioLivre>> resultado = consultaService.buscarHorariosLivres(especialidade, inicio, fim,
+                duracao, quantidade);
+        if (!resultado.isSucesso()) {
+            System.out.println(resultado.getErro());
+            return;
+        }
+        if (resultado.getValor().isEmpty()) {
+            System.out.println("Nenhum horário livre no período.");
+            return;
+        }
+        System.out.printf("=== Horários livres (%s a %s) ===%n",
+                ConsultaService.INICIO_EXPEDIENTE.format(timeFormatter), ConsultaService.FIM_EXPEDIENTE.format(timeFormatter));
+        for (HorarioLivre livre : resultado.getValor()) {
+            System.out.printf("Data: %s | Horário: %s | Médico: %s | CRM: %s%n",
+                    livre.getData().format(dateFormatter), livre.getHorario().format(timeFormatter),
+                    livre.getMedico().getNome(), livre.getMedico().getCrm());
+        }
+    }
+
+    // Métodos auxiliares
+
+    // Lê o índice de uma consulta mostrando a lista uma página por vez
+    private Integer lerIndice(String mensagem) {
+        String resposta = paginacao.perguntar(mensagem,
+                cursor -> consultaService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                consultaService::imprimirPagina);
+        try {
+            return Integer.parseInt(resposta.trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Índice inválido.");
+            return null;
+        }
+    }
+
+    private LocalDate lerDataConsulta() {
+        return lerData("Data da consulta (DD-MM-YYYY): ");
+    }
+
+    private LocalDate lerData(String mensagem) {
+        while (true) {
+            System.out.print(mensagem);
+            String dataStr = scanner.nextLine();
+            try {
+                LocalDate data = LocalDate.parse(dataStr, dateFormatter);
+                if (data.isBefore(LocalDate.now())) {
+                    System.out.println("A data não pode ser no passado.");
+                    continue;
+                }
+                return data;
+            } catch (Exception e) {
+                System.out.println("Formato de data inválido. Use DD-MM-YYYY.");
+            }
+        }
+    }
+
+    private LocalTime lerHorarioConsulta() {
+        while (true) {
+            System.out.print("Horário da consulta (HH:mm): ");
+            String horarioStr = scanner.nextLine();
+            try {
+                return LocalTime.parse(horarioStr, timeFormatter);
+            } catch (Exception e) {
+                System.out.println("Formato de horário inválido. Use HH:mm.");
+            }
+        }
+    }
+
+    private int lerDuracaoConsulta() {
+        while (true) {
+            System.out.print("Duração da consulta (minutos): ");
+            String duracaoStr = scanner.nextLine();
+            try {
+                int duracao = Integer.parseInt(duracaoStr);
+                if (duracao <= 0) {
+                    System.out.println("A duração deve ser maior que 0.");
+                    continue;
+                }
+                return duracao;
+            } catch (NumberFormatException e) {
+                System.out.println("Valor inválido. Informe um número.");
+            }
+        }
+    }
+
+    private String lerStatusConsulta() {
+        while (true) {
+            System.out.print("Status da consulta (AGENDADA, CANCELADA, REALIZADA): ");
+            String status = scanner.nextLine().toUpperCase();
+            String erro = validarStatusConsulta(status);
+            if (erro == null) {
+                return status;
+            }
+            System.out.println(erro);
+        }
+    }
+
+    private Paciente adicionarPaciente() {
+        String cpf = paginacao.escolher("CPF do paciente que vai consultar",
+                cursor -> pacienteService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                pacienteService::imprimirPagina);
+        var paciente = pacienteService.buscarPorCpf(cpf);
+        if (paciente == null) {
+            System.out.println("Cadastre um paciente para cadastrar uma consulta.");
+            return null;
+        }
+        return paciente;
+    }
+
+    // Lista os médicos da especialidade escolhida, do menos para o mais ocupado no dia da consulta,
+    // ou todos os médicos, uma página por vez, se a especialidade ficar em branco
+    private Medico adicionarMedico(LocalDate data) {
+        System.out.println("Especialidades: " + String.join(", ", medicoService.getEspecialidades()));
+        System.out.print("Especialidade (deixe em branco para escolher entre todos os médicos): ");
+        String especialidade = scanner.nextLine();
+        if (especialidade.trim().isEmpty()) {
+            return medicoService.buscaPorCrm(paginacao.escolher("CRM do medico que vai realizar a consulta",
+                    cursor -> medicoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                    medicoService::imprimirPagina));
+        }
+        Resultado<List<CargaMedico>> cargas = consultaService.listarMedicosPorCarga(especialidade, data, data);
+        if (!cargas.isSucesso()) {
+            System.out.println(cargas.getErro());
+            return null;
+        }
+        System.out.println("Médicos do menos para o mais ocupado em " + data.format(dateFormatter) + ":");
+        for (CargaMedico carga : cargas.getValor()) {
+            System.out.println("Nome: " + carga.getMedico().getNome() +
+                    " - CRM: " + carga.getMedico().getCrm() +
+                    " - Ocupado: " + carga.getMinutosOcupados() + " minutos");
+        }
+        System.out.println("CRM do medico que vai realizar a consulta: ");
+        String crm = scanner.nextLine();
+        return medicoService.buscaPorCrm(crm);
+    }
+
+    private List<String> adicionarExames() {
+        List<String> exames = new ArrayList<>();
+        while (true) {
+            System.out.println("Adicionar exame (SANGUE, RAIO_X, ULTRASSOM) ou deixe em branco para parar: ");
+            System.out.print("Digite o tipo do exame: ");
+            String tipo = scanner.nextLine().toUpperCase();
+            if (tipo.isEmpty()) {
+                break;
+            }
+            if (validarTipoExame(tipo) != null) {
+                System.out.println("Tipo de exame inválido.");
+                continue;
+            }
+            if (exameService.buscarExamePorTipo(tipo) == null) {
+                System.out.println("Nenhum exame deste tipo cadastrado.");
+                continue;
+            }
+            exames.add(tipo);
+        }
+        return exames;
+    }
+
+    private List<String> adicionarMedicamentos() {
+        List<String> medicamentos = new ArrayList<>();
+        while (true) {
+            System.out.println("Adicionar medicamento ou deixe em branco para parar: ");
+            System.out.print("Digite o nome do medicamento (? para ver a lista): ");
+            String nome = scanner.nextLine();
+            if (nome.isEmpty()) {
+                break;
+            }
+            if (nome.trim().equals("?")) {
+                paginacao.navegar(cursor -> medicamentoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                        medicamentoService::imprimirPagina);
+                continue;
+            }
+            if (medicamentoService.buscarMedicamento(nome) == null) {
+                System.out.println("Medicamento não encontrado.");
+                List<Medicamento> sugestoes = medicamentoService.sugerirMedicamentos(nome, SUGESTOES);
+                if (!sugestoes.isEmpty()) {
+                    StringJoiner nomes = new StringJoiner(", ");
+                    for (Medicamento sugestao : sugestoes) {
+                        nomes.add(sugestao.getNome());
+                    }
+                    System.out.println("Sugestões: " + nomes);
+                }
+                continue;
+            }
+            medicamentos.add(nome);
+        }
+        return medicamentos;
+    }
+
+    private double lerValorConsulta() {
+        while (true) {
+            System.out.print("Valor da consulta: ");
+            try {
+                double valor = Double.parseDouble(scanner.nextLine());
+                if (valor < 0) {
+                    System.out.println("O valor não pode ser negativo.");
+                    continue;
+                }
+                return valor;
+            } catch (NumberFormatException e) {
+                System.out.println("Valor inválido. Informe um número.");
+            }
+        }
+    }
+}
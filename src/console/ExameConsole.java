@@ -0,0 +1,278 @@
+package console;
+
+import dto.ExameRequest;
+import dto.Resultado;
+import model.Exame;
+import service.ExameService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Scanner;
+
+import static util.Validacoes.validarCusto;
+import static util.Validacoes.validarDataPrescricao;
+import static util.Validacoes.validarDataRealizacao;
+import static util.Validacoes.validarResultado;
+import static util.Validacoes.validarTipoExame;
+
+/**
+ * Telas de console do cadastro de exames: coletam os dados e delegam ao ExameService.
+ */
+public class ExameConsole {
+
+    private final ExameService exameService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    public ExameConsole(ExameService exameService, Scanner scanner) {
+        this.exameService = exameService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    public void cadastrarExame() {
+        System.out.println("=== Cadastro de Exame ===");
+
+        // Validação do Tipo (aceita SANGUE, RAIO_X ou ULTRASSOM)
+        String tipo;
+        while (true) {
+            System.out.print("Digite o tipo do exame (SANGUE, RAIO_X, ULTRASSOM): ");
+            tipo = scanner.nextLine().trim().toUpperCase();
+            String erro = validarTipoExame(tipo);
+            if (erro == null) {
+                break;
+            }
+            System.out.println(erro);
+        }
+
+        // Validação da Data de Prescrição
+        LocalDate dataPrescricao;
+        while (true) {
+            System.out.print("Digite a data de prescrição (DD-MM-YYYY): ");
+            dataPrescricao = lerData();
+            String erro = dataPrescricao == null ? null : validarDataPrescricao(dataPrescricao);
+            if (dataPrescricao != null && erro == null) {
+                break;
+            }
+            System.out.println(erro != null ? erro : "Formato inválido! Utilize DD-MM-YYYY.");
+        }
+
+        // Validação da Data de Realização (não pode ser anterior à prescrição nem futura; em branco, fica pendente)
+        LocalDate dataRealizacao;
+        while (true) {
+            System.out.print("Digite a data de realização (DD-MM-YYYY, em branco se ainda não foi realizado): ");
+            String entrada = scanner.nextLine();
+            if (entrada.trim().isEmpty()) {
+                dataRealizacao = null;
+                break;
+            }
+            dataRealizacao = converterData(entrada);
+            String erro = dataRealizacao == null ? null : validarDataRealizacao(dataRealizacao, dataPrescricao);
+            if (dataRealizacao != null && erro == null) {
+                break;
+            }
+            System.out.println(erro != null ? erro : "Formato inválido! Utilize DD-MM-YYYY.");
+        }
+
+        // Validação do Resultado (não pode ser vazio; exame pendente não tem resultado)
+        String resultado = null;
+        while (dataRealizacao != null) {
+            System.out.print("Digite o resultado do exame: ");
+            resultado = scanner.nextLine();
+            String erro = validarResultado(resultado);
+            if (erro == null) {
+                break;
+            }
+            System.out.println(erro);
+        }
+
+        // Validação do Custo (valor numérico e não negativo)
+        double custo;
+        while (true) {
+            System.out.print("Digite o custo do exame: ");
+            try {
+                custo = Double.parseDouble(scanner.nextLine());
+                String erro = validarCusto(custo);
+                if (erro == null) {
+                    break;
+                }
+                System.out.println(erro);
+            } catch (NumberFormatException e) {
+                System.out.println("Valor inválido! Informe um número.");
+            }
+        }
+
+        Resultado<Exame> cadastro = exameService.cadastrarExame(
+                new ExameRequest(tipo, dataPrescricao, dataRealizacao, resultado, custo));
+        System.out.println(cadastro.isSucesso() ? "Exame cadastrado com sucesso!" : cadastro.getErro());
+    }
+
+    /**
+     * Atualiza os dados de um exame já cadastrado.
+     * O usuário informa o índice e, se o campo ficar em branco, o valor atual é mantido.
+     */
+    public Exame atualizarExame() {
+        System.out.println("=== Atualização de Exame ===");
+
+        // Listar exames para seleção, uma página por vez
+        int indice;
+        try {
+            indice = Integer.parseInt(lerIndice("Informe o índice do exame que deseja atualizar").trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Índice inválido!");
+            return null;
+        }
+        Exame exame = exameService.buscarExameNoIndice(indice);
+        if (exame == null) {
+            System.out.println("Índice não encontrado!");
+            return null;
+        }
+
+        // Tipo
+        System.out.print("Tipo (atual: " + exame.getTipo() + ") [SANGUE, RAIO_X, ULTRASSOM]: ");
+        String novoTipo = scanner.nextLine().trim().toUpperCase();
+        while (!novoTipo.isEmpty() && validarTipoExame(novoTipo) != null) {
+            System.out.print("Tipo inválido! Informe SANGUE, RAIO_X ou ULTRASSOM: ");
+            novoTipo = scanner.nextLine().trim().toUpperCase();
+        }
+
+        // Data de Prescrição
+        System.out.print("Data de Prescrição (atual: " + exame.getDataPrescricao().format(formatter) +
+                ") (DD-MM-YYYY): ");
+        LocalDate novaPrescricao = null;
+        String entrada = scanner.nextLine();
+        while (!entrada.trim().isEmpty()) {
+            novaPrescricao = converterData(entrada);
+            String erro = novaPrescricao == null ? "Formato inválido!" : validarDataPrescricao(novaPrescricao);
+            if (erro == null) {
+                break;
+            }
+            novaPrescricao = null;
+            System.out.print(erro + " Informe novamente (DD-MM-YYYY): ");
+            entrada = scanner.nextLine();
+        }
+        LocalDate prescricaoFinal = novaPrescricao != null ? novaPrescricao : exame.getDataPrescricao();
+
+        // Data de Realização
+        String realizacaoAtual = exame.getDataRealizacao() == null ? "pendente"
+                : exame.getDataRealizacao().format(formatter);
+        System.out.print("Data de Realização (atual: " + realizacaoAtual + ") (DD-MM-YYYY): ");
+        LocalDate novaRealizacao = null;
+        entrada = scanner.nextLine();
+        while (!entrada.trim().isEmpty()) {
+            novaRealizacao = converterData(entrada);
+            String erro = novaRealizacao == null ? "Formato inválido!"
+                    : validarDataRealizacao(novaRealizacao, prescricaoFinal);
+            if (erro == null) {
+                break;
+            }
+            novaRealizacao = null;
+            System.out.print(erro + " Informe novamente (DD-MM-YYYY): ");
+            entrada = scanner.nextLine();
+        }
+
+        // Resultado
+        System.out.print("Resultado (atual: " + (exame.getResultado() == null ? "-" : exame.getResultado()) + "): ");
+        String novoResultado = scanner.nextLine();
+
+        // Custo
+        System.out.print("Custo (atual: " + exame.getCusto() + "): ");
+        Double novoCusto = null;
+        entrada = scanner.nextLine();
+        while (!entrada.trim().isEmpty()) {
+            try {
+                novoCusto = Double.parseDouble(entrada);
+                String erro = validarCusto(novoCusto);
+                if (erro == null) {
+                    break;
+                }
+                novoCusto = null;
+                System.out.print("Custo não pode ser negativo. Informe um valor válido: ");
+            } catch (NumberFormatException e) {
+                System.out.print("Valor inválido! Informe um número: ");
+            }
+            entrada = scanner.nextLine();
+        }
+
+        Resultado<Exame> resultado = exameService.atualizarExame(indice,
+                new ExameRequest(novoTipo, novaPrescricao, novaRealizacao, novoResultado, novoCusto));
+        if (!resultado.isSucesso()) {
+            System.out.println(resultado.getErro());
+            return null;
+        }
+        System.out.println("Exame atualizado com sucesso!");
+        return resultado.getValor();
+    }
+
+    /**
+     * Remove um exame da lista com base no índice informado.
+     */
+    public String removerExame() {
+        System.out.println("=== Remoção de Exame ===");
+
+        int indice;
+        try {
+            indice = Integer.parseInt(lerIndice("Informe o índice do exame que deseja remover").trim());
+        } catch (NumberFormatException e) {
+            return "Índice inválido!";
+        }
+        Resultado<Exame> resultado = exameService.removerExame(indice);
+        return resultado.isSucesso() ? "Exame removido com sucesso!" : resultado.getErro();
+    }
+
+    /**
+     * Lista os exames de um tipo prescritos num período e ainda não realizados.
+     */
+    public void listarExamesPendentes() {
+        System.out.print("Tipo do exame (SANGUE, RAIO_X, ULTRASSOM): ");
+        String tipo = scanner.nextLine().trim().toUpperCase();
+        System.out.print("Prescritos a partir de (DD-MM-YYYY): ");
+        LocalDate inicio = lerData();
+        System.out.print("Prescritos até (DD-MM-YYYY): ");
+        LocalDate fim = lerData();
+
+        Resultado<List<Exame>> resultado = exameService.buscarExamesPendentes(tipo, inicio, fim);
+        if (!resultado.isSucesso()) {
+            System.out.println(resultado.getErro());
+            return;
+        }
+        System.out.println("Pendentes do tipo " + tipo + " (todas as datas): " + exameService.contarExamesPendentes(tipo));
+        if (resultado.getValor().isEmpty()) {
+            System.out.println("Nenhum exame pendente prescrito no período.");
+            return;
+        }
+        System.out.println("=== Exames pendentes prescritos no período: " + resultado.getValor().size() + " ===");
+        for (Exame exame : resultado.getValor()) {
+            System.out.printf("Data Prescrição: %s | Custo: %.2f%n", exame.getDataPrescricao().format(formatter),
+                    exame.getCusto());
+        }
+    }
+
+    private LocalDate lerData() {
+        return converterData(scanner.nextLine());
+    }
+
+    private LocalDate converterData(String texto) {
+        try {
+            return LocalDate.parse(texto, formatter);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * Lista os exames uma página por vez, sem pedir nada.
+     */
+    public void listarExames() {
+        paginacao.navegar(cursor -> exameService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                exameService::imprimirPagina);
+    }
+
+    // Lê o índice de um exame mostrando a lista uma página por vez
+    private String lerIndice(String mensagem) {
+        return paginacao.perguntar(mensagem, cursor -> exameService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                exameService::imprimirPagina);
+    }
+}
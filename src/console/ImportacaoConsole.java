@@ -0,0 +1,66 @@
+package console;
+
+import importacao.ImportadorCsv;
+import importacao.ResumoImportacao;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Scanner;
+
+/**
+ * Tela de console da importação em lote por arquivos CSV.
+ */
+public class ImportacaoConsole {
+
+    private final ImportadorCsv importador;
+    private final Scanner scanner;
+
+    public ImportacaoConsole(ImportadorCsv importador, Scanner scanner) {
+        this.importador = importador;
+        this.scanner = scanner;
+    }
+
+    public void importar() {
+        System.out.println("\n=== Importação de Dados (CSV) ===");
+        System.out.println("1. Pacientes (nome;cpf;dataNascimento)");
+        System.out.println("2. Médicos (nome;cpf;dataNascimento;crm;especialidade)");
+        System.out.println("3. Exames (tipo;dataPrescricao;dataRealizacao;resultado;custo)");
+        System.out.println("4. Medicamentos (nome;dosagem;posologia;preco)");
+        System.out.print("Selecione o tipo de registro: ");
+        String opcao = scanner.nextLine().trim();
+        if (!opcao.matches("[1-4]")) {
+            System.out.println("Opção inválida!");
+            return;
+        }
+
+        System.out.print("Caminho do arquivo CSV: ");
+        Path arquivo = Paths.get(scanner.nextLine().trim());
+        Path rejeitados = Paths.get(arquivo + ".rejeitados.csv");
+
+        try {
+            long inicio = System.nanoTime();
+            ResumoImportacao resumo;
+            switch (opcao) {
+                case "1":
+                    resumo = importador.importarPacientes(arquivo, rejeitados);
+                    break;
+                case "2":
+                    resumo = importador.importarMedicos(arquivo, rejeitados);
+                    break;
+                case "3":
+                    resumo = importador.importarExames(arquivo, rejeitados);
+                    break;
+                default:
+                    resumo = importador.importarMedicamentos(arquivo, rejeitados);
+            }
+            long milissegundos = (System.nanoTime() - inicio) / 1_000_000;
+            System.out.println(resumo + " | Tempo: " + milissegundos + " ms");
+            if (resumo.getRejeitadas() > 0) {
+                System.out.println("Linhas rejeitadas gravadas em: " + rejeitados);
+            }
+        } catch (IOException e) {
+            System.out.println("Erro ao importar o arquivo: " + e.getMessage());
+        }
+    }
+}
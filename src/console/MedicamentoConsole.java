@@ -0,0 +1,152 @@
+package console;
+
+import dto.MedicamentoRequest;
+import dto.Resultado;
+import model.Medicamento;
+import service.MedicamentoService;
+
+import java.util.Scanner;
+
+import static util.Validacoes.validarPreco;
+import static util.Validacoes.validarTextoObrigatorio;
+
+/**
+ * Telas de console do cadastro de medicamentos: coletam os dados e delegam ao MedicamentoService.
+ */
+public class MedicamentoConsole {
+
+    private final MedicamentoService medicamentoService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+
+    public MedicamentoConsole(MedicamentoService medicamentoService, Scanner scanner) {
+        this.medicamentoService = medicamentoService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    public void cadastrarMedicamento() {
+        System.out.println("=== Cadastro de Medicamento ===");
+
+        String nome = lerTextoObrigatorio("Digite o nome do medicamento: ", "Nome inválido! Informe um nome.");
+        String dosagem = lerTextoObrigatorio("Digite a dosagem (ex: 500mg): ",
+                "Dosagem inválida! Informe a dosagem.");
+        String posologia = lerTextoObrigatorio("Digite a posologia (ex: 1 comprimido a cada 8 horas): ",
+                "Posologia inválida! Informe as instruções de uso.");
+
+        // Validação do Preço
+        double preco;
+        while (true) {
+            System.out.print("Digite o preço do medicamento: ");
+            try {
+                preco = Double.parseDouble(scanner.nextLine());
+                String erro = validarPreco(preco);
+                if (erro == null) {
+                    break;
+                }
+                System.out.println(erro);
+            } catch (NumberFormatException e) {
+                System.out.println("Valor inválido! Informe um número.");
+            }
+        }
+
+        Resultado<Medicamento> resultado = medicamentoService.cadastrarMedicamento(
+                new MedicamentoRequest(nome, dosagem, posologia, preco));
+        System.out.println(resultado.isSucesso() ? "Medicamento cadastrado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Atualiza os dados de um medicamento cadastrado.
+     * Caso o campo seja deixado em branco, o valor atual é mantido.
+     */
+    public void atualizarMedicamento() {
+        System.out.println("=== Atualização de Medicamento ===");
+
+        // Listar medicamentos para seleção, uma página por vez
+        int indice;
+        try {
+            indice = Integer.parseInt(lerIndice("Informe o índice do medicamento que deseja atualizar").trim());
+        } catch (NumberFormatException e) {
+            System.out.println("Índice inválido!");
+            return;
+        }
+        Medicamento med = medicamentoService.buscarMedicamentoNoIndice(indice);
+        if (med == null) {
+            System.out.println("Índice não encontrado!");
+            return;
+        }
+
+        System.out.print("Nome (atual: " + med.getNome() + "): ");
+        String novoNome = scanner.nextLine();
+
+        System.out.print("Dosagem (atual: " + med.getDosagem() + "): ");
+        String novaDosagem = scanner.nextLine();
+
+        System.out.print("Posologia (atual: " + med.getPosologia() + "): ");
+        String novaPosologia = scanner.nextLine();
+
+        System.out.print("Preço (atual: " + med.getPreco() + "): ");
+        Double novoPreco = null;
+        String entrada = scanner.nextLine().trim();
+        while (!entrada.isEmpty()) {
+            try {
+                novoPreco = Double.parseDouble(entrada);
+                if (validarPreco(novoPreco) == null) {
+                    break;
+                }
+                novoPreco = null;
+                System.out.print("Preço não pode ser negativo. Informe um valor válido: ");
+            } catch (NumberFormatException e) {
+                System.out.print("Valor inválido! Informe um número: ");
+            }
+            entrada = scanner.nextLine().trim();
+        }
+
+        Resultado<Medicamento> resultado = medicamentoService.atualizarMedicamento(indice,
+                new MedicamentoRequest(novoNome, novaDosagem, novaPosologia, novoPreco));
+        System.out.println(resultado.isSucesso() ? "Medicamento atualizado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Remove um medicamento da lista com base no índice informado.
+     */
+    public String removerMedicamento() {
+        System.out.println("=== Remoção de Medicamento ===");
+
+        int indice;
+        try {
+            indice = Integer.parseInt(lerIndice("Informe o índice do medicamento que deseja remover").trim());
+        } catch (NumberFormatException e) {
+            return "Índice inválido!";
+        }
+        Resultado<Medicamento> resultado = medicamentoService.removerMedicamento(indice);
+        return resultado.isSucesso() ? "Medicamento removido com sucesso!" : resultado.getErro();
+    }
+
+    private String lerTextoObrigatorio(String mensagem, String mensagemErro) {
+        while (true) {
+            System.out.print(mensagem);
+            String valor = scanner.nextLine().trim();
+            String erro = validarTextoObrigatorio(valor, mensagemErro);
+            if (erro == null) {
+                return valor;
+            }
+            System.out.println(erro);
+        }
+    }
+
+    /**
+     * Lista os medicamentos uma página por vez, sem pedir nada.
+     */
+    public void listarMedicamentos() {
+        paginacao.navegar(cursor -> medicamentoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                medicamentoService::imprimirPagina);
+    }
+
+    // Lê o índice de um medicamento mostrando a lista uma página por vez
+    private String lerIndice(String mensagem) {
+        return paginacao.perguntar(mensagem,
+                cursor -> medicamentoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                medicamentoService::imprimirPagina);
+    }
+}
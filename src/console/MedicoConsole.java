@@ -0,0 +1,183 @@
+package console;
+
+import dto.MedicoRequest;
+import dto.Resultado;
+import model.Medico;
+import service.MedicoService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Scanner;
+
+import static util.Validacoes.validarCrm;
+import static util.Validacoes.validarDataNascimento;
+import static util.Validacoes.validarEspecialidade;
+import static util.Validacoes.validarNome;
+
+/**
+ * Telas de console do cadastro de médicos: coletam os dados e delegam ao MedicoService.
+ */
+public class MedicoConsole {
+
+    private final MedicoService medicoService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    public MedicoConsole(MedicoService medicoService, Scanner scanner) {
+        this.medicoService = medicoService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    public void cadastrarMedico() {
+        System.out.println("Bem vindo ao sistema de cadastro do médico:");
+
+        // Validação do Nome
+        String nome;
+        while (true) {
+            System.out.print("Digite o nome do Medico: ");
+            nome = scanner.nextLine();
+            String erro = validarNome(nome);
+            if (erro == null) {
+                break;
+            }
+            System.out.println(erro);
+        }
+
+        // Validação do CPF
+        String cpf;
+        while (true) {
+            System.out.print("Digite o CPF (apenas números): ");
+            cpf = scanner.nextLine();
+            if (!cpf.matches("\\d{11}")) {
+                System.out.println("CPF inválido! Digite exatamente 11 números.");
+                continue;
+            }
+            if (medicoService.buscarPorCpf(cpf) != null) {
+                System.out.println("Já existe um médico cadastrado com este CPF. Informe outro.");
+                continue;
+            }
+            break;
+        }
+
+        // Validação da Data de Nascimento
+        LocalDate dataNascimento = lerDataNascimento("Digite a Data de Nascimento (DD-MM-YYYY): ", false);
+
+        // Validação do CRM
+        String crm;
+        while (true) {
+            System.out.print("Digite o CRM: ");
+            crm = scanner.nextLine();
+            String erro = validarCrm(crm);
+            if (erro != null) {
+                System.out.println(erro);
+            } else if (medicoService.buscaPorCrm(crm) != null) {
+                System.out.println("Já existe um médico cadastrado com este CRM. Informe outro.");
+            } else {
+                break;
+            }
+        }
+
+        // Validação da Especialidade
+        String especialidade;
+        while (true) {
+            System.out.print("Digite a Especialidade: ");
+            especialidade = scanner.nextLine();
+            String erro = validarEspecialidade(especialidade);
+            if (erro == null) {
+                break;
+            }
+            System.out.println(erro);
+        }
+
+        Resultado<Medico> resultado = medicoService.cadastrarMedico(
+                new MedicoRequest(nome, cpf, dataNascimento, crm, especialidade));
+        System.out.println(resultado.isSucesso() ? "Médico cadastrado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Atualiza o cadastro do médico. Caso o usuário deixe o campo em branco, o valor atual é mantido.
+     */
+    public void atualizarCadastroMedico(Medico medico) {
+        if (medico == null) {
+            System.out.println("Médico não encontrado.");
+            return;
+        }
+        System.out.println("Atualizando cadastro do médico:");
+
+        System.out.print("Nome (atual: " + medico.getNome() + "): ");
+        String novoNome = scanner.nextLine();
+
+        // CPF com validação e verificação de duplicidade
+        System.out.print("CPF (apenas números) (atual: " + medico.getCpf() + "): ");
+        String novoCpf = scanner.nextLine();
+        while (!novoCpf.trim().isEmpty()) {
+            if (!novoCpf.matches("\\d{11}")) {
+                System.out.print("CPF inválido! Digite exatamente 11 números: ");
+                novoCpf = scanner.nextLine();
+                continue;
+            }
+            Medico existente = medicoService.buscarPorCpf(novoCpf);
+            if (existente != null && existente != medico) {
+                System.out.print("Já existe um médico com este CPF. Informe outro: ");
+                novoCpf = scanner.nextLine();
+                continue;
+            }
+            break;
+        }
+
+        LocalDate novaDataNascimento = lerDataNascimento("Data de Nascimento (DD-MM-YYYY) (atual: " +
+                medico.getDataNascimento().format(formatter) + "): ", true);
+
+        // CRM com verificação de duplicidade
+        System.out.print("CRM (atual: " + medico.getCrm() + "): ");
+        String novoCrm = scanner.nextLine();
+        while (!novoCrm.trim().isEmpty()) {
+            Medico existente = medicoService.buscaPorCrm(novoCrm);
+            if (existente != null && existente != medico) {
+                System.out.print("Já existe um médico cadastrado com este CRM. Informe outro: ");
+                novoCrm = scanner.nextLine();
+                continue;
+            }
+            break;
+        }
+
+        System.out.print("Especialidade (atual: " + medico.getEspecialidade() + "): ");
+        String novaEspecialidade = scanner.nextLine();
+
+        Resultado<Medico> resultado = medicoService.atualizarCadastroMedico(medico,
+                new MedicoRequest(novoNome, novoCpf, novaDataNascimento, novoCrm, novaEspecialidade));
+        System.out.println(resultado.isSucesso() ? "Cadastro do médico atualizado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Lê uma data de nascimento válida. Se "opcional" for true, uma linha em branco retorna null.
+     */
+    private LocalDate lerDataNascimento(String mensagem, boolean opcional) {
+        System.out.print(mensagem);
+        while (true) {
+            String dataInput = scanner.nextLine();
+            if (opcional && dataInput.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                LocalDate data = LocalDate.parse(dataInput, formatter);
+                String erro = validarDataNascimento(data);
+                if (erro == null) {
+                    return data;
+                }
+                System.out.print(erro + " Digite uma data válida: ");
+            } catch (Exception e) {
+                System.out.print("Formato inválido! Use DD-MM-YYYY: ");
+            }
+        }
+    }
+
+    /**
+     * Lista os médicos uma página por vez.
+     */
+    public void listarMedicos() {
+        paginacao.navegar(cursor -> medicoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA), medicoService::imprimirPagina);
+    }
+}
@@ -0,0 +1,163 @@
+package console;
+
+import dto.PacienteRequest;
+import dto.Resultado;
+import model.Paciente;
+import service.PacienteService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Scanner;
+
+import static util.Validacoes.validarDataNascimento;
+import static util.Validacoes.validarNome;
+
+/**
+ * Telas de console do cadastro de pacientes: coletam os dados e delegam ao PacienteService.
+ */
+public class PacienteConsole {
+
+    // Candidatos mostrados na busca por nome
+    private static final int RESULTADOS_BUSCA = 10;
+
+    private final PacienteService pacienteService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    public PacienteConsole(PacienteService pacienteService, Scanner scanner) {
+        this.pacienteService = pacienteService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    public void cadastrarPaciente() {
+        System.out.println("Bem vindo ao sistema de cadastro do paciente:");
+
+        // Validação do nome
+        String nome;
+        while (true) {
+            System.out.print("Digite o nome do Paciente: ");
+            nome = scanner.nextLine();
+            String erro = validarNome(nome);
+            if (erro == null) {
+                break;
+            }
+            System.out.println(erro);
+        }
+
+        // Validação do CPF
+        String cpf;
+        while (true) {
+            System.out.print("Digite o CPF (apenas números): ");
+            cpf = scanner.nextLine();
+            if (!cpf.matches("\\d{11}")) {
+                System.out.println("CPF inválido! Digite exatamente 11 números.");
+                continue;
+            }
+            if (pacienteService.buscarPorCpf(cpf) != null) {
+                System.out.println("Já existe um paciente cadastrado com este CPF. Informe outro.");
+                continue;
+            }
+            break;
+        }
+
+        // Validação da Data de Nascimento
+        LocalDate dataNascimento = lerDataNascimento("Digite a Data de Nascimento (DD-MM-YYYY): ", false);
+
+        Resultado<Paciente> resultado = pacienteService.cadastrarPaciente(
+                new PacienteRequest(nome, cpf, dataNascimento));
+        System.out.println(resultado.isSucesso() ? "Paciente cadastrado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Atualiza os dados do paciente. Se o usuário deixar o campo em branco, o valor atual é mantido.
+     */
+    public void atualizarCadastroPaciente(Paciente paciente) {
+        if (paciente == null) {
+            System.out.println("Paciente não encontrado.");
+            return;
+        }
+        System.out.println("Atualizando cadastro do paciente:");
+
+        System.out.print("Nome (atual: " + paciente.getNome() + "): ");
+        String novoNome = scanner.nextLine();
+
+        // CPF (com validação e verificação de duplicidade)
+        System.out.print("CPF (apenas números) (atual: " + paciente.getCpf() + "): ");
+        String novoCpf = scanner.nextLine();
+        while (!novoCpf.trim().isEmpty()) {
+            if (!novoCpf.matches("\\d{11}")) {
+                System.out.print("CPF inválido! Digite exatamente 11 números: ");
+                novoCpf = scanner.nextLine();
+                continue;
+            }
+            Paciente existente = pacienteService.buscarPorCpf(novoCpf);
+            if (existente != null && existente != paciente) {
+                System.out.print("Já existe um paciente com este CPF. Informe outro: ");
+                novoCpf = scanner.nextLine();
+                continue;
+            }
+            break;
+        }
+
+        LocalDate novaDataNascimento = lerDataNascimento("Data de Nascimento (DD-MM-YYYY) (atual: " +
+                paciente.getDataNascimento().format(formatter) + "): ", true);
+
+        Resultado<Paciente> resultado = pacienteService.atualizarCadastroPaciente(paciente,
+                new PacienteRequest(novoNome, novoCpf, novaDataNascimento));
+        System.out.println(resultado.isSucesso() ? "Cadastro atualizado com sucesso!" : resultado.getErro());
+    }
+
+    /**
+     * Lê uma data de nascimento válida. Se "opcional" for true, uma linha em branco retorna null.
+     */
+    private LocalDate lerDataNascimento(String mensagem, boolean opcional) {
+        System.out.print(mensagem);
+        while (true) {
+            String dataInput = scanner.nextLine();
+            if (opcional && dataInput.trim().isEmpty()) {
+                return null;
+            }
+            try {
+                LocalDate data = LocalDate.parse(dataInput, formatter);
+                String erro = validarDataNascimento(data);
+                if (erro == null) {
+                    return data;
+                }
+                System.out.print(erro + " Digite uma data válida: ");
+            } catch (Exception e) {
+                System.out.print("Formato inválido! Use DD-MM-YYYY: ");
+            }
+        }
+    }
+
+    /**
+     * Busca pacientes por parte do nome ou por um nome com erros de digitação e mostra os mais
+     * parecidos, com o CPF para as demais telas.
+     */
+    public void buscarPorNome() {
+        System.out.print("Nome ou parte do nome: ");
+        String nome = scanner.nextLine();
+        LocalDate dataNascimento = lerDataNascimento("Data de Nascimento (DD-MM-YYYY) (em branco para qualquer): ", true);
+
+        List<Paciente> encontrados = pacienteService.buscarPorNome(nome, dataNascimento, RESULTADOS_BUSCA);
+        if (encontrados.isEmpty()) {
+            System.out.println("Nenhum paciente encontrado.");
+            return;
+        }
+        System.out.println("Pacientes encontrados (do mais parecido para o menos):");
+        for (Paciente p : encontrados) {
+            System.out.println("Nome: " + p.getNome() + " - CPF: " + p.getCpf() + " - Data de Nascimento: " +
+                    p.getDataNascimento().format(formatter));
+        }
+    }
+
+    /**
+     * Lista os pacientes uma página por vez.
+     */
+    public void listarPacientes() {
+        paginacao.navegar(cursor -> pacienteService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA), pacienteService::imprimirPagina);
+    }
+}
@@ -0,0 +1,115 @@
+package console;
+
+import dto.Resultado;
+import dto.ResumoMensal;
+import model.Medico;
+import model.Pagamento;
+import model.StatusConsulta;
+import service.ConsultaService;
+import service.MedicoService;
+import service.PacienteService;
+import service.PagamentoService;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Scanner;
+
+/**
+ * Tela de console de pagamentos: identifica o paciente, confirma o valor e delega ao PagamentoService.
+ * Mostra também o resumo financeiro de um médico no mês.
+ */
+public class PagamentoConsole {
+
+    private final PagamentoService pagamentoService;
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ConsultaService consultaService;
+    private final Scanner scanner;
+    private final Paginacao paginacao;
+
+    private final DateTimeFormatter mesFormatter = DateTimeFormatter.ofPattern("MM-yyyy");
+
+    public PagamentoConsole(PagamentoService pagamentoService, PacienteService pacienteService,
+                            MedicoService medicoService, ConsultaService consultaService, Scanner scanner) {
+        this.pagamentoService = pagamentoService;
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.consultaService = consultaService;
+        this.scanner = scanner;
+        this.paginacao = new Paginacao(scanner);
+    }
+
+    public void realizarPagamento() {
+        String cpf = paginacao.escolher("Digite o CPF do paciente que deseja pagar",
+                cursor -> pacienteService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                pacienteService::imprimirPagina);
+
+        var paciente = pacienteService.buscarPorCpf(cpf);
+
+        if (paciente == null) {
+            System.out.println("Paciente não encontrado.");
+            return;
+        }
+
+        if (paciente.getHistoricoMedico().isEmpty()) {
+            System.out.println("O paciente não tem consultas pendentes para pagamento.");
+            return;
+        }
+
+        if (!paciente.temPagamentoPendente()) {
+            System.out.println("Todas as consultas já foram pagas.");
+            return;
+        }
+
+        double totalPendente = paciente.getSaldoDevedor();
+        System.out.println("Total pendente: R$" + totalPendente);
+
+        while (true) {
+            System.out.print("Digite o valor total para pagamento (R$" + totalPendente + "): ");
+            try {
+                double valorPago = Double.parseDouble(scanner.nextLine());
+                Resultado<Pagamento> resultado = pagamentoService.realizarPagamento(paciente, valorPago);
+                if (resultado.isSucesso()) {
+                    System.out.println("Pagamento de R$" + totalPendente + " realizado com sucesso!");
+                    return;
+                }
+                System.out.println(resultado.getErro());
+            } catch (NumberFormatException e) {
+                System.out.println("Erro! Digite um valor numérico válido.");
+            }
+        }
+    }
+
+    /**
+     * Mostra as consultas de um médico no mês, por status, e o valor ainda não pago. Os totais
+     * são lidos prontos do ConsultaService.
+     */
+    public void resumoFinanceiro() {
+        Medico medico = medicoService.buscaPorCrm(paginacao.escolher("CRM do médico",
+                cursor -> medicoService.buscarPagina(cursor, Paginacao.ITENS_POR_PAGINA),
+                medicoService::imprimirPagina));
+        if (medico == null) {
+            System.out.println("Médico não encontrado.");
+            return;
+        }
+
+        System.out.print("Mês (MM-YYYY): ");
+        YearMonth mes;
+        try {
+            mes = YearMonth.parse(scanner.nextLine().trim(), mesFormatter);
+        } catch (DateTimeParseException e) {
+            System.out.println("Formato de mês inválido. Use MM-YYYY.");
+            return;
+        }
+
+        ResumoMensal resumo = consultaService.resumoMensal(medico, mes);
+        System.out.println("\n=== Resumo de " + medico.getNome() + " em " + mes.format(mesFormatter) + " ===");
+        for (StatusConsulta status : StatusConsulta.values()) {
+            System.out.printf("%s: %d consulta(s) | R$%.2f%n", status, resumo.getQuantidade(status),
+                    resumo.getValor(status));
+        }
+        System.out.printf("Em aberto no mês: R$%.2f%n", resumo.getValorEmAberto());
+        System.out.printf("Total a receber da clínica: R$%.2f%n", consultaService.getValorAReceber());
+    }
+}
@@ -0,0 +1,77 @@
+package console;
+
+import dto.Pagina;
+
+import java.util.Scanner;
+import java.util.function.Consumer;
+import java.util.function.LongFunction;
+
+/**
+ * Listagens do console uma página por vez: Enter mostra a próxima página. Nas telas que pedem
+ * um valor (CPF, CRM ou índice), o usuário pode digitá-lo em qualquer página, sem precisar ver
+ * a lista inteira.
+ */
+final class Paginacao {
+
+    static final int ITENS_POR_PAGINA = 20;
+
+    private final Scanner scanner;
+
+    Paginacao(Scanner scanner) {
+        this.scanner = scanner;
+    }
+
+    /**
+     * Pergunta o valor direto; só se a resposta ficar em branco mostra as páginas, como em
+     * {@link #perguntar}.
+     */
+    <T> String escolher(String pergunta, LongFunction<Pagina<T>> buscar, Consumer<Pagina<T>> imprimir) {
+        System.out.print(pergunta + " (Enter para ver a lista): ");
+        String resposta = scanner.nextLine();
+        if (!resposta.trim().isEmpty()) {
+            return resposta;
+        }
+        return perguntar(pergunta, buscar, imprimir);
+    }
+
+    /**
+     * Mostra as páginas até o usuário responder a pergunta com algum texto, que é devolvido.
+     * Na última página, a resposta é devolvida mesmo em branco.
+     */
+    <T> String perguntar(String pergunta, LongFunction<Pagina<T>> buscar, Consumer<Pagina<T>> imprimir) {
+        long cursor = Pagina.INICIO;
+        while (true) {
+            Pagina<T> pagina = buscar.apply(cursor);
+            imprimir.accept(pagina);
+            if (pagina.temProxima()) {
+                System.out.print(pergunta + " (Enter para a próxima página): ");
+            } else {
+                System.out.print(pergunta + ": ");
+            }
+            String resposta = scanner.nextLine();
+            if (!pagina.temProxima() || !resposta.trim().isEmpty()) {
+                return resposta;
+            }
+            cursor = pagina.getProximoCursor();
+        }
+    }
+
+    /**
+     * Mostra as páginas até a última ou até o usuário digitar algum texto.
+     */
+    <T> void navegar(LongFunction<Pagina<T>> buscar, Consumer<Pagina<T>> imprimir) {
+        long cursor = Pagina.INICIO;
+        while (true) {
+            Pagina<T> pagina = buscar.apply(cursor);
+            imprimir.accept(pagina);
+            if (!pagina.temProxima()) {
+                return;
+            }
+            System.out.print("Enter para a próxima página ou digite algo para voltar: ");
+            if (!scanner.nextLine().trim().isEmpty()) {
+                return;
+            }
+            cursor = pagina.getProximoCursor();
+        }
+    }
+}
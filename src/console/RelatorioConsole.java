@@ -0,0 +1,88 @@
+package console;
+
+import dto.LinhaRelatorio;
+import dto.Resultado;
+import service.RelatorioService;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * Tela de console dos relatórios de consultas: pede o período e imprime os grupos calculados
+ * pelo RelatorioService.
+ */
+public class RelatorioConsole {
+
+    private final RelatorioService relatorioService;
+    private final Scanner scanner;
+
+    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    public RelatorioConsole(RelatorioService relatorioService, Scanner scanner) {
+        this.relatorioService = relatorioService;
+        this.scanner = scanner;
+    }
+
+    public void receitaPorEspecialidadeETrimestre() {
+        LocalDate[] periodo = lerPeriodo();
+        if (periodo == null) {
+            return;
+        }
+        Resultado<List<LinhaRelatorio>> resultado =
+                relatorioService.receitaPorEspecialidadeETrimestre(periodo[0], periodo[1]);
+        if (!resultado.isSucesso()) {
+            System.out.println(resultado.getErro());
+            return;
+        }
+        if (resultado.getValor().isEmpty()) {
+            System.out.println("Nenhuma consulta realizada no período.");
+            return;
+        }
+        for (LinhaRelatorio linha : resultado.getValor()) {
+            System.out.printf("%s: %d consulta(s) | R$%.2f%n", linha.getRotulo(), linha.getQuantidade(),
+                    linha.getSoma());
+        }
+    }
+
+    public void duracaoMediaPorMedico() {
+        LocalDate[] periodo = lerPeriodo();
+        if (periodo == null) {
+            return;
+        }
+        Resultado<List<LinhaRelatorio>> resultado = relatorioService.duracaoPorMedico(periodo[0], periodo[1]);
+        if (!resultado.isSucesso()) {
+            System.out.println(resultado.getErro());
+            return;
+        }
+        if (resultado.getValor().isEmpty()) {
+            System.out.println("Nenhuma consulta no período.");
+            return;
+        }
+        for (LinhaRelatorio linha : resultado.getValor()) {
+            System.out.printf("%s: %d consulta(s) | média de %.1f minutos%n", linha.getRotulo(),
+                    linha.getQuantidade(), linha.getMedia());
+        }
+    }
+
+    // Início e fim do período (em branco deixa o extremo aberto), ou null se a data for inválida
+    private LocalDate[] lerPeriodo() {
+        try {
+            System.out.print("Data inicial (DD-MM-YYYY, em branco para todas): ");
+            LocalDate inicio = lerData();
+            System.out.print("Data final (DD-MM-YYYY, em branco para todas): ");
+            LocalDate fim = lerData();
+            return new LocalDate[] {inicio, fim};
+        } catch (DateTimeParseException e) {
+            System.out.println("Formato de data inválido. Use DD-MM-YYYY.");
+            return null;
+        }
+    }
+
+    private LocalDate lerData() {
+        String texto = scanner.nextLine().trim();
+        return texto.isEmpty() ? null : LocalDate.parse(texto, dateFormatter);
+    }
+}
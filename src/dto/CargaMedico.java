@@ -0,0 +1,25 @@
+package dto;
+
+import model.Medico;
+
+/**
+ * Médico e os minutos ocupados na agenda dele num período (consultas canceladas não contam).
+ */
+public class CargaMedico {
+
+    private final Medico medico;
+    private final int minutosOcupados;
+
+    public CargaMedico(Medico medico, int minutosOcupados) {
+        this.medico = medico;
+        this.minutosOcupados = minutosOcupados;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public int getMinutosOcupados() {
+        return minutosOcupados;
+    }
+}
@@ -0,0 +1,74 @@
+package dto;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Dados para agendamento ou atualização de uma consulta.
+ * O paciente é identificado pelo CPF, o médico pelo CRM, os exames pelo tipo e os
+ * medicamentos pelo nome. Na atualização, campos nulos mantêm o valor atual e
+ * paciente, médico e prescrições não são alterados.
+ */
+public class ConsultaRequest {
+
+    private final LocalDate data;
+    private final LocalTime horario;
+    private final Integer duracao;
+    private final String status;
+    private final String cpfPaciente;
+    private final String crmMedico;
+    private final List<String> tiposExame;
+    private final List<String> nomesMedicamentos;
+    private final Double valor;
+
+    public ConsultaRequest(LocalDate data, LocalTime horario, Integer duracao, String status, String cpfPaciente,
+                           String crmMedico, List<String> tiposExame, List<String> nomesMedicamentos, Double valor) {
+        this.data = data;
+        this.horario = horario;
+        this.duracao = duracao;
+        this.status = status;
+        this.cpfPaciente = cpfPaciente;
+        this.crmMedico = crmMedico;
+        this.tiposExame = tiposExame == null ? new ArrayList<>() : tiposExame;
+        this.nomesMedicamentos = nomesMedicamentos == null ? new ArrayList<>() : nomesMedicamentos;
+        this.valor = valor;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public LocalTime getHorario() {
+        return horario;
+    }
+
+    public Integer getDuracao() {
+        return duracao;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getCpfPaciente() {
+        return cpfPaciente;
+    }
+
+    public String getCrmMedico() {
+        return crmMedico;
+    }
+
+    public List<String> getTiposExame() {
+        return tiposExame;
+    }
+
+    public List<String> getNomesMedicamentos() {
+        return nomesMedicamentos;
+    }
+
+    public Double getValor() {
+        return valor;
+    }
+}
@@ -0,0 +1,45 @@
+package dto;
+
+import java.time.LocalDate;
+
+/**
+ * Dados para cadastro ou atualização de um exame.
+ * Na atualização, campos nulos ou em branco mantêm o valor atual.
+ */
+public class ExameRequest {
+
+    private final String tipo;
+    private final LocalDate dataPrescricao;
+    private final LocalDate dataRealizacao;
+    private final String resultado;
+    private final Double custo;
+
+    public ExameRequest(String tipo, LocalDate dataPrescricao, LocalDate dataRealizacao, String resultado,
+                        Double custo) {
+        this.tipo = tipo;
+        this.dataPrescricao = dataPrescricao;
+        this.dataRealizacao = dataRealizacao;
+        this.resultado = resultado;
+        this.custo = custo;
+    }
+
+    public String getTipo() {
+        return tipo;
+    }
+
+    public LocalDate getDataPrescricao() {
+        return dataPrescricao;
+    }
+
+    public LocalDate getDataRealizacao() {
+        return dataRealizacao;
+    }
+
+    public String getResultado() {
+        return resultado;
+    }
+
+    public Double getCusto() {
+        return custo;
+    }
+}
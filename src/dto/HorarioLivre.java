@@ -0,0 +1,35 @@
+package dto;
+
+import model.Medico;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+/**
+ * Horário livre na agenda de um médico, devolvido pela busca de próximos horários.
+ * É só uma indicação: o horário pode ser ocupado antes do agendamento.
+ */
+public class HorarioLivre {
+
+    private final Medico medico;
+    private final LocalDate data;
+    private final LocalTime horario;
+
+    public HorarioLivre(Medico medico, LocalDate data, LocalTime horario) {
+        this.medico = medico;
+        this.data = data;
+        this.horario = horario;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public LocalDate getData() {
+        return data;
+    }
+
+    public LocalTime getHorario() {
+        return horario;
+    }
+}
@@ -0,0 +1,33 @@
+package dto;
+
+/**
+ * Um grupo do resultado de um relatório: quantidade de consultas e soma da medida.
+ */
+public class LinhaRelatorio {
+
+    private final String rotulo;
+    private final long quantidade;
+    private final double soma;
+
+    public LinhaRelatorio(String rotulo, long quantidade, double soma) {
+        this.rotulo = rotulo;
+        this.quantidade = quantidade;
+        this.soma = soma;
+    }
+
+    public String getRotulo() {
+        return rotulo;
+    }
+
+    public long getQuantidade() {
+        return quantidade;
+    }
+
+    public double getSoma() {
+        return soma;
+    }
+
+    public double getMedia() {
+        return quantidade == 0 ? 0 : soma / quantidade;
+    }
+}
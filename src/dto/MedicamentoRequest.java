@@ -0,0 +1,36 @@
+package dto;
+
+/**
+ * Dados para cadastro ou atualização de um medicamento.
+ * Na atualização, campos nulos ou em branco mantêm o valor atual.
+ */
+public class MedicamentoRequest {
+
+    private final String nome;
+    private final String dosagem;
+    private final String posologia;
+    private final Double preco;
+
+    public MedicamentoRequest(String nome, String dosagem, String posologia, Double preco) {
+        this.nome = nome;
+        this.dosagem = dosagem;
+        this.posologia = posologia;
+        this.preco = preco;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getDosagem() {
+        return dosagem;
+    }
+
+    public String getPosologia() {
+        return posologia;
+    }
+
+    public Double getPreco() {
+        return preco;
+    }
+}
@@ -0,0 +1,44 @@
+package dto;
+
+import java.time.LocalDate;
+
+/**
+ * Dados para cadastro ou atualização de um médico.
+ * Na atualização, campos nulos ou em branco mantêm o valor atual.
+ */
+public class MedicoRequest {
+
+    private final String nome;
+    private final String cpf;
+    private final LocalDate dataNascimento;
+    private final String crm;
+    private final String especialidade;
+
+    public MedicoRequest(String nome, String cpf, LocalDate dataNascimento, String crm, String especialidade) {
+        this.nome = nome;
+        this.cpf = cpf;
+        this.dataNascimento = dataNascimento;
+        this.crm = crm;
+        this.especialidade = especialidade;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public LocalDate getDataNascimento() {
+        return dataNascimento;
+    }
+
+    public String getCrm() {
+        return crm;
+    }
+
+    public String getEspecialidade() {
+        return especialidade;
+    }
+}
@@ -0,0 +1,32 @@
+package dto;
+
+import java.time.LocalDate;
+
+/**
+ * Dados para cadastro ou atualização de um paciente.
+ * Na atualização, campos nulos ou em branco mantêm o valor atual.
+ */
+public class PacienteRequest {
+
+    private final String nome;
+    private final String cpf;
+    private final LocalDate dataNascimento;
+
+    public PacienteRequest(String nome, String cpf, LocalDate dataNascimento) {
+        this.nome = nome;
+        this.cpf = cpf;
+        this.dataNascimento = dataNascimento;
+    }
+
+    public String getNome() {
+        return nome;
+    }
+
+    public String getCpf() {
+        return cpf;
+    }
+
+    public LocalDate getDataNascimento() {
+        return dataNascimento;
+    }
+}
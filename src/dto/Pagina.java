@@ -0,0 +1,41 @@
+package dto;
+
+import java.util.List;
+
+/**
+ * Página de uma listagem. A primeira página é pedida com o cursor {@link #INICIO}; as seguintes
+ * com o cursor devolvido pela página anterior, que só tem sentido para o serviço que o gerou.
+ */
+public class Pagina<T> {
+
+    public static final long INICIO = 0;
+    public static final long FIM = -1;
+
+    private final List<T> itens;
+    private final int primeiroIndice;
+    private final long proximoCursor;
+
+    public Pagina(List<T> itens, int primeiroIndice, long proximoCursor) {
+        this.itens = itens;
+        this.primeiroIndice = primeiroIndice;
+        this.proximoCursor = proximoCursor;
+    }
+
+    public List<T> getItens() {
+        return itens;
+    }
+
+    // Índice do primeiro item na listagem completa, no momento da busca
+    public int getPrimeiroIndice() {
+        return primeiroIndice;
+    }
+
+    // Cursor da próxima página, ou FIM se esta for a última
+    public long getProximoCursor() {
+        return proximoCursor;
+    }
+
+    public boolean temProxima() {
+        return proximoCursor != FIM;
+    }
+}
@@ -0,0 +1,30 @@
+package dto;
+
+/**
+ * O que ainda aponta para um paciente ou médico: consultas na lista (e quantas delas não foram
+ * pagas) e pagamentos de consultas dele, inclusive de consultas já removidas.
+ */
+public class Referencias {
+
+    private final int consultas;
+    private final int consultasPendentes;
+    private final int pagamentos;
+
+    public Referencias(int consultas, int consultasPendentes, int pagamentos) {
+        this.consultas = consultas;
+        this.consultasPendentes = consultasPendentes;
+        this.pagamentos = pagamentos;
+    }
+
+    public int getConsultas() {
+        return consultas;
+    }
+
+    public int getConsultasPendentes() {
+        return consultasPendentes;
+    }
+
+    public int getPagamentos() {
+        return pagamentos;
+    }
+}
@@ -0,0 +1,36 @@
+package dto;
+
+/**
+ * Resultado de uma operação dos serviços: contém o valor produzido em caso de sucesso
+ * ou a mensagem de erro de validação em caso de falha.
+ */
+public class Resultado<T> {
+
+    private final T valor;
+    private final String erro;
+
+    private Resultado(T valor, String erro) {
+        this.valor = valor;
+        this.erro = erro;
+    }
+
+    public static <T> Resultado<T> sucesso(T valor) {
+        return new Resultado<>(valor, null);
+    }
+
+    public static <T> Resultado<T> falha(String erro) {
+        return new Resultado<>(null, erro);
+    }
+
+    public boolean isSucesso() {
+        return erro == null;
+    }
+
+    public T getValor() {
+        return valor;
+    }
+
+    public String getErro() {
+        return erro;
+    }
+}
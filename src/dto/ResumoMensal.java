@@ -0,0 +1,48 @@
+package dto;
+
+import model.Medico;
+import model.StatusConsulta;
+
+import java.time.YearMonth;
+
+/**
+ * Totais das consultas de um médico num mês: quantidade e valor por status e o valor ainda não
+ * pago (de qualquer status, como na conta do paciente).
+ */
+public class ResumoMensal {
+
+    private final Medico medico;
+    private final YearMonth mes;
+    private final long[] quantidades;
+    private final long[] valoresCentavos;
+    private final long emAbertoCentavos;
+
+    public ResumoMensal(Medico medico, YearMonth mes, long[] quantidades, long[] valoresCentavos,
+                        long emAbertoCentavos) {
+        this.medico = medico;
+        this.mes = mes;
+        this.quantidades = quantidades;
+        this.valoresCentavos = valoresCentavos;
+        this.emAbertoCentavos = emAbertoCentavos;
+    }
+
+    public Medico getMedico() {
+        return medico;
+    }
+
+    public YearMonth getMes() {
+        return mes;
+    }
+
+    public long getQuantidade(StatusConsulta status) {
+        return quantidades[status.ordinal()];
+    }
+
+    public double getValor(StatusConsulta status) {
+        return valoresCentavos[status.ordinal()] / 100.0;
+    }
+
+    public double getValorEmAberto() {
+        return emAbertoCentavos / 100.0;
+    }
+}
@@ -0,0 +1,18 @@
+package eventos;
+
+/**
+ * Quem acompanha as alterações pelo BarramentoEventos (caches, índices de busca, auditoria,
+ * notificações). Cada assinante roda na sua própria thread e recebe todos os eventos, na ordem
+ * de publicação, menos os descartados com o anel cheio e os de alterações que falharam depois
+ * do aviso (ver BarramentoEventos).
+ */
+@FunctionalInterface
+public interface Assinante {
+
+    /**
+     * Chamado para cada evento; "fimDoLote" indica o último evento disponível no momento, o
+     * ponto para gravar ou enviar o que foi acumulado. Uma exceção é contada em
+     * {@link BarramentoEventos#contarFalhas()} e não interrompe a entrega dos seguintes.
+     */
+    void aoReceber(Evento evento, boolean fimDoLote);
+}
@@ -0,0 +1,348 @@
+package eventos;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+import persistencia.Diario;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Publica as alterações dos serviços para assinantes que rodam em outras threads. É um Diario,
+ * então basta ligá-lo aos serviços (sozinho ou junto com o diário em arquivo, ver
+ * {@link Diario#e}) para receber todas as alterações sem mexer nos métodos dos serviços.
+ *
+ * Os eventos vão para um anel de tamanho fixo, com todos os objetos Evento criados na
+ * construção, sem criar objetos ao publicar. O serviço avisa o diário com as suas travas
+ * seguras e antes de aplicar a alteração: nesse momento o evento só reserva a próxima
+ * sequência (compareAndSet) e preenche a posição, o que mantém a ordem das alterações. A
+ * posição é marcada como publicada em confirmar(), que o serviço chama depois de aplicar e
+ * soltar as travas, ou no próximo aviso da mesma thread (remoções em cascata e lotes), quando a
+ * alteração anterior já foi aplicada. Assim um assinante que lê de volta pelos serviços já
+ * encontra a alteração do evento. Se a alteração falhar depois do aviso, o serviço chama
+ * cancelar(): a posição é publicada marcada como cancelada, os assinantes passam por ela sem
+ * recebê-la e não ficam esperando uma posição que nunca seria publicada.
+ *
+ * Cada assinante tem uma thread e um cursor próprios e lê em lotes tudo o que já foi
+ * publicado. Quem publica nunca espera (está com as travas do serviço seguras): se o assinante
+ * mais lento está uma volta inteira atrás, o evento é descartado na hora, e um assinante lento
+ * ou parado não atrasa as alterações. Os descartes são contados ({@link #contarDescartados()})
+ * e cada evento leva o total até ele ({@link Evento#getDescartadosAntes()}), para o assinante
+ * perceber que perdeu alterações.
+ */
+public class BarramentoEventos implements Diario, AutoCloseable {
+
+    // Eventos entregues a um assinante antes de ele avançar o cursor e liberar espaço
+    private static final int LOTE_MAXIMO = 256;
+    // Espera ociosa do assinante: até 1 ms entre verificações quando não há eventos
+    private static final long ESPERA_MAXIMA_NANOS = 1_000_000;
+
+    private final Evento[] eventos;
+    private final int mascara;
+    private final AtomicLong proxima = new AtomicLong();
+    private final AtomicLong descartados = new AtomicLong();
+    private final Leitor[] leitores;
+    private final ThreadLocal<Reserva> reservas = ThreadLocal.withInitial(Reserva::new);
+    // Menor cursor visto da última vez; só cresce, então um valor antigo só faz recalcular antes
+    private volatile long menorCursor = -1;
+    private volatile boolean fechando;
+
+    /**
+     * Cria o anel com "capacidade" eventos (potência de 2) e inicia uma thread por assinante.
+     * Com o anel cheio, os eventos são descartados sem espera (ver a classe).
+     */
+    public BarramentoEventos(int capacidade, Assinante... assinantes) {
+        if (capacidade < 2 || Integer.bitCount(capacidade) != 1) {
+            throw new IllegalArgumentException("A capacidade deve ser uma potência de 2: " + capacidade);
+        }
+        eventos = new Evento[capacidade];
+        for (int i = 0; i < capacidade; i++) {
+            eventos[i] = new Evento();
+        }
+        mascara = capacidade - 1;
+        leitores = new Leitor[assinantes.length];
+        for (int i = 0; i < assinantes.length; i++) {
+            leitores[i] = new Leitor(assinantes[i], "eventos-" + (i + 1));
+        }
+        for (Leitor leitor : leitores) {
+            leitor.thread.start();
+        }
+    }
+
+    /**
+     * Eventos descartados até agora por falta de espaço no anel.
+     */
+    public long contarDescartados() {
+        return descartados.get();
+    }
+
+    /**
+     * Exceções lançadas pelos assinantes até agora.
+     */
+    public long contarFalhas() {
+        long falhas = 0;
+        for (Leitor leitor : leitores) {
+            falhas += leitor.falhas;
+        }
+        return falhas;
+    }
+
+    /**
+     * Espera os assinantes receberem tudo o que já foi publicado e encerra as threads. Deve ser
+     * chamado depois que os serviços pararem de alterar; publicar depois disso lança
+     * IllegalStateException.
+     */
+    @Override
+    public void close() {
+        fechando = true;
+        for (Leitor leitor : leitores) {
+            LockSupport.unpark(leitor.thread);
+        }
+        for (Leitor leitor : leitores) {
+            boolean interrompida = false;
+            while (leitor.thread.isAlive()) {
+                try {
+                    leitor.thread.join();
+                } catch (InterruptedException e) {
+                    interrompida = true;
+                }
+            }
+            if (interrompida) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Libera para os assinantes o evento da última alteração desta thread.
+     */
+    @Override
+    public void confirmar() {
+        liberar(reservas.get());
+    }
+
+    /**
+     * Publica marcado como cancelado o evento da última alteração desta thread, que falhou
+     * depois do aviso: os assinantes não o recebem.
+     */
+    @Override
+    public void cancelar() {
+        Reserva reserva = reservas.get();
+        long sequencia = reserva.sequencia;
+        if (sequencia >= 0) {
+            eventos[(int) sequencia & mascara].cancelar();
+            liberar(reserva);
+        }
+    }
+
+    @Override
+    public void pacienteCadastrado(String cpf, PacienteRequest request) {
+        publicar(TipoEvento.PACIENTE_CADASTRADO, request, null, cpf, 0, 0);
+    }
+
+    @Override
+    public void pacienteAtualizado(String cpfAnterior, String cpf, PacienteRequest request) {
+        publicar(TipoEvento.PACIENTE_ATUALIZADO, request, cpfAnterior, cpf, 0, 0);
+    }
+
+    @Override
+    public void pacienteRemovido(String cpf) {
+        publicar(TipoEvento.PACIENTE_REMOVIDO, null, null, cpf, 0, 0);
+    }
+
+    @Override
+    public void medicoCadastrado(String crm, MedicoRequest request) {
+        publicar(TipoEvento.MEDICO_CADASTRADO, request, null, crm, 0, 0);
+    }
+
+    @Override
+    public void medicoAtualizado(String crmAnterior, String crm, MedicoRequest request) {
+        publicar(TipoEvento.MEDICO_ATUALIZADO, request, crmAnterior, crm, 0, 0);
+    }
+
+    @Override
+    public void medicoRemovido(String crm) {
+        publicar(TipoEvento.MEDICO_REMOVIDO, null, null, crm, 0, 0);
+    }
+
+    @Override
+    public void exameCadastrado(long id, ExameRequest request) {
+        publicar(TipoEvento.EXAME_CADASTRADO, request, null, null, id, 0);
+    }
+
+    @Override
+    public void exameAtualizado(int indice, long id, ExameRequest request) {
+        publicar(TipoEvento.EXAME_ATUALIZADO, request, null, null, id, 0);
+    }
+
+    @Override
+    public void exameRemovido(int indice, long id) {
+        publicar(TipoEvento.EXAME_REMOVIDO, null, null, null, id, 0);
+    }
+
+    @Override
+    public void medicamentoCadastrado(long id, MedicamentoRequest request) {
+        publicar(TipoEvento.MEDICAMENTO_CADASTRADO, request, null, null, id, 0);
+    }
+
+    @Override
+    public void medicamentoAtualizado(int indice, long id, MedicamentoRequest request) {
+        publicar(TipoEvento.MEDICAMENTO_ATUALIZADO, request, null, null, id, 0);
+    }
+
+    @Override
+    public void medicamentoRemovido(int indice, long id) {
+        publicar(TipoEvento.MEDICAMENTO_REMOVIDO, null, null, null, id, 0);
+    }
+
+    @Override
+    public void consultaAgendada(int linha, ConsultaRequest request) {
+        publicar(TipoEvento.CONSULTA_AGENDADA, request, null, null, linha, 0);
+    }
+
+    @Override
+    public void consultaAtualizada(int indice, int linha, ConsultaRequest request) {
+        publicar(TipoEvento.CONSULTA_ATUALIZADA, request, null, null, linha, 0);
+    }
+
+    @Override
+    public void consultaRemovida(int indice, int linha) {
+        publicar(TipoEvento.CONSULTA_REMOVIDA, null, null, null, linha, 0);
+    }
+
+    @Override
+    public void pagamentoRealizado(String cpfPaciente, double valorPago) {
+        publicar(TipoEvento.PAGAMENTO_REALIZADO, null, null, cpfPaciente, 0, valorPago);
+    }
+
+    // Chamado antes de a alteração ser aplicada: só reserva e preenche a posição (ver a classe)
+    private void publicar(TipoEvento tipo, Object request, String chaveAnterior, String chave, long id,
+                          double valor) {
+        if (fechando) {
+            throw new IllegalStateException("O barramento de eventos foi fechado.");
+        }
+        Reserva reserva = reservas.get();
+        // A alteração anterior desta thread já foi aplicada
+        liberar(reserva);
+        long sequencia = reservar();
+        if (sequencia < 0) {
+            descartados.incrementAndGet();
+            return;
+        }
+        eventos[(int) sequencia & mascara].preencher(tipo, request, chaveAnterior, chave, id, valor,
+                descartados.get());
+        reserva.sequencia = sequencia;
+    }
+
+    private void liberar(Reserva reserva) {
+        long sequencia = reserva.sequencia;
+        if (sequencia >= 0) {
+            reserva.sequencia = -1;
+            eventos[(int) sequencia & mascara].publicar(sequencia);
+        }
+    }
+
+    // A próxima sequência, ou -1 se o anel estiver cheio: não espera por espaço
+    private long reservar() {
+        while (true) {
+            long sequencia = proxima.get();
+            if (!temEspaco(sequencia)) {
+                return -1;
+            }
+            if (proxima.compareAndSet(sequencia, sequencia + 1)) {
+                return sequencia;
+            }
+        }
+    }
+
+    // A posição da sequência está livre quando todos os assinantes já passaram da volta anterior
+    private boolean temEspaco(long sequencia) {
+        long anterior = sequencia - eventos.length;
+        if (anterior <= menorCursor || leitores.length == 0) {
+            return true;
+        }
+        long menor = Long.MAX_VALUE;
+        for (Leitor leitor : leitores) {
+            menor = Math.min(menor, leitor.cursor);
+        }
+        menorCursor = menor;
+        return anterior <= menor;
+    }
+
+    // Gira um pouco, depois cede a CPU e por fim dorme, dobrando a pausa até o limite
+    private static void esperar(int tentativas) {
+        if (tentativas < 100) {
+            Thread.onSpinWait();
+        } else if (tentativas < 200) {
+            Thread.yield();
+        } else {
+            LockSupport.parkNanos(Math.min(ESPERA_MAXIMA_NANOS, 1000L << Math.min(tentativas - 200, 20)));
+        }
+    }
+
+    // Sequência reservada por uma thread e ainda não publicada (-1 se nenhuma)
+    private static final class Reserva {
+        long sequencia = -1;
+    }
+
+    /**
+     * Thread de um assinante: entrega os eventos publicados a partir de cursor + 1.
+     */
+    private final class Leitor implements Runnable {
+
+        private final Assinante assinante;
+        private final Thread thread;
+        // Última sequência entregue; as posições até ela podem ser reaproveitadas
+        private volatile long cursor = -1;
+        private volatile long falhas;
+
+        Leitor(Assinante assinante, String nome) {
+            this.assinante = assinante;
+            this.thread = new Thread(this, nome);
+            thread.setDaemon(true);
+        }
+
+        @Override
+        public void run() {
+            long seguinte = 0;
+            int tentativas = 0;
+            while (true) {
+                if (eventos[(int) seguinte & mascara].sequenciaPublicada() != seguinte) {
+                    // Ao fechar, termina quando não houver mais nada reservado para publicar
+                    if (fechando && seguinte >= proxima.get()) {
+                        return;
+                    }
+                    esperar(tentativas = Math.min(tentativas + 1, 300));
+                    continue;
+                }
+                tentativas = 0;
+                long ultimo = seguinte;
+                while (ultimo - seguinte + 1 < LOTE_MAXIMO
+                        && eventos[(int) (ultimo + 1) & mascara].sequenciaPublicada() == ultimo + 1) {
+                    ultimo++;
+                }
+                // O fim do lote é o último evento entregue; os cancelados são pulados
+                long ultimoEntregue = ultimo;
+                while (ultimoEntregue >= seguinte && eventos[(int) ultimoEntregue & mascara].isCancelado()) {
+                    ultimoEntregue--;
+                }
+                for (long sequencia = seguinte; sequencia <= ultimoEntregue; sequencia++) {
+                    Evento evento = eventos[(int) sequencia & mascara];
+                    if (evento.isCancelado()) {
+                        continue;
+                    }
+                    try {
+                        assinante.aoReceber(evento, sequencia == ultimoEntregue);
+                    } catch (RuntimeException e) {
+                        falhas++;
+                    }
+                }
+                cursor = ultimo;
+                seguinte = ultimo + 1;
+            }
+        }
+    }
+}
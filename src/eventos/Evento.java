@@ -0,0 +1,111 @@
+package eventos;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+
+/**
+ * Uma posição do anel do BarramentoEventos. O mesmo objeto é reaproveitado a cada volta, então
+ * o assinante deve copiar o que precisar antes de retornar de {@link Assinante#aoReceber}.
+ */
+public final class Evento {
+
+    private TipoEvento tipo;
+    private Object request;
+    private String chaveAnterior;
+    private String chave;
+    private long id;
+    private double valor;
+    private long descartadosAntes;
+    // Alteração que falhou depois de avisada: a posição é publicada, mas não é entregue
+    private boolean cancelado;
+    // Escrita por último: quem lê a sequência esperada enxerga os campos acima preenchidos
+    private volatile long sequencia = -1;
+
+    Evento() {}
+
+    void preencher(TipoEvento tipo, Object request, String chaveAnterior, String chave, long id, double valor,
+                   long descartadosAntes) {
+        this.tipo = tipo;
+        this.request = request;
+        this.chaveAnterior = chaveAnterior;
+        this.chave = chave;
+        this.id = id;
+        this.valor = valor;
+        this.descartadosAntes = descartadosAntes;
+        this.cancelado = false;
+    }
+
+    void cancelar() {
+        cancelado = true;
+    }
+
+    boolean isCancelado() {
+        return cancelado;
+    }
+
+    void publicar(long sequencia) {
+        this.sequencia = sequencia;
+    }
+
+    long sequenciaPublicada() {
+        return sequencia;
+    }
+
+    public TipoEvento getTipo() {
+        return tipo;
+    }
+
+    // Posição do evento na ordem de publicação, começando em 0
+    public long getSequencia() {
+        return sequencia;
+    }
+
+    // CPF ou CRM, conforme o tipo; na atualização, o valor depois da alteração
+    public String getChave() {
+        return chave;
+    }
+
+    // CPF ou CRM antes da atualização (igual a getChave se não mudou)
+    public String getChaveAnterior() {
+        return chaveAnterior;
+    }
+
+    // Número de cadastro do exame ou medicamento, ou a linha da consulta na TabelaConsultas.
+    // Não muda com as remoções, mas vale só enquanto o processo roda (ver Diario)
+    public long getId() {
+        return id;
+    }
+
+    public double getValor() {
+        return valor;
+    }
+
+    // Eventos descartados pelo barramento até a reserva deste (ver BarramentoEventos). Se mudou
+    // desde o evento anterior, o assinante perdeu alterações e deve reler o estado dos serviços
+    public long getDescartadosAntes() {
+        return descartadosAntes;
+    }
+
+    public PacienteRequest getPacienteRequest() {
+        return request instanceof PacienteRequest ? (PacienteRequest) request : null;
+    }
+
+    public MedicoRequest getMedicoRequest() {
+        return request instanceof MedicoRequest ? (MedicoRequest) request : null;
+    }
+
+    public ExameRequest getExameRequest() {
+        return request instanceof ExameRequest ? (ExameRequest) request : null;
+    }
+
+    public MedicamentoRequest getMedicamentoRequest() {
+        return request instanceof MedicamentoRequest ? (MedicamentoRequest) request : null;
+    }
+
+    public ConsultaRequest getConsultaRequest() {
+        return request instanceof ConsultaRequest ? (ConsultaRequest) request : null;
+    }
+}
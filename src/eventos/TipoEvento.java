@@ -0,0 +1,24 @@
+package eventos;
+
+/**
+ * Alterações publicadas no barramento, uma para cada método do Diario. O comentário de cada
+ * tipo diz quais campos do Evento vêm preenchidos.
+ */
+public enum TipoEvento {
+    PACIENTE_CADASTRADO,    // chave (CPF), request
+    PACIENTE_ATUALIZADO,    // chaveAnterior (CPF anterior), chave (CPF atual), request
+    PACIENTE_REMOVIDO,      // chave (CPF)
+    MEDICO_CADASTRADO,      // chave (CRM), request
+    MEDICO_ATUALIZADO,      // chaveAnterior (CRM anterior), chave (CRM atual), request
+    MEDICO_REMOVIDO,        // chave (CRM)
+    EXAME_CADASTRADO,       // id (número de cadastro), request
+    EXAME_ATUALIZADO,       // id, request
+    EXAME_REMOVIDO,         // id
+    MEDICAMENTO_CADASTRADO, // id (número de cadastro), request
+    MEDICAMENTO_ATUALIZADO, // id, request
+    MEDICAMENTO_REMOVIDO,   // id
+    CONSULTA_AGENDADA,      // id (linha na TabelaConsultas), request
+    CONSULTA_ATUALIZADA,    // id, request
+    CONSULTA_REMOVIDA,      // id
+    PAGAMENTO_REALIZADO     // chave (CPF do paciente), valor
+}
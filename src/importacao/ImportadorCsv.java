@@ -0,0 +1,314 @@
+package importacao;
+
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+import dto.Resultado;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+import static util.Validacoes.*;
+
+/**
+ * Importação em lote de pacientes, médicos, exames e medicamentos a partir de arquivos CSV
+ * (separados por ";", com cabeçalho na primeira linha e datas no formato DD-MM-YYYY).
+ *
+ * O arquivo é lido em lotes: cada lote é convertido e validado em paralelo, mas a inclusão
+ * nos serviços acontece numa única thread e na ordem do arquivo, de modo que as regras de
+ * unicidade (CPF, CRM) se comportam como no cadastro manual. No máximo duas vezes o número
+ * de threads em lotes ficam em memória ao mesmo tempo. Linhas rejeitadas vão para um arquivo
+ * separado com o número da linha e o motivo.
+ */
+public class ImportadorCsv {
+
+    private static final int TAMANHO_LOTE = 10_000;
+    private static final int TAMANHO_BUFFER = 1 << 16;
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final int paralelismo;
+
+    public ImportadorCsv(PacienteService pacienteService, MedicoService medicoService,
+                         ExameService exameService, MedicamentoService medicamentoService) {
+        this(pacienteService, medicoService, exameService, medicamentoService,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    public ImportadorCsv(PacienteService pacienteService, MedicoService medicoService,
+                         ExameService exameService, MedicamentoService medicamentoService, int paralelismo) {
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.paralelismo = Math.max(1, paralelismo);
+    }
+
+    /**
+     * Colunas: nome;cpf;dataNascimento
+     */
+    public ResumoImportacao importarPacientes(Path arquivo, Path rejeitados) throws IOException {
+        return importar(arquivo, rejeitados, campos -> {
+            exigirColunas(campos, 3);
+            String nome = campos[0];
+            verificar(validarNome(nome));
+            verificar(validarCpf(campos[1]));
+            LocalDate dataNascimento = converterData(campos[2]);
+            verificar(validarDataNascimento(dataNascimento));
+            return new PacienteRequest(nome, campos[1], dataNascimento);
+        }, pacienteService::cadastrarPacientes);
+    }
+
+    /**
+     * Colunas: nome;cpf;dataNascimento;crm;especialidade
+     */
+    public ResumoImportacao importarMedicos(Path arquivo, Path rejeitados) throws IOException {
+        return importar(arquivo, rejeitados, campos -> {
+            exigirColunas(campos, 5);
+            verificar(validarNome(campos[0]));
+            verificar(validarCpf(campos[1]));
+            LocalDate dataNascimento = converterData(campos[2]);
+            verificar(validarDataNascimento(dataNascimento));
+            verificar(validarCrm(campos[3]));
+            verificar(validarEspecialidade(campos[4]));
+            return new MedicoRequest(campos[0], campos[1], dataNascimento, campos[3], campos[4]);
+        }, medicoService::cadastrarMedicos);
+    }
+
+    /**
+     * Colunas: tipo;dataPrescricao;dataRealizacao;resultado;custo
+     * Com dataRealizacao em branco o exame fica pendente e o resultado pode ficar em branco.
+     */
+    public ResumoImportacao importarExames(Path arquivo, Path rejeitados) throws IOException {
+        return importar(arquivo, rejeitados, campos -> {
+            exigirColunas(campos, 5);
+            String tipo = campos[0].trim().toUpperCase();
+            verificar(validarTipoExame(tipo));
+            LocalDate dataPrescricao = converterData(campos[1]);
+            verificar(validarDataPrescricao(dataPrescricao));
+            LocalDate dataRealizacao = null;
+            if (!campos[2].trim().isEmpty()) {
+                dataRealizacao = converterData(campos[2]);
+                verificar(validarDataRealizacao(dataRealizacao, dataPrescricao));
+                verificar(validarResultado(campos[3]));
+            }
+            Double custo = converterNumero(campos[4]);
+            verificar(validarCusto(custo));
+            return new ExameRequest(tipo, dataPrescricao, dataRealizacao, campos[3], custo);
+        }, exameService::cadastrarExames);
+    }
+
+    /**
+     * Colunas: nome;dosagem;posologia;preco
+     */
+    public ResumoImportacao importarMedicamentos(Path arquivo, Path rejeitados) throws IOException {
+        return importar(arquivo, rejeitados, campos -> {
+            exigirColunas(campos, 4);
+            verificar(validarTextoObrigatorio(campos[0], "Nome inválido! Informe um nome."));
+            verificar(validarTextoObrigatorio(campos[1], "Dosagem inválida! Informe a dosagem."));
+            verificar(validarTextoObrigatorio(campos[2], "Posologia inválida! Informe as instruções de uso."));
+            Double preco = converterNumero(campos[3]);
+            verificar(validarPreco(preco));
+            return new MedicamentoRequest(campos[0], campos[1], campos[2], preco);
+        }, medicamentoService::cadastrarMedicamentos);
+    }
+
+    private <R> ResumoImportacao importar(Path arquivo, Path rejeitados, Conversor<R> conversor,
+                                          Function<List<R>, List<? extends Resultado<?>>> inserir) throws IOException {
+        ResumoImportacao resumo = new ResumoImportacao();
+        ExecutorService executor = Executors.newFixedThreadPool(paralelismo);
+        Deque<Future<List<LinhaConvertida<R>>>> emConversao = new ArrayDeque<>();
+
+        try (BufferedReader leitor = new BufferedReader(new InputStreamReader(Files.newInputStream(arquivo),
+                     StandardCharsets.UTF_8), TAMANHO_BUFFER);
+             BufferedWriter saidaRejeitados = Files.newBufferedWriter(rejeitados, StandardCharsets.UTF_8)) {
+            saidaRejeitados.write("linha;motivo;conteudo");
+            saidaRejeitados.newLine();
+
+            leitor.readLine(); // Cabeçalho
+            long numeroLinha = 2;
+            List<String> lote = new ArrayList<>(TAMANHO_LOTE);
+            String linha;
+            while ((linha = leitor.readLine()) != null) {
+                lote.add(linha);
+                if (lote.size() == TAMANHO_LOTE) {
+                    emConversao.add(executor.submit(converterLote(lote, numeroLinha, conversor)));
+                    numeroLinha += lote.size();
+                    lote = new ArrayList<>(TAMANHO_LOTE);
+                    // Limita a quantidade de lotes em memória: insere o mais antigo antes de continuar lendo
+                    if (emConversao.size() >= paralelismo * 2) {
+                        inserirLote(emConversao.poll().get(), inserir, saidaRejeitados, resumo);
+                    }
+                }
+            }
+            if (!lote.isEmpty()) {
+                emConversao.add(executor.submit(converterLote(lote, numeroLinha, conversor)));
+            }
+            while (!emConversao.isEmpty()) {
+                inserirLote(emConversao.poll().get(), inserir, saidaRejeitados, resumo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Importação interrompida.", e);
+        } catch (ExecutionException e) {
+            throw new IOException("Falha ao converter o arquivo " + arquivo, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return resumo;
+    }
+
+    private static <R> Callable<List<LinhaConvertida<R>>> converterLote(
+            List<String> linhas, long primeiraLinha, Conversor<R> conversor) {
+        return () -> {
+            List<LinhaConvertida<R>> convertidas = new ArrayList<>(linhas.size());
+            long numero = primeiraLinha;
+            for (String linha : linhas) {
+                LinhaConvertida<R> convertida = new LinhaConvertida<>(numero++, linha);
+                if (!linha.isBlank()) {
+                    try {
+                        convertida.request = conversor.converter(dividirCampos(linha));
+                    } catch (IllegalArgumentException e) {
+                        convertida.erro = e.getMessage();
+                    }
+                }
+                convertidas.add(convertida);
+            }
+            return convertidas;
+        };
+    }
+
+    private static <R> void inserirLote(List<LinhaConvertida<R>> lote, Function<List<R>, List<? extends Resultado<?>>> inserir,
+                                        BufferedWriter saidaRejeitados, ResumoImportacao resumo) throws IOException {
+        // O lote inteiro vai ao serviço de uma vez, que espera o diário uma vez só
+        List<R> requests = new ArrayList<>(lote.size());
+        for (LinhaConvertida<R> linha : lote) {
+            if (linha.request != null) {
+                requests.add(linha.request);
+            }
+        }
+        List<? extends Resultado<?>> resultados = requests.isEmpty() ? List.of() : inserir.apply(requests);
+        int proximo = 0;
+        for (LinhaConvertida<R> linha : lote) {
+            if (linha.request == null && linha.erro == null) {
+                continue; // Linha em branco
+            }
+            String erro = linha.erro;
+            if (erro == null) {
+                erro = resultados.get(proximo++).getErro();
+            }
+            if (erro == null) {
+                resumo.contarImportada();
+            } else {
+                resumo.contarRejeitada();
+                saidaRejeitados.write(linha.numero + ";" + erro.replace(';', ',') + ";" + linha.conteudo);
+                saidaRejeitados.newLine();
+            }
+        }
+    }
+
+    /**
+     * Divide uma linha CSV separada por ";". Campos entre aspas podem conter ";" e aspas duplicadas ("").
+     */
+    static String[] dividirCampos(String linha) {
+        List<String> campos = new ArrayList<>();
+        StringBuilder atual = new StringBuilder();
+        boolean entreAspas = false;
+        for (int i = 0; i < linha.length(); i++) {
+            char c = linha.charAt(i);
+            if (entreAspas) {
+                if (c == '"' && i + 1 < linha.length() && linha.charAt(i + 1) == '"') {
+                    atual.append('"');
+                    i++;
+                } else if (c == '"') {
+                    entreAspas = false;
+                } else {
+                    atual.append(c);
+                }
+            } else if (c == '"') {
+                entreAspas = true;
+            } else if (c == ';') {
+                campos.add(atual.toString().trim());
+                atual.setLength(0);
+            } else {
+                atual.append(c);
+            }
+        }
+        campos.add(atual.toString().trim());
+        return campos.toArray(new String[0]);
+    }
+
+    private static void exigirColunas(String[] campos, int quantidade) {
+        if (campos.length < quantidade) {
+            throw new IllegalArgumentException("Linha com " + campos.length + " colunas; esperado " + quantidade + ".");
+        }
+    }
+
+    private static void verificar(String erro) {
+        if (erro != null) {
+            throw new IllegalArgumentException(erro);
+        }
+    }
+
+    private static LocalDate converterData(String texto) {
+        try {
+            return LocalDate.parse(texto, FORMATO_DATA);
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Data inválida (" + texto + "). Use DD-MM-YYYY.");
+        }
+    }
+
+    private static Double converterNumero(String texto) {
+        try {
+            return Double.parseDouble(texto.replace(',', '.'));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido (" + texto + ")! Informe um número.");
+        }
+    }
+
+    /**
+     * Converte os campos de uma linha em uma requisição para o serviço.
+     * Lança IllegalArgumentException com o motivo quando a linha é inválida.
+     */
+    private interface Conversor<R> {
+        R converter(String[] campos);
+    }
+
+    private static class LinhaConvertida<R> {
+        private final long numero;
+        private final String conteudo;
+        private R request;
+        private String erro;
+
+        private LinhaConvertida(long numero, String conteudo) {
+            this.numero = numero;
+            this.conteudo = conteudo;
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package importacao;
+
+/**
+ * Totais de uma importação: linhas lidas (sem o cabeçalho), registros importados e rejeitados.
+ */
+public class ResumoImportacao {
+
+    private long lidas;
+    private long importadas;
+    private long rejeitadas;
+
+    void contarImportada() {
+        lidas++;
+        importadas++;
+    }
+
+    void contarRejeitada() {
+        lidas++;
+        rejeitadas++;
+    }
+
+    public long getLidas() {
+        return lidas;
+    }
+
+    public long getImportadas() {
+        return importadas;
+    }
+
+    public long getRejeitadas() {
+        return rejeitadas;
+    }
+
+    @Override
+    public String toString() {
+        return "Linhas lidas: " + lidas + " | Importadas: " + importadas + " | Rejeitadas: " + rejeitadas;
+    }
+}
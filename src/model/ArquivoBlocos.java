@@ -0,0 +1,149 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Arquivo onde a tabela de consultas, os históricos e as agendas guardam o que é antigo, fora
+ * do heap. O arquivo é mapeado na memória em segmentos de 8 MB: o sistema operacional traz do
+ * disco só as partes lidas e as devolve quando falta memória, sem o coletor de lixo.
+ *
+ * Os blocos são alocados em sequência, alinhados a 8 bytes, e nunca cruzam um segmento. Cada
+ * segmento é preenchido com zeros antes de ser mapeado, então uma falta de espaço em disco
+ * aparece na alocação (uma IOException, contada em {@link #contarFalhas()}) e não numa escrita
+ * posterior. Depois de alocado, um bloco é lido e escrito como memória comum: as leituras não
+ * falham, nem depois de {@link #fechar()}, porque o mapeamento continua válido até o programa
+ * terminar.
+ *
+ * Leituras e escritas usam posição absoluta e podem ser feitas de várias threads; quem escreve
+ * e lê o mesmo bloco combina a trava entre si, como nos vetores que o bloco substitui.
+ */
+public final class ArquivoBlocos {
+
+    private static final int BITS_SEGMENTO = 23;
+    private static final int TAMANHO_SEGMENTO = 1 << BITS_SEGMENTO;
+    private static final int MASCARA_SEGMENTO = TAMANHO_SEGMENTO - 1;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocate(64 << 10);
+
+    private final FileChannel canal;
+    // Trocado inteiro a cada segmento novo, para ser lido sem trava
+    private volatile MappedByteBuffer[] segmentos = new MappedByteBuffer[0];
+
+    // Guardados pela trava do arquivo (this)
+    private long fim;
+    private volatile boolean fechado;
+    private long falhas;
+    private IOException ultimaFalha;
+
+    /**
+     * Cria o arquivo vazio. Ele não sobrevive ao programa (em alguns sistemas some da pasta logo
+     * ao abrir): o conteúdo só serve enquanto a tabela existir.
+     */
+    public ArquivoBlocos(Path caminho) throws IOException {
+        canal = FileChannel.open(caminho, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.DELETE_ON_CLOSE);
+    }
+
+    /**
+     * Reserva um bloco de "bytes" bytes (no máximo 8 MB) e retorna a sua posição. Falha se o
+     * arquivo estiver fechado ou se não houver espaço para um segmento novo; a falha é contada.
+     */
+    public synchronized long alocar(int bytes) throws IOException {
+        if (bytes <= 0 || bytes > TAMANHO_SEGMENTO) {
+            throw new IllegalArgumentException("Bloco de tamanho inválido: " + bytes);
+        }
+        if (fechado) {
+            throw new IOException("O arquivo de blocos foi fechado.");
+        }
+        long inicio = fim;
+        if ((inicio >>> BITS_SEGMENTO) != ((inicio + bytes - 1) >>> BITS_SEGMENTO)) {
+            inicio = ((inicio >>> BITS_SEGMENTO) + 1) << BITS_SEGMENTO;
+        }
+        int segmento = (int) (inicio >>> BITS_SEGMENTO);
+        try {
+            while (segmento >= segmentos.length) {
+                mapearSegmento();
+            }
+        } catch (IOException e) {
+            falhas++;
+            ultimaFalha = e;
+            throw e;
+        }
+        // O próximo bloco começa alinhado a 8 bytes, para leituras de long e compareAndSet
+        fim = (inicio + bytes + 7) & ~7L;
+        return inicio;
+    }
+
+    /**
+     * Visão sobre o bloco na posição informada, com a ordem de bytes da máquina. Não altera nada
+     * compartilhado e pode ser chamada de qualquer thread.
+     */
+    public ByteBuffer fatia(long posicao, int bytes) {
+        return segmentos[(int) (posicao >>> BITS_SEGMENTO)].slice((int) (posicao & MASCARA_SEGMENTO), bytes)
+                .order(ByteOrder.nativeOrder());
+    }
+
+    public int lerInt(long posicao) {
+        return fatia(posicao, Integer.BYTES).getInt(0);
+    }
+
+    public long lerLong(long posicao) {
+        return fatia(posicao, Long.BYTES).getLong(0);
+    }
+
+    /**
+     * Se o arquivo já foi fechado: os blocos alocados continuam legíveis, mas nenhum bloco novo
+     * é alocado.
+     */
+    public boolean isFechado() {
+        return fechado;
+    }
+
+    /**
+     * Alocações que falharam (ver alocar).
+     */
+    public synchronized long contarFalhas() {
+        return falhas;
+    }
+
+    /**
+     * Última falha de alocação, ou null se não houve nenhuma.
+     */
+    public synchronized IOException getUltimaFalha() {
+        return ultimaFalha;
+    }
+
+    /**
+     * Fecha o arquivo, que some do disco. Os blocos já alocados continuam legíveis e graváveis
+     * pelo mapeamento; alocações novas falham.
+     */
+    public synchronized void fechar() throws IOException {
+        if (!fechado) {
+            fechado = true;
+            canal.close();
+        }
+    }
+
+    // Chamado com o arquivo travado: grava os zeros do segmento seguinte e o mapeia
+    private void mapearSegmento() throws IOException {
+        long inicio = (long) segmentos.length << BITS_SEGMENTO;
+        long posicao = inicio;
+        while (posicao < inicio + TAMANHO_SEGMENTO) {
+            ByteBuffer zeros = ZEROS.duplicate();
+            zeros.limit((int) Math.min(zeros.capacity(), inicio + TAMANHO_SEGMENTO - posicao));
+            while (zeros.hasRemaining()) {
+                posicao += canal.write(zeros, posicao);
+            }
+        }
+        MappedByteBuffer segmento = canal.map(FileChannel.MapMode.READ_WRITE, inicio, TAMANHO_SEGMENTO);
+        MappedByteBuffer[] novos = Arrays.copyOf(segmentos, segmentos.length + 1);
+        novos[segmentos.length] = segmento;
+        segmentos = novos;
+    }
+}
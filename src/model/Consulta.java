@@ -4,100 +4,131 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 
+/**
+ * Visão sobre uma linha da TabelaConsultas. Não guarda dados próprios: leituras e alterações
+ * vão direto para as colunas da tabela, então duas visões da mesma linha são iguais (equals)
+ * e enxergam as mesmas alterações.
+ */
 public class Consulta {
 
-    private LocalDate data;
-    private LocalTime horario;
-    private int duracao;
-    private String status;
-    private Paciente paciente;
-    private Medico medico;
-    private List<Exame> examesPrescritos;
-    private List<Medicamento> medicamentosPrescritos;
-    private double valor;
-
-    public Consulta(LocalDate data, LocalTime horario, int duracao, String status, Paciente paciente,
-                    Medico medico, List<Exame> examesPrescritos, List<Medicamento> medicamentosPrescritos, double valor) {
-        this.data = data;
-        this.horario = horario;
-        this.duracao = duracao;
-        this.status = status;
-        this.paciente = paciente;
-        this.medico = medico;
-        this.examesPrescritos = examesPrescritos;
-        this.medicamentosPrescritos = medicamentosPrescritos;
-        this.valor = valor;
+    private final TabelaConsultas tabela;
+    private final int linha;
+
+    Consulta(TabelaConsultas tabela, int linha) {
+        this.tabela = tabela;
+        this.linha = linha;
+    }
+
+    public TabelaConsultas getTabela() {
+        return tabela;
+    }
+
+    // Posição da consulta na tabela
+    public int getLinha() {
+        return linha;
     }
 
     public LocalDate getData() {
-        return data;
+        return tabela.getData(linha);
     }
 
     public void setData(LocalDate data) {
-        this.data = data;
+        tabela.setData(linha, data);
     }
 
     public LocalTime getHorario() {
-        return horario;
+        return tabela.getHorario(linha);
     }
 
     public void setHorario(LocalTime horario) {
-        this.horario = horario;
+        tabela.setHorario(linha, horario);
     }
 
     public int getDuracao() {
-        return duracao;
+        return tabela.getDuracao(linha);
     }
 
     public void setDuracao(int duracao) {
-        this.duracao = duracao;
+        tabela.setDuracao(linha, duracao);
     }
 
-    public String getStatus() {
-        return status;
+    public StatusConsulta getStatus() {
+        return tabela.getStatus(linha);
     }
 
-    public void setStatus(String status) {
-        this.status = status;
+    public void setStatus(StatusConsulta status) {
+        tabela.setStatus(linha, status);
     }
 
     public Paciente getPaciente() {
-        return paciente;
+        return tabela.getPaciente(linha);
     }
 
     public void setPaciente(Paciente paciente) {
-        this.paciente = paciente;
+        tabela.setPaciente(linha, paciente);
     }
 
     public Medico getMedico() {
-        return medico;
+        return tabela.getMedico(linha);
     }
 
     public void setMedico(Medico medico) {
-        this.medico = medico;
+        tabela.setMedico(linha, medico);
     }
 
+    // Cópia somente leitura; para alterar, use setExamesPrescritos
     public List<Exame> getExamesPrescritos() {
-        return examesPrescritos;
+        return tabela.getExamesPrescritos(linha);
     }
 
     public void setExamesPrescritos(List<Exame> examesPrescritos) {
-        this.examesPrescritos = examesPrescritos;
+        tabela.setExamesPrescritos(linha, examesPrescritos);
     }
 
+    // Cópia somente leitura; para alterar, use setMedicamentosPrescritos
     public List<Medicamento> getMedicamentosPrescritos() {
-        return medicamentosPrescritos;
+        return tabela.getMedicamentosPrescritos(linha);
     }
 
     public void setMedicamentosPrescritos(List<Medicamento> medicamentosPrescritos) {
-        this.medicamentosPrescritos = medicamentosPrescritos;
+        tabela.setMedicamentosPrescritos(linha, medicamentosPrescritos);
     }
 
     public double getValor() {
-        return valor;
+        return tabela.getValor(linha);
     }
 
     public void setValor(double valor) {
-        this.valor = valor;
+        tabela.setValor(linha, valor);
+    }
+
+    // Pagamento que quitou a consulta (null enquanto pendente)
+    public Pagamento getPagamento() {
+        return tabela.getPagamento(linha);
+    }
+
+    public void setPagamento(Pagamento pagamento) {
+        tabela.setPagamento(linha, pagamento);
+    }
+
+    public boolean isPaga() {
+        return getPagamento() != null;
+    }
+
+    @Override
+    public boolean equals(Object outro) {
+        if (this == outro) {
+            return true;
+        }
+        if (!(outro instanceof Consulta)) {
+            return false;
+        }
+        Consulta consulta = (Consulta) outro;
+        return tabela == consulta.tabela && linha == consulta.linha;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * System.identityHashCode(tabela) + linha;
     }
 }
@@ -9,6 +9,7 @@ public class Exame {
     private LocalDate dataRealizacao;
     private String resultado;
     private double custo;
+    private long id; // Número de cadastro dado pelo serviço (ver ExameService)
 
     public Exame(String tipo, LocalDate dataPrescricao, LocalDate dataRealizacao, String resultado, double custo) {
         this.tipo = tipo;
@@ -18,7 +19,13 @@ public class Exame {
         this.custo = custo;
     }
 
+    public long getId() {
+        return id;
+    }
 
+    public void setId(long id) {
+        this.id = id;
+    }
 
     public String getTipo() {
         return tipo;
@@ -0,0 +1,152 @@
+package model;
+
+import java.io.IOException;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Histórico de consultas de um paciente ou médico: como a ListaConsultas, guarda só as linhas
+ * na TabelaConsultas, mas só aceita inclusões no fim. As JANELA linhas mais novas ficam no heap;
+ * as anteriores vão, em blocos de BLOCO linhas, para o ArquivoBlocos da tabela, encadeados do
+ * mais novo para o mais antigo ([posição do bloco anterior, linhas...]).
+ *
+ * Percorrer o histórico (o uso comum: referências, remoção em cascata, snapshot) lê cada bloco
+ * uma vez. O acesso por posição a uma consulta antiga percorre a cadeia até o bloco dela.
+ *
+ * Sem arquivo, ou se a gravação de um bloco falhar (a falha é contada no arquivo), as linhas
+ * continuam no heap e a próxima tentativa fica para quando a janela dobrar de tamanho.
+ */
+public class HistoricoConsultas extends AbstractList<Consulta> {
+
+    private static final int JANELA = 256;
+    private static final int BLOCO = 128;
+    private static final int BYTES_BLOCO = Long.BYTES + BLOCO * Integer.BYTES;
+    private static final long SEM_BLOCO = -1;
+
+    private TabelaConsultas tabela;
+    private int[] recentes = new int[4];
+    private int quantidadeRecentes;
+    // Linhas já no arquivo (sempre múltiplo de BLOCO) e o bloco com as mais novas entre elas
+    private int antigas;
+    private long ultimoBloco = SEM_BLOCO;
+    private int limite = JANELA;
+
+    public HistoricoConsultas() {
+    }
+
+    public HistoricoConsultas(Collection<? extends Consulta> consultas) {
+        addAll(consultas);
+    }
+
+    @Override
+    public Consulta get(int posicao) {
+        if (posicao < 0 || posicao >= size()) {
+            throw new IndexOutOfBoundsException("Posição: " + posicao + ", tamanho: " + size());
+        }
+        if (posicao >= antigas) {
+            return tabela.consulta(recentes[posicao - antigas]);
+        }
+        long bloco = ultimoBloco;
+        for (int i = antigas / BLOCO - 1; i > posicao / BLOCO; i--) {
+            bloco = tabela.getArquivo().lerLong(bloco);
+        }
+        return tabela.consulta(linhaNoBloco(bloco, posicao % BLOCO));
+    }
+
+    /**
+     * Só aceita inclusões no fim do histórico.
+     */
+    @Override
+    public void add(int posicao, Consulta consulta) {
+        if (posicao != size()) {
+            throw new UnsupportedOperationException("O histórico só aceita inclusões no fim.");
+        }
+        if (tabela == null) {
+            tabela = consulta.getTabela();
+        } else if (consulta.getTabela() != tabela) {
+            throw new IllegalArgumentException("A consulta pertence a outra tabela de consultas.");
+        }
+        if (quantidadeRecentes == recentes.length) {
+            recentes = Arrays.copyOf(recentes, quantidadeRecentes * 2);
+        }
+        recentes[quantidadeRecentes++] = consulta.getLinha();
+        modCount++;
+        if (quantidadeRecentes >= limite) {
+            arquivar();
+        }
+    }
+
+    @Override
+    public int size() {
+        return antigas + quantidadeRecentes;
+    }
+
+    /**
+     * Percorre a cadeia de blocos uma vez para achar as posições e depois lê cada bloco em ordem.
+     */
+    @Override
+    public Iterator<Consulta> iterator() {
+        long[] blocos = new long[antigas / BLOCO];
+        long bloco = ultimoBloco;
+        for (int i = blocos.length - 1; i >= 0; i--) {
+            blocos[i] = bloco;
+            bloco = tabela.getArquivo().lerLong(bloco);
+        }
+        return new Iterator<>() {
+            private final int esperado = modCount;
+            private int posicao;
+
+            @Override
+            public boolean hasNext() {
+                return posicao < size();
+            }
+
+            @Override
+            public Consulta next() {
+                if (modCount != esperado) {
+                    throw new ConcurrentModificationException();
+                }
+                if (posicao >= size()) {
+                    throw new NoSuchElementException();
+                }
+                int atual = posicao++;
+                if (atual >= antigas) {
+                    return tabela.consulta(recentes[atual - antigas]);
+                }
+                return tabela.consulta(linhaNoBloco(blocos[atual / BLOCO], atual % BLOCO));
+            }
+        };
+    }
+
+    private int linhaNoBloco(long bloco, int indice) {
+        return tabela.getArquivo().lerInt(bloco + Long.BYTES + (long) indice * Integer.BYTES);
+    }
+
+    // Leva blocos de linhas antigas para o arquivo até sobrarem menos de JANELA no heap
+    private void arquivar() {
+        ArquivoBlocos arquivo = tabela.getArquivo();
+        if (arquivo == null || arquivo.isFechado()) {
+            limite = quantidadeRecentes * 2;
+            return;
+        }
+        try {
+            while (quantidadeRecentes >= JANELA) {
+                long bloco = arquivo.alocar(BYTES_BLOCO);
+                arquivo.fatia(bloco, Long.BYTES).putLong(0, ultimoBloco);
+                arquivo.fatia(bloco + Long.BYTES, BLOCO * Integer.BYTES).asIntBuffer().put(0, recentes, 0, BLOCO);
+                ultimoBloco = bloco;
+                antigas += BLOCO;
+                quantidadeRecentes -= BLOCO;
+                System.arraycopy(recentes, BLOCO, recentes, 0, quantidadeRecentes);
+            }
+            limite = JANELA;
+        } catch (IOException e) {
+            // Contada no arquivo; as linhas continuam no heap
+            limite = quantidadeRecentes * 2;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package model;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.RandomAccess;
+
+/**
+ * Lista de consultas que guarda só as linhas na TabelaConsultas (4 bytes por item); as
+ * visões são criadas a cada leitura. Todas as consultas da lista devem ser da mesma tabela,
+ * que é fixada na primeira inclusão.
+ */
+public class ListaConsultas extends AbstractList<Consulta> implements RandomAccess {
+
+    private TabelaConsultas tabela;
+    private int[] linhas;
+    private int tamanho;
+
+    public ListaConsultas() {
+        this(null, 4);
+    }
+
+    public ListaConsultas(TabelaConsultas tabela, int capacidade) {
+        this.tabela = tabela;
+        this.linhas = new int[Math.max(capacidade, 1)];
+    }
+
+    public ListaConsultas(Collection<? extends Consulta> consultas) {
+        this(null, consultas.size());
+        addAll(consultas);
+    }
+
+    /**
+     * Linha na tabela da consulta na posição informada, sem criar a visão.
+     */
+    public int getLinha(int posicao) {
+        verificarPosicao(posicao);
+        return linhas[posicao];
+    }
+
+    /**
+     * Inclui no fim a consulta da linha informada; a tabela da lista já deve estar definida.
+     */
+    public void adicionarLinha(int linha) {
+        if (tabela == null) {
+            throw new IllegalStateException("Lista de consultas sem tabela definida.");
+        }
+        incluir(tamanho, linha);
+    }
+
+    /**
+     * Cópia independente da lista (mesma tabela, mesmas linhas), sem criar as visões.
+     */
+    public ListaConsultas copiar() {
+        ListaConsultas copia = new ListaConsultas(tabela, tamanho);
+        System.arraycopy(linhas, 0, copia.linhas, 0, tamanho);
+        copia.tamanho = tamanho;
+        return copia;
+    }
+
+    @Override
+    public Consulta get(int posicao) {
+        verificarPosicao(posicao);
+        return tabela.consulta(linhas[posicao]);
+    }
+
+    @Override
+    public Consulta set(int posicao, Consulta consulta) {
+        Consulta anterior = get(posicao);
+        linhas[posicao] = linhaDe(consulta);
+        return anterior;
+    }
+
+    @Override
+    public void add(int posicao, Consulta consulta) {
+        if (posicao < 0 || posicao > tamanho) {
+            throw new IndexOutOfBoundsException("Posição: " + posicao + ", tamanho: " + tamanho);
+        }
+        incluir(posicao, linhaDe(consulta));
+    }
+
+    @Override
+    public Consulta remove(int posicao) {
+        Consulta removida = get(posicao);
+        System.arraycopy(linhas, posicao + 1, linhas, posicao, tamanho - posicao - 1);
+        tamanho--;
+        modCount++;
+        return removida;
+    }
+
+    /**
+     * Remove de uma vez as posições informadas, em ordem crescente e sem repetição: cada trecho
+     * entre duas posições removidas é deslocado uma única vez.
+     */
+    public void removerPosicoes(int[] posicoes, int quantidade) {
+        for (int i = 0; i < quantidade; i++) {
+            verificarPosicao(posicoes[i]);
+            if (i > 0 && posicoes[i] <= posicoes[i - 1]) {
+                throw new IllegalArgumentException("As posições devem estar em ordem crescente e sem repetição.");
+            }
+        }
+        if (quantidade == 0) {
+            return;
+        }
+        int destino = posicoes[0];
+        for (int i = 0; i < quantidade; i++) {
+            int fimTrecho = i + 1 < quantidade ? posicoes[i + 1] : tamanho;
+            int trecho = fimTrecho - posicoes[i] - 1;
+            System.arraycopy(linhas, posicoes[i] + 1, linhas, destino, trecho);
+            destino += trecho;
+        }
+        tamanho -= quantidade;
+        modCount++;
+    }
+
+    @Override
+    public void clear() {
+        tamanho = 0;
+        modCount++;
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+
+    private void incluir(int posicao, int linha) {
+        if (tamanho == linhas.length) {
+            linhas = Arrays.copyOf(linhas, tamanho + Math.max(tamanho / 2, 1));
+        }
+        System.arraycopy(linhas, posicao, linhas, posicao + 1, tamanho - posicao);
+        linhas[posicao] = linha;
+        tamanho++;
+        modCount++;
+    }
+
+    private int linhaDe(Consulta consulta) {
+        if (tabela == null) {
+            tabela = consulta.getTabela();
+        } else if (consulta.getTabela() != tabela) {
+            throw new IllegalArgumentException("A consulta pertence a outra tabela de consultas.");
+        }
+        return consulta.getLinha();
+    }
+
+    private void verificarPosicao(int posicao) {
+        if (posicao < 0 || posicao >= tamanho) {
+            throw new IndexOutOfBoundsException("Posição: " + posicao + ", tamanho: " + tamanho);
+        }
+    }
+}
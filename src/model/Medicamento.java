@@ -6,6 +6,7 @@ public class Medicamento {
     private String dosagem;
     private String posologia; // Instruções de uso (ex.: "1 comprimido a cada 8 horas")
     private double preco;
+    private long id; // Número de cadastro dado pelo serviço (ver MedicamentoService)
 
     public Medicamento(String nome, String dosagem, String posologia, double preco) {
         this.nome = nome;
@@ -14,6 +15,14 @@ public class Medicamento {
         this.preco = preco;
     }
 
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public String getNome() {
         return nome;
     }
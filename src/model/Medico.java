@@ -4,7 +4,6 @@ import intefaces.IMedico;
 import intefaces.IPaciente;
 
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Medico extends Paciente implements IMedico, IPaciente {
@@ -15,10 +14,10 @@ public class Medico extends Paciente implements IMedico, IPaciente {
 
     public Medico(String nome, String cpf, LocalDate dataNascimento, String crm,
                   String especialidade, List<Consulta> historicoMedico) {
-        super(nome, cpf, dataNascimento, new ArrayList<>(), new ArrayList<>());
+        super(nome, cpf, dataNascimento, List.of(), List.of());
         this.crm = crm;
         this.especialidade = especialidade;
-        this.historicoMedico = new ArrayList<>(historicoMedico);
+        this.historicoMedico = new HistoricoConsultas(historicoMedico);
     }
 
     @Override
@@ -45,4 +44,10 @@ public class Medico extends Paciente implements IMedico, IPaciente {
     public void addConsulta(Consulta consulta) {
         this.historicoMedico.add(consulta);
     }
+
+    // Consultas atendidas pelo médico
+    @Override
+    public List<Consulta> getHistoricoMedico() {
+        return historicoMedico;
+    }
 }
@@ -4,7 +4,10 @@ import intefaces.IPaciente;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Set;
 
 public class Paciente implements IPaciente {
 
@@ -13,13 +16,18 @@ public class Paciente implements IPaciente {
     protected LocalDate dataNascimento;
     protected List<Consulta> historicoMedico;
     protected List<Pagamento> pagamentos;
+    // Conta corrente do paciente: consultas ainda não pagas e o saldo devedor em centavos
+    protected final Set<Consulta> consultasPendentes = new LinkedHashSet<>();
+    protected long saldoDevedorCentavos;
+    // Número de cadastro dado pelo serviço: cresce na ordem da lista e vale só durante a execução
+    protected long id;
 
     public Paciente(String nome, String cpf, LocalDate dataNascimento, List<Consulta> historicoMedico,
                     List<Pagamento> pagamentos) {
         this.nome = nome;
         this.cpf = cpf;
         this.dataNascimento = dataNascimento;
-        this.historicoMedico = new ArrayList<>(historicoMedico);
+        this.historicoMedico = new HistoricoConsultas(historicoMedico);
         this.pagamentos = new ArrayList<>(pagamentos);
     }
 
@@ -46,6 +54,14 @@ public class Paciente implements IPaciente {
         this.cpf = cpf;
     }
 
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
     public LocalDate getDataNascimento() {
         return dataNascimento;
     }
@@ -58,8 +74,10 @@ public class Paciente implements IPaciente {
         return historicoMedico;
     }
 
+    // O histórico informado é copiado para um HistoricoConsultas, que leva as consultas antigas para o arquivo da tabela
     public void setHistoricoMedico(List<Consulta> historicoMedico) {
-        this.historicoMedico = historicoMedico;
+        this.historicoMedico = historicoMedico instanceof HistoricoConsultas
+                ? historicoMedico : new HistoricoConsultas(historicoMedico);
     }
 
     public List<Pagamento> getPagamentos() {
@@ -69,4 +87,69 @@ public class Paciente implements IPaciente {
     public void setPagamentos(List<Pagamento> pagamentos) {
         this.pagamentos = pagamentos;
     }
+
+    /**
+     * Lança a consulta como pendente de pagamento, somando seu valor ao saldo devedor.
+     */
+    public void registrarDebito(Consulta consulta) {
+        if (!consulta.isPaga() && consultasPendentes.add(consulta)) {
+            saldoDevedorCentavos += paraCentavos(consulta.getValor());
+        }
+    }
+
+    /**
+     * Retira a consulta das pendências (ex.: consulta removida), descontando seu valor do saldo.
+     */
+    public void cancelarDebito(Consulta consulta) {
+        if (consultasPendentes.remove(consulta)) {
+            saldoDevedorCentavos -= paraCentavos(consulta.getValor());
+        }
+    }
+
+    /**
+     * Corrige o saldo quando o valor de uma consulta pendente é alterado.
+     */
+    public void ajustarDebito(Consulta consulta, double valorAnterior) {
+        if (consultasPendentes.contains(consulta)) {
+            saldoDevedorCentavos += paraCentavos(consulta.getValor()) - paraCentavos(valorAnterior);
+        }
+    }
+
+    /**
+     * Quita todas as consultas pendentes com um único pagamento, zerando o saldo devedor.
+     * Retorna o pagamento gerado ou null se não houver pendências.
+     */
+    public Pagamento quitarPendencias() {
+        if (consultasPendentes.isEmpty()) {
+            return null;
+        }
+        Pagamento pagamento = new Pagamento(getSaldoDevedor(), true, new ArrayList<>(consultasPendentes));
+        for (Consulta consulta : consultasPendentes) {
+            consulta.setPagamento(pagamento);
+        }
+        consultasPendentes.clear();
+        saldoDevedorCentavos = 0;
+        pagamentos.add(pagamento);
+        return pagamento;
+    }
+
+    public double getSaldoDevedor() {
+        return saldoDevedorCentavos / 100.0;
+    }
+
+    public long getSaldoDevedorCentavos() {
+        return saldoDevedorCentavos;
+    }
+
+    public List<Consulta> getConsultasPendentes() {
+        return Collections.unmodifiableList(new ArrayList<>(consultasPendentes));
+    }
+
+    public boolean temPagamentoPendente() {
+        return saldoDevedorCentavos > 0;
+    }
+
+    private static long paraCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
 }
@@ -1,15 +1,24 @@
 package model;
 
+import java.util.List;
+
 public class Pagamento {
 
     private double valor;
     private boolean pago;
+    private List<Consulta> consultas = new ListaConsultas(); // Consultas quitadas por este pagamento
 
     public Pagamento(double valor, boolean pago) {
         this.valor = valor;
         this.pago = pago;
     }
 
+    public Pagamento(double valor, boolean pago, List<Consulta> consultas) {
+        this.valor = valor;
+        this.pago = pago;
+        this.consultas = new ListaConsultas(consultas);
+    }
+
     public Pagamento() {
     }
 
@@ -28,4 +37,12 @@ public class Pagamento {
     public void setPago(boolean pago) {
         this.pago = pago;
     }
+
+    public List<Consulta> getConsultas() {
+        return consultas;
+    }
+
+    public void setConsultas(List<Consulta> consultas) {
+        this.consultas = consultas;
+    }
 }
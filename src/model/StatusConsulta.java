@@ -0,0 +1,31 @@
+package model;
+
+/**
+ * Situação de uma consulta. Na TabelaConsultas é guardada pelo ordinal, num byte.
+ */
+public enum StatusConsulta {
+    AGENDADA,
+    CANCELADA,
+    REALIZADA;
+
+    private static final StatusConsulta[] VALORES = values();
+
+    /**
+     * Converte o texto informado (sem diferenciar maiúsculas), ou retorna null se não for um status válido.
+     */
+    public static StatusConsulta deTexto(String texto) {
+        if (texto == null) {
+            return null;
+        }
+        for (StatusConsulta status : VALORES) {
+            if (status.name().equalsIgnoreCase(texto.trim())) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    static StatusConsulta doCodigo(int codigo) {
+        return codigo < 0 ? null : VALORES[codigo];
+    }
+}
@@ -0,0 +1,611 @@
+package model;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Armazena as consultas em colunas de tipos primitivos, uma linha por consulta. A classe
+ * Consulta é só uma visão (tabela + linha) sobre estas colunas.
+ *
+ * Por linha são guardados: data (epochDay), horário (minuto do dia), duração, código do
+ * status (ordinal de StatusConsulta), valor em centavos, números do paciente, do médico e do
+ * pagamento e o início das prescrições num vetor compartilhado ([quantidade de exames,
+ * exames..., quantidade de medicamentos, medicamentos...]). Pacientes, médicos, exames,
+ * medicamentos e pagamentos se repetem entre as consultas (ou já são mantidos pelos pacientes)
+ * e recebem um número na primeira vez em que aparecem. Consultas sem prescrição apontam todas
+ * para o bloco vazio no início do vetor de prescrições.
+ *
+ * As linhas nunca são removidas: uma consulta excluída continua existindo nos históricos.
+ *
+ * As colunas ficam em páginas de tamanho fixo, que nunca mudam de lugar: a inclusão de linhas
+ * (sincronizada na tabela) pode correr junto com leituras e alterações de outras linhas sem
+ * que uma escrita se perca numa cópia antiga. Quem altera uma mesma linha de threads
+ * diferentes deve combinar a trava entre si (o ConsultaService usa a trava do paciente).
+ *
+ * Com um arquivo configurado ({@link #arquivarPaginasAntigas}), só as PAGINAS_RECENTES últimas
+ * páginas e os PEDACOS_RECENTES últimos pedaços do vetor de prescrições ficam no heap. Os
+ * anteriores são copiados para o ArquivoBlocos e lidos e alterados direto nele: o sistema
+ * operacional traz do disco as partes lidas, e uma leitura nunca falha, nem depois de fechado o
+ * arquivo. Uma página ou pedaço que não pôde ser copiado continua no heap e é tentado de novo na
+ * próxima página ou pedaço novo; as falhas são contadas ({@link #contarFalhasArquivo}). Os
+ * blocos de prescrição trocados são reaproveitados por blocos novos do mesmo tamanho.
+ *
+ * Os históricos dos pacientes e médicos (HistoricoConsultas) e os dias passados das agendas
+ * do ConsultaService usam o mesmo arquivo. Continuam no heap, por escolha: a lista de consultas
+ * ativas do ConsultaService e os seus índices por status (4 bytes por consulta não removida),
+ * os objetos de cadastro e de pagamento e os registros que os numeram aqui (cerca de 70 bytes
+ * por objeto, mais as listas de consultas de cada pagamento), e alguns bytes por página, por
+ * pedaço e por mês arquivado de cada médico. Nada disso guarda as colunas das consultas.
+ */
+public class TabelaConsultas {
+
+    // Páginas de 4096 linhas: crescer só acrescenta páginas, nenhuma coluna é copiada
+    private static final int BITS_PAGINA = 12;
+    private static final int TAMANHO_PAGINA = 1 << BITS_PAGINA;
+    private static final int MASCARA_PAGINA = TAMANHO_PAGINA - 1;
+    // Posição de cada coluna na página, em bytes
+    private static final int DIAS = 0;
+    private static final int MINUTOS = DIAS + TAMANHO_PAGINA * 4;
+    private static final int DURACOES = MINUTOS + TAMANHO_PAGINA * 2;
+    private static final int STATUS = DURACOES + TAMANHO_PAGINA * 2;
+    private static final int VALORES = STATUS + TAMANHO_PAGINA;
+    private static final int PACIENTES = VALORES + TAMANHO_PAGINA * 8;
+    private static final int MEDICOS = PACIENTES + TAMANHO_PAGINA * 4;
+    private static final int PRESCRICOES = MEDICOS + TAMANHO_PAGINA * 4;
+    private static final int PAGAMENTOS = PRESCRICOES + TAMANHO_PAGINA * 4;
+    private static final int BYTES_PAGINA = PAGAMENTOS + TAMANHO_PAGINA * 4;
+    // Páginas mais novas, que nunca vão para o arquivo (cerca de 8,5 MB)
+    private static final int PAGINAS_RECENTES = 64;
+    // Pedaços de 16384 ints do vetor de prescrições; os 16 mais novos (1 MB) ficam no heap
+    private static final int BITS_PEDACO = 14;
+    private static final int TAMANHO_PEDACO = 1 << BITS_PEDACO;
+    private static final int MASCARA_PEDACO = TAMANHO_PEDACO - 1;
+    private static final int PEDACOS_RECENTES = 16;
+    // Blocos de prescrição trocados guardados para reaproveitar, por tamanho
+    private static final int MAIOR_BLOCO_LIVRE = 64;
+    private static final int LIMITE_BLOCOS_LIVRES = 4096;
+    private static final int NULO = -1;
+    private static final int DATA_NULA = Integer.MIN_VALUE;
+
+    // Datas de 1900 a 2099 e horários por minuto, compartilhados entre as visões
+    private static final int PRIMEIRO_DIA_CACHE = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final LocalDate[] DATAS =
+            new LocalDate[(int) (LocalDate.of(2100, 1, 1).toEpochDay() - PRIMEIRO_DIA_CACHE)];
+    private static final LocalTime[] HORARIOS = new LocalTime[24 * 60];
+
+    static {
+        for (int minuto = 0; minuto < HORARIOS.length; minuto++) {
+            HORARIOS[minuto] = LocalTime.of(minuto / 60, minuto % 60);
+        }
+    }
+
+    // Uma linha nova é preenchida antes de "tamanho" avançar, então quem lê o tamanho a enxerga completa
+    private volatile Pagina[] paginas = new Pagina[0];
+    private volatile int tamanho;
+
+    // Guardados pela trava da tabela (this)
+    private IntBuffer[] prescricoes = {novoPedaco()};
+    private int tamanhoPrescricoes = 2; // Bloco vazio: zero exames, zero medicamentos
+    private final int[][] blocosLivres = new int[MAIOR_BLOCO_LIVRE + 1][];
+    private final int[] quantidadeLivres = new int[MAIOR_BLOCO_LIVRE + 1];
+
+    private final Registro<Paciente> registroPacientes = new Registro<>();
+    private final Registro<Medico> registroMedicos = new Registro<>();
+    private final Registro<Exame> registroExames = new Registro<>();
+    private final Registro<Medicamento> registroMedicamentos = new Registro<>();
+    private final Registro<Pagamento> registroPagamentos = new Registro<>();
+
+    // Null enquanto tudo fica no heap; páginas e pedaços antes destes já estão no arquivo
+    private volatile ArquivoBlocos arquivo;
+    private int primeiraPaginaNoHeap;
+    private int primeiroPedacoNoHeap;
+
+    /**
+     * Inclui uma nova linha e retorna a visão sobre ela. O horário é guardado em minutos
+     * (segundos são descartados) e o valor em centavos.
+     */
+    public synchronized Consulta adicionar(LocalDate data, LocalTime horario, int duracao, StatusConsulta status,
+                                           Paciente paciente, Medico medico, List<Exame> examesPrescritos,
+                                           List<Medicamento> medicamentosPrescritos, double valor) {
+        int linha = tamanho;
+        if (linha == paginas.length * TAMANHO_PAGINA) {
+            Pagina[] novas = Arrays.copyOf(paginas, paginas.length + 1);
+            novas[paginas.length] = new Pagina();
+            paginas = novas;
+            arquivarPaginas();
+        }
+        Pagina pagina = paginas[linha >>> BITS_PAGINA];
+        int posicao = linha & MASCARA_PAGINA;
+        int inicioPrescricoes = gravarPrescricoes(examesPrescritos, medicamentosPrescritos);
+        synchronized (pagina) {
+            ByteBuffer colunas = pagina.colunas;
+            colunas.putInt(DIAS + posicao * 4, dia(data));
+            colunas.putShort(MINUTOS + posicao * 2, minuto(horario));
+            colunas.putShort(DURACOES + posicao * 2, duracao(duracao));
+            colunas.put(STATUS + posicao, codigo(status));
+            colunas.putLong(VALORES + posicao * 8, Math.round(valor * 100));
+            colunas.putInt(PACIENTES + posicao * 4, registroPacientes.numerar(paciente));
+            colunas.putInt(MEDICOS + posicao * 4, registroMedicos.numerar(medico));
+            colunas.putInt(PRESCRICOES + posicao * 4, inicioPrescricoes);
+            colunas.putInt(PAGAMENTOS + posicao * 4, NULO);
+        }
+        tamanho = linha + 1;
+        return new Consulta(this, linha);
+    }
+
+    /**
+     * Visão sobre a linha informada.
+     */
+    public Consulta consulta(int linha) {
+        pagina(linha);
+        return new Consulta(this, linha);
+    }
+
+    public int tamanho() {
+        return tamanho;
+    }
+
+    /**
+     * Passa a guardar as páginas antigas num ArquivoBlocos criado no caminho informado (ver a
+     * classe), que também recebe os históricos e as agendas. Ele não sobrevive ao programa: a
+     * persistência continua no snapshot e no diário.
+     */
+    public synchronized void arquivarPaginasAntigas(Path caminho) throws IOException {
+        if (arquivo != null) {
+            throw new IllegalStateException("A tabela já usa um arquivo de páginas.");
+        }
+        arquivo = new ArquivoBlocos(caminho);
+        arquivarPaginas();
+        arquivarPedacos();
+    }
+
+    /**
+     * Arquivo onde ficam as páginas antigas, ou null se a tabela fica toda no heap.
+     */
+    public ArquivoBlocos getArquivo() {
+        return arquivo;
+    }
+
+    /**
+     * Gravações no arquivo que falharam (páginas, históricos ou agendas), cujos dados
+     * continuam no heap.
+     */
+    public long contarFalhasArquivo() {
+        ArquivoBlocos atual = arquivo;
+        return atual == null ? 0 : atual.contarFalhas();
+    }
+
+    /**
+     * Última falha de gravação no arquivo, ou null se não houve nenhuma.
+     */
+    public IOException getUltimaFalhaArquivo() {
+        ArquivoBlocos atual = arquivo;
+        return atual == null ? null : atual.getUltimaFalha();
+    }
+
+    /**
+     * Fecha o arquivo, que some do disco. Chamado ao encerrar: o que já está no arquivo
+     * continua legível e alterável, e as páginas novas ficam no heap.
+     */
+    public void fecharArquivoPaginas() throws IOException {
+        ArquivoBlocos atual = arquivo;
+        if (atual != null) {
+            atual.fechar();
+        }
+    }
+
+    // Leitura por linha, usada pelas visões e pelas varreduras (listagens e relatórios)
+
+    /**
+     * Data da consulta em dias desde 1970-01-01 (Integer.MIN_VALUE se não houver data).
+     */
+    public int getDia(int linha) {
+        return colunas(linha).getInt(DIAS + (linha & MASCARA_PAGINA) * 4);
+    }
+
+    public LocalDate getData(int linha) {
+        return data(getDia(linha));
+    }
+
+    /**
+     * Horário da consulta em minutos desde 00:00 (-1 se não houver horário).
+     */
+    public int getMinuto(int linha) {
+        return colunas(linha).getShort(MINUTOS + (linha & MASCARA_PAGINA) * 2);
+    }
+
+    public LocalTime getHorario(int linha) {
+        int minuto = getMinuto(linha);
+        return minuto == NULO ? null : HORARIOS[minuto];
+    }
+
+    public int getDuracao(int linha) {
+        return colunas(linha).getShort(DURACOES + (linha & MASCARA_PAGINA) * 2);
+    }
+
+    public StatusConsulta getStatus(int linha) {
+        return StatusConsulta.doCodigo(colunas(linha).get(STATUS + (linha & MASCARA_PAGINA)));
+    }
+
+    public long getValorCentavos(int linha) {
+        return colunas(linha).getLong(VALORES + (linha & MASCARA_PAGINA) * 8);
+    }
+
+    public double getValor(int linha) {
+        return getValorCentavos(linha) / 100.0;
+    }
+
+    /**
+     * Número do médico da consulta na tabela (ver idMedico).
+     */
+    public int getIdMedico(int linha) {
+        return colunas(linha).getInt(MEDICOS + (linha & MASCARA_PAGINA) * 4);
+    }
+
+    public Paciente getPaciente(int linha) {
+        return registroPacientes.item(colunas(linha).getInt(PACIENTES + (linha & MASCARA_PAGINA) * 4));
+    }
+
+    public Medico getMedico(int linha) {
+        return registroMedicos.item(getIdMedico(linha));
+    }
+
+    public Pagamento getPagamento(int linha) {
+        return registroPagamentos.item(colunas(linha).getInt(PAGAMENTOS + (linha & MASCARA_PAGINA) * 4));
+    }
+
+    public synchronized List<Exame> getExamesPrescritos(int linha) {
+        int inicio = inicioPrescricoes(linha);
+        return itens(registroExames, inicio + 1, prescricao(inicio));
+    }
+
+    public synchronized List<Medicamento> getMedicamentosPrescritos(int linha) {
+        int inicio = inicioPrescricoes(linha);
+        int inicioMedicamentos = inicio + 1 + prescricao(inicio);
+        return itens(registroMedicamentos, inicioMedicamentos + 1, prescricao(inicioMedicamentos));
+    }
+
+    /**
+     * Número do médico na tabela, ou -1 se ele ainda não apareceu em nenhuma consulta.
+     */
+    public int idMedico(Medico medico) {
+        return registroMedicos.buscar(medico);
+    }
+
+    // Escrita por linha, usada pelas visões
+
+    void setData(int linha, LocalDate data) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putInt(DIAS + (linha & MASCARA_PAGINA) * 4, dia(data));
+        }
+    }
+
+    void setHorario(int linha, LocalTime horario) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putShort(MINUTOS + (linha & MASCARA_PAGINA) * 2, minuto(horario));
+        }
+    }
+
+    void setDuracao(int linha, int duracao) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putShort(DURACOES + (linha & MASCARA_PAGINA) * 2, duracao(duracao));
+        }
+    }
+
+    void setStatus(int linha, StatusConsulta novoStatus) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.put(STATUS + (linha & MASCARA_PAGINA), codigo(novoStatus));
+        }
+    }
+
+    void setValor(int linha, double valor) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putLong(VALORES + (linha & MASCARA_PAGINA) * 8, Math.round(valor * 100));
+        }
+    }
+
+    void setPaciente(int linha, Paciente paciente) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putInt(PACIENTES + (linha & MASCARA_PAGINA) * 4, registroPacientes.numerar(paciente));
+        }
+    }
+
+    void setMedico(int linha, Medico medico) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putInt(MEDICOS + (linha & MASCARA_PAGINA) * 4, registroMedicos.numerar(medico));
+        }
+    }
+
+    void setPagamento(int linha, Pagamento pagamento) {
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putInt(PAGAMENTOS + (linha & MASCARA_PAGINA) * 4, registroPagamentos.numerar(pagamento));
+        }
+    }
+
+    synchronized void setExamesPrescritos(int linha, List<Exame> exames) {
+        trocarPrescricoes(linha, exames, getMedicamentosPrescritos(linha));
+    }
+
+    synchronized void setMedicamentosPrescritos(int linha, List<Medicamento> medicamentos) {
+        trocarPrescricoes(linha, getExamesPrescritos(linha), medicamentos);
+    }
+
+    // Chamado com a tabela travada: grava no bloco da linha se o tamanho for o mesmo, ou num bloco novo
+    private void trocarPrescricoes(int linha, List<Exame> exames, List<Medicamento> medicamentos) {
+        int anterior = inicioPrescricoes(linha);
+        int tamanhoAnterior = anterior == 0 ? 0 : tamanhoBloco(anterior);
+        if (tamanhoAnterior > 0 && tamanhoAnterior == tamanhoBloco(exames, medicamentos)) {
+            escreverPrescricoes(anterior, exames, medicamentos);
+            return;
+        }
+        int inicio = gravarPrescricoes(exames, medicamentos);
+        Pagina pagina = pagina(linha);
+        synchronized (pagina) {
+            pagina.colunas.putInt(PRESCRICOES + (linha & MASCARA_PAGINA) * 4, inicio);
+        }
+        if (tamanhoAnterior > 0) {
+            liberarPrescricoes(anterior, tamanhoAnterior);
+        }
+    }
+
+    // Chamado com a tabela travada: grava um bloco novo (ou um livre do mesmo tamanho) e retorna o seu início
+    private int gravarPrescricoes(List<Exame> exames, List<Medicamento> medicamentos) {
+        int tamanhoBloco = tamanhoBloco(exames, medicamentos);
+        if (tamanhoBloco == 0) {
+            return 0;
+        }
+        int inicio = alocarPrescricoes(tamanhoBloco);
+        escreverPrescricoes(inicio, exames, medicamentos);
+        return inicio;
+    }
+
+    private void escreverPrescricoes(int inicio, List<Exame> exames, List<Medicamento> medicamentos) {
+        int quantidadeExames = exames == null ? 0 : exames.size();
+        int quantidadeMedicamentos = medicamentos == null ? 0 : medicamentos.size();
+        int posicao = inicio;
+        gravarPrescricao(posicao++, quantidadeExames);
+        for (int i = 0; i < quantidadeExames; i++) {
+            gravarPrescricao(posicao++, registroExames.numerar(exames.get(i)));
+        }
+        gravarPrescricao(posicao++, quantidadeMedicamentos);
+        for (int i = 0; i < quantidadeMedicamentos; i++) {
+            gravarPrescricao(posicao++, registroMedicamentos.numerar(medicamentos.get(i)));
+        }
+    }
+
+    // Blocos nunca cruzam dois pedaços; um pedaço novo pode levar o mais antigo do heap para o arquivo
+    private int alocarPrescricoes(int tamanhoBloco) {
+        if (tamanhoBloco > TAMANHO_PEDACO) {
+            throw new IllegalArgumentException("Prescrições demais numa consulta: " + (tamanhoBloco - 2));
+        }
+        if (tamanhoBloco <= MAIOR_BLOCO_LIVRE && quantidadeLivres[tamanhoBloco] > 0) {
+            return blocosLivres[tamanhoBloco][--quantidadeLivres[tamanhoBloco]];
+        }
+        int inicio = tamanhoPrescricoes;
+        if ((inicio >>> BITS_PEDACO) != ((inicio + tamanhoBloco - 1) >>> BITS_PEDACO)) {
+            inicio = ((inicio >>> BITS_PEDACO) + 1) << BITS_PEDACO;
+        }
+        int pedaco = inicio >>> BITS_PEDACO;
+        if (pedaco == prescricoes.length) {
+            prescricoes = Arrays.copyOf(prescricoes, pedaco + 1);
+            prescricoes[pedaco] = novoPedaco();
+            arquivarPedacos();
+        }
+        tamanhoPrescricoes = inicio + tamanhoBloco;
+        return inicio;
+    }
+
+    private void liberarPrescricoes(int inicio, int tamanhoBloco) {
+        if (tamanhoBloco > MAIOR_BLOCO_LIVRE || quantidadeLivres[tamanhoBloco] == LIMITE_BLOCOS_LIVRES) {
+            return;
+        }
+        int[] livres = blocosLivres[tamanhoBloco];
+        if (livres == null || quantidadeLivres[tamanhoBloco] == livres.length) {
+            livres = Arrays.copyOf(livres == null ? new int[0] : livres, Math.max(8, quantidadeLivres[tamanhoBloco] * 2));
+            blocosLivres[tamanhoBloco] = livres;
+        }
+        livres[quantidadeLivres[tamanhoBloco]++] = inicio;
+    }
+
+    private int tamanhoBloco(int inicio) {
+        int quantidadeExames = prescricao(inicio);
+        return 2 + quantidadeExames + prescricao(inicio + 1 + quantidadeExames);
+    }
+
+    private static int tamanhoBloco(List<Exame> exames, List<Medicamento> medicamentos) {
+        int quantidadeExames = exames == null ? 0 : exames.size();
+        int quantidadeMedicamentos = medicamentos == null ? 0 : medicamentos.size();
+        return quantidadeExames == 0 && quantidadeMedicamentos == 0 ? 0 : 2 + quantidadeExames + quantidadeMedicamentos;
+    }
+
+    private int prescricao(int indice) {
+        return prescricoes[indice >>> BITS_PEDACO].get(indice & MASCARA_PEDACO);
+    }
+
+    private void gravarPrescricao(int indice, int valor) {
+        prescricoes[indice >>> BITS_PEDACO].put(indice & MASCARA_PEDACO, valor);
+    }
+
+    private int inicioPrescricoes(int linha) {
+        return colunas(linha).getInt(PRESCRICOES + (linha & MASCARA_PAGINA) * 4);
+    }
+
+    private <T> List<T> itens(Registro<T> registro, int inicio, int quantidade) {
+        if (quantidade == 0) {
+            return Collections.emptyList();
+        }
+        List<T> itens = new ArrayList<>(quantidade);
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            itens.add(registro.item(prescricao(i)));
+        }
+        return Collections.unmodifiableList(itens);
+    }
+
+    private Pagina pagina(int linha) {
+        int atual = tamanho;
+        if (linha < 0 || linha >= atual) {
+            throw new IndexOutOfBoundsException("Linha " + linha + " fora da tabela de " + atual + " consultas.");
+        }
+        return paginas[linha >>> BITS_PAGINA];
+    }
+
+    private ByteBuffer colunas(int linha) {
+        return pagina(linha).colunas;
+    }
+
+    // Chamado com a tabela travada, quando uma página nova é criada ou o arquivo é configurado
+    private void arquivarPaginas() {
+        ArquivoBlocos atual = arquivo;
+        if (atual == null || atual.isFechado()) {
+            return;
+        }
+        for (; primeiraPaginaNoHeap < paginas.length - PAGINAS_RECENTES; primeiraPaginaNoHeap++) {
+            Pagina pagina = paginas[primeiraPaginaNoHeap];
+            synchronized (pagina) {
+                ByteBuffer destino;
+                try {
+                    destino = atual.fatia(atual.alocar(BYTES_PAGINA), BYTES_PAGINA);
+                } catch (IOException e) {
+                    // Contada no arquivo; a página continua no heap e é tentada de novo na próxima página
+                    return;
+                }
+                // Com a página travada nenhuma escrita se perde entre a cópia e a troca
+                destino.put(0, pagina.colunas, 0, BYTES_PAGINA);
+                pagina.colunas = destino;
+            }
+        }
+    }
+
+    // Chamado com a tabela travada, como arquivarPaginas, para os pedaços do vetor de prescrições
+    private void arquivarPedacos() {
+        ArquivoBlocos atual = arquivo;
+        if (atual == null || atual.isFechado()) {
+            return;
+        }
+        for (; primeiroPedacoNoHeap < prescricoes.length - PEDACOS_RECENTES; primeiroPedacoNoHeap++) {
+            IntBuffer destino;
+            try {
+                destino = atual.fatia(atual.alocar(TAMANHO_PEDACO * 4), TAMANHO_PEDACO * 4).asIntBuffer();
+            } catch (IOException e) {
+                return;
+            }
+            destino.put(0, prescricoes[primeiroPedacoNoHeap], 0, TAMANHO_PEDACO);
+            prescricoes[primeiroPedacoNoHeap] = destino;
+        }
+    }
+
+    private static IntBuffer novoPedaco() {
+        return IntBuffer.allocate(TAMANHO_PEDACO);
+    }
+
+    private static int dia(LocalDate data) {
+        return data == null ? DATA_NULA : Math.toIntExact(data.toEpochDay());
+    }
+
+    private static short minuto(LocalTime horario) {
+        return (short) (horario == null ? NULO : horario.toSecondOfDay() / 60);
+    }
+
+    private static short duracao(int duracao) {
+        if (duracao < Short.MIN_VALUE || duracao > Short.MAX_VALUE) {
+            throw new IllegalArgumentException("Duração fora do intervalo suportado: " + duracao);
+        }
+        return (short) duracao;
+    }
+
+    private static byte codigo(StatusConsulta status) {
+        return (byte) (status == null ? NULO : status.ordinal());
+    }
+
+    private static LocalDate data(int dia) {
+        if (dia == DATA_NULA) {
+            return null;
+        }
+        int indice = dia - PRIMEIRO_DIA_CACHE;
+        if (indice < 0 || indice >= DATAS.length) {
+            return LocalDate.ofEpochDay(dia);
+        }
+        // Datas são imutáveis: uma corrida aqui só cria a mesma data duas vezes
+        LocalDate data = DATAS[indice];
+        if (data == null) {
+            data = LocalDate.ofEpochDay(dia);
+            DATAS[indice] = data;
+        }
+        return data;
+    }
+
+    /**
+     * TAMANHO_PAGINA linhas consecutivas. As colunas ficam num ByteBuffer do heap até a página
+     * ser arquivada, e depois num bloco do ArquivoBlocos; a troca é feita com a página travada.
+     */
+    private static final class Pagina {
+
+        volatile ByteBuffer colunas = ByteBuffer.allocate(BYTES_PAGINA).order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Numeração sequencial dos objetos referenciados pelas consultas (null é -1).
+     *
+     * A busca pelo número é feita sem trava. Os modelos não redefinem equals, então o mapa
+     * compara por identidade, como antes. Quem lê um número numa coluna o recebeu depois de
+     * numerar ter gravado o item no vetor, por isso item também não precisa de trava.
+     */
+    private static final class Registro<T> {
+
+        private final Map<T, Integer> numeros = new ConcurrentHashMap<>();
+        private volatile Object[] itens = new Object[16];
+        private int tamanho;
+
+        int numerar(T item) {
+            if (item == null) {
+                return NULO;
+            }
+            Integer numero = numeros.get(item);
+            return numero != null ? numero : incluir(item);
+        }
+
+        private synchronized int incluir(T item) {
+            Integer numero = numeros.get(item);
+            if (numero != null) {
+                return numero;
+            }
+            Object[] atuais = itens;
+            if (tamanho == atuais.length) {
+                atuais = Arrays.copyOf(atuais, tamanho * 2);
+            }
+            atuais[tamanho] = item;
+            itens = atuais;
+            numeros.put(item, tamanho);
+            return tamanho++;
+        }
+
+        int buscar(T item) {
+            Integer numero = item == null ? null : numeros.get(item);
+            return numero == null ? NULO : numero;
+        }
+
+        @SuppressWarnings("unchecked")
+        T item(int numero) {
+            return numero == NULO ? null : (T) itens[numero];
+        }
+    }
+}
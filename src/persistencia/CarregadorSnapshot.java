@@ -0,0 +1,261 @@
+package persistencia;
+
+import model.Consulta;
+import model.Exame;
+import model.ListaConsultas;
+import model.Medicamento;
+import model.Medico;
+import model.Paciente;
+import model.Pagamento;
+import model.StatusConsulta;
+import model.TabelaConsultas;
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static persistencia.FormatoSnapshot.*;
+
+/**
+ * Carrega um snapshot (ver FormatoSnapshot) nos serviços, que devem estar vazios.
+ *
+ * Cada seção é mapeada em memória e tem o CRC conferido antes de ser lida. As entidades são
+ * recriadas na ordem das seções, de modo que as referências por número sempre apontam para
+ * objetos já criados, e são incluídas nos serviços sem passar pelas validações do cadastro.
+ * Datas e horários se repetem muito e são compartilhados entre as entidades.
+ */
+public class CarregadorSnapshot {
+
+    // Cache de datas de 1900 a 2099, em dias desde 1970-01-01
+    private static final int PRIMEIRO_DIA_CACHE = (int) LocalDate.of(1900, 1, 1).toEpochDay();
+    private static final int DIAS_CACHE = (int) (LocalDate.of(2100, 1, 1).toEpochDay() - PRIMEIRO_DIA_CACHE);
+
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final ConsultaService consultaService;
+
+    private final LocalDate[] datas = new LocalDate[DIAS_CACHE];
+    private final LocalTime[] horarios = new LocalTime[24 * 60];
+    private byte[] bytesTexto = new byte[256];
+
+    public CarregadorSnapshot(PacienteService pacienteService, MedicoService medicoService,
+                              ExameService exameService, MedicamentoService medicamentoService,
+                              ConsultaService consultaService) {
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.consultaService = consultaService;
+    }
+
+    /**
+     * Carrega o snapshot e retorna sua geração, ou 0 se o arquivo não existir.
+     */
+    public long carregar(Path arquivo) throws IOException {
+        if (!Files.exists(arquivo)) {
+            return 0;
+        }
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            Cabecalho cabecalho = Cabecalho.ler(canal, arquivo);
+
+            ByteBuffer secao = mapear(canal, cabecalho, EXAMES, arquivo);
+            Exame[] exames = new Exame[secao.getInt()];
+            for (int i = 0; i < exames.length; i++) {
+                boolean ativo = secao.get() == 1;
+                exames[i] = new Exame(lerTexto(secao), lerData(secao), lerData(secao), lerTexto(secao),
+                        secao.getDouble());
+                if (ativo) {
+                    exameService.restaurarExame(exames[i]);
+                }
+            }
+
+            secao = mapear(canal, cabecalho, MEDICAMENTOS, arquivo);
+            Medicamento[] medicamentos = new Medicamento[secao.getInt()];
+            for (int i = 0; i < medicamentos.length; i++) {
+                boolean ativo = secao.get() == 1;
+                medicamentos[i] = new Medicamento(lerTexto(secao), lerTexto(secao), lerTexto(secao),
+                        secao.getDouble());
+                if (ativo) {
+                    medicamentoService.restaurarMedicamento(medicamentos[i]);
+                }
+            }
+
+            secao = mapear(canal, cabecalho, PACIENTES, arquivo);
+            Paciente[] pacientes = new Paciente[secao.getInt()];
+            for (int i = 0; i < pacientes.length; i++) {
+                boolean ativo = secao.get() == 1;
+                pacientes[i] = new Paciente(lerTexto(secao), lerTexto(secao), lerData(secao), List.of(), List.of());
+                if (ativo) {
+                    pacienteService.restaurarPaciente(pacientes[i]);
+                }
+            }
+
+            secao = mapear(canal, cabecalho, MEDICOS, arquivo);
+            Medico[] medicos = new Medico[secao.getInt()];
+            for (int i = 0; i < medicos.length; i++) {
+                boolean ativo = secao.get() == 1;
+                medicos[i] = new Medico(lerTexto(secao), lerTexto(secao), lerData(secao), lerTexto(secao),
+                        lerTexto(secao), List.of());
+                if (ativo) {
+                    medicoService.restaurarMedico(medicos[i]);
+                }
+            }
+
+            secao = mapear(canal, cabecalho, CONSULTAS, arquivo);
+            TabelaConsultas tabela = consultaService.getTabela();
+            int[] consultas = new int[secao.getInt()]; // Linha na tabela de cada consulta do snapshot
+            for (int i = 0; i < consultas.length; i++) {
+                boolean ativo = secao.get() == 1;
+                LocalDate data = lerData(secao);
+                LocalTime horario = lerHorario(secao);
+                int duracao = secao.getInt();
+                StatusConsulta status = lerStatus(secao);
+                Paciente paciente = referencia(pacientes, secao.getInt());
+                Medico medico = referencia(medicos, secao.getInt());
+                double valor = secao.getDouble();
+                List<Exame> examesPrescritos = lerReferencias(secao, exames);
+                List<Medicamento> medicamentosPrescritos = lerReferencias(secao, medicamentos);
+                Consulta consulta = tabela.adicionar(data, horario, duracao, status, paciente, medico,
+                        examesPrescritos, medicamentosPrescritos, valor);
+                consultas[i] = consulta.getLinha();
+                if (ativo) {
+                    consultaService.restaurarConsulta(consulta);
+                }
+            }
+
+            secao = mapear(canal, cabecalho, HISTORICOS, arquivo);
+            for (Paciente paciente : pacientes) {
+                paciente.setHistoricoMedico(lerConsultas(secao, tabela, consultas));
+                for (int n = secao.getInt(); n > 0; n--) {
+                    paciente.registrarDebito(tabela.consulta(consultas[secao.getInt()]));
+                }
+            }
+            for (Medico medico : medicos) {
+                for (int n = secao.getInt(); n > 0; n--) {
+                    medico.addConsulta(tabela.consulta(consultas[secao.getInt()]));
+                }
+            }
+
+            secao = mapear(canal, cabecalho, PAGAMENTOS, arquivo);
+            for (Paciente paciente : pacientes) {
+                for (int n = secao.getInt(); n > 0; n--) {
+                    double valor = secao.getDouble();
+                    boolean pago = secao.get() == 1;
+                    Pagamento pagamento = new Pagamento(valor, pago);
+                    pagamento.setConsultas(lerConsultas(secao, tabela, consultas));
+                    for (Consulta consulta : pagamento.getConsultas()) {
+                        consulta.setPagamento(pagamento);
+                    }
+                    consultaService.registrarPagamento(pagamento);
+                    paciente.getPagamentos().add(pagamento);
+                }
+            }
+            return cabecalho.geracao;
+        }
+    }
+
+    private static MappedByteBuffer mapear(FileChannel canal, Cabecalho cabecalho, int secao, Path arquivo)
+            throws IOException {
+        MappedByteBuffer bytes = canal.map(FileChannel.MapMode.READ_ONLY, cabecalho.inicio[secao],
+                cabecalho.tamanho[secao]);
+        CRC32C crc = new CRC32C();
+        crc.update(bytes.duplicate());
+        if ((int) crc.getValue() != cabecalho.crc[secao]) {
+            throw new IOException("Seção " + NOMES_SECOES[secao] + " do snapshot " + arquivo
+                    + " corrompida (CRC não confere).");
+        }
+        return bytes;
+    }
+
+    private String lerTexto(ByteBuffer secao) {
+        int tamanho = secao.getInt();
+        if (tamanho < 0) {
+            return null;
+        }
+        if (tamanho > bytesTexto.length) {
+            bytesTexto = new byte[Math.max(tamanho, bytesTexto.length * 2)];
+        }
+        secao.get(bytesTexto, 0, tamanho);
+        return new String(bytesTexto, 0, tamanho, StandardCharsets.UTF_8);
+    }
+
+    private LocalDate lerData(ByteBuffer secao) {
+        int dia = secao.getInt();
+        if (dia == DATA_NULA) {
+            return null;
+        }
+        int indice = dia - PRIMEIRO_DIA_CACHE;
+        if (indice < 0 || indice >= datas.length) {
+            return LocalDate.ofEpochDay(dia);
+        }
+        LocalDate data = datas[indice];
+        if (data == null) {
+            data = LocalDate.ofEpochDay(dia);
+            datas[indice] = data;
+        }
+        return data;
+    }
+
+    private LocalTime lerHorario(ByteBuffer secao) {
+        int segundos = secao.getInt();
+        if (segundos < 0) {
+            return null;
+        }
+        if (segundos % 60 != 0) {
+            return LocalTime.ofSecondOfDay(segundos);
+        }
+        LocalTime horario = horarios[segundos / 60];
+        if (horario == null) {
+            horario = LocalTime.ofSecondOfDay(segundos);
+            horarios[segundos / 60] = horario;
+        }
+        return horario;
+    }
+
+    private StatusConsulta lerStatus(ByteBuffer secao) throws IOException {
+        byte codigo = secao.get();
+        if (codigo < 0 || codigo >= STATUS.length) {
+            throw new IOException("Status de consulta inválido no snapshot: código " + codigo + ".");
+        }
+        return STATUS[codigo];
+    }
+
+    private static <T> T referencia(T[] entidades, int id) {
+        return id == SEM_REFERENCIA ? null : entidades[id];
+    }
+
+    private static ListaConsultas lerConsultas(ByteBuffer secao, TabelaConsultas tabela, int[] linhas) {
+        int quantidade = secao.getInt();
+        ListaConsultas consultas = new ListaConsultas(tabela, quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            consultas.adicionarLinha(linhas[secao.getInt()]);
+        }
+        return consultas;
+    }
+
+    private static <T> List<T> lerReferencias(ByteBuffer secao, T[] entidades) {
+        int quantidade = secao.getInt();
+        List<T> itens = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            itens.add(entidades[secao.getInt()]);
+        }
+        return itens;
+    }
+}
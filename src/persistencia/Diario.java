@@ -0,0 +1,82 @@
+package persistencia;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+
+/**
+ * Alterações bem-sucedidas feitas pelos serviços, na ordem em que aconteceram.
+ * Cada serviço avisa o diário depois de validar a alteração e antes de aplicá-la: se o diário
+ * não puder registrá-la, a exceção sai antes de qualquer mudança e a alteração é recusada.
+ * Depois de aplicar e soltar as travas, o serviço chama confirmar() e só então devolve o
+ * resultado. Reaplicar as mesmas chamadas, na mesma ordem, sobre serviços vazios reconstrói o
+ * mesmo estado (ver RecuperacaoDiario).
+ *
+ * Os métodos não fazem nada por padrão; NENHUM é o diário usado quando não há persistência.
+ */
+public interface Diario {
+
+    Diario NENHUM = new Diario() {};
+
+    /**
+     * Diário que repassa cada alteração para este e depois para o outro.
+     */
+    default Diario e(Diario outro) {
+        return new DiarioDuplo(this, outro);
+    }
+
+    /**
+     * Espera as alterações registradas por esta thread ficarem gravadas. Chamado sem nenhuma
+     * trava dos serviços, para que as threads que esperam juntas dividam a mesma gravação.
+     */
+    default void confirmar() {}
+
+    /**
+     * Avisa que a última alteração registrada por esta thread falhou depois do aviso e não foi
+     * aplicada (o serviço chama com as travas seguras, antes de relançar a exceção). O diário em
+     * arquivo não desfaz o registro; quem publica as alterações deixa de entregá-la.
+     */
+    default void cancelar() {}
+
+    // Pacientes e médicos são identificados pelo CPF e pelo CRM já formatados, como ficam no
+    // cadastro; na atualização vão a chave anterior e a nova (iguais se não mudou)
+
+    default void pacienteCadastrado(String cpf, PacienteRequest request) {}
+
+    default void pacienteAtualizado(String cpfAnterior, String cpf, PacienteRequest request) {}
+
+    default void pacienteRemovido(String cpf) {}
+
+    default void medicoCadastrado(String crm, MedicoRequest request) {}
+
+    default void medicoAtualizado(String crmAnterior, String crm, MedicoRequest request) {}
+
+    default void medicoRemovido(String crm) {}
+
+    // Exames e medicamentos vão com a posição na lista (o que a recuperação reaplica) e o número
+    // de cadastro (getId), que não muda com as remoções; consultas vão com a linha na
+    // TabelaConsultas. Números e linhas valem enquanto o processo roda: ao carregar um snapshot
+    // eles são refeitos na ordem da lista.
+
+    default void exameCadastrado(long id, ExameRequest request) {}
+
+    default void exameAtualizado(int indice, long id, ExameRequest request) {}
+
+    default void exameRemovido(int indice, long id) {}
+
+    default void medicamentoCadastrado(long id, MedicamentoRequest request) {}
+
+    default void medicamentoAtualizado(int indice, long id, MedicamentoRequest request) {}
+
+    default void medicamentoRemovido(int indice, long id) {}
+
+    default void consultaAgendada(int linha, ConsultaRequest request) {}
+
+    default void consultaAtualizada(int indice, int linha, ConsultaRequest request) {}
+
+    default void consultaRemovida(int indice, int linha) {}
+
+    default void pagamentoRealizado(String cpfPaciente, double valorPago) {}
+}
@@ -0,0 +1,364 @@
+package persistencia;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static persistencia.FormatoDiario.*;
+
+/**
+ * Diário gravado em arquivo, somente por acréscimo (ver FormatoDiario).
+ *
+ * Antes de aplicar uma alteração, o serviço copia o registro para um buffer em memória; uma
+ * thread de gravação troca esse buffer por outro vazio, grava o lote inteiro e chama force uma
+ * única vez (group commit). Depois de aplicar e soltar as travas, o serviço espera em
+ * confirmar() o lote com o seu registro chegar ao disco: o sucesso só é devolvido depois do
+ * force, e as alterações que chegam enquanto um lote é gravado esperam juntas pelo seguinte.
+ * Use sincronizar() quando for preciso garantir que tudo o que já foi registrado está no disco.
+ *
+ * Depois de uma falha de gravação o diário recusa os registros seguintes, então nenhuma outra
+ * alteração é aplicada. As alterações que esperavam em confirmar() recebem a exceção em vez do
+ * sucesso; elas já estão na memória, mas não no disco, e somem ao reabrir.
+ *
+ * O arquivo guarda o que a recuperação reaplica: as requisições, CPF/CRM anteriores e as
+ * posições nas listas. Os números de cadastro e as linhas das consultas não são gravados, pois
+ * são refeitos ao carregar.
+ *
+ * O arquivo deve ser aberto depois da recuperação (RecuperacaoDiario), que descarta um
+ * final incompleto deixado por uma queda. Depois de gravar um snapshot, reiniciar() esvazia
+ * o diário, que passa a conter só as alterações posteriores ao snapshot.
+ */
+public class DiarioArquivo implements Diario, AutoCloseable {
+
+    private static final int CAPACIDADE_BUFFER = 4 << 20;
+
+    private final FileChannel canal;
+    private final Thread gravador;
+    private final ThreadLocal<Escritor> escritores = ThreadLocal.withInitial(Escritor::new);
+
+    // Protegidos pelo monitor do diário
+    private ByteBuffer pendente = ByteBuffer.allocate(CAPACIDADE_BUFFER);
+    private ByteBuffer emGravacao = ByteBuffer.allocate(CAPACIDADE_BUFFER);
+    private long registrosAceitos;
+    private long registrosGravados;
+    private IOException falha;
+    private boolean fechando;
+
+    public DiarioArquivo(Path arquivo, long geracao) throws IOException {
+        canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if (canal.size() < TAMANHO_CABECALHO_ARQUIVO) {
+                iniciarArquivo(geracao);
+            } else if (lerGeracao(canal, arquivo) != geracao) {
+                throw new IOException("O diário " + arquivo + " não corresponde ao snapshot carregado.");
+            }
+            canal.position(canal.size());
+        } catch (IOException e) {
+            canal.close();
+            throw e;
+        }
+        gravador = new Thread(this::gravarLotes, "diario-gravador");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    /**
+     * Aguarda até que todos os registros aceitos até agora estejam gravados no disco.
+     */
+    public void sincronizar() throws IOException {
+        synchronized (this) {
+            long alvo = registrosAceitos;
+            while (registrosGravados < alvo) {
+                if (falha != null) {
+                    throw falha;
+                }
+                aguardar();
+            }
+        }
+    }
+
+    /**
+     * Esvazia o diário e o marca com a geração do snapshot que acabou de ser gravado.
+     * Tudo o que já foi registrado é gravado antes; o snapshot deve conter essas alterações.
+     */
+    public void reiniciar(long geracao) throws IOException {
+        synchronized (this) {
+            sincronizar();
+            if (fechando) {
+                throw new IllegalStateException("O diário já foi fechado.");
+            }
+            // A thread de gravação está parada: não há nada pendente e ela precisa do monitor para continuar
+            iniciarArquivo(geracao);
+        }
+    }
+
+    /**
+     * Aguarda até que o último registro aceito desta thread esteja gravado no disco.
+     */
+    @Override
+    public void confirmar() {
+        long registro = escritores.get().registro;
+        synchronized (this) {
+            while (registrosGravados < registro) {
+                if (falha != null) {
+                    throw new UncheckedIOException("Falha ao gravar o diário.", falha);
+                }
+                aguardarSemInterrupcao();
+            }
+        }
+    }
+
+    /**
+     * Tamanho atual do arquivo, em bytes (não inclui o que ainda está no buffer).
+     */
+    public long tamanho() throws IOException {
+        return canal.size();
+    }
+
+    /**
+     * Grava o que estiver pendente, encerra a thread de gravação e fecha o arquivo.
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            fechando = true;
+            notifyAll();
+        }
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        if (falha != null) {
+            throw falha;
+        }
+    }
+
+    @Override
+    public void pacienteCadastrado(String cpf, PacienteRequest request) {
+        gravar(escritor(PACIENTE_CADASTRADO).escreverTexto(request.getNome()).escreverTexto(request.getCpf())
+                .escreverData(request.getDataNascimento()));
+    }
+
+    @Override
+    public void pacienteAtualizado(String cpfAnterior, String cpf, PacienteRequest request) {
+        gravar(escritor(PACIENTE_ATUALIZADO).escreverTexto(cpfAnterior).escreverTexto(request.getNome())
+                .escreverTexto(request.getCpf()).escreverData(request.getDataNascimento()));
+    }
+
+    @Override
+    public void pacienteRemovido(String cpf) {
+        gravar(escritor(PACIENTE_REMOVIDO).escreverTexto(cpf));
+    }
+
+    @Override
+    public void medicoCadastrado(String crm, MedicoRequest request) {
+        gravar(escreverMedico(escritor(MEDICO_CADASTRADO), request));
+    }
+
+    @Override
+    public void medicoAtualizado(String crmAnterior, String crm, MedicoRequest request) {
+        gravar(escreverMedico(escritor(MEDICO_ATUALIZADO).escreverTexto(crmAnterior), request));
+    }
+
+    @Override
+    public void medicoRemovido(String crm) {
+        gravar(escritor(MEDICO_REMOVIDO).escreverTexto(crm));
+    }
+
+    @Override
+    public void exameCadastrado(long id, ExameRequest request) {
+        gravar(escreverExame(escritor(EXAME_CADASTRADO), request));
+    }
+
+    @Override
+    public void exameAtualizado(int indice, long id, ExameRequest request) {
+        gravar(escreverExame(escritor(EXAME_ATUALIZADO).escreverInt(indice), request));
+    }
+
+    @Override
+    public void exameRemovido(int indice, long id) {
+        gravar(escritor(EXAME_REMOVIDO).escreverInt(indice));
+    }
+
+    @Override
+    public void medicamentoCadastrado(long id, MedicamentoRequest request) {
+        gravar(escreverMedicamento(escritor(MEDICAMENTO_CADASTRADO), request));
+    }
+
+    @Override
+    public void medicamentoAtualizado(int indice, long id, MedicamentoRequest request) {
+        gravar(escreverMedicamento(escritor(MEDICAMENTO_ATUALIZADO).escreverInt(indice), request));
+    }
+
+    @Override
+    public void medicamentoRemovido(int indice, long id) {
+        gravar(escritor(MEDICAMENTO_REMOVIDO).escreverInt(indice));
+    }
+
+    @Override
+    public void consultaAgendada(int linha, ConsultaRequest request) {
+        gravar(escreverConsulta(escritor(CONSULTA_AGENDADA), request));
+    }
+
+    @Override
+    public void consultaAtualizada(int indice, int linha, ConsultaRequest request) {
+        gravar(escreverConsulta(escritor(CONSULTA_ATUALIZADA).escreverInt(indice), request));
+    }
+
+    @Override
+    public void consultaRemovida(int indice, int linha) {
+        gravar(escritor(CONSULTA_REMOVIDA).escreverInt(indice));
+    }
+
+    @Override
+    public void pagamentoRealizado(String cpfPaciente, double valorPago) {
+        gravar(escritor(PAGAMENTO_REALIZADO).escreverTexto(cpfPaciente).escreverNumero(valorPago));
+    }
+
+    // Codificação dos registros
+
+    private Escritor escritor(byte tipo) {
+        return escritores.get().iniciar(tipo);
+    }
+
+    private static Escritor escreverMedico(Escritor escritor, MedicoRequest request) {
+        return escritor.escreverTexto(request.getNome()).escreverTexto(request.getCpf())
+                .escreverData(request.getDataNascimento()).escreverTexto(request.getCrm())
+                .escreverTexto(request.getEspecialidade());
+    }
+
+    private static Escritor escreverExame(Escritor escritor, ExameRequest request) {
+        return escritor.escreverTexto(request.getTipo()).escreverData(request.getDataPrescricao())
+                .escreverData(request.getDataRealizacao()).escreverTexto(request.getResultado())
+                .escreverNumero(request.getCusto());
+    }
+
+    private static Escritor escreverMedicamento(Escritor escritor, MedicamentoRequest request) {
+        return escritor.escreverTexto(request.getNome()).escreverTexto(request.getDosagem())
+                .escreverTexto(request.getPosologia()).escreverNumero(request.getPreco());
+    }
+
+    private static Escritor escreverConsulta(Escritor escritor, ConsultaRequest request) {
+        return escritor.escreverData(request.getData()).escreverHorario(request.getHorario())
+                .escreverInteiro(request.getDuracao()).escreverTexto(request.getStatus())
+                .escreverTexto(request.getCpfPaciente()).escreverTexto(request.getCrmMedico())
+                .escreverTextos(request.getTiposExame()).escreverTextos(request.getNomesMedicamentos())
+                .escreverNumero(request.getValor());
+    }
+
+    // Group commit
+
+    /**
+     * Copia o registro para o buffer pendente, esperando espaço se a gravação estiver atrasada.
+     */
+    private void gravar(Escritor escritor) {
+        escritor.finalizar();
+        synchronized (this) {
+            verificarEstado();
+            while (pendente.remaining() < escritor.tamanho()) {
+                aguardarSemInterrupcao();
+                verificarEstado();
+            }
+            pendente.put(escritor.bytes(), 0, escritor.tamanho());
+            escritor.registro = ++registrosAceitos;
+            notifyAll();
+        }
+    }
+
+    /**
+     * Laço da thread de gravação: cada volta grava tudo o que se acumulou desde a anterior.
+     */
+    private void gravarLotes() {
+        while (true) {
+            long lote;
+            synchronized (this) {
+                try {
+                    while (pendente.position() == 0 && !fechando) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    falha = new InterruptedIOException("Gravação do diário interrompida.");
+                    notifyAll();
+                    return;
+                }
+                if (pendente.position() == 0) {
+                    return; // Fechando e sem nada pendente
+                }
+                ByteBuffer cheio = pendente;
+                pendente = emGravacao;
+                emGravacao = cheio;
+                lote = registrosAceitos;
+                notifyAll();
+            }
+
+            try {
+                emGravacao.flip();
+                while (emGravacao.hasRemaining()) {
+                    canal.write(emGravacao);
+                }
+                canal.force(false);
+                emGravacao.clear();
+            } catch (IOException e) {
+                synchronized (this) {
+                    falha = e;
+                    notifyAll();
+                }
+                return;
+            }
+
+            synchronized (this) {
+                registrosGravados = lote;
+                notifyAll();
+            }
+        }
+    }
+
+    private void iniciarArquivo(long geracao) throws IOException {
+        canal.truncate(0);
+        ByteBuffer cabecalho = cabecalho(geracao);
+        while (cabecalho.hasRemaining()) {
+            canal.write(cabecalho, cabecalho.position());
+        }
+        canal.force(true);
+        canal.position(TAMANHO_CABECALHO_ARQUIVO);
+    }
+
+    private void verificarEstado() {
+        if (falha != null) {
+            throw new UncheckedIOException("Falha ao gravar o diário.", falha);
+        }
+        if (fechando) {
+            throw new IllegalStateException("O diário já foi fechado.");
+        }
+    }
+
+    private void aguardar() throws InterruptedIOException {
+        try {
+            wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Espera pelo diário interrompida.");
+        }
+    }
+
+    private void aguardarSemInterrupcao() {
+        try {
+            aguardar();
+        } catch (InterruptedIOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package persistencia;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+
+/**
+ * Repassa cada alteração para dois diários, na ordem: o primeiro (em geral o arquivo) e depois
+ * o segundo.
+ */
+class DiarioDuplo implements Diario {
+
+    private final Diario primeiro;
+    private final Diario segundo;
+
+    DiarioDuplo(Diario primeiro, Diario segundo) {
+        this.primeiro = primeiro;
+        this.segundo = segundo;
+    }
+
+    @Override
+    public void confirmar() {
+        try {
+            primeiro.confirmar();
+        } finally {
+            segundo.confirmar();
+        }
+    }
+
+    @Override
+    public void cancelar() {
+        try {
+            primeiro.cancelar();
+        } finally {
+            segundo.cancelar();
+        }
+    }
+
+    @Override
+    public void pacienteCadastrado(String cpf, PacienteRequest request) {
+        primeiro.pacienteCadastrado(cpf, request);
+        segundo.pacienteCadastrado(cpf, request);
+    }
+
+    @Override
+    public void pacienteAtualizado(String cpfAnterior, String cpf, PacienteRequest request) {
+        primeiro.pacienteAtualizado(cpfAnterior, cpf, request);
+        segundo.pacienteAtualizado(cpfAnterior, cpf, request);
+    }
+
+    @Override
+    public void pacienteRemovido(String cpf) {
+        primeiro.pacienteRemovido(cpf);
+        segundo.pacienteRemovido(cpf);
+    }
+
+    @Override
+    public void medicoCadastrado(String crm, MedicoRequest request) {
+        primeiro.medicoCadastrado(crm, request);
+        segundo.medicoCadastrado(crm, request);
+    }
+
+    @Override
+    public void medicoAtualizado(String crmAnterior, String crm, MedicoRequest request) {
+        primeiro.medicoAtualizado(crmAnterior, crm, request);
+        segundo.medicoAtualizado(crmAnterior, crm, request);
+    }
+
+    @Override
+    public void medicoRemovido(String crm) {
+        primeiro.medicoRemovido(crm);
+        segundo.medicoRemovido(crm);
+    }
+
+    @Override
+    public void exameCadastrado(long id, ExameRequest request) {
+        primeiro.exameCadastrado(id, request);
+        segundo.exameCadastrado(id, request);
+    }
+
+    @Override
+    public void exameAtualizado(int indice, long id, ExameRequest request) {
+        primeiro.exameAtualizado(indice, id, request);
+        segundo.exameAtualizado(indice, id, request);
+    }
+
+    @Override
+    public void exameRemovido(int indice, long id) {
+        primeiro.exameRemovido(indice, id);
+        segundo.exameRemovido(indice, id);
+    }
+
+    @Override
+    public void medicamentoCadastrado(long id, MedicamentoRequest request) {
+        primeiro.medicamentoCadastrado(id, request);
+        segundo.medicamentoCadastrado(id, request);
+    }
+
+    @Override
+    public void medicamentoAtualizado(int indice, long id, MedicamentoRequest request) {
+        primeiro.medicamentoAtualizado(indice, id, request);
+        segundo.medicamentoAtualizado(indice, id, request);
+    }
+
+    @Override
+    public void medicamentoRemovido(int indice, long id) {
+        primeiro.medicamentoRemovido(indice, id);
+        segundo.medicamentoRemovido(indice, id);
+    }
+
+    @Override
+    public void consultaAgendada(int linha, ConsultaRequest request) {
+        primeiro.consultaAgendada(linha, request);
+        segundo.consultaAgendada(linha, request);
+    }
+
+    @Override
+    public void consultaAtualizada(int indice, int linha, ConsultaRequest request) {
+        primeiro.consultaAtualizada(indice, linha, request);
+        segundo.consultaAtualizada(indice, linha, request);
+    }
+
+    @Override
+    public void consultaRemovida(int indice, int linha) {
+        primeiro.consultaRemovida(indice, linha);
+        segundo.consultaRemovida(indice, linha);
+    }
+
+    @Override
+    public void pagamentoRealizado(String cpfPaciente, double valorPago) {
+        primeiro.pagamentoRealizado(cpfPaciente, valorPago);
+        segundo.pagamentoRealizado(cpfPaciente, valorPago);
+    }
+}
@@ -0,0 +1,255 @@
+package persistencia;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário do diário.
+ *
+ * O arquivo começa com o cabeçalho [MAGICO:int][VERSAO:int][geração:long] e segue com registros no formato
+ * [tamanho:int][crc:int][tipo:byte][campos...], onde tamanho conta os bytes de tipo e campos
+ * e crc é o CRC32C desses mesmos bytes. Textos são gravados como [bytes:int][UTF-8]
+ * (-1 para nulo) e datas como o dia desde 1970-01-01 (Long.MIN_VALUE para nula).
+ *
+ * A geração identifica o snapshot sobre o qual o diário deve ser reaplicado: ao gravar um
+ * snapshot de geração N, o diário é reiniciado vazio com geração N.
+ */
+final class FormatoDiario {
+
+    static final int MAGICO = 0x434C5744; // "CLWD"
+    static final int VERSAO = 2;
+    static final int TAMANHO_CABECALHO_ARQUIVO = 16;
+    static final int TAMANHO_CABECALHO_REGISTRO = 8;
+    static final int TAMANHO_MAXIMO_REGISTRO = 1 << 20;
+
+    static final byte PACIENTE_CADASTRADO = 1;
+    static final byte PACIENTE_ATUALIZADO = 2;
+    static final byte PACIENTE_REMOVIDO = 3;
+    static final byte MEDICO_CADASTRADO = 4;
+    static final byte MEDICO_ATUALIZADO = 5;
+    static final byte MEDICO_REMOVIDO = 6;
+    static final byte EXAME_CADASTRADO = 7;
+    static final byte EXAME_ATUALIZADO = 8;
+    static final byte EXAME_REMOVIDO = 9;
+    static final byte MEDICAMENTO_CADASTRADO = 10;
+    static final byte MEDICAMENTO_ATUALIZADO = 11;
+    static final byte MEDICAMENTO_REMOVIDO = 12;
+    static final byte CONSULTA_AGENDADA = 13;
+    static final byte CONSULTA_ATUALIZADA = 14;
+    static final byte CONSULTA_REMOVIDA = 15;
+    static final byte PAGAMENTO_REALIZADO = 16;
+
+    private FormatoDiario() {}
+
+    static ByteBuffer cabecalho(long geracao) {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO_ARQUIVO).putInt(MAGICO).putInt(VERSAO)
+                .putLong(geracao);
+        cabecalho.flip();
+        return cabecalho;
+    }
+
+    /**
+     * Confere o cabeçalho do arquivo e retorna a geração do diário.
+     */
+    static long lerGeracao(FileChannel canal, Path arquivo) throws IOException {
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO_ARQUIVO);
+        while (cabecalho.hasRemaining() && canal.read(cabecalho, cabecalho.position()) >= 0) {
+            // Lê o cabeçalho inteiro
+        }
+        if (cabecalho.getInt(0) != MAGICO) {
+            throw new IOException("O arquivo " + arquivo + " não é um diário da clínica.");
+        }
+        if (cabecalho.getInt(4) != VERSAO) {
+            throw new IOException("Versão do diário não suportada: " + cabecalho.getInt(4) + ".");
+        }
+        return cabecalho.getLong(8);
+    }
+
+    /**
+     * Monta um registro completo (cabeçalho, tipo e campos) num buffer reaproveitável.
+     */
+    static final class Escritor {
+
+        private byte[] bytes = new byte[256];
+        private int tamanho;
+        private final CRC32C crc = new CRC32C();
+        // Número do último registro aceito pelo DiarioArquivo (um escritor por thread), para confirmar()
+        long registro;
+
+        Escritor iniciar(byte tipo) {
+            tamanho = TAMANHO_CABECALHO_REGISTRO;
+            return escreverByte(tipo);
+        }
+
+        /**
+         * Preenche tamanho e CRC no cabeçalho. O registro fica em bytes()[0, tamanho()).
+         */
+        void finalizar() {
+            int conteudo = tamanho - TAMANHO_CABECALHO_REGISTRO;
+            if (conteudo > TAMANHO_MAXIMO_REGISTRO) {
+                throw new IllegalArgumentException("Registro do diário excede " + TAMANHO_MAXIMO_REGISTRO + " bytes.");
+            }
+            crc.reset();
+            crc.update(bytes, TAMANHO_CABECALHO_REGISTRO, conteudo);
+            escreverIntEm(0, conteudo);
+            escreverIntEm(4, (int) crc.getValue());
+        }
+
+        byte[] bytes() {
+            return bytes;
+        }
+
+        int tamanho() {
+            return tamanho;
+        }
+
+        Escritor escreverByte(int valor) {
+            garantir(1);
+            bytes[tamanho++] = (byte) valor;
+            return this;
+        }
+
+        Escritor escreverInt(int valor) {
+            garantir(4);
+            escreverIntEm(tamanho, valor);
+            tamanho += 4;
+            return this;
+        }
+
+        Escritor escreverLong(long valor) {
+            garantir(8);
+            for (int i = 7; i >= 0; i--) {
+                bytes[tamanho + i] = (byte) valor;
+                valor >>>= 8;
+            }
+            tamanho += 8;
+            return this;
+        }
+
+        Escritor escreverTexto(String texto) {
+            if (texto == null) {
+                return escreverInt(-1);
+            }
+            byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+            escreverInt(utf8.length);
+            garantir(utf8.length);
+            System.arraycopy(utf8, 0, bytes, tamanho, utf8.length);
+            tamanho += utf8.length;
+            return this;
+        }
+
+        Escritor escreverData(LocalDate data) {
+            return escreverLong(data == null ? Long.MIN_VALUE : data.toEpochDay());
+        }
+
+        Escritor escreverHorario(LocalTime horario) {
+            return escreverInt(horario == null ? -1 : horario.toSecondOfDay());
+        }
+
+        Escritor escreverInteiro(Integer valor) {
+            if (valor == null) {
+                return escreverByte(0);
+            }
+            return escreverByte(1).escreverInt(valor);
+        }
+
+        Escritor escreverNumero(Double valor) {
+            if (valor == null) {
+                return escreverByte(0);
+            }
+            return escreverByte(1).escreverLong(Double.doubleToRawLongBits(valor));
+        }
+
+        Escritor escreverTextos(List<String> textos) {
+            escreverInt(textos.size());
+            for (String texto : textos) {
+                escreverTexto(texto);
+            }
+            return this;
+        }
+
+        private void escreverIntEm(int posicao, int valor) {
+            bytes[posicao] = (byte) (valor >>> 24);
+            bytes[posicao + 1] = (byte) (valor >>> 16);
+            bytes[posicao + 2] = (byte) (valor >>> 8);
+            bytes[posicao + 3] = (byte) valor;
+        }
+
+        private void garantir(int adicional) {
+            if (tamanho + adicional > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, tamanho + adicional));
+            }
+        }
+    }
+
+    /**
+     * Lê os campos de um registro a partir da posição atual de um buffer com array.
+     */
+    static final class Leitor {
+
+        private final ByteBuffer buffer;
+
+        Leitor(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        byte lerByte() {
+            return buffer.get();
+        }
+
+        int lerInt() {
+            return buffer.getInt();
+        }
+
+        long lerLong() {
+            return buffer.getLong();
+        }
+
+        String lerTexto() {
+            int bytes = buffer.getInt();
+            if (bytes < 0) {
+                return null;
+            }
+            String texto = new String(buffer.array(), buffer.arrayOffset() + buffer.position(), bytes,
+                    StandardCharsets.UTF_8);
+            buffer.position(buffer.position() + bytes);
+            return texto;
+        }
+
+        LocalDate lerData() {
+            long dia = buffer.getLong();
+            return dia == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dia);
+        }
+
+        LocalTime lerHorario() {
+            int segundos = buffer.getInt();
+            return segundos < 0 ? null : LocalTime.ofSecondOfDay(segundos);
+        }
+
+        Integer lerInteiro() {
+            return buffer.get() == 0 ? null : buffer.getInt();
+        }
+
+        Double lerNumero() {
+            return buffer.get() == 0 ? null : Double.longBitsToDouble(buffer.getLong());
+        }
+
+        List<String> lerTextos() {
+            int quantidade = buffer.getInt();
+            List<String> textos = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                textos.add(lerTexto());
+            }
+            return textos;
+        }
+    }
+}
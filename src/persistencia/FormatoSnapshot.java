@@ -0,0 +1,125 @@
+package persistencia;
+
+import model.StatusConsulta;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.util.zip.CRC32C;
+
+/**
+ * Formato binário do snapshot.
+ *
+ * Cabeçalho: [MAGICO:int][VERSAO:int][geração:long][seções:int], a tabela de seções com
+ * [início:long][tamanho:long][crc:int] para cada uma e, por fim, o CRC32C dos bytes anteriores
+ * do cabeçalho. Cada seção é conferida pelo seu próprio CRC32C.
+ *
+ * As entidades são numeradas pela posição na sua seção e as referências entre elas (paciente
+ * e médico da consulta, prescrições, históricos, pagamentos) são gravadas como esses números
+ * (-1 para nulo). Cada entidade começa com um byte que indica se ela está cadastrada no
+ * serviço (1) ou se só é alcançável por referência, como a consulta de um paciente removido (0).
+ *
+ * Textos são gravados como [bytes:int][UTF-8] (-1 para nulo), datas como o dia desde
+ * 1970-01-01 (Integer.MIN_VALUE para nula), horários em segundos do dia (-1 para nulo)
+ * e números decimais pelos bits do double.
+ */
+final class FormatoSnapshot {
+
+    static final int MAGICO = 0x434C534E; // "CLSN"
+    static final int VERSAO = 1;
+
+    static final int EXAMES = 0;
+    static final int MEDICAMENTOS = 1;
+    static final int PACIENTES = 2;
+    static final int MEDICOS = 3;
+    static final int CONSULTAS = 4;
+    static final int HISTORICOS = 5;
+    static final int PAGAMENTOS = 6;
+    static final String[] NOMES_SECOES = {"Exames", "Medicamentos", "Pacientes", "Médicos", "Consultas",
+            "Históricos", "Pagamentos"};
+    static final int QUANTIDADE_SECOES = NOMES_SECOES.length;
+
+    static final int TAMANHO_ENTRADA_SECAO = 20;
+    static final int POSICAO_SECOES = 20;
+    static final int TAMANHO_CABECALHO = POSICAO_SECOES + QUANTIDADE_SECOES * TAMANHO_ENTRADA_SECAO + 4;
+
+    static final int DATA_NULA = Integer.MIN_VALUE;
+    static final int SEM_REFERENCIA = -1;
+
+    // Status gravados como código (0 para nulo)
+    static final StatusConsulta[] STATUS = {null, StatusConsulta.AGENDADA, StatusConsulta.CANCELADA,
+            StatusConsulta.REALIZADA};
+
+    private FormatoSnapshot() {}
+
+    /**
+     * Cabeçalho lido e conferido de um snapshot.
+     */
+    static final class Cabecalho {
+
+        final long geracao;
+        final long[] inicio = new long[QUANTIDADE_SECOES];
+        final long[] tamanho = new long[QUANTIDADE_SECOES];
+        final int[] crc = new int[QUANTIDADE_SECOES];
+
+        private Cabecalho(long geracao) {
+            this.geracao = geracao;
+        }
+
+        static Cabecalho ler(FileChannel canal, Path arquivo) throws IOException {
+            if (canal.size() < TAMANHO_CABECALHO) {
+                throw new IOException("O snapshot " + arquivo + " está incompleto.");
+            }
+            ByteBuffer bytes = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            while (bytes.hasRemaining() && canal.read(bytes, bytes.position()) >= 0) {
+                // Lê o cabeçalho inteiro
+            }
+            bytes.flip();
+            if (bytes.getInt(0) != MAGICO) {
+                throw new IOException("O arquivo " + arquivo + " não é um snapshot da clínica.");
+            }
+            if (bytes.getInt(4) != VERSAO) {
+                throw new IOException("Versão do snapshot não suportada: " + bytes.getInt(4) + ".");
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.array(), 0, TAMANHO_CABECALHO - 4);
+            if ((int) crc.getValue() != bytes.getInt(TAMANHO_CABECALHO - 4)) {
+                throw new IOException("Cabeçalho do snapshot " + arquivo + " corrompido (CRC não confere).");
+            }
+            if (bytes.getInt(16) != QUANTIDADE_SECOES) {
+                throw new IOException("Quantidade de seções inesperada no snapshot: " + bytes.getInt(16) + ".");
+            }
+
+            Cabecalho cabecalho = new Cabecalho(bytes.getLong(8));
+            long tamanhoArquivo = canal.size();
+            for (int i = 0; i < QUANTIDADE_SECOES; i++) {
+                int posicao = POSICAO_SECOES + i * TAMANHO_ENTRADA_SECAO;
+                cabecalho.inicio[i] = bytes.getLong(posicao);
+                cabecalho.tamanho[i] = bytes.getLong(posicao + 8);
+                cabecalho.crc[i] = bytes.getInt(posicao + 16);
+                if (cabecalho.inicio[i] < TAMANHO_CABECALHO || cabecalho.tamanho[i] < 0
+                        || cabecalho.inicio[i] + cabecalho.tamanho[i] > tamanhoArquivo) {
+                    throw new IOException("Seção " + NOMES_SECOES[i] + " fora dos limites do arquivo " + arquivo + ".");
+                }
+                if (cabecalho.tamanho[i] > Integer.MAX_VALUE) {
+                    throw new IOException("Seção " + NOMES_SECOES[i] + " grande demais para ser mapeada.");
+                }
+            }
+            return cabecalho;
+        }
+
+        static ByteBuffer gravar(long geracao, long[] inicio, long[] tamanho, int[] crcSecoes) {
+            ByteBuffer bytes = ByteBuffer.allocate(TAMANHO_CABECALHO);
+            bytes.putInt(MAGICO).putInt(VERSAO).putLong(geracao).putInt(QUANTIDADE_SECOES);
+            for (int i = 0; i < QUANTIDADE_SECOES; i++) {
+                bytes.putLong(inicio[i]).putLong(tamanho[i]).putInt(crcSecoes[i]);
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes.array(), 0, bytes.position());
+            bytes.putInt((int) crc.getValue());
+            bytes.flip();
+            return bytes;
+        }
+    }
+}
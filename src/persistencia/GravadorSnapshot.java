@@ -0,0 +1,407 @@
+package persistencia;
+
+import model.Consulta;
+import model.Exame;
+import model.Medicamento;
+import model.Medico;
+import model.Paciente;
+import model.Pagamento;
+import model.StatusConsulta;
+import model.TabelaConsultas;
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static persistencia.FormatoSnapshot.*;
+
+/**
+ * Grava o estado completo dos serviços num snapshot (ver FormatoSnapshot).
+ *
+ * O arquivo é escrito ao lado do destino com a extensão .tmp, sincronizado com o disco e só
+ * então renomeado sobre o snapshot anterior, de modo que uma queda durante a gravação deixa
+ * o snapshot anterior intacto.
+ */
+public class GravadorSnapshot {
+
+    private static final int TAMANHO_BUFFER = 8 << 20;
+
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final ConsultaService consultaService;
+
+    public GravadorSnapshot(PacienteService pacienteService, MedicoService medicoService,
+                            ExameService exameService, MedicamentoService medicamentoService,
+                            ConsultaService consultaService) {
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.consultaService = consultaService;
+    }
+
+    public void gravar(Path arquivo, long geracao) throws IOException {
+        Tabela<Exame> exames = new Tabela<>(exameService.getExames());
+        Tabela<Medicamento> medicamentos = new Tabela<>(medicamentoService.getMedicamentos());
+        Tabela<Paciente> pacientes = new Tabela<>(pacienteService.getPacientes());
+        Tabela<Medico> medicos = new Tabela<>(medicoService.getMedicos());
+        TabelaConsultas tabela = consultaService.getTabela();
+        NumeracaoConsultas consultas = new NumeracaoConsultas(tabela, consultaService.getConsultas());
+        numerarReferencias(exames, medicamentos, pacientes, medicos, consultas);
+
+        Path temporario = Paths.get(arquivo + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            Saida saida = new Saida(canal);
+
+            saida.iniciarSecao(EXAMES);
+            saida.escreverInt(exames.itens.size());
+            for (int i = 0; i < exames.itens.size(); i++) {
+                Exame exame = exames.itens.get(i);
+                saida.escreverByte(exames.ativo(i) ? 1 : 0);
+                saida.escreverTexto(exame.getTipo());
+                saida.escreverData(exame.getDataPrescricao());
+                saida.escreverData(exame.getDataRealizacao());
+                saida.escreverTexto(exame.getResultado());
+                saida.escreverDouble(exame.getCusto());
+            }
+
+            saida.iniciarSecao(MEDICAMENTOS);
+            saida.escreverInt(medicamentos.itens.size());
+            for (int i = 0; i < medicamentos.itens.size(); i++) {
+                Medicamento medicamento = medicamentos.itens.get(i);
+                saida.escreverByte(medicamentos.ativo(i) ? 1 : 0);
+                saida.escreverTexto(medicamento.getNome());
+                saida.escreverTexto(medicamento.getDosagem());
+                saida.escreverTexto(medicamento.getPosologia());
+                saida.escreverDouble(medicamento.getPreco());
+            }
+
+            saida.iniciarSecao(PACIENTES);
+            saida.escreverInt(pacientes.itens.size());
+            for (int i = 0; i < pacientes.itens.size(); i++) {
+                Paciente paciente = pacientes.itens.get(i);
+                saida.escreverByte(pacientes.ativo(i) ? 1 : 0);
+                saida.escreverTexto(paciente.getNome());
+                saida.escreverTexto(paciente.getCpf());
+                saida.escreverData(paciente.getDataNascimento());
+            }
+
+            saida.iniciarSecao(MEDICOS);
+            saida.escreverInt(medicos.itens.size());
+            for (int i = 0; i < medicos.itens.size(); i++) {
+                Medico medico = medicos.itens.get(i);
+                saida.escreverByte(medicos.ativo(i) ? 1 : 0);
+                saida.escreverTexto(medico.getNome());
+                saida.escreverTexto(medico.getCpf());
+                saida.escreverData(medico.getDataNascimento());
+                saida.escreverTexto(medico.getCrm());
+                saida.escreverTexto(medico.getEspecialidade());
+            }
+
+            saida.iniciarSecao(CONSULTAS);
+            saida.escreverInt(consultas.quantidade);
+            for (int i = 0; i < consultas.quantidade; i++) {
+                int linha = consultas.linhas[i];
+                saida.escreverByte(consultas.ativo(i) ? 1 : 0);
+                saida.escreverData(tabela.getData(linha));
+                saida.escreverHorario(tabela.getHorario(linha));
+                saida.escreverInt(tabela.getDuracao(linha));
+                saida.escreverStatus(tabela.getStatus(linha));
+                saida.escreverInt(pacientes.id(tabela.getPaciente(linha)));
+                saida.escreverInt(medicos.id(tabela.getMedico(linha)));
+                saida.escreverDouble(tabela.getValor(linha));
+                saida.escreverIds(exames, tabela.getExamesPrescritos(linha));
+                saida.escreverIds(medicamentos, tabela.getMedicamentosPrescritos(linha));
+            }
+
+            saida.iniciarSecao(HISTORICOS);
+            for (Paciente paciente : pacientes.itens) {
+                saida.escreverConsultas(consultas, paciente.getHistoricoMedico());
+                saida.escreverConsultas(consultas, paciente.getConsultasPendentes());
+            }
+            for (Medico medico : medicos.itens) {
+                saida.escreverConsultas(consultas, medico.getHistoricoMedico());
+            }
+
+            saida.iniciarSecao(PAGAMENTOS);
+            for (Paciente paciente : pacientes.itens) {
+                saida.escreverInt(paciente.getPagamentos().size());
+                for (Pagamento pagamento : paciente.getPagamentos()) {
+                    saida.escreverDouble(pagamento.getValor());
+                    saida.escreverByte(pagamento.isPago() ? 1 : 0);
+                    saida.escreverConsultas(consultas, pagamento.getConsultas());
+                }
+            }
+
+            saida.terminar(geracao);
+        }
+        Files.move(temporario, arquivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Numera também as entidades que não estão nas listas dos serviços mas ainda são
+     * referenciadas (ex.: exame removido que continua prescrito numa consulta), repetindo
+     * até não aparecer nenhuma nova.
+     */
+    private static void numerarReferencias(Tabela<Exame> exames, Tabela<Medicamento> medicamentos,
+                                           Tabela<Paciente> pacientes, Tabela<Medico> medicos,
+                                           NumeracaoConsultas consultas) {
+        TabelaConsultas tabela = consultas.tabela;
+        int consulta = 0;
+        int paciente = 0;
+        int medico = 0;
+        while (consulta < consultas.quantidade || paciente < pacientes.itens.size()
+                || medico < medicos.itens.size()) {
+            for (; consulta < consultas.quantidade; consulta++) {
+                int linha = consultas.linhas[consulta];
+                pacientes.id(tabela.getPaciente(linha));
+                medicos.id(tabela.getMedico(linha));
+                exames.ids(tabela.getExamesPrescritos(linha));
+                medicamentos.ids(tabela.getMedicamentosPrescritos(linha));
+            }
+            for (; paciente < pacientes.itens.size(); paciente++) {
+                Paciente p = pacientes.itens.get(paciente);
+                consultas.ids(p.getHistoricoMedico());
+                consultas.ids(p.getConsultasPendentes());
+                for (Pagamento pagamento : p.getPagamentos()) {
+                    consultas.ids(pagamento.getConsultas());
+                }
+            }
+            for (; medico < medicos.itens.size(); medico++) {
+                consultas.ids(medicos.itens.get(medico).getHistoricoMedico());
+            }
+        }
+    }
+
+    /**
+     * Numeração das entidades de um tipo: primeiro as cadastradas no serviço, na ordem da
+     * lista, depois as encontradas apenas por referência.
+     */
+    private static final class Tabela<T> {
+
+        private final List<T> itens;
+        private final int ativos;
+        private final Map<T, Integer> ids;
+
+        Tabela(List<T> cadastrados) {
+            itens = new ArrayList<>(cadastrados);
+            ativos = itens.size();
+            ids = new IdentityHashMap<>(itens.size() * 4 / 3 + 16);
+            for (int i = 0; i < itens.size(); i++) {
+                ids.put(itens.get(i), i);
+            }
+        }
+
+        boolean ativo(int id) {
+            return id < ativos;
+        }
+
+        int id(T item) {
+            if (item == null) {
+                return SEM_REFERENCIA;
+            }
+            Integer id = ids.get(item);
+            if (id == null) {
+                id = itens.size();
+                itens.add(item);
+                ids.put(item, id);
+            }
+            return id;
+        }
+
+        void ids(List<? extends T> referenciados) {
+            for (T item : referenciados) {
+                id(item);
+            }
+        }
+    }
+
+    /**
+     * Numeração das consultas, como em Tabela, mas indexada pela linha na TabelaConsultas
+     * em vez de um mapa por identidade (as visões de Consulta são criadas a cada leitura).
+     */
+    private static final class NumeracaoConsultas {
+
+        private final TabelaConsultas tabela;
+        private final int[] ids;
+        private final int[] linhas;
+        private final int ativos;
+        private int quantidade;
+
+        NumeracaoConsultas(TabelaConsultas tabela, List<Consulta> cadastradas) {
+            this.tabela = tabela;
+            ids = new int[tabela.tamanho()];
+            linhas = new int[tabela.tamanho()];
+            Arrays.fill(ids, SEM_REFERENCIA);
+            ids(cadastradas);
+            ativos = quantidade;
+        }
+
+        boolean ativo(int id) {
+            return id < ativos;
+        }
+
+        int id(Consulta consulta) {
+            int linha = consulta.getLinha();
+            if (ids[linha] == SEM_REFERENCIA) {
+                ids[linha] = quantidade;
+                linhas[quantidade++] = linha;
+            }
+            return ids[linha];
+        }
+
+        void ids(List<Consulta> referenciadas) {
+            for (Consulta consulta : referenciadas) {
+                id(consulta);
+            }
+        }
+    }
+
+    /**
+     * Escrita bufferizada no canal, acumulando o CRC e o tamanho da seção atual.
+     */
+    private static final class Saida {
+
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(TAMANHO_BUFFER);
+        private final CRC32C crc = new CRC32C();
+        private final long[] inicio = new long[QUANTIDADE_SECOES];
+        private final long[] tamanho = new long[QUANTIDADE_SECOES];
+        private final int[] crcSecoes = new int[QUANTIDADE_SECOES];
+        private long posicao = TAMANHO_CABECALHO;
+        private int secao = -1;
+
+        Saida(FileChannel canal) throws IOException {
+            this.canal = canal;
+            canal.position(TAMANHO_CABECALHO);
+        }
+
+        void iniciarSecao(int novaSecao) throws IOException {
+            terminarSecao();
+            secao = novaSecao;
+            inicio[secao] = posicao + buffer.position();
+        }
+
+        void terminar(long geracao) throws IOException {
+            terminarSecao();
+            ByteBuffer cabecalho = Cabecalho.gravar(geracao, inicio, tamanho, crcSecoes);
+            while (cabecalho.hasRemaining()) {
+                canal.write(cabecalho, cabecalho.position());
+            }
+            canal.force(true);
+        }
+
+        void escreverByte(int valor) throws IOException {
+            garantir(1);
+            buffer.put((byte) valor);
+        }
+
+        void escreverInt(int valor) throws IOException {
+            garantir(4);
+            buffer.putInt(valor);
+        }
+
+        void escreverDouble(double valor) throws IOException {
+            garantir(8);
+            buffer.putDouble(valor);
+        }
+
+        void escreverData(LocalDate data) throws IOException {
+            escreverInt(data == null ? DATA_NULA : (int) data.toEpochDay());
+        }
+
+        void escreverHorario(LocalTime horario) throws IOException {
+            escreverInt(horario == null ? -1 : horario.toSecondOfDay());
+        }
+
+        void escreverStatus(StatusConsulta status) throws IOException {
+            for (int codigo = 1; codigo < STATUS.length; codigo++) {
+                if (STATUS[codigo] == status) {
+                    escreverByte(codigo);
+                    return;
+                }
+            }
+            escreverByte(0);
+        }
+
+        void escreverTexto(String texto) throws IOException {
+            if (texto == null) {
+                escreverInt(-1);
+                return;
+            }
+            byte[] utf8 = texto.getBytes(StandardCharsets.UTF_8);
+            escreverInt(utf8.length);
+            if (utf8.length > buffer.capacity()) {
+                esvaziar();
+                ByteBuffer grande = ByteBuffer.wrap(utf8);
+                crc.update(grande.duplicate());
+                while (grande.hasRemaining()) {
+                    posicao += canal.write(grande);
+                }
+                return;
+            }
+            garantir(utf8.length);
+            buffer.put(utf8);
+        }
+
+        void escreverConsultas(NumeracaoConsultas consultas, List<Consulta> itens) throws IOException {
+            escreverInt(itens.size());
+            for (Consulta consulta : itens) {
+                escreverInt(consultas.id(consulta));
+            }
+        }
+
+        <T> void escreverIds(Tabela<T> tabela, List<? extends T> itens) throws IOException {
+            escreverInt(itens.size());
+            for (T item : itens) {
+                escreverInt(tabela.id(item));
+            }
+        }
+
+        private void terminarSecao() throws IOException {
+            esvaziar();
+            if (secao >= 0) {
+                tamanho[secao] = posicao - inicio[secao];
+                crcSecoes[secao] = (int) crc.getValue();
+            }
+            crc.reset();
+        }
+
+        private void garantir(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                esvaziar();
+            }
+        }
+
+        private void esvaziar() throws IOException {
+            buffer.flip();
+            crc.update(buffer.duplicate());
+            while (buffer.hasRemaining()) {
+                posicao += canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package persistencia;
+
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+import service.PagamentoService;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Persistência dos serviços em um diretório: um snapshot (clinica.snapshot) e o diário com as
+ * alterações posteriores a ele (clinica.diario).
+ *
+ * Na abertura, o snapshot é carregado e o diário da mesma geração é reaplicado por cima.
+ * Um novo snapshot é gravado quando o diário passa de LIMITE_DIARIO bytes e ao fechar:
+ * ele recebe a geração seguinte e o diário é reiniciado vazio com essa geração. Se houver
+ * uma queda entre a gravação do snapshot e a do diário, o diário antigo é descartado na
+ * próxima abertura, pois já está contido no snapshot.
+ *
+ * As páginas antigas da tabela de consultas, os históricos longos e os dias passados das
+ * agendas vão para consultas.paginas, no mesmo diretório, que só vale enquanto o programa roda.
+ */
+public class PersistenciaClinica implements AutoCloseable {
+
+    private static final long LIMITE_DIARIO = 64L << 20;
+
+    private final Path arquivoSnapshot;
+    private final Path arquivoDiario;
+    private final Path arquivoPaginas;
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final ConsultaService consultaService;
+    private final PagamentoService pagamentoService;
+
+    private DiarioArquivo diario;
+    private long geracao;
+
+    public PersistenciaClinica(Path diretorio, PacienteService pacienteService, MedicoService medicoService,
+                               ExameService exameService, MedicamentoService medicamentoService,
+                               ConsultaService consultaService, PagamentoService pagamentoService) {
+        this.arquivoSnapshot = diretorio.resolve("clinica.snapshot");
+        this.arquivoDiario = diretorio.resolve("clinica.diario");
+        this.arquivoPaginas = diretorio.resolve("consultas.paginas");
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.consultaService = consultaService;
+        this.pagamentoService = pagamentoService;
+    }
+
+    /**
+     * Restaura o estado gravado nos serviços (que devem estar vazios) e passa a registrar
+     * as novas alterações no diário.
+     */
+    public ResumoRecuperacao abrir() throws IOException {
+        return abrir(Diario.NENHUM);
+    }
+
+    /**
+     * Como {@link #abrir()}, avisando também o diário adicional de cada alteração registrada
+     * (por exemplo, um BarramentoEventos). A recuperação não passa por ele.
+     */
+    public ResumoRecuperacao abrir(Diario adicional) throws IOException {
+        consultaService.getTabela().arquivarPaginasAntigas(arquivoPaginas);
+        geracao = new CarregadorSnapshot(pacienteService, medicoService, exameService, medicamentoService,
+                consultaService).carregar(arquivoSnapshot);
+        ResumoRecuperacao resumo = new RecuperacaoDiario(pacienteService, medicoService, exameService,
+                medicamentoService, consultaService, pagamentoService).recuperar(arquivoDiario, geracao);
+        resumo.snapshotCarregado(geracao);
+        consultaService.arquivarAgendasAntigas();
+
+        diario = new DiarioArquivo(arquivoDiario, geracao);
+        Diario servicos = adicional == Diario.NENHUM ? diario : diario.e(adicional);
+        pacienteService.setDiario(servicos);
+        medicoService.setDiario(servicos);
+        exameService.setDiario(servicos);
+        medicamentoService.setDiario(servicos);
+        consultaService.setDiario(servicos);
+        pagamentoService.setDiario(servicos);
+        return resumo;
+    }
+
+    /**
+     * Grava um snapshot se o diário já passou do limite. Pode ser chamado de qualquer thread;
+     * a gravação espera as alterações em andamento terminarem.
+     */
+    public void gravarSnapshotSeNecessario() throws IOException {
+        if (diario.tamanho() >= LIMITE_DIARIO) {
+            gravarSnapshot();
+        }
+    }
+
+    /**
+     * Grava o estado atual num novo snapshot e reinicia o diário.
+     */
+    public void gravarSnapshot() throws IOException {
+        // Sem alterações em andamento, o snapshot e o diário reiniciado ficam no mesmo ponto
+        Lock alteracoes = consultaService.getAlteracoes().exclusiva();
+        alteracoes.lock();
+        try {
+            diario.sincronizar();
+            new GravadorSnapshot(pacienteService, medicoService, exameService, medicamentoService, consultaService)
+                    .gravar(arquivoSnapshot, geracao + 1);
+            geracao++;
+            diario.reiniciar(geracao);
+            // Já com as alterações paradas: aproveita para tirar do heap os dias passados das agendas
+            consultaService.arquivarAgendasAntigas();
+        } finally {
+            alteracoes.unlock();
+        }
+    }
+
+    /**
+     * Grava um snapshot se houver alterações desde o último e fecha o diário e o arquivo de
+     * páginas das consultas.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            diario.sincronizar();
+            if (diario.tamanho() > FormatoDiario.TAMANHO_CABECALHO_ARQUIVO) {
+                gravarSnapshot();
+            }
+        } finally {
+            try {
+                diario.close();
+            } finally {
+                consultaService.getTabela().fecharArquivoPaginas();
+            }
+        }
+    }
+}
@@ -0,0 +1,247 @@
+package persistencia;
+
+import dto.ConsultaRequest;
+import dto.ExameRequest;
+import dto.MedicamentoRequest;
+import dto.MedicoRequest;
+import dto.PacienteRequest;
+import dto.Resultado;
+import model.Medico;
+import model.Paciente;
+import service.ConsultaService;
+import service.ExameService;
+import service.MedicamentoService;
+import service.MedicoService;
+import service.PacienteService;
+import service.PagamentoService;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+import static persistencia.FormatoDiario.*;
+
+/**
+ * Reconstrói o estado dos serviços reaplicando o diário do início ao fim.
+ *
+ * O arquivo é lido em blocos grandes e cada registro tem o CRC conferido antes de ser
+ * aplicado. A leitura para no primeiro registro incompleto ou com CRC inválido — o que
+ * sobra de uma gravação interrompida por uma queda — e o arquivo é truncado nesse ponto,
+ * para que os próximos registros sejam acrescentados depois do último registro válido.
+ *
+ * O diário é reaplicado sobre o estado carregado do snapshot da mesma geração (ou sobre
+ * serviços vazios, geração 0). Um diário de geração anterior já está contido no snapshot
+ * (queda logo após gravar o snapshot) e é descartado. Os serviços não devem ter diário
+ * associado durante a recuperação.
+ */
+public class RecuperacaoDiario {
+
+    private static final int TAMANHO_BLOCO = 8 << 20;
+
+    private final PacienteService pacienteService;
+    private final MedicoService medicoService;
+    private final ExameService exameService;
+    private final MedicamentoService medicamentoService;
+    private final ConsultaService consultaService;
+    private final PagamentoService pagamentoService;
+
+    public RecuperacaoDiario(PacienteService pacienteService, MedicoService medicoService,
+                             ExameService exameService, MedicamentoService medicamentoService,
+                             ConsultaService consultaService, PagamentoService pagamentoService) {
+        this.pacienteService = pacienteService;
+        this.medicoService = medicoService;
+        this.exameService = exameService;
+        this.medicamentoService = medicamentoService;
+        this.consultaService = consultaService;
+        this.pagamentoService = pagamentoService;
+    }
+
+    public ResumoRecuperacao recuperar(Path arquivo, long geracaoSnapshot) throws IOException {
+        ResumoRecuperacao resumo = new ResumoRecuperacao();
+        if (!Files.exists(arquivo)) {
+            return resumo;
+        }
+
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long tamanhoArquivo = canal.size();
+            if (tamanhoArquivo < TAMANHO_CABECALHO_ARQUIVO) {
+                // Queda durante a criação do arquivo: o cabeçalho é regravado ao abrir o diário
+                canal.truncate(0);
+                resumo.descartar(tamanhoArquivo);
+                return resumo;
+            }
+            long geracao = lerGeracao(canal, arquivo);
+            if (geracao < geracaoSnapshot) {
+                canal.truncate(0);
+                return resumo;
+            }
+            if (geracao > geracaoSnapshot) {
+                throw new IOException("O diário " + arquivo + " (geração " + geracao + ") é posterior ao snapshot"
+                        + " (geração " + geracaoSnapshot + "). O snapshot está faltando ou é antigo.");
+            }
+
+            ByteBuffer bloco = ByteBuffer.allocate((int) Math.min(TAMANHO_BLOCO,
+                    Math.max(tamanhoArquivo, TAMANHO_CABECALHO_REGISTRO + TAMANHO_MAXIMO_REGISTRO)));
+            bloco.flip();
+            Leitor leitor = new Leitor(bloco);
+            CRC32C crc = new CRC32C();
+            canal.position(TAMANHO_CABECALHO_ARQUIVO);
+            long fimValido = TAMANHO_CABECALHO_ARQUIVO;
+
+            while (true) {
+                if (bloco.remaining() < TAMANHO_CABECALHO_REGISTRO
+                        && (!carregar(canal, bloco) || bloco.remaining() < TAMANHO_CABECALHO_REGISTRO)) {
+                    break;
+                }
+                int inicio = bloco.position();
+                int tamanho = bloco.getInt(inicio);
+                if (tamanho <= 0 || tamanho > TAMANHO_MAXIMO_REGISTRO) {
+                    break;
+                }
+                if (bloco.remaining() < TAMANHO_CABECALHO_REGISTRO + tamanho) {
+                    if (!carregar(canal, bloco) || bloco.remaining() < TAMANHO_CABECALHO_REGISTRO + tamanho) {
+                        break;
+                    }
+                    inicio = bloco.position();
+                }
+                crc.reset();
+                crc.update(bloco.array(), bloco.arrayOffset() + inicio + TAMANHO_CABECALHO_REGISTRO, tamanho);
+                if ((int) crc.getValue() != bloco.getInt(inicio + 4)) {
+                    break;
+                }
+
+                bloco.position(inicio + TAMANHO_CABECALHO_REGISTRO);
+                aplicar(leitor, fimValido);
+                bloco.position(inicio + TAMANHO_CABECALHO_REGISTRO + tamanho);
+                fimValido += TAMANHO_CABECALHO_REGISTRO + tamanho;
+                resumo.contarRegistro();
+            }
+
+            if (fimValido < tamanhoArquivo) {
+                canal.truncate(fimValido);
+                canal.force(true);
+                resumo.descartar(tamanhoArquivo - fimValido);
+            }
+        }
+        return resumo;
+    }
+
+    /**
+     * Move o que falta ler para o início do bloco e completa com o próximo trecho do arquivo.
+     * Retorna false se não havia mais nada para ler.
+     */
+    private static boolean carregar(FileChannel canal, ByteBuffer bloco) throws IOException {
+        bloco.compact();
+        int lidos = 0;
+        int n;
+        while (bloco.hasRemaining() && (n = canal.read(bloco)) >= 0) {
+            lidos += n;
+        }
+        bloco.flip();
+        return lidos > 0;
+    }
+
+    private void aplicar(Leitor leitor, long posicao) throws IOException {
+        byte tipo = leitor.lerByte();
+        Resultado<?> resultado;
+        switch (tipo) {
+            case PACIENTE_CADASTRADO:
+                resultado = pacienteService.cadastrarPaciente(lerPaciente(leitor));
+                break;
+            case PACIENTE_ATUALIZADO: {
+                Paciente paciente = pacienteService.buscarPorCpf(leitor.lerTexto());
+                resultado = pacienteService.atualizarCadastroPaciente(paciente, lerPaciente(leitor));
+                break;
+            }
+            case PACIENTE_REMOVIDO: {
+                // As consultas removidas na cascata vêm antes no diário: aqui o paciente já não tem nenhuma
+                resultado = consultaService.removerPaciente(pacienteService.buscarPorCpf(leitor.lerTexto()), false);
+                break;
+            }
+            case MEDICO_CADASTRADO:
+                resultado = medicoService.cadastrarMedico(lerMedico(leitor));
+                break;
+            case MEDICO_ATUALIZADO: {
+                Medico medico = medicoService.buscaPorCrm(leitor.lerTexto());
+                resultado = medicoService.atualizarCadastroMedico(medico, lerMedico(leitor));
+                break;
+            }
+            case MEDICO_REMOVIDO: {
+                resultado = consultaService.removerMedico(medicoService.buscaPorCrm(leitor.lerTexto()), false);
+                break;
+            }
+            case EXAME_CADASTRADO:
+                resultado = exameService.cadastrarExame(lerExame(leitor));
+                break;
+            case EXAME_ATUALIZADO: {
+                int indice = leitor.lerInt();
+                resultado = exameService.atualizarExame(indice, lerExame(leitor));
+                break;
+            }
+            case EXAME_REMOVIDO:
+                resultado = exameService.removerExame(leitor.lerInt());
+                break;
+            case MEDICAMENTO_CADASTRADO:
+                resultado = medicamentoService.cadastrarMedicamento(lerMedicamento(leitor));
+                break;
+            case MEDICAMENTO_ATUALIZADO: {
+                int indice = leitor.lerInt();
+                resultado = medicamentoService.atualizarMedicamento(indice, lerMedicamento(leitor));
+                break;
+            }
+            case MEDICAMENTO_REMOVIDO:
+                resultado = medicamentoService.removerMedicamento(leitor.lerInt());
+                break;
+            case CONSULTA_AGENDADA:
+                resultado = consultaService.restaurarConsulta(lerConsulta(leitor));
+                break;
+            case CONSULTA_ATUALIZADA: {
+                int indice = leitor.lerInt();
+                resultado = consultaService.atualizarConsulta(indice, lerConsulta(leitor));
+                break;
+            }
+            case CONSULTA_REMOVIDA:
+                resultado = consultaService.removerConsulta(leitor.lerInt());
+                break;
+            case PAGAMENTO_REALIZADO: {
+                Paciente paciente = pacienteService.buscarPorCpf(leitor.lerTexto());
+                resultado = pagamentoService.realizarPagamento(paciente, leitor.lerNumero());
+                break;
+            }
+            default:
+                throw new IOException("Tipo de registro desconhecido (" + tipo + ") na posição " + posicao
+                        + " do diário.");
+        }
+        if (!resultado.isSucesso()) {
+            throw new IOException("O registro na posição " + posicao + " do diário não pôde ser reaplicado: "
+                    + resultado.getErro());
+        }
+    }
+
+    private static PacienteRequest lerPaciente(Leitor leitor) {
+        return new PacienteRequest(leitor.lerTexto(), leitor.lerTexto(), leitor.lerData());
+    }
+
+    private static MedicoRequest lerMedico(Leitor leitor) {
+        return new MedicoRequest(leitor.lerTexto(), leitor.lerTexto(), leitor.lerData(), leitor.lerTexto(),
+                leitor.lerTexto());
+    }
+
+    private static ExameRequest lerExame(Leitor leitor) {
+        return new ExameRequest(leitor.lerTexto(), leitor.lerData(), leitor.lerData(), leitor.lerTexto(),
+                leitor.lerNumero());
+    }
+
+    private static MedicamentoRequest lerMedicamento(Leitor leitor) {
+        return new MedicamentoRequest(leitor.lerTexto(), leitor.lerTexto(), leitor.lerTexto(), leitor.lerNumero());
+    }
+
+    private static ConsultaRequest lerConsulta(Leitor leitor) {
+        return new ConsultaRequest(leitor.lerData(), leitor.lerHorario(), leitor.lerInteiro(), leitor.lerTexto(),
+                leitor.lerTexto(), leitor.lerTexto(), leitor.lerTextos(), leitor.lerTextos(), leitor.lerNumero());
+    }
+}
@@ -0,0 +1,42 @@
+package persistencia;
+
+/**
+ * Totais de uma recuperação: geração do snapshot carregado (0 se não havia snapshot),
+ * registros do diário reaplicados e bytes descartados no final do diário.
+ */
+public class ResumoRecuperacao {
+
+    private long geracaoSnapshot;
+    private long registros;
+    private long bytesDescartados;
+
+    void snapshotCarregado(long geracao) {
+        geracaoSnapshot = geracao;
+    }
+
+    void contarRegistro() {
+        registros++;
+    }
+
+    void descartar(long bytes) {
+        bytesDescartados = bytes;
+    }
+
+    public long getGeracaoSnapshot() {
+        return geracaoSnapshot;
+    }
+
+    public long getRegistros() {
+        return registros;
+    }
+
+    public long getBytesDescartados() {
+        return bytesDescartados;
+    }
+
+    @Override
+    public String toString() {
+        return "Snapshot: geração " + geracaoSnapshot + " | Registros recuperados: " + registros
+                + " | Bytes descartados: " + bytesDescartados;
+    }
+}
@@ -0,0 +1,81 @@
+package persistencia;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+import static persistencia.FormatoSnapshot.*;
+
+/**
+ * Confere a integridade de um snapshot sem carregá-lo: cabeçalho, limites e CRC de cada seção.
+ *
+ * Uso: java persistencia.VerificadorSnapshot [arquivo]  (padrão: clinica.snapshot)
+ * Termina com código 1 se encontrar algum problema.
+ */
+public class VerificadorSnapshot {
+
+    /**
+     * Retorna os problemas encontrados; a lista vazia indica um snapshot íntegro.
+     * As linhas informativas de cada seção vão para o relatório recebido.
+     */
+    public static List<String> verificar(Path arquivo, List<String> relatorio) throws IOException {
+        List<String> problemas = new ArrayList<>();
+        try (FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ)) {
+            Cabecalho cabecalho;
+            try {
+                cabecalho = Cabecalho.ler(canal, arquivo);
+            } catch (IOException e) {
+                problemas.add(e.getMessage());
+                return problemas;
+            }
+            relatorio.add("Geração: " + cabecalho.geracao + " | Tamanho: " + canal.size() + " bytes");
+
+            for (int i = 0; i < QUANTIDADE_SECOES; i++) {
+                MappedByteBuffer secao = canal.map(FileChannel.MapMode.READ_ONLY, cabecalho.inicio[i],
+                        cabecalho.tamanho[i]);
+                CRC32C crc = new CRC32C();
+                crc.update(secao.duplicate());
+                boolean confere = (int) crc.getValue() == cabecalho.crc[i];
+                String linha = String.format("%-12s | Início: %d | Tamanho: %d bytes | CRC: %08x | %s",
+                        NOMES_SECOES[i], cabecalho.inicio[i], cabecalho.tamanho[i], cabecalho.crc[i],
+                        confere ? "OK" : "CORROMPIDA");
+                if (i <= CONSULTAS && secao.remaining() >= 4) {
+                    linha += " | Registros: " + secao.getInt(0);
+                }
+                relatorio.add(linha);
+                if (!confere) {
+                    problemas.add("Seção " + NOMES_SECOES[i] + " corrompida: CRC calculado "
+                            + String.format("%08x", (int) crc.getValue()) + ", esperado "
+                            + String.format("%08x", cabecalho.crc[i]) + ".");
+                }
+            }
+        }
+        return problemas;
+    }
+
+    public static void main(String[] args) {
+        Path arquivo = Paths.get(args.length > 0 ? args[0] : "clinica.snapshot");
+        List<String> relatorio = new ArrayList<>();
+        List<String> problemas;
+        try {
+            problemas = verificar(arquivo, relatorio);
+        } catch (IOException e) {
+            System.out.println("Erro ao ler o snapshot " + arquivo + ": " + e.getMessage());
+            System.exit(1);
+            return;
+        }
+        relatorio.forEach(System.out::println);
+        if (problemas.isEmpty()) {
+            System.out.println("Snapshot " + arquivo + " íntegro.");
+        } else {
+            problemas.forEach(System.out::println);
+            System.exit(1);
+        }
+    }
+}
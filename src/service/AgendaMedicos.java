@@ -0,0 +1,580 @@
+package service;
+
+import dto.HorarioLivre;
+import model.ArquivoBlocos;
+import model.Consulta;
+import model.Medico;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Agenda dos médicos por dia: para cada (médico, data) um mapa de bits com um bit por minuto
+ * do dia (1440 bits em 23 palavras de 64). Um bit ligado é um minuto ocupado por alguma
+ * consulta; consultas canceladas não ocupam a agenda.
+ *
+ * Não há travas: a verificação só lê as palavras do intervalo, e a reserva liga os bits de
+ * cada palavra com um compareAndSet, em ordem crescente de palavra. Se algum minuto já estiver
+ * ocupado, a reserva desfaz as palavras que já tinha ligado e falha, então de duas reservas
+ * sobrepostas exatamente uma vence. Uma consulta que não cruza a fronteira de 64 minutos é
+ * reservada com um único compareAndSet. Durante uma reserva que depois falha, uma leitura
+ * concorrente pode ver o horário como ocupado.
+ *
+ * Os minutos que passam da meia-noite não entram na agenda do dia (como na comparação de
+ * intervalos que havia antes), e os dias não são retirados do mapa quando ficam vazios. Cada
+ * (médico, dia) com alguma consulta ocupa cerca de 300 bytes no heap até o seu mês ser levado
+ * para o arquivo ({@link #arquivarMesesAntigos}): os 31 dias do mês vão para um bloco do
+ * ArquivoBlocos, e no heap fica só a posição do bloco (12 bytes por médico e mês). Os dias
+ * arquivados continuam sendo lidos e alterados no lugar, com as mesmas operações atômicas.
+ * Cada dia fica num lugar só: no mapa, se o mês não foi arquivado, ou no bloco do mês.
+ *
+ * O mesmo mapa de bits responde a busca de horários livres: os intervalos livres de um dia são
+ * as sequências de bits desligados, encontradas palavra a palavra com numberOfTrailingZeros.
+ */
+class AgendaMedicos {
+
+    private static final int MINUTOS_DIA = 24 * 60;
+    private static final int PALAVRAS_DIA = (MINUTOS_DIA + 63) / 64;
+    private static final int BYTES_DIA = PALAVRAS_DIA * Long.BYTES;
+    private static final int BYTES_MES = 31 * BYTES_DIA;
+
+    private final Map<Medico, AgendaMedico> agendas = new ConcurrentHashMap<>();
+    // Definido no primeiro arquivamento
+    private volatile ArquivoBlocos arquivo;
+
+    /**
+     * Verifica se o intervalo [horario, horario + duracao) está livre na agenda do médico.
+     */
+    boolean isDisponivel(Medico medico, LocalDate data, LocalTime horario, int duracao) {
+        Dia dia = buscarDia(medico, data);
+        int inicio = minuto(horario);
+        return dia == null || dia.livre(inicio, fim(inicio, duracao));
+    }
+
+    /**
+     * Reserva o intervalo na agenda do médico, ou retorna false sem alterar nada se algum minuto
+     * estiver ocupado. Os minutos que a consulta "propria" já ocupa no mesmo dia não são
+     * reservados de novo nem contam como conflito (usado na atualização).
+     */
+    boolean reservar(Medico medico, LocalDate data, LocalTime horario, int duracao, Consulta propria) {
+        Dia dia = diaParaEscrita(medico, data);
+        int inicio = minuto(horario);
+        int fim = fim(inicio, duracao);
+        if (mesmoDia(propria, medico, data)) {
+            int inicioProprio = minuto(propria.getHorario());
+            return dia.reservar(inicio, fim, inicioProprio, fim(inicioProprio, propria.getDuracao()));
+        }
+        return dia.reservar(inicio, fim, 0, 0);
+    }
+
+    /**
+     * Libera o intervalo na agenda do médico, exceto os minutos que a consulta "mantida" ocupa
+     * no mesmo dia.
+     */
+    void liberar(Medico medico, LocalDate data, LocalTime horario, int duracao, Consulta mantida) {
+        Dia dia = buscarDia(medico, data);
+        if (dia == null) {
+            return;
+        }
+        int inicio = minuto(horario);
+        int fim = fim(inicio, duracao);
+        if (mesmoDia(mantida, medico, data)) {
+            int inicioMantido = minuto(mantida.getHorario());
+            dia.liberar(inicio, fim, inicioMantido, fim(inicioMantido, mantida.getDuracao()));
+        } else {
+            dia.liberar(inicio, fim, 0, 0);
+        }
+    }
+
+    /**
+     * Marca os minutos da consulta sem verificar conflitos (restauração de um snapshot).
+     */
+    void ocupar(Consulta consulta) {
+        Dia dia = diaParaEscrita(consulta.getMedico(), consulta.getData());
+        int inicio = minuto(consulta.getHorario());
+        dia.ocupar(inicio, fim(inicio, consulta.getDuracao()));
+    }
+
+    /**
+     * Os primeiros "quantidade" horários livres de "duracao" minutos na agenda dos médicos
+     * informados, de "inicio" a "fim", começando entre "abertura" e "fechamento - duracao"
+     * (minutos do dia); no primeiro dia a busca começa em "primeiroMinuto", se for depois da
+     * abertura. Em ordem de data, horário e posição do médico na lista. Os horários de um mesmo
+     * médico não se sobrepõem: o seguinte é procurado a partir do fim do anterior.
+     *
+     * Junção das sequências de horários de cada médico numa fila de prioridade: a posição de um
+     * médico na fila é um limite inferior do seu próximo horário livre, e o dia só é varrido
+     * quando o médico chega ao topo, então um médico que nunca chega ao topo não é lido. Sem
+     * travas: uma reserva concorrente pode ou não aparecer no resultado.
+     */
+    List<HorarioLivre> buscarLivres(List<Medico> medicos, LocalDate inicio, LocalDate fim, int abertura,
+                                    int fechamento, int primeiroMinuto, int duracao, int quantidade) {
+        List<HorarioLivre> livres = new ArrayList<>(Math.min(quantidade, 64));
+        int primeiroDia = (int) inicio.toEpochDay();
+        int ultimoDia = (int) fim.toEpochDay();
+        int ultimoInicio = fechamento - duracao;
+        if (primeiroDia > ultimoDia || abertura > ultimoInicio || quantidade <= 0) {
+            return livres;
+        }
+
+        // Todos os médicos começam na mesma posição, a menor possível, então entram na fila só
+        // quando ela chega nessa posição: se os primeiros têm horário livre logo no início, os
+        // demais nem são lidos
+        int minutoInicial = Math.max(abertura, primeiroMinuto);
+        int proximoMedico = 0;
+        PriorityQueue<Cursor> fila = new PriorityQueue<>();
+
+        while (livres.size() < quantidade) {
+            Cursor cursor;
+            if (proximoMedico < medicos.size()
+                    && (fila.isEmpty() || fila.peek().depoisDe(primeiroDia, minutoInicial, proximoMedico))) {
+                cursor = new Cursor(proximoMedico, medicos.get(proximoMedico), primeiroDia, minutoInicial);
+                proximoMedico++;
+            } else if (!fila.isEmpty()) {
+                cursor = fila.poll();
+            } else {
+                break;
+            }
+            if (cursor.avaliado) {
+                livres.add(new HorarioLivre(cursor.medico, LocalDate.ofEpochDay(cursor.dia),
+                        LocalTime.of(cursor.minuto / 60, cursor.minuto % 60)));
+                cursor.minuto += duracao;
+                cursor.avaliado = false;
+                fila.add(cursor);
+                continue;
+            }
+            int livre = proximoLivre(cursor.medico, cursor.dia, cursor.minuto, ultimoInicio, duracao);
+            if (livre >= 0) {
+                cursor.minuto = livre;
+                cursor.avaliado = true;
+            } else if (cursor.dia < ultimoDia) {
+                cursor.dia++;
+                cursor.minuto = abertura;
+            } else {
+                continue;
+            }
+            fila.add(cursor);
+        }
+        return livres;
+    }
+
+    /**
+     * Minutos ocupados na agenda do médico de "inicio" a "fim" (inclusive): contagem dos bits
+     * ligados, percorrendo os dias do período ou os dias com agenda do médico, o que for menor,
+     * e depois os meses arquivados do período.
+     */
+    int minutosOcupados(Medico medico, LocalDate inicio, LocalDate fim) {
+        AgendaMedico agendaMedico = agendas.get(medico);
+        if (agendaMedico == null) {
+            return 0;
+        }
+        Map<Integer, Dia> dias = agendaMedico.dias;
+        int primeiroDia = (int) inicio.toEpochDay();
+        int ultimoDia = (int) fim.toEpochDay();
+        int minutos = 0;
+        if ((long) ultimoDia - primeiroDia < dias.size()) {
+            for (int d = primeiroDia; d <= ultimoDia; d++) {
+                Dia dia = dias.get(d);
+                if (dia != null) {
+                    minutos += dia.ocupados();
+                }
+            }
+        } else {
+            for (Map.Entry<Integer, Dia> dia : dias.entrySet()) {
+                if (dia.getKey() >= primeiroDia && dia.getKey() <= ultimoDia) {
+                    minutos += dia.getValue().ocupados();
+                }
+            }
+        }
+        MesesArquivados meses = agendaMedico.meses;
+        for (int i = meses.primeiroAPartirDe(mes(inicio)); i < meses.meses.length && meses.meses[i] <= mes(fim); i++) {
+            LocalDate primeiroDoMes = LocalDate.of(meses.meses[i] / 12, meses.meses[i] % 12 + 1, 1);
+            int inicioMes = (int) primeiroDoMes.toEpochDay();
+            int de = Math.max(primeiroDia, inicioMes);
+            int ate = Math.min(ultimoDia, inicioMes + primeiroDoMes.lengthOfMonth() - 1);
+            for (int d = de; d <= ate; d++) {
+                minutos += new DiaNoArquivo(arquivo.fatia(meses.posicoes[i] + (long) (d - inicioMes) * BYTES_DIA,
+                        BYTES_DIA)).ocupados();
+            }
+        }
+        return minutos;
+    }
+
+    /**
+     * Leva para o arquivo os dias dos meses anteriores a "mesCorte" (ano * 12 + mês - 1), um
+     * bloco por médico e mês. Chamado com a trava exclusiva de Alteracoes, então nenhuma reserva
+     * corre junto; as leituras sem trava continuam achando cada dia, porque o bloco do mês é
+     * publicado antes de os dias saírem do mapa. Se uma alocação falhar (a falha é contada no
+     * arquivo), os meses que faltam continuam no heap até o próximo arquivamento.
+     */
+    void arquivarMesesAntigos(ArquivoBlocos destino, int mesCorte) {
+        if (arquivo == null) {
+            arquivo = destino;
+        } else if (arquivo != destino) {
+            throw new IllegalStateException("A agenda já usa outro arquivo.");
+        }
+        for (AgendaMedico agendaMedico : agendas.values()) {
+            TreeMap<Integer, List<Integer>> diasPorMes = new TreeMap<>();
+            for (Integer dia : agendaMedico.dias.keySet()) {
+                int mes = mes(LocalDate.ofEpochDay(dia));
+                if (mes < mesCorte) {
+                    diasPorMes.computeIfAbsent(mes, m -> new ArrayList<>()).add(dia);
+                }
+            }
+            if (diasPorMes.isEmpty()) {
+                continue;
+            }
+            TreeMap<Integer, Long> arquivados = new TreeMap<>();
+            boolean falhou = false;
+            for (Map.Entry<Integer, List<Integer>> mes : diasPorMes.entrySet()) {
+                long posicao = agendaMedico.meses.posicao(mes.getKey());
+                if (posicao < 0) {
+                    try {
+                        posicao = destino.alocar(BYTES_MES);
+                    } catch (IOException e) {
+                        falhou = true;
+                        break;
+                    }
+                }
+                for (Integer dia : mes.getValue()) {
+                    int deslocamento = LocalDate.ofEpochDay(dia).getDayOfMonth() - 1;
+                    ByteBuffer bloco = destino.fatia(posicao + (long) deslocamento * BYTES_DIA, BYTES_DIA);
+                    Dia naMemoria = agendaMedico.dias.get(dia);
+                    for (int palavra = 0; palavra < PALAVRAS_DIA; palavra++) {
+                        int indice = palavra * Long.BYTES;
+                        bloco.putLong(indice, bloco.getLong(indice) | naMemoria.palavra(palavra));
+                    }
+                }
+                arquivados.put(mes.getKey(), posicao);
+            }
+            agendaMedico.meses = agendaMedico.meses.com(arquivados);
+            for (Integer mes : arquivados.keySet()) {
+                for (Integer dia : diasPorMes.get(mes)) {
+                    agendaMedico.dias.remove(dia);
+                }
+            }
+            if (falhou) {
+                return;
+            }
+        }
+    }
+
+    // Primeiro início em [de, ultimoInicio] com "duracao" minutos livres no dia, ou -1
+    private int proximoLivre(Medico medico, int epochDay, int de, int ultimoInicio, int duracao) {
+        if (de > ultimoInicio) {
+            return -1;
+        }
+        AgendaMedico agendaMedico = agendas.get(medico);
+        Dia dia = agendaMedico == null ? null : agendaMedico.buscar(epochDay, arquivo);
+        return dia == null ? de : dia.proximoLivre(de, ultimoInicio, duracao);
+    }
+
+    private Dia buscarDia(Medico medico, LocalDate data) {
+        AgendaMedico agendaMedico = agendas.get(medico);
+        return agendaMedico == null ? null : agendaMedico.buscar((int) data.toEpochDay(), arquivo);
+    }
+
+    // Dia no mapa ou no bloco do mês arquivado; se não houver nenhum dos dois, um dia novo no mapa
+    private Dia diaParaEscrita(Medico medico, LocalDate data) {
+        AgendaMedico agendaMedico = agendas.computeIfAbsent(medico, m -> new AgendaMedico());
+        int epochDay = (int) data.toEpochDay();
+        Dia dia = agendaMedico.buscar(epochDay, arquivo);
+        return dia != null ? dia : agendaMedico.dias.computeIfAbsent(epochDay, d -> new DiaNaMemoria());
+    }
+
+    // Mês como ano * 12 + (mês - 1), para ordenar e comparar
+    private static int mes(LocalDate data) {
+        return data.getYear() * 12 + data.getMonthValue() - 1;
+    }
+
+    private static boolean mesmoDia(Consulta consulta, Medico medico, LocalDate data) {
+        return consulta != null && consulta.getMedico() == medico && data.equals(consulta.getData());
+    }
+
+    private static int minuto(LocalTime horario) {
+        return horario.toSecondOfDay() / 60;
+    }
+
+    private static int fim(int inicio, int duracao) {
+        return Math.min(inicio + duracao, MINUTOS_DIA);
+    }
+
+    /**
+     * Posição de um médico na busca de horários livres: (dia, minuto) é o próximo horário livre
+     * se "avaliado", ou só um limite inferior dele se não.
+     */
+    private static final class Cursor implements Comparable<Cursor> {
+
+        final int ordem;
+        final Medico medico;
+        int dia;
+        int minuto;
+        boolean avaliado;
+
+        Cursor(int ordem, Medico medico, int dia, int minuto) {
+            this.ordem = ordem;
+            this.medico = medico;
+            this.dia = dia;
+            this.minuto = minuto;
+        }
+
+        @Override
+        public int compareTo(Cursor outro) {
+            if (dia != outro.dia) {
+                return Integer.compare(dia, outro.dia);
+            }
+            if (minuto != outro.minuto) {
+                return Integer.compare(minuto, outro.minuto);
+            }
+            return Integer.compare(ordem, outro.ordem);
+        }
+
+        boolean depoisDe(int outroDia, int outroMinuto, int outraOrdem) {
+            if (dia != outroDia) {
+                return dia > outroDia;
+            }
+            if (minuto != outroMinuto) {
+                return minuto > outroMinuto;
+            }
+            return ordem > outraOrdem;
+        }
+    }
+
+    /**
+     * Agenda de um médico: os dias no heap e os blocos dos meses arquivados.
+     */
+    private static final class AgendaMedico {
+
+        final Map<Integer, Dia> dias = new ConcurrentHashMap<>();
+        volatile MesesArquivados meses = MesesArquivados.NENHUM;
+
+        // O mapa é lido antes dos meses: o arquivamento publica o mês antes de tirar os dias do mapa
+        Dia buscar(int epochDay, ArquivoBlocos arquivo) {
+            Dia dia = dias.get(epochDay);
+            if (dia != null || meses.meses.length == 0) {
+                return dia;
+            }
+            LocalDate data = LocalDate.ofEpochDay(epochDay);
+            long posicao = meses.posicao(mes(data));
+            return posicao < 0 ? null
+                    : new DiaNoArquivo(arquivo.fatia(posicao + (long) (data.getDayOfMonth() - 1) * BYTES_DIA, BYTES_DIA));
+        }
+    }
+
+    /**
+     * Meses arquivados de um médico, em ordem, com a posição do bloco de cada um. Imutável:
+     * o arquivamento troca o objeto inteiro.
+     */
+    private static final class MesesArquivados {
+
+        static final MesesArquivados NENHUM = new MesesArquivados(new int[0], new long[0]);
+
+        final int[] meses;
+        final long[] posicoes;
+
+        MesesArquivados(int[] meses, long[] posicoes) {
+            this.meses = meses;
+            this.posicoes = posicoes;
+        }
+
+        long posicao(int mes) {
+            int indice = Arrays.binarySearch(meses, mes);
+            return indice < 0 ? -1 : posicoes[indice];
+        }
+
+        int primeiroAPartirDe(int mes) {
+            int indice = Arrays.binarySearch(meses, mes);
+            return indice < 0 ? -indice - 1 : indice;
+        }
+
+        MesesArquivados com(TreeMap<Integer, Long> novos) {
+            if (novos.isEmpty()) {
+                return this;
+            }
+            TreeMap<Integer, Long> todos = new TreeMap<>(novos);
+            for (int i = 0; i < meses.length; i++) {
+                todos.put(meses[i], posicoes[i]);
+            }
+            int[] novosMeses = new int[todos.size()];
+            long[] novasPosicoes = new long[todos.size()];
+            int i = 0;
+            for (Map.Entry<Integer, Long> mes : todos.entrySet()) {
+                novosMeses[i] = mes.getKey();
+                novasPosicoes[i++] = mes.getValue();
+            }
+            return new MesesArquivados(novosMeses, novasPosicoes);
+        }
+    }
+
+    /**
+     * Minutos ocupados de um médico num dia. Os intervalos são [inicio, fim) em minutos do dia;
+     * o intervalo [inicioExcluido, fimExcluido) fica de fora da reserva ou da liberação. As
+     * palavras ficam no heap (DiaNaMemoria) ou no bloco do mês arquivado (DiaNoArquivo).
+     */
+    private abstract static class Dia {
+
+        abstract long palavra(int indice);
+
+        abstract boolean trocar(int indice, long esperado, long novo);
+
+        boolean livre(int inicio, int fim) {
+            for (int palavra = inicio >> 6; palavra <= (fim - 1) >> 6; palavra++) {
+                if ((palavra(palavra) & mascara(palavra, inicio, fim)) != 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        boolean reservar(int inicio, int fim, int inicioExcluido, int fimExcluido) {
+            for (int palavra = inicio >> 6; palavra <= (fim - 1) >> 6; palavra++) {
+                long bits = mascara(palavra, inicio, fim) & ~mascara(palavra, inicioExcluido, fimExcluido);
+                if (bits == 0) {
+                    continue;
+                }
+                long atual;
+                do {
+                    atual = palavra(palavra);
+                    if ((atual & bits) != 0) {
+                        // Desfaz as palavras anteriores, já reservadas por esta chamada
+                        liberar(inicio, Math.min(fim, palavra << 6), inicioExcluido, fimExcluido);
+                        return false;
+                    }
+                } while (!trocar(palavra, atual, atual | bits));
+            }
+            return true;
+        }
+
+        void liberar(int inicio, int fim, int inicioExcluido, int fimExcluido) {
+            for (int palavra = inicio >> 6; palavra <= (fim - 1) >> 6; palavra++) {
+                long bits = mascara(palavra, inicio, fim) & ~mascara(palavra, inicioExcluido, fimExcluido);
+                if (bits != 0) {
+                    alterar(palavra, 0, bits);
+                }
+            }
+        }
+
+        void ocupar(int inicio, int fim) {
+            for (int palavra = inicio >> 6; palavra <= (fim - 1) >> 6; palavra++) {
+                alterar(palavra, mascara(palavra, inicio, fim), 0);
+            }
+        }
+
+        private void alterar(int palavra, long ligar, long desligar) {
+            long atual;
+            do {
+                atual = palavra(palavra);
+            } while (!trocar(palavra, atual, (atual | ligar) & ~desligar));
+        }
+
+        int ocupados() {
+            int minutos = 0;
+            for (int palavra = 0; palavra < PALAVRAS_DIA; palavra++) {
+                minutos += Long.bitCount(palavra(palavra));
+            }
+            return minutos;
+        }
+
+        // Primeiro início em [inicio, ultimoInicio] seguido de "duracao" minutos livres, ou -1
+        int proximoLivre(int inicio, int ultimoInicio, int duracao) {
+            int minuto = inicio;
+            while (minuto <= ultimoInicio) {
+                minuto = proximo(minuto, ultimoInicio + 1, false);
+                if (minuto > ultimoInicio) {
+                    break;
+                }
+                int ocupado = proximo(minuto, minuto + duracao, true);
+                if (ocupado == minuto + duracao) {
+                    return minuto;
+                }
+                minuto = ocupado;
+            }
+            return -1;
+        }
+
+        // Primeiro minuto em [de, ate) ocupado (ou livre, conforme "ocupado"), ou "ate" se não houver
+        private int proximo(int de, int ate, boolean ocupado) {
+            int palavra = de >> 6;
+            long bits = ler(palavra, ocupado) & (-1L << (de & 63));
+            while (bits == 0) {
+                palavra++;
+                if (palavra << 6 >= ate) {
+                    return ate;
+                }
+                bits = ler(palavra, ocupado);
+            }
+            return Math.min((palavra << 6) + Long.numberOfTrailingZeros(bits), ate);
+        }
+
+        private long ler(int palavra, boolean ocupado) {
+            long bits = palavra(palavra);
+            return ocupado ? bits : ~bits;
+        }
+
+        // Bits da palavra que caem no intervalo [inicio, fim)
+        private static long mascara(int palavra, int inicio, int fim) {
+            int base = palavra << 6;
+            int de = Math.max(inicio - base, 0);
+            int ate = Math.min(fim - base, 64);
+            if (de >= ate) {
+                return 0;
+            }
+            long ateFim = ate == 64 ? -1L : (1L << ate) - 1;
+            return ateFim & (-1L << de);
+        }
+    }
+
+    private static final class DiaNaMemoria extends Dia {
+
+        private final AtomicLongArray palavras = new AtomicLongArray(PALAVRAS_DIA);
+
+        @Override
+        long palavra(int indice) {
+            return palavras.get(indice);
+        }
+
+        @Override
+        boolean trocar(int indice, long esperado, long novo) {
+            return palavras.compareAndSet(indice, esperado, novo);
+        }
+    }
+
+    /**
+     * Dia de um mês arquivado, lido e alterado direto no bloco (alinhado a 8 bytes, como o
+     * compareAndSet exige). Criado a cada acesso: não guarda nada além da fatia.
+     */
+    private static final class DiaNoArquivo extends Dia {
+
+        private static final VarHandle PALAVRAS = MethodHandles.byteBufferViewVarHandle(long[].class,
+                ByteOrder.nativeOrder());
+
+        private final ByteBuffer bloco;
+
+        DiaNoArquivo(ByteBuffer bloco) {
+            this.bloco = bloco;
+        }
+
+        @Override
+        long palavra(int indice) {
+            return (long) PALAVRAS.getVolatile(bloco, indice * Long.BYTES);
+        }
+
+        @Override
+        boolean trocar(int indice, long esperado, long novo) {
+            return PALAVRAS.compareAndSet(bloco, indice * Long.BYTES, esperado, novo);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package service;
+
+import model.ArquivoBlocos;
+import model.Paciente;
+
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Dias com consulta de cada paciente, guardados como epochDay em ordem crescente.
+ * Atende à regra de uma consulta por dia e às consultas por intervalo de datas.
+ *
+ * Cada paciente tem poucas centenas de dias no máximo, então um vetor ordenado com busca
+ * binária ocupa bem menos memória que um TreeSet<Long> e é mais rápido de preencher, já que
+ * as consultas costumam chegar em ordem de data (a inclusão no fim não desloca nada).
+ *
+ * Os dias passados saem do heap em {@link #arquivarDiasAntigos}: vão, com os já arquivados do
+ * paciente, para um bloco do ArquivoBlocos (um int por dia), e no heap ficam só a posição e o
+ * tamanho do bloco. Um dia arquivado que perde a consulta é marcado como removido no próprio
+ * bloco (o bit mais baixo), sem deslocar os outros.
+ *
+ * O mapa aceita acesso concorrente; os dias de cada paciente só são lidos ou alterados com
+ * o paciente travado (synchronized no objeto Paciente).
+ */
+class AgendaPacientes {
+
+    private final Map<Paciente, Dias> diasPorPaciente = new ConcurrentHashMap<>();
+    // Definido no primeiro arquivamento
+    private volatile ArquivoBlocos arquivo;
+
+    boolean temConsultaNoDia(Paciente paciente, LocalDate data) {
+        Dias dias = diasPorPaciente.get(paciente);
+        return dias != null && dias.contem(data.toEpochDay(), arquivo);
+    }
+
+    void adicionar(Paciente paciente, LocalDate data) {
+        Dias dias = diasPorPaciente.get(paciente);
+        if (dias == null) {
+            dias = new Dias();
+            diasPorPaciente.put(paciente, dias);
+        }
+        dias.adicionar(data.toEpochDay(), arquivo);
+    }
+
+    void remover(Paciente paciente, LocalDate data) {
+        Dias dias = diasPorPaciente.get(paciente);
+        if (dias == null) {
+            return;
+        }
+        dias.remover(data.toEpochDay(), arquivo);
+        if (dias.tamanho == 0 && dias.arquivados == 0) {
+            diasPorPaciente.remove(paciente);
+        }
+    }
+
+    /**
+     * Retorna, em ordem, os dias entre inicio e fim (inclusive) em que o paciente tem consulta.
+     */
+    List<LocalDate> diasComConsulta(Paciente paciente, LocalDate inicio, LocalDate fim) {
+        List<LocalDate> resultado = new ArrayList<>();
+        Dias dias = diasPorPaciente.get(paciente);
+        if (dias == null || fim.isBefore(inicio)) {
+            return resultado;
+        }
+        long primeiro = inicio.toEpochDay();
+        long ultimo = fim.toEpochDay();
+        IntBuffer arquivados = dias.arquivados(arquivo);
+        int i = dias.primeiroAPartirDe(primeiro);
+        int j = arquivados == null ? 0 : Dias.primeiroArquivadoAPartirDe(arquivados, dias.arquivados, primeiro);
+        // Junção dos dias do heap com os arquivados, as duas partes em ordem
+        while (true) {
+            long doHeap = i < dias.tamanho ? dias.dias[i] : Long.MAX_VALUE;
+            long doArquivo = j < dias.arquivados ? arquivados.get(j) >> 1 : Long.MAX_VALUE;
+            long dia = Math.min(doHeap, doArquivo);
+            if (dia > ultimo) {
+                break;
+            }
+            if (dia == doHeap) {
+                resultado.add(LocalDate.ofEpochDay(dia));
+                i++;
+            } else {
+                if ((arquivados.get(j) & 1) == 0) {
+                    resultado.add(LocalDate.ofEpochDay(dia));
+                }
+                j++;
+            }
+        }
+        return resultado;
+    }
+
+    /**
+     * Leva para o arquivo os dias anteriores a "corte" (epochDay) de todos os pacientes, cada
+     * paciente travado por vez. Se uma alocação falhar (a falha é contada no arquivo), os
+     * pacientes que faltam ficam para o próximo arquivamento.
+     */
+    void arquivarDiasAntigos(ArquivoBlocos destino, long corte) {
+        if (arquivo == null) {
+            arquivo = destino;
+        } else if (arquivo != destino) {
+            throw new IllegalStateException("A agenda já usa outro arquivo.");
+        }
+        for (Map.Entry<Paciente, Dias> entrada : diasPorPaciente.entrySet()) {
+            synchronized (entrada.getKey()) {
+                try {
+                    entrada.getValue().arquivar(destino, corte);
+                } catch (IOException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Vetor ordenado de epochDays, sem repetição, e o bloco com os dias arquivados: também em
+     * ordem, como (epochDay * 2 + 1 se removido). Um mesmo dia não fica nas duas partes.
+     */
+    private static final class Dias {
+
+        private long[] dias = new long[4];
+        private int tamanho;
+        private long bloco = -1;
+        private int arquivados;
+
+        /**
+         * Posição do dia, ou (-(ponto de inserção) - 1) se ele não estiver no vetor.
+         */
+        int posicao(long dia) {
+            if (tamanho > 0 && dias[tamanho - 1] < dia) {
+                return -tamanho - 1;
+            }
+            return Arrays.binarySearch(dias, 0, tamanho, dia);
+        }
+
+        int primeiroAPartirDe(long dia) {
+            int posicao = posicao(dia);
+            return posicao >= 0 ? posicao : -posicao - 1;
+        }
+
+        boolean contem(long dia, ArquivoBlocos arquivo) {
+            if (posicao(dia) >= 0) {
+                return true;
+            }
+            IntBuffer arquivados = arquivados(arquivo);
+            int indice = arquivados == null ? -1 : posicaoArquivada(arquivados, dia);
+            return indice >= 0 && (arquivados.get(indice) & 1) == 0;
+        }
+
+        void adicionar(long dia, ArquivoBlocos arquivo) {
+            IntBuffer arquivados = arquivados(arquivo);
+            int indice = arquivados == null ? -1 : posicaoArquivada(arquivados, dia);
+            if (indice >= 0) {
+                arquivados.put(indice, (int) dia * 2);
+                return;
+            }
+            int posicao = posicao(dia);
+            if (posicao >= 0) {
+                return;
+            }
+            posicao = -posicao - 1;
+            if (tamanho == dias.length) {
+                dias = Arrays.copyOf(dias, tamanho * 2);
+            }
+            System.arraycopy(dias, posicao, dias, posicao + 1, tamanho - posicao);
+            dias[posicao] = dia;
+            tamanho++;
+        }
+
+        void remover(long dia, ArquivoBlocos arquivo) {
+            int posicao = posicao(dia);
+            if (posicao >= 0) {
+                System.arraycopy(dias, posicao + 1, dias, posicao, tamanho - posicao - 1);
+                tamanho--;
+                return;
+            }
+            IntBuffer arquivados = arquivados(arquivo);
+            int indice = arquivados == null ? -1 : posicaoArquivada(arquivados, dia);
+            if (indice >= 0) {
+                arquivados.put(indice, (int) dia * 2 + 1);
+            }
+        }
+
+        IntBuffer arquivados(ArquivoBlocos arquivo) {
+            return arquivados == 0 ? null : arquivo.fatia(bloco, arquivados * Integer.BYTES).asIntBuffer();
+        }
+
+        /**
+         * Regrava num bloco novo os dias arquivados (sem os removidos) junto com os dias do
+         * heap anteriores a "corte". O bloco anterior fica sem uso no arquivo.
+         */
+        void arquivar(ArquivoBlocos arquivo, long corte) throws IOException {
+            int antigos = primeiroAPartirDe(corte);
+            if (antigos == 0) {
+                return;
+            }
+            IntBuffer anteriores = arquivados(arquivo);
+            int[] novos = new int[arquivados + antigos];
+            int quantidade = 0;
+            int i = 0;
+            int j = 0;
+            while (i < antigos || j < arquivados) {
+                if (j < arquivados && (anteriores.get(j) & 1) == 1) {
+                    j++;
+                } else if (j == arquivados || (i < antigos && dias[i] < anteriores.get(j) >> 1)) {
+                    novos[quantidade++] = Math.toIntExact(dias[i++] * 2);
+                } else {
+                    novos[quantidade++] = anteriores.get(j++);
+                }
+            }
+            long novoBloco = arquivo.alocar(quantidade * Integer.BYTES);
+            arquivo.fatia(novoBloco, quantidade * Integer.BYTES).asIntBuffer().put(0, novos, 0, quantidade);
+            bloco = novoBloco;
+            arquivados = quantidade;
+            tamanho -= antigos;
+            dias = Arrays.copyOfRange(dias, antigos, antigos + Math.max(tamanho, 4));
+        }
+
+        // Posição do dia no bloco arquivado (removido ou não), ou -1
+        private static int posicaoArquivada(IntBuffer arquivados, long dia) {
+            int indice = primeiroArquivadoAPartirDe(arquivados, arquivados.limit(), dia);
+            return indice < arquivados.limit() && arquivados.get(indice) >> 1 == dia ? indice : -1;
+        }
+
+        static int primeiroArquivadoAPartirDe(IntBuffer arquivados, int quantidade, long dia) {
+            int baixo = 0;
+            int alto = quantidade;
+            while (baixo < alto) {
+                int meio = (baixo + alto) >>> 1;
+                if (arquivados.get(meio) >> 1 < dia) {
+                    baixo = meio + 1;
+                } else {
+                    alto = meio;
+                }
+            }
+            return baixo;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package service;
+
+import dto.ResumoMensal;
+import model.Consulta;
+import model.Medico;
+import model.StatusConsulta;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Totais das consultas mantidos a cada alteração, para os painéis lerem sem percorrer a lista:
+ * por médico e mês, a quantidade e o valor das consultas de cada status e o valor ainda não
+ * pago; no geral, o valor a receber. Os valores são somados em centavos, como na conta do
+ * paciente.
+ *
+ * Os contadores são atômicos e cada alteração só soma ou subtrai a sua parte, então alterações
+ * de pacientes diferentes correm juntas. Uma leitura durante uma alteração pode ver só parte dela.
+ */
+class AgregadosConsultas {
+
+    private static final StatusConsulta[] STATUS = StatusConsulta.values();
+    // Posições de cada célula: quantidades por status, valores por status e o valor em aberto
+    private static final int VALORES = STATUS.length;
+    private static final int EM_ABERTO = 2 * STATUS.length;
+
+    private final Map<Medico, Map<YearMonth, AtomicLongArray>> celulas = new ConcurrentHashMap<>();
+    private final AtomicLong aReceberCentavos = new AtomicLong();
+
+    void adicionar(Consulta consulta) {
+        somar(consulta, 1);
+    }
+
+    void remover(Consulta consulta) {
+        somar(consulta, -1);
+    }
+
+    /**
+     * Tira do valor em aberto uma consulta que acabou de ser paga.
+     */
+    void quitar(Consulta consulta) {
+        long valor = paraCentavos(consulta.getValor());
+        celula(consulta.getMedico(), consulta.getData()).addAndGet(EM_ABERTO, -valor);
+        aReceberCentavos.addAndGet(-valor);
+    }
+
+    ResumoMensal resumo(Medico medico, YearMonth mes) {
+        long[] quantidades = new long[STATUS.length];
+        long[] valores = new long[STATUS.length];
+        long emAberto = 0;
+        Map<YearMonth, AtomicLongArray> meses = celulas.get(medico);
+        AtomicLongArray celula = meses == null ? null : meses.get(mes);
+        if (celula != null) {
+            for (int status = 0; status < STATUS.length; status++) {
+                quantidades[status] = celula.get(status);
+                valores[status] = celula.get(VALORES + status);
+            }
+            emAberto = celula.get(EM_ABERTO);
+        }
+        return new ResumoMensal(medico, mes, quantidades, valores, emAberto);
+    }
+
+    long aReceberCentavos() {
+        return aReceberCentavos.get();
+    }
+
+    private void somar(Consulta consulta, int sinal) {
+        long valor = paraCentavos(consulta.getValor());
+        AtomicLongArray celula = celula(consulta.getMedico(), consulta.getData());
+        int status = consulta.getStatus().ordinal();
+        celula.addAndGet(status, sinal);
+        celula.addAndGet(VALORES + status, sinal * valor);
+        if (!consulta.isPaga()) {
+            celula.addAndGet(EM_ABERTO, sinal * valor);
+            aReceberCentavos.addAndGet(sinal * valor);
+        }
+    }
+
+    private AtomicLongArray celula(Medico medico, LocalDate data) {
+        return celulas.computeIfAbsent(medico, m -> new ConcurrentHashMap<>())
+                .computeIfAbsent(YearMonth.from(data), mes -> new AtomicLongArray(EM_ABERTO + 1));
+    }
+
+    // O mesmo arredondamento da conta do paciente
+    private static long paraCentavos(double valor) {
+        return Math.round(valor * 100);
+    }
+}
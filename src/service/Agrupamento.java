@@ -0,0 +1,86 @@
+package service;
+
+import model.Medico;
+import model.TabelaConsultas;
+
+import java.time.LocalDate;
+
+/**
+ * Como um relatório separa as consultas em grupos. A varredura agrupa por um código numérico,
+ * barato de calcular por linha; o rótulo é calculado uma vez por código, a partir de uma
+ * consulta do grupo, e códigos com o mesmo rótulo (ignorando maiúsculas e acentos) são
+ * somados juntos. Assim a especialidade agrupa pelo número do médico e só junta os médicos no
+ * final.
+ */
+public interface Agrupamento {
+
+    long codigo(TabelaConsultas tabela, int linha);
+
+    String rotulo(TabelaConsultas tabela, int linha);
+
+    /**
+     * Agrupa pelos dois critérios; cada código deve caber em 32 bits.
+     */
+    default Agrupamento e(Agrupamento outro) {
+        Agrupamento primeiro = this;
+        return new Agrupamento() {
+            @Override
+            public long codigo(TabelaConsultas tabela, int linha) {
+                return primeiro.codigo(tabela, linha) << 32 | (outro.codigo(tabela, linha) & 0xFFFFFFFFL);
+            }
+
+            @Override
+            public String rotulo(TabelaConsultas tabela, int linha) {
+                return primeiro.rotulo(tabela, linha) + " / " + outro.rotulo(tabela, linha);
+            }
+        };
+    }
+
+    static Agrupamento porMedico() {
+        return new Agrupamento() {
+            @Override
+            public long codigo(TabelaConsultas tabela, int linha) {
+                return tabela.getIdMedico(linha);
+            }
+
+            @Override
+            public String rotulo(TabelaConsultas tabela, int linha) {
+                Medico medico = tabela.getMedico(linha);
+                return medico == null ? "Sem médico" : medico.getNome() + " (" + medico.getCrm() + ")";
+            }
+        };
+    }
+
+    static Agrupamento porEspecialidade() {
+        return new Agrupamento() {
+            @Override
+            public long codigo(TabelaConsultas tabela, int linha) {
+                return tabela.getIdMedico(linha);
+            }
+
+            @Override
+            public String rotulo(TabelaConsultas tabela, int linha) {
+                Medico medico = tabela.getMedico(linha);
+                return medico == null || medico.getEspecialidade() == null ? "Sem especialidade"
+                        : medico.getEspecialidade().trim();
+            }
+        };
+    }
+
+    // Trimestre como ano * 4 + (trimestre - 1), rótulo "2025-T1"
+    static Agrupamento porTrimestre() {
+        return new Agrupamento() {
+            @Override
+            public long codigo(TabelaConsultas tabela, int linha) {
+                LocalDate data = tabela.getData(linha);
+                return data == null ? -1 : data.getYear() * 4L + (data.getMonthValue() - 1) / 3;
+            }
+
+            @Override
+            public String rotulo(TabelaConsultas tabela, int linha) {
+                LocalDate data = tabela.getData(linha);
+                return data == null ? "Sem data" : data.getYear() + "-T" + ((data.getMonthValue() - 1) / 3 + 1);
+            }
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package service;
+
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Trava que separa as alterações comuns das exclusivas, uma por conjunto de serviços: o
+ * ConsultaService passa a dos pacientes para os demais serviços que recebe, e o
+ * PagamentoService usa a do ConsultaService. Serviços de clínicas diferentes no mesmo processo
+ * não esperam uns pelos outros.
+ *
+ * Agendamentos, atualizações de consultas, pagamentos e as alterações dos cadastros usam a
+ * parte compartilhada e rodam em paralelo entre si. O agendamento trava o paciente (monitor) e
+ * o dia do médico na agenda (sem trava, por compareAndSet), então só esperam um pelo outro os
+ * que disputam o mesmo paciente ou o mesmo dia. Cada cadastro (pacientes, médicos, exames,
+ * medicamentos) tem a sua trava de leitura e escrita: cadastro, atualização e remoção escrevem
+ * só nela, e as listagens leem dela. A atualização troca CPF ou CRM com o paciente ou médico
+ * travado, e o agendamento confere de novo o CPF e o CRM com eles travados antes do diário,
+ * então nunca grava um agendamento com uma chave que já foi trocada; os catálogos de exames e
+ * medicamentos ficam travados para leitura da busca das prescrições até o diário.
+ *
+ * A parte exclusiva fica para o que precisa do grafo inteiro parado: a gravação do snapshot, a
+ * remoção em cascata e o arquivamento das agendas. Ela espera as alterações em andamento
+ * terminarem; as importações em lote soltam as travas a cada CADASTROS_POR_TRAVA itens, então
+ * o snapshot ou a cascata espera no máximo um pedaço do lote, não o lote inteiro.
+ *
+ * Ordem das travas: Alteracoes, paciente, leitura dos exames, leitura dos medicamentos, médico,
+ * tabela de consultas, página; quem altera um cadastro segura Alteracoes, a escrita do cadastro
+ * e o paciente ou médico alterado.
+ *
+ * Não é reentrante da compartilhada para a exclusiva: quem já está numa alteração não pode
+ * pedir a exclusiva.
+ */
+public final class Alteracoes {
+
+    // Itens de uma importação em lote por vez com as travas seguras
+    static final int CADASTROS_POR_TRAVA = 256;
+
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+
+    Alteracoes() {}
+
+    Lock compartilhada() {
+        return trava.readLock();
+    }
+
+    public Lock exclusiva() {
+        return trava.writeLock();
+    }
+}
@@ -1,27 +1,82 @@
 package service;
 
+import dto.CargaMedico;
+import dto.ConsultaRequest;
+import dto.HorarioLivre;
+import dto.Pagina;
+import dto.Referencias;
+import dto.Resultado;
+import dto.ResumoMensal;
 import exception.PagamentoPendenteException;
 import model.*;
+import persistencia.Diario;
+import util.Impressao;
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.time.format.DateTimeFormatter;
+import java.time.YearMonth;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
 
-import static util.ValidaCPF.formatarCPF;
+import static util.Validacoes.validarEspecialidade;
+import static util.Validacoes.validarStatusConsulta;
+import static util.Validacoes.validarTipoExame;
 
+/**
+ * Consultas da clínica. Pode ser usado por várias threads ao mesmo tempo:
+ * - cada agendamento, atualização ou remoção trava o paciente (synchronized no objeto), que é
+ *   também a trava dos pagamentos, e com isso a regra de uma consulta por dia fica atômica com
+ *   a inclusão. O horário do médico é reservado sem trava na AgendaMedicos (compareAndSet):
+ *   quem perde a reserva falha com "Médico não disponível", e as consultas de pacientes
+ *   diferentes seguem em paralelo mesmo no mesmo médico;
+ * - a lista de consultas, os conjuntos por status e o registro no diário ficam sob a trava da
+ *   lista (synchronized em "consultas"), segurada só pelo tempo de incluir a linha, para que a
+ *   ordem do diário seja a mesma da lista e os índices reaplicados na recuperação batam. O
+ *   registro vai para o diário antes da alteração (uma falha do diário recusa a alteração) e
+ *   a espera pela gravação (Diario.confirmar) é feita depois de soltar todas as travas.
+ * - o CPF e o CRM do pedido são conferidos de novo com o paciente e o médico travados, e os
+ *   catálogos de exames e medicamentos ficam travados para leitura até o diário: uma
+ *   atualização ou remoção concorrente nos cadastros entra no diário antes ou depois do
+ *   agendamento inteiro.
+ * A ordem das travas é sempre: Alteracoes, paciente, exames, medicamentos, médico, lista.
+ *
+ * Consultas canceladas não ocupam a agenda do médico: o horário é liberado quando o status
+ * passa a CANCELADA e precisa estar livre de novo para sair desse status.
+ */
 public class ConsultaService {
 
+    // A duração é guardada em 16 bits na tabela; uma consulta não passa de um dia
+    private static final int DURACAO_MAXIMA = 24 * 60;
+    // Resposta quando uma remoção concorrente desloca a consulta entre a leitura do índice e a alteração
+    private static final String CONSULTA_DESLOCADA =
+            "A consulta mudou de posição na lista; liste as consultas novamente.";
+
+    /**
+     * Expediente usado na busca de horários livres.
+     */
+    public static final LocalTime INICIO_EXPEDIENTE = LocalTime.of(8, 0);
+    public static final LocalTime FIM_EXPEDIENTE = LocalTime.of(18, 0);
+
     private PacienteService pacienteService;
     private MedicoService medicoService;
     private ExameService exameService;
     private MedicamentoService medicamentoService;
 
-    private final List<Consulta> consultas = new ArrayList<>();
-
-    private final DateTimeFormatter dateFormatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
-    private final DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("HH:mm");
+    private final TabelaConsultas tabela = new TabelaConsultas();
+    // Como toda consulta nova recebe a última linha da tabela, esta lista fica sempre em ordem crescente de linha
+    private final ListaConsultas consultas = new ListaConsultas(tabela, 16);
+    private final ConsultasPorStatus porStatus = new ConsultasPorStatus();
+    private final AgendaMedicos agenda = new AgendaMedicos();
+    private final AgendaPacientes agendaPacientes = new AgendaPacientes();
+    private final AgregadosConsultas agregados = new AgregadosConsultas();
+    private final Alteracoes alteracoes;
+    private Diario diario = Diario.NENHUM;
 
     public ConsultaService(PacienteService pacienteService, MedicoService medicoService,
                            ExameService exameService, MedicamentoService medicamentoService) {
@@ -29,324 +84,949 @@ public class ConsultaService {
         this.medicoService = medicoService;
         this.exameService = exameService;
         this.medicamentoService = medicamentoService;
+        // Uma trava para o conjunto: a dos pacientes passa a valer para os outros cadastros
+        this.alteracoes = pacienteService.getAlteracoes();
+        medicoService.setAlteracoes(alteracoes);
+        exameService.setAlteracoes(alteracoes);
+        medicamentoService.setAlteracoes(alteracoes);
     }
 
-    public ConsultaService() {}
+    public ConsultaService() {
+        this.alteracoes = new Alteracoes();
+    }
 
-    // Método para cadastrar uma nova consulta
-    public void cadastrarConsulta() {
-        try {
-            Scanner scanner = new Scanner(System.in);
-            System.out.println("=== Cadastro de Consulta ===");
+    /**
+     * Define o diário que recebe as alterações de consultas (agendamento, atualização e remoção).
+     */
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
 
-            // Validação da data da consulta
-            LocalDate data = validarDataConsulta(scanner);
+    /**
+     * Trava de alterações deste conjunto de serviços (ver Alteracoes).
+     */
+    public Alteracoes getAlteracoes() {
+        return alteracoes;
+    }
 
-            // Validação do horário da consulta
-            LocalTime horario = validarHorarioConsulta(scanner);
+    /**
+     * Agenda uma nova consulta. Valida data (não pode ser no passado), horário, duração,
+     * status, paciente (pelo CPF), médico (pelo CRM), disponibilidade do médico, a regra de
+     * uma consulta por dia do paciente, as prescrições, o valor e pagamentos pendentes.
+     */
+    public Resultado<Consulta> agendarConsulta(ConsultaRequest request) {
+        if (request.getData() == null) {
+            return Resultado.falha("Formato de data inválido. Use DD-MM-YYYY.");
+        }
+        if (request.getData().isBefore(LocalDate.now())) {
+            return Resultado.falha("A data não pode ser no passado.");
+        }
+        return agendar(request, true);
+    }
+
+    /**
+     * Reinclui uma consulta já agendada anteriormente (recuperação do diário), com as mesmas
+     * validações do agendamento, exceto a de data no passado: a consulta pode já ter acontecido.
+     */
+    public Resultado<Consulta> restaurarConsulta(ConsultaRequest request) {
+        if (request.getData() == null) {
+            return Resultado.falha("Formato de data inválido. Use DD-MM-YYYY.");
+        }
+        return agendar(request, false);
+    }
 
-            // Validação da duração da consulta
-            int duracao = validarDuracaoConsulta(scanner);
+    /**
+     * Inclui uma consulta lida de um snapshot na lista e nas agendas. Os históricos e a conta
+     * do paciente são restaurados junto com o snapshot e não são alterados aqui.
+     */
+    public void restaurarConsulta(Consulta consulta) {
+        synchronized (consultas) {
+            consultas.add(consulta);
+            porStatus.adicionar(consulta.getLinha(), consulta.getStatus());
+            agregados.adicionar(consulta);
+        }
+        if (consulta.getStatus() != StatusConsulta.CANCELADA) {
+            agenda.ocupar(consulta);
+        }
+        synchronized (consulta.getPaciente()) {
+            agendaPacientes.adicionar(consulta.getPaciente(), consulta.getData());
+        }
+    }
 
-            // Validação do status da consulta
-            String status = validarStatusConsulta(scanner);
+    // Validações do agendamento que não dependem da data atual
+    private Resultado<Consulta> agendar(ConsultaRequest request, boolean registrarNoDiario) {
+        if (request.getHorario() == null) {
+            return Resultado.falha("Formato de horário inválido. Use HH:mm.");
+        }
+        if (request.getDuracao() == null || request.getDuracao() <= 0) {
+            return Resultado.falha("A duração deve ser maior que 0.");
+        }
+        if (request.getDuracao() > DURACAO_MAXIMA) {
+            return Resultado.falha("A duração não pode passar de " + DURACAO_MAXIMA + " minutos.");
+        }
+        String erro = validarStatusConsulta(request.getStatus());
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
+        StatusConsulta status = StatusConsulta.deTexto(request.getStatus());
 
-            // Criação do paciente
-            var paciente = adicionarPaciente(scanner);
+        Resultado<Consulta> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        alteracao.lock();
+        try {
+            resultado = agendar(request, status, registrarNoDiario);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
+        }
+        if (registrarNoDiario && resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
 
-            // Criação do médico
-            var medico = adicionarMedico(scanner);
+    private Resultado<Consulta> agendar(ConsultaRequest request, StatusConsulta status, boolean registrarNoDiario) {
+        Paciente paciente = pacienteService.buscarPorCpf(request.getCpfPaciente());
+        if (paciente == null) {
+            return Resultado.falha("Cadastre um paciente para cadastrar uma consulta.");
+        }
+        Medico medico = medicoService.buscaPorCrm(request.getCrmMedico());
+        if (medico == null) {
+            return Resultado.falha("Médico não encontrado.");
+        }
 
-            // Verificação de disponibilidade do médico
-            if (!isMedicoDisponivel(medico, data, horario, duracao)) {
-                System.out.println("Médico não disponível no horário selecionado.");
-                return;
+        synchronized (paciente) {
+            // O CPF pode ter mudado entre a busca e a trava do paciente
+            if (pacienteService.buscarPorCpf(request.getCpfPaciente()) != paciente) {
+                return Resultado.falha("Cadastre um paciente para cadastrar uma consulta.");
+            }
+            // Verificação de disponibilidade do médico: a reserva já ocupa o horário e é
+            // desfeita se alguma das verificações seguintes falhar
+            boolean ocupaAgenda = status != StatusConsulta.CANCELADA;
+            if (ocupaAgenda && !agenda.reservar(medico, request.getData(), request.getHorario(),
+                    request.getDuracao(), null)) {
+                return Resultado.falha("Médico não disponível no horário selecionado.");
+            }
+            Resultado<Consulta> resultado = null;
+            try {
+                resultado = verificarEIncluir(request, status, paciente, medico, registrarNoDiario);
+                return resultado;
+            } finally {
+                if (ocupaAgenda && (resultado == null || !resultado.isSucesso())) {
+                    agenda.liberar(medico, request.getData(), request.getHorario(), request.getDuracao(), null);
+                }
             }
+        }
+    }
+
+    // Chamado com o paciente travado e o horário do médico já reservado
+    private Resultado<Consulta> verificarEIncluir(ConsultaRequest request, StatusConsulta status, Paciente paciente,
+                                                  Medico medico, boolean registrarNoDiario) {
+
+        // Verificação de consulta do paciente no mesmo dia
+        if (agendaPacientes.temConsultaNoDia(paciente, request.getData())) {
+            return Resultado.falha("Paciente já possui uma consulta agendada para este dia.");
+        }
+
+        // Prescrições: os catálogos ficam travados para leitura até a consulta entrar no diário
+        Lock leituraExames = exameService.leituraCatalogo();
+        Lock leituraMedicamentos = medicamentoService.leituraCatalogo();
+        leituraExames.lock();
+        leituraMedicamentos.lock();
+        try {
+            return prescreverEIncluir(request, status, paciente, medico, registrarNoDiario);
+        } finally {
+            leituraMedicamentos.unlock();
+            leituraExames.unlock();
+        }
+    }
 
-            // Verificação de consulta do paciente no mesmo dia
-            if (hasPacienteConsultaNoDia(paciente, data)) {
-                System.out.println("Paciente já possui uma consulta agendada para este dia.");
-                return;
+    // Chamado como verificarEIncluir e com os catálogos de exames e medicamentos travados para leitura
+    private Resultado<Consulta> prescreverEIncluir(ConsultaRequest request, StatusConsulta status, Paciente paciente,
+                                                   Medico medico, boolean registrarNoDiario) {
+        List<Exame> examesPrescritos = new ArrayList<>();
+        for (String tipo : request.getTiposExame()) {
+            String tipoNormalizado = tipo == null ? null : tipo.toUpperCase();
+            String erro = validarTipoExame(tipoNormalizado);
+            if (erro != null) {
+                return Resultado.falha(erro);
+            }
+            Exame exame = exameService.buscarExamePorTipo(tipoNormalizado);
+            if (exame == null) {
+                return Resultado.falha("Nenhum exame do tipo " + tipoNormalizado + " cadastrado.");
             }
+            examesPrescritos.add(exame);
+        }
+        List<Medicamento> medicamentosPrescritos = new ArrayList<>();
+        for (String nome : request.getNomesMedicamentos()) {
+            Medicamento medicamento = medicamentoService.buscarMedicamento(nome);
+            if (medicamento == null) {
+                return Resultado.falha("Medicamento não encontrado: " + nome);
+            }
+            medicamentosPrescritos.add(medicamento);
+        }
 
-            // Adição de exames
-            var examesPrescritos = adicionarExames(scanner);
+        // Validação do valor da consulta
+        if (request.getValor() == null || request.getValor() < 0) {
+            return Resultado.falha("O valor não pode ser negativo.");
+        }
 
-            // Adição de medicamentos prescritos
-            var medicamentosPrescritos = adicionarMedicamentos(scanner);
+        try {
+            verificarPagamentos(paciente);
+        } catch (PagamentoPendenteException e) {
+            return Resultado.falha(e.getMessage());
+        }
 
-            // Validação do valor da consulta
-            double valor = validarValorConsulta(scanner);
+        Consulta consulta;
+        synchronized (medico) {
+            // O CRM pode ter mudado entre a busca e a trava do médico
+            if (medicoService.buscaPorCrm(request.getCrmMedico()) != medico) {
+                return Resultado.falha("Médico não encontrado.");
+            }
+            synchronized (consultas) {
+                if (registrarNoDiario) {
+                    // Com a lista travada nenhuma outra linha é incluída: a nova é a próxima da tabela
+                    diario.consultaAgendada(tabela.tamanho(), request);
+                }
+                consulta = tabela.adicionar(request.getData(), request.getHorario(), request.getDuracao(), status,
+                        paciente, medico, examesPrescritos, medicamentosPrescritos, request.getValor());
+                consultas.add(consulta);
+                porStatus.adicionar(consulta.getLinha(), status);
+                agregados.adicionar(consulta);
+            }
+        }
+        registrar(consulta);
+        return Resultado.sucesso(consulta);
+    }
+
+    /**
+     * Lista todas as consultas, uma página por escrita.
+     */
+    public void listarConsultas() {
+        Pagina<Consulta> pagina = buscarPagina(Pagina.INICIO, Paginas.ITENS_POR_ESCRITA);
+        imprimirPagina(pagina);
+        while (pagina.temProxima()) {
+            pagina = buscarPagina(pagina.getProximoCursor(), Paginas.ITENS_POR_ESCRITA);
+            imprimirPagina(pagina);
+        }
+    }
+
+    /**
+     * Página de consultas na ordem de cadastro, a partir do cursor (Pagina.INICIO na primeira).
+     * O cursor é a linha na tabela da próxima consulta: como a lista fica em ordem crescente de
+     * linha, a página seguinte começa no lugar certo mesmo que consultas anteriores sejam
+     * removidas entre uma página e outra, e é encontrada por busca binária.
+     */
+    public Pagina<Consulta> buscarPagina(long cursor, int tamanho) {
+        if (cursor < 0 || tamanho <= 0) {
+            throw new IllegalArgumentException("Cursor ou tamanho de página inválido.");
+        }
+        synchronized (consultas) {
+            int inicio = primeiroIndiceAPartirDaLinha(cursor);
+            int fim = (int) Math.min((long) inicio + tamanho, consultas.size());
+            ListaConsultas itens = new ListaConsultas(tabela, fim - inicio);
+            for (int i = inicio; i < fim; i++) {
+                itens.adicionarLinha(consultas.getLinha(i));
+            }
+            long proximo = fim < consultas.size() ? consultas.getLinha(fim) : Pagina.FIM;
+            return new Pagina<>(Collections.unmodifiableList(itens), inicio, proximo);
+        }
+    }
+
+    /**
+     * Imprime uma página de consultas numa única escrita, com o índice de cada uma; a primeira
+     * leva o título da lista.
+     */
+    public void imprimirPagina(Pagina<Consulta> pagina) {
+        Impressao impressao = new Impressao();
+        if (pagina.getPrimeiroIndice() == 0) {
+            impressao.linha(pagina.getItens().isEmpty() ? "Nenhuma consulta cadastrada." : "=== Lista de Consultas ===");
+        }
+        int indice = pagina.getPrimeiroIndice();
+        for (Consulta consulta : pagina.getItens()) {
+            imprimirConsulta(impressao, indice++, consulta.getLinha());
+        }
+        impressao.imprimir();
+    }
 
-            if (paciente != null && !paciente.getHistoricoMedico().isEmpty()) {
-                if (paciente.getPagamentos().isEmpty()) {
-                    throw new PagamentoPendenteException("O paciente tem pagamento pendente, " +
-                            "faça o pagamento para agendar uma consulta!");
+    /**
+     * Lista só as consultas com o status informado, com o mesmo índice da listagem completa.
+     * Percorre apenas as consultas do status. As linhas de cada escrita são lidas com a lista
+     * travada e impressas depois de soltá-la, como em listarConsultas.
+     */
+    public void listarConsultasPorStatus(StatusConsulta status) {
+        int[] indices = new int[Paginas.ITENS_POR_ESCRITA];
+        int[] linhas = new int[Paginas.ITENS_POR_ESCRITA];
+        boolean primeira = true;
+        int proximaLinha = 0;
+        while (proximaLinha >= 0) {
+            int total;
+            int quantidade = 0;
+            synchronized (consultas) {
+                total = porStatus.quantidade(status);
+                int indice = 0;
+                int linha = porStatus.proxima(status, proximaLinha);
+                for (; linha >= 0 && quantidade < linhas.length; linha = porStatus.proxima(status, linha + 1)) {
+                    indice = indiceDaLinha(linha, indice);
+                    indices[quantidade] = indice;
+                    linhas[quantidade++] = linha;
                 }
+                proximaLinha = linha;
             }
 
-            // Criação da consulta
-            Consulta consulta = new Consulta(data, horario, duracao, status, paciente, medico,
-                    examesPrescritos, medicamentosPrescritos, valor);
+            Impressao impressao = new Impressao();
+            if (primeira) {
+                impressao.linha(total == 0 ? "Nenhuma consulta com status " + status + "."
+                        : "=== Consultas " + status + " (" + total + ") ===");
+                primeira = false;
+            }
+            for (int i = 0; i < quantidade; i++) {
+                imprimirConsulta(impressao, indices[i], linhas[i]);
+            }
+            impressao.imprimir();
+        }
+    }
 
-            // Adiciona a consulta ao histórico do paciente e do médico
-            assert paciente != null;
-            paciente.addConsulta(consulta);
-            medico.addConsulta(consulta);
+    /**
+     * Consultas cadastradas com o status informado, na ordem de cadastro.
+     */
+    public List<Consulta> buscarPorStatus(StatusConsulta status) {
+        synchronized (consultas) {
+            ListaConsultas encontradas = new ListaConsultas(tabela, porStatus.quantidade(status));
+            for (int linha = porStatus.proxima(status, 0); linha >= 0; linha = porStatus.proxima(status, linha + 1)) {
+                encontradas.adicionarLinha(linha);
+            }
+            return Collections.unmodifiableList(encontradas);
+        }
+    }
 
-            // Adiciona a consulta à lista de consultas
-            consultas.add(consulta);
-            paciente.addConsulta(consulta);
+    /**
+     * Quantidade de consultas cadastradas com o status informado, mantida a cada alteração.
+     */
+    public int contarPorStatus(StatusConsulta status) {
+        synchronized (consultas) {
+            return porStatus.quantidade(status);
+        }
+    }
 
-            System.out.println("Consulta cadastrada com sucesso!");
-        } catch (PagamentoPendenteException e) {
-            System.out.println("O paciente tem pagamento pendente, " +
-                    "faça o pagamento para agendar uma consulta!");
+    /**
+     * Quantidade e valor das consultas do médico no mês, por status, e o valor ainda não pago,
+     * mantidos a cada alteração.
+     */
+    public ResumoMensal resumoMensal(Medico medico, YearMonth mes) {
+        return agregados.resumo(medico, mes);
+    }
+
+    /**
+     * Soma das consultas cadastradas que ainda não foram pagas, mantida a cada alteração.
+     */
+    public double getValorAReceber() {
+        return agregados.aReceberCentavos() / 100.0;
+    }
+
+    /**
+     * Tira dos totais em aberto as consultas quitadas pelo pagamento. Chamado pelo
+     * PagamentoService e pela restauração do snapshot, em que as consultas são incluídas antes
+     * dos pagamentos; consultas já removidas da lista ficam de fora.
+     */
+    public void registrarPagamento(Pagamento pagamento) {
+        synchronized (consultas) {
+            for (Consulta consulta : pagamento.getConsultas()) {
+                if (porStatus.contem(consulta.getLinha(), consulta.getStatus())) {
+                    agregados.quitar(consulta);
+                }
+            }
         }
     }
 
-    // Método para listar todas as consultas
-    public void listarConsultas() {
-        if (consultas.isEmpty()) {
-            System.out.println("Nenhuma consulta cadastrada.");
-            return;
+    /**
+     * Retorna uma cópia das consultas cadastradas, na ordem de cadastro (somente leitura).
+     */
+    public List<Consulta> getConsultas() {
+        synchronized (consultas) {
+            return Collections.unmodifiableList(consultas.copiar());
         }
-        System.out.println("=== Lista de Consultas ===");
-        for (int i = 0; i < consultas.size(); i++) {
-            Consulta consulta = consultas.get(i);
-            System.out.printf("Índice: %d | Data: %s | Horário: %s | Duração: %d minutos |" +
-                            " Status: %s | Paciente: %s | Médico: %s | Valor: R$ %.2f%n",
-                    i,
-                    consulta.getData().format(dateFormatter),
-                    consulta.getHorario().format(timeFormatter),
-                    consulta.getDuracao(),
-                    consulta.getStatus(),
-                    consulta.getPaciente().getNome(),
-                    consulta.getMedico().getNome(),
-                    consulta.getValor());
-        }
-    }
-
-    // Método para atualizar uma consulta existente
-    public void atualizarConsulta() {
-        Scanner scanner = new Scanner(System.in);
-        listarConsultas();
-        System.out.print("Informe o índice da consulta que deseja atualizar: ");
-        int indice = scanner.nextInt();
-        scanner.nextLine(); // Consumir a quebra de linha
-
-        if (indice < 0 || indice >= consultas.size()) {
-            System.out.println("Índice inválido.");
+    }
+
+    // Cópia da lista (só os números das linhas), para varreduras fora da trava
+    ListaConsultas copiarConsultas() {
+        synchronized (consultas) {
+            return consultas.copiar();
+        }
+    }
+
+    /**
+     * Tabela com todas as consultas já criadas, inclusive as removidas que continuam nos
+     * históricos. Usada para varreduras por coluna e pela persistência.
+     */
+    public TabelaConsultas getTabela() {
+        return tabela;
+    }
+
+    /**
+     * Leva para o arquivo de páginas da tabela os dias das agendas anteriores ao mês passado
+     * (ver AgendaMedicos e AgendaPacientes). Não faz nada se a tabela não tiver arquivo ou se
+     * ele já estiver fechado. Espera as alterações em andamento, como o snapshot.
+     */
+    public void arquivarAgendasAntigas() {
+        ArquivoBlocos arquivo = tabela.getArquivo();
+        if (arquivo == null || arquivo.isFechado()) {
             return;
         }
+        LocalDate corte = YearMonth.now().minusMonths(1).atDay(1);
+        Lock alteracao = alteracoes.exclusiva();
+        alteracao.lock();
+        try {
+            agenda.arquivarMesesAntigos(arquivo, corte.getYear() * 12 + corte.getMonthValue() - 1);
+            agendaPacientes.arquivarDiasAntigos(arquivo, corte.toEpochDay());
+        } finally {
+            alteracao.unlock();
+        }
+    }
+
+    /**
+     * Atualiza data, horário, duração, status e valor da consulta no índice informado.
+     * Campos nulos na requisição mantêm o valor atual; paciente, médico e prescrições não mudam.
+     * Nenhum dado é alterado se o novo horário conflitar com a agenda do médico ou do paciente,
+     * nem se uma remoção concorrente deslocar a consulta do índice: outra consulta que ocupe a
+     * posição nunca é alterada no lugar dela.
+     */
+    public Resultado<Consulta> atualizarConsulta(int indice, ConsultaRequest request) {
+        Resultado<Consulta> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        alteracao.lock();
+        try {
+            Consulta consulta = consultaNoIndice(indice);
+            if (consulta == null) {
+                return Resultado.falha("Índice inválido.");
+            }
+            synchronized (consulta.getPaciente()) {
+                resultado = atualizar(indice, consulta, request);
+            }
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
 
-        Consulta consulta = consultas.get(indice);
+    // Chamado com o paciente travado; falha se uma remoção deslocou a consulta desde a leitura do índice
+    private Resultado<Consulta> atualizar(int indice, Consulta consulta, ConsultaRequest request) {
+        LocalDate novaData = request.getData() != null ? request.getData() : consulta.getData();
+        LocalTime novoHorario = request.getHorario() != null ? request.getHorario() : consulta.getHorario();
+        int novaDuracao = request.getDuracao() != null ? request.getDuracao() : consulta.getDuracao();
+        boolean informouStatus = request.getStatus() != null && !request.getStatus().isEmpty();
+        StatusConsulta novoStatus = informouStatus ? StatusConsulta.deTexto(request.getStatus()) : consulta.getStatus();
+        double novoValor = request.getValor() != null ? request.getValor() : consulta.getValor();
 
-        // Atualização da data
-        System.out.printf("Nova data (atual: %s): ", consulta.getData().format(dateFormatter));
-        String novaDataStr = scanner.nextLine();
-        if (!novaDataStr.isEmpty()) {
-            consulta.setData(LocalDate.parse(novaDataStr, dateFormatter));
+        if (novaDuracao <= 0) {
+            return Resultado.falha("A duração deve ser maior que 0.");
+        }
+        if (novaDuracao > DURACAO_MAXIMA) {
+            return Resultado.falha("A duração não pode passar de " + DURACAO_MAXIMA + " minutos.");
+        }
+        if (informouStatus && novoStatus == null) {
+            return Resultado.falha(validarStatusConsulta(request.getStatus()));
+        }
+        if (novoValor < 0) {
+            return Resultado.falha("O valor não pode ser negativo.");
         }
 
-        // Atualização do horário
-        System.out.printf("Novo horário (atual: %s): ", consulta.getHorario().format(timeFormatter));
-        String novoHorarioStr = scanner.nextLine();
-        if (!novoHorarioStr.isEmpty()) {
-            consulta.setHorario(LocalTime.parse(novoHorarioStr, timeFormatter));
+        // Verificação de disponibilidade do médico no novo horário (desconsiderando a própria
+        // consulta): reserva os minutos novos, que são liberados se algo abaixo falhar
+        Medico medico = consulta.getMedico();
+        boolean ocupava = consulta.getStatus() != StatusConsulta.CANCELADA;
+        boolean ocupara = novoStatus != StatusConsulta.CANCELADA;
+        Consulta propria = ocupava ? consulta : null;
+        if (ocupara && !agenda.reservar(medico, novaData, novoHorario, novaDuracao, propria)) {
+            return Resultado.falha("Médico não disponível no horário selecionado.");
         }
+        boolean concluida = false;
+        try {
+            // Verificação de consulta do paciente no novo dia
+            boolean mudouDia = !novaData.equals(consulta.getData());
+            if (mudouDia && agendaPacientes.temConsultaNoDia(consulta.getPaciente(), novaData)) {
+                return Resultado.falha("Paciente já possui uma consulta agendada para este dia.");
+            }
+
+            synchronized (consultas) {
+                if (!estaNoIndice(consulta, indice)) {
+                    return Resultado.falha(CONSULTA_DESLOCADA);
+                }
+                diario.consultaAtualizada(indice, consulta.getLinha(), request);
+                LocalDate dataAnterior = consulta.getData();
+                LocalTime horarioAnterior = consulta.getHorario();
+                int duracaoAnterior = consulta.getDuracao();
+
+                if (mudouDia) {
+                    agendaPacientes.remover(consulta.getPaciente(), dataAnterior);
+                    agendaPacientes.adicionar(consulta.getPaciente(), novaData);
+                }
+                agregados.remover(consulta);
+                consulta.setData(novaData);
+                consulta.setHorario(novoHorario);
+                consulta.setDuracao(novaDuracao);
+
+                porStatus.mover(consulta.getLinha(), consulta.getStatus(), novoStatus);
+                consulta.setStatus(novoStatus);
 
-        // Atualização da duração
-        System.out.printf("Nova duração (atual: %d minutos): ", consulta.getDuracao());
-        String novaDuracaoStr = scanner.nextLine();
-        if (!novaDuracaoStr.isEmpty()) {
-            consulta.setDuracao(Integer.parseInt(novaDuracaoStr));
+                // Libera o horário anterior, menos o que continua ocupado pela consulta
+                if (ocupava) {
+                    agenda.liberar(medico, dataAnterior, horarioAnterior, duracaoAnterior, ocupara ? consulta : null);
+                }
+                concluida = true;
+
+                double valorAnterior = consulta.getValor();
+                consulta.setValor(novoValor);
+                consulta.getPaciente().ajustarDebito(consulta, valorAnterior);
+                agregados.adicionar(consulta);
+            }
+            return Resultado.sucesso(consulta);
+        } finally {
+            if (ocupara && !concluida) {
+                agenda.liberar(medico, novaData, novoHorario, novaDuracao, propria);
+            }
         }
+    }
 
-        // Atualização do status
-        System.out.printf("Novo status (atual: %s): ", consulta.getStatus());
-        String novoStatus = scanner.nextLine();
-        if (!novoStatus.isEmpty()) {
-            consulta.setStatus(novoStatus);
+    /**
+     * Remove a consulta do índice informado. Falha, sem remover nada, se uma remoção concorrente
+     * deslocar a consulta do índice.
+     */
+    public Resultado<Consulta> removerConsulta(int indice) {
+        Consulta consulta;
+        Lock alteracao = alteracoes.compartilhada();
+        alteracao.lock();
+        try {
+            consulta = consultaNoIndice(indice);
+            if (consulta == null) {
+                return Resultado.falha("Índice inválido.");
+            }
+            synchronized (consulta.getPaciente()) {
+                if (!remover(indice, consulta)) {
+                    return Resultado.falha(CONSULTA_DESLOCADA);
+                }
+            }
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
         }
+        diario.confirmar();
+        return Resultado.sucesso(consulta);
+    }
 
-        // Atualização do valor
-        System.out.printf("Novo valor (atual: R$ %.2f): ", consulta.getValor());
-        String novoValorStr = scanner.nextLine();
-        if (!novoValorStr.isEmpty()) {
-            consulta.setValor(Double.parseDouble(novoValorStr));
+    // Chamado com o paciente travado; retorna false se o índice passou a ser de outra consulta
+    private boolean remover(int indice, Consulta consulta) {
+        synchronized (consultas) {
+            if (!estaNoIndice(consulta, indice)) {
+                return false;
+            }
+            diario.consultaRemovida(indice, consulta.getLinha());
+            consultas.remove(indice);
+            retirarDosIndices(consulta);
+            agendaPacientes.remover(consulta.getPaciente(), consulta.getData());
+            consulta.getPaciente().cancelarDebito(consulta);
+            return true;
         }
+    }
 
-        System.out.println("Consulta atualizada com sucesso!");
+    // Chamado com a lista travada, depois de a consulta sair da lista: status, totais e agenda do médico
+    private void retirarDosIndices(Consulta consulta) {
+        porStatus.remover(consulta.getLinha(), consulta.getStatus());
+        agregados.remover(consulta);
+        if (consulta.getStatus() != StatusConsulta.CANCELADA) {
+            agenda.liberar(consulta.getMedico(), consulta.getData(), consulta.getHorario(),
+                    consulta.getDuracao(), null);
+        }
     }
 
-    // Método para remover uma consulta
-    public void removerConsulta() {
-        Scanner scanner = new Scanner(System.in);
-        listarConsultas();
-        System.out.print("Informe o índice da consulta que deseja remover: ");
-        int indice = scanner.nextInt();
-        scanner.nextLine(); // Consumir a quebra de linha
+    /**
+     * Consultas, pendências e pagamentos ligados ao paciente. O histórico do paciente serve de
+     * índice reverso: o custo depende só do número de consultas dele, não do total da clínica.
+     */
+    public Referencias buscarReferencias(Paciente paciente) {
+        synchronized (paciente) {
+            return referencias(paciente.getHistoricoMedico());
+        }
+    }
 
-        if (indice < 0 || indice >= consultas.size()) {
-            System.out.println("Índice inválido.");
-            return;
+    /**
+     * Como {@link #buscarReferencias(Paciente)}, pelo histórico do médico.
+     */
+    public Referencias buscarReferencias(Medico medico) {
+        synchronized (medico) {
+            return referencias(medico.getHistoricoMedico());
         }
+    }
 
-        Consulta consulta = consultas.remove(indice);
-        System.out.printf("Consulta do paciente %s removida com sucesso!%n", consulta.getPaciente().getNome());
+    /**
+     * Remove o paciente do cadastro. Se ele ainda tiver consultas na lista, a remoção é recusada,
+     * a menos que "removerConsultas" seja verdadeiro: aí as consultas saem antes, todas de uma vez
+     * da lista e uma a uma no diário, e as pendências de pagamento são canceladas. Consultas
+     * já pagas continuam nos históricos e nos pagamentos.
+     */
+    public Resultado<Paciente> removerPaciente(Paciente paciente, boolean removerConsultas) {
+        Lock alteracao = alteracoes.exclusiva();
+        alteracao.lock();
+        try {
+            if (paciente == null || pacienteService.buscarPorCpf(paciente.getCpf()) != paciente) {
+                return Resultado.falha("Paciente não encontrado.");
+            }
+            String erro = removerConsultasDe(paciente.getHistoricoMedico(), removerConsultas, "O paciente");
+            if (erro != null) {
+                return Resultado.falha(erro);
+            }
+            pacienteService.remover(paciente);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
+        }
+        diario.confirmar();
+        return Resultado.sucesso(paciente);
     }
 
-    // Métodos auxiliares
-    private LocalDate validarDataConsulta(Scanner scanner) {
-        while (true) {
-            System.out.print("Data da consulta (DD-MM-YYYY): ");
-            String dataStr = scanner.nextLine();
-            try {
-                LocalDate data = LocalDate.parse(dataStr, dateFormatter);
-                if (data.isBefore(LocalDate.now())) {
-                    System.out.println("A data não pode ser no passado.");
-                    continue;
-                }
-                return data;
-            } catch (Exception e) {
-                System.out.println("Formato de data inválido. Use DD-MM-YYYY.");
+    /**
+     * Remove o médico do cadastro, com as mesmas regras de {@link #removerPaciente}.
+     */
+    public Resultado<Medico> removerMedico(Medico medico, boolean removerConsultas) {
+        Lock alteracao = alteracoes.exclusiva();
+        alteracao.lock();
+        try {
+            if (medico == null || medicoService.buscaPorCrm(medico.getCrm()) != medico) {
+                return Resultado.falha("Médico não encontrado.");
+            }
+            String erro = removerConsultasDe(medico.getHistoricoMedico(), removerConsultas, "O médico");
+            if (erro != null) {
+                return Resultado.falha(erro);
             }
+            medicoService.remover(medico);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
         }
+        diario.confirmar();
+        return Resultado.sucesso(medico);
     }
 
-    private LocalTime validarHorarioConsulta(Scanner scanner) {
-        while (true) {
-            System.out.print("Horário da consulta (HH:mm): ");
-            String horarioStr = scanner.nextLine();
-            try {
-                return LocalTime.parse(horarioStr, timeFormatter);
-            } catch (Exception e) {
-                System.out.println("Formato de horário inválido. Use HH:mm.");
+    /**
+     * Consultas da lista cujo paciente ou médico não está mais cadastrado, por exemplo removido
+     * antes da cascata existir. Percorre a lista inteira.
+     */
+    public List<Consulta> buscarConsultasOrfas() {
+        Map<Object, Boolean> cadastrados = new IdentityHashMap<>();
+        synchronized (consultas) {
+            ListaConsultas orfas = new ListaConsultas(tabela, 16);
+            for (int indice = 0; indice < consultas.size(); indice++) {
+                int linha = consultas.getLinha(indice);
+                if (!cadastrado(cadastrados, tabela.getPaciente(linha))
+                        || !cadastrado(cadastrados, tabela.getMedico(linha))) {
+                    orfas.adicionarLinha(linha);
+                }
             }
+            return Collections.unmodifiableList(orfas);
         }
     }
 
-    private int validarDuracaoConsulta(Scanner scanner) {
-        while (true) {
-            System.out.print("Duração da consulta (minutos): ");
-            String duracaoStr = scanner.nextLine();
-            try {
-                int duracao = Integer.parseInt(duracaoStr);
-                if (duracao <= 0) {
-                    System.out.println("A duração deve ser maior que 0.");
-                    continue;
+    /**
+     * Imprime as consultas órfãs com o índice de cada uma, para serem removidas.
+     */
+    public void listarConsultasOrfas() {
+        List<Consulta> orfas = buscarConsultasOrfas();
+        if (orfas.isEmpty()) {
+            System.out.println("Nenhuma consulta órfã.");
+            return;
+        }
+        Impressao impressao = new Impressao();
+        impressao.linha("=== Consultas órfãs (" + orfas.size() + ") ===");
+        synchronized (consultas) {
+            int indice = 0;
+            for (Consulta orfa : orfas) {
+                // Pode ter sido removida depois da busca
+                int encontrado = buscarLinha(orfa.getLinha(), indice);
+                if (encontrado >= 0) {
+                    indice = encontrado;
+                    imprimirConsulta(impressao, indice, orfa.getLinha());
                 }
-                return duracao;
-            } catch (NumberFormatException e) {
-                System.out.println("Valor inválido. Informe um número.");
             }
         }
+        impressao.imprimir();
     }
 
-    private String validarStatusConsulta(Scanner scanner) {
-        while (true) {
-            System.out.print("Status da consulta (AGENDADA, CANCELADA, REALIZADA): ");
-            String status = scanner.nextLine().toUpperCase();
-            if (status.equals("AGENDADA") || status.equals("CANCELADA") || status.equals("REALIZADA")) {
-                return status;
+    // Método para consultar os dias em que o paciente tem consulta dentro de um intervalo
+    public List<LocalDate> diasComConsulta(Paciente paciente, LocalDate inicio, LocalDate fim) {
+        synchronized (paciente) {
+            return agendaPacientes.diasComConsulta(paciente, inicio, fim);
+        }
+    }
+
+    public boolean isMedicoDisponivel(Medico medico, LocalDate data, LocalTime horario, int duracao) {
+        return agenda.isDisponivel(medico, data, horario, duracao);
+    }
+
+    /**
+     * Os "quantidade" primeiros horários livres de "duracao" minutos entre os médicos da
+     * especialidade, de "inicio" a "fim" (inclusive), dentro do expediente, em ordem de data e
+     * horário. Os horários de hoje que já passaram ficam de fora. Não reserva nada: o horário
+     * ainda precisa ser agendado e pode ter sido ocupado nesse meio tempo.
+     */
+    public Resultado<List<HorarioLivre>> buscarHorariosLivres(String especialidade, LocalDate inicio, LocalDate fim,
+                                                             int duracao, int quantidade) {
+        String erro = validarEspecialidade(especialidade);
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
+        if (inicio == null || fim == null) {
+            return Resultado.falha("Formato de data inválido. Use DD-MM-YYYY.");
+        }
+        LocalDate hoje = LocalDate.now();
+        if (inicio.isBefore(hoje)) {
+            return Resultado.falha("A data não pode ser no passado.");
+        }
+        if (fim.isBefore(inicio)) {
+            return Resultado.falha("A data final não pode ser anterior à inicial.");
+        }
+        int abertura = INICIO_EXPEDIENTE.toSecondOfDay() / 60;
+        int fechamento = FIM_EXPEDIENTE.toSecondOfDay() / 60;
+        if (duracao <= 0) {
+            return Resultado.falha("A duração deve ser maior que 0.");
+        }
+        if (duracao > fechamento - abertura) {
+            return Resultado.falha("A duração não pode passar de " + (fechamento - abertura) + " minutos.");
+        }
+        if (quantidade <= 0) {
+            return Resultado.falha("A quantidade deve ser maior que 0.");
+        }
+        List<Medico> medicos = medicoService.buscarPorEspecialidade(especialidade);
+        if (medicos.isEmpty()) {
+            return Resultado.falha("Nenhum médico com a especialidade " + especialidade.trim() + ".");
+        }
+
+        // Hoje a busca começa no próximo minuto inteiro
+        int primeiroMinuto = 0;
+        if (inicio.equals(hoje)) {
+            primeiroMinuto = (LocalTime.now().toSecondOfDay() + 59) / 60;
+        }
+        return Resultado.sucesso(Collections.unmodifiableList(agenda.buscarLivres(medicos, inicio, fim,
+                abertura, fechamento, primeiroMinuto, duracao, quantidade)));
+    }
+
+    /**
+     * Médicos da especialidade com os minutos ocupados na agenda de "inicio" a "fim" (inclusive),
+     * do menos para o mais ocupado; no empate, na ordem em que entraram na especialidade.
+     */
+    public Resultado<List<CargaMedico>> listarMedicosPorCarga(String especialidade, LocalDate inicio, LocalDate fim) {
+        String erro = validarEspecialidade(especialidade);
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
+        if (inicio == null || fim == null) {
+            return Resultado.falha("Formato de data inválido. Use DD-MM-YYYY.");
+        }
+        if (fim.isBefore(inicio)) {
+            return Resultado.falha("A data final não pode ser anterior à inicial.");
+        }
+        List<Medico> medicos = medicoService.buscarPorEspecialidade(especialidade);
+        if (medicos.isEmpty()) {
+            return Resultado.falha("Nenhum médico com a especialidade " + especialidade.trim() + ".");
+        }
+
+        List<CargaMedico> cargas = new ArrayList<>(medicos.size());
+        for (Medico medico : medicos) {
+            cargas.add(new CargaMedico(medico, agenda.minutosOcupados(medico, inicio, fim)));
+        }
+        // Ordenação estável: o empate mantém a ordem da especialidade
+        cargas.sort(Comparator.comparingInt(CargaMedico::getMinutosOcupados));
+        return Resultado.sucesso(Collections.unmodifiableList(cargas));
+    }
+
+    public boolean hasPacienteConsultaNoDia(Paciente paciente, LocalDate data) {
+        synchronized (paciente) {
+            return agendaPacientes.temConsultaNoDia(paciente, data);
+        }
+    }
+
+    // Métodos auxiliares
+
+    // Lê direto das colunas da tabela, sem criar a visão
+    private void imprimirConsulta(Impressao impressao, int indice, int linha) {
+        impressao.texto("Índice: ").numero(indice)
+                .texto(" | Data: ").data(tabela.getData(linha))
+                .texto(" | Horário: ").horario(tabela.getHorario(linha))
+                .texto(" | Duração: ").numero(tabela.getDuracao(linha))
+                .texto(" minutos | Status: ").texto(tabela.getStatus(linha))
+                .texto(" | Paciente: ").texto(tabela.getPaciente(linha).getNome())
+                .texto(" | Médico: ").texto(tabela.getMedico(linha).getNome())
+                .texto(" | Valor: R$ ").decimal(tabela.getValor(linha)).linha();
+    }
+
+    // Índice da primeira consulta da lista com linha maior ou igual à informada (busca binária)
+    private int primeiroIndiceAPartirDaLinha(long linha) {
+        int baixo = 0;
+        int alto = consultas.size();
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (consultas.getLinha(meio) < linha) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
             }
-            System.out.println("Status inválido. Use AGENDADA, CANCELADA ou REALIZADA.");
         }
+        return baixo;
     }
 
-    private Paciente adicionarPaciente(Scanner scanner) {
-        pacienteService.listarPacientes();
-        System.out.println("CPF do paciente que vai consultar: ");
-        String cpf = scanner.nextLine();
-        var paciente = pacienteService.buscarPorCpf(formatarCPF(cpf));
-        if (paciente == null) {
-            System.out.println("Cadastre um paciente para cadastrar uma consulta.");
-            return null;
+    // Índice na lista da consulta cadastrada na linha informada (busca binária a partir de "inicio")
+    private int indiceDaLinha(int linha, int inicio) {
+        int indice = buscarLinha(linha, inicio);
+        if (indice < 0) {
+            throw new IllegalStateException("Consulta da linha " + linha + " não está cadastrada.");
         }
-        return paciente;
+        return indice;
     }
 
-    private Medico adicionarMedico(Scanner scanner) {
-        medicoService.listarMedicos();
-        System.out.println("CRM do medico que vai realizar a consulta: ");
-        String crm = scanner.nextLine();
-        return medicoService.buscaPorCrm(crm);
+    // Como indiceDaLinha, mas retorna -1 se a consulta não estiver na lista (foi removida)
+    private int buscarLinha(int linha, int inicio) {
+        int baixo = inicio;
+        int alto = consultas.size() - 1;
+        while (baixo <= alto) {
+            int meio = (baixo + alto) >>> 1;
+            int linhaMeio = consultas.getLinha(meio);
+            if (linhaMeio < linha) {
+                baixo = meio + 1;
+            } else if (linhaMeio > linha) {
+                alto = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
     }
 
-    private List<Exame> adicionarExames(Scanner scanner) {
-        List<Exame> exames = new ArrayList<>();
-        while (true) {
-                exameService.listarExames();
-                System.out.println("Adicionar exame (SANGUE, RAIO_X, ULTRASSOM) ou deixe em branco para parar: ");
-                System.out.print("Digite o tipo do exame: ");
-                String tipo = scanner.nextLine().toUpperCase();
-                if (tipo.isEmpty()) {
-                    break;
-                }
-                if (!tipo.equals("SANGUE") && !tipo.equals("RAIO_X") && !tipo.equals("ULTRASSOM")) {
-                    System.out.println("Tipo de exame inválido.");
-                    continue;
+    private Referencias referencias(List<Consulta> historico) {
+        int naLista = 0;
+        int pendentes = 0;
+        Set<Pagamento> pagamentos = Collections.newSetFromMap(new IdentityHashMap<>());
+        synchronized (consultas) {
+            for (Consulta consulta : historico) {
+                if (buscarLinha(consulta.getLinha(), 0) >= 0) {
+                    naLista++;
+                    if (!consulta.isPaga()) {
+                        pendentes++;
+                    }
                 }
-                var exame = exameService.buscarExamePorTipo(tipo);
-                exames.add(exame);
-        }
-        return exames;
-    }
-
-    private List<Medicamento> adicionarMedicamentos(Scanner scanner) {
-        List<Medicamento> medicamentos = new ArrayList<>();
-        while (true) {
-                medicamentoService.listarMedicamentos();
-                System.out.println("Adicionar medicamento ou deixe em branco para parar: ");
-                System.out.print("Digite o nome do medicamento: ");
-                String nome = scanner.nextLine();
-                var medicamento = medicamentoService.buscarMedicamento(nome);
-                if (nome.isEmpty()) {
-                    break;
+                if (consulta.getPagamento() != null) {
+                    pagamentos.add(consulta.getPagamento());
                 }
-                medicamentos.add(medicamento);
+            }
         }
-        return medicamentos;
+        return new Referencias(naLista, pendentes, pagamentos.size());
     }
 
-    private double validarValorConsulta(Scanner scanner) {
-        while (true) {
-            System.out.print("Valor da consulta: ");
-            double valor = scanner.nextDouble();
-            try {
-                if (valor < 0) {
-                    System.out.println("O valor não pode ser negativo.");
-                    continue;
+    /**
+     * Remove da lista as consultas do histórico que ainda estão nela, ou retorna o erro se
+     * houver alguma e "remover" for falso. Chamado com a trava exclusiva de Alteracoes, então
+     * as posições encontradas não mudam até a remoção.
+     *
+     * As posições são achadas por busca binária, uma por consulta do histórico, e saem da lista
+     * numa única passada (ListaConsultas.removerPosicoes), que desloca cada trecho entre elas
+     * uma vez só, em vez de uma cópia do resto da lista por consulta.
+     */
+    private String removerConsultasDe(List<Consulta> historico, boolean remover, String dono) {
+        int[] posicoes = new int[historico.size()];
+        int quantidade = 0;
+        synchronized (consultas) {
+            for (Consulta consulta : historico) {
+                int indice = buscarLinha(consulta.getLinha(), 0);
+                if (indice >= 0) {
+                    posicoes[quantidade++] = indice;
                 }
-                return valor;
-            } catch (NumberFormatException e) {
-                System.out.println("Valor inválido. Informe um número.");
             }
         }
+        if (quantidade > 0 && !remover) {
+            return dono + " possui " + quantidade + " consulta(s) cadastrada(s).";
+        }
+        Arrays.sort(posicoes, 0, quantidade);
+        Consulta[] removidas = new Consulta[quantidade];
+        synchronized (consultas) {
+            // No diário da última para a primeira: reaplicadas uma a uma na recuperação, as
+            // remoções não deslocam as posições que faltam
+            for (int i = quantidade - 1; i >= 0; i--) {
+                removidas[i] = consultas.get(posicoes[i]);
+                diario.consultaRemovida(posicoes[i], removidas[i].getLinha());
+            }
+            consultas.removerPosicoes(posicoes, quantidade);
+            for (Consulta consulta : removidas) {
+                retirarDosIndices(consulta);
+            }
+        }
+        // A agenda e a conta de cada paciente mudam com o paciente travado, fora da lista (ordem das travas)
+        for (Consulta consulta : removidas) {
+            synchronized (consulta.getPaciente()) {
+                agendaPacientes.remover(consulta.getPaciente(), consulta.getData());
+                consulta.getPaciente().cancelarDebito(consulta);
+            }
+        }
+        return null;
     }
 
-    private boolean isMedicoDisponivel(Medico medico, LocalDate data, LocalTime horario, int duracao) {
-        for (Consulta consulta : consultas) {
-            if (consulta.getMedico().equals(medico) && consulta.getData().equals(data)) {
-                LocalTime inicioConsulta = consulta.getHorario();
-                LocalTime fimConsulta = inicioConsulta.plusMinutes(consulta.getDuracao());
-                LocalTime fimNovaConsulta = horario.plusMinutes(duracao);
+    // Se o paciente ou médico ainda está no cadastro (mesmo objeto), com o resultado guardado por objeto
+    private boolean cadastrado(Map<Object, Boolean> cadastrados, Paciente pessoa) {
+        if (pessoa == null) {
+            return false;
+        }
+        return cadastrados.computeIfAbsent(pessoa, p -> pessoa instanceof Medico
+                ? medicoService.buscaPorCrm(((Medico) pessoa).getCrm()) == pessoa
+                : pacienteService.buscarPorCpf(pessoa.getCpf()) == pessoa);
+    }
 
-                if (horario.isBefore(fimConsulta) && fimNovaConsulta.isAfter(inicioConsulta)) {
-                    return false;
-                }
-            }
+    // Consulta no índice da lista, ou null se o índice for inválido
+    private Consulta consultaNoIndice(int indice) {
+        synchronized (consultas) {
+            return indice < 0 || indice >= consultas.size() ? null : consultas.get(indice);
         }
-        return true;
     }
 
-    private boolean hasPacienteConsultaNoDia(Paciente paciente, LocalDate data) {
-        for (Consulta consulta : consultas) {
-            if (consulta.getPaciente().equals(paciente) && consulta.getData().equals(data)) {
-                return true;
-            }
+    // Chamado com a lista travada: confere se nenhuma remoção deslocou a consulta desde a leitura
+    private boolean estaNoIndice(Consulta consulta, int indice) {
+        return indice < consultas.size() && consultas.getLinha(indice) == consulta.getLinha();
+    }
+
+    /**
+     * Inclui a consulta recém-criada (já na lista) nas agendas, nos históricos e na conta do
+     * paciente. Chamado com o paciente travado e o horário do médico já reservado.
+     */
+    private void registrar(Consulta consulta) {
+        Paciente paciente = consulta.getPaciente();
+        Medico medico = consulta.getMedico();
+
+        agendaPacientes.adicionar(paciente, consulta.getData());
+
+        // Adiciona a consulta ao histórico do paciente e do médico
+        paciente.addConsulta(consulta);
+        synchronized (medico) {
+            medico.addConsulta(consulta);
+        }
+
+        // Lança o valor da consulta na conta do paciente
+        paciente.registrarDebito(consulta);
+    }
+
+    private void verificarPagamentos(Paciente paciente) throws PagamentoPendenteException {
+        if (paciente.temPagamentoPendente()) {
+            throw new PagamentoPendenteException("O paciente tem pagamento pendente, " +
+                    "faça o pagamento para agendar uma consulta!");
         }
-        return false;
     }
-}
\ No newline at end of file
+}
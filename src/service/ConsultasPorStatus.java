@@ -0,0 +1,63 @@
+package service;
+
+import model.StatusConsulta;
+
+import java.util.BitSet;
+
+/**
+ * Consultas cadastradas separadas por status: um conjunto de linhas da TabelaConsultas e um
+ * contador para cada status. Trocar o status só move a linha de um conjunto para outro.
+ *
+ * Os conjuntos são BitSets indexados pela linha, então percorrê-los devolve as consultas na
+ * ordem das linhas, que é a mesma da lista de consultas do serviço.
+ */
+class ConsultasPorStatus {
+
+    private final BitSet[] linhas = new BitSet[StatusConsulta.values().length];
+    private final int[] quantidades = new int[linhas.length];
+
+    ConsultasPorStatus() {
+        for (int i = 0; i < linhas.length; i++) {
+            linhas[i] = new BitSet();
+        }
+    }
+
+    void adicionar(int linha, StatusConsulta status) {
+        BitSet conjunto = linhas[status.ordinal()];
+        if (!conjunto.get(linha)) {
+            conjunto.set(linha);
+            quantidades[status.ordinal()]++;
+        }
+    }
+
+    void remover(int linha, StatusConsulta status) {
+        BitSet conjunto = linhas[status.ordinal()];
+        if (conjunto.get(linha)) {
+            conjunto.clear(linha);
+            quantidades[status.ordinal()]--;
+        }
+    }
+
+    void mover(int linha, StatusConsulta anterior, StatusConsulta novo) {
+        if (anterior != novo) {
+            remover(linha, anterior);
+            adicionar(linha, novo);
+        }
+    }
+
+    // Se a linha está cadastrada com o status, ou seja, se a consulta ainda está na lista
+    boolean contem(int linha, StatusConsulta status) {
+        return linhas[status.ordinal()].get(linha);
+    }
+
+    int quantidade(StatusConsulta status) {
+        return quantidades[status.ordinal()];
+    }
+
+    /**
+     * Próxima linha com o status informado a partir de "inicio" (inclusive), ou -1 se não houver.
+     */
+    int proxima(StatusConsulta status, int inicio) {
+        return linhas[status.ordinal()].nextSetBit(inicio);
+    }
+}
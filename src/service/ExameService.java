@@ -1,273 +1,484 @@
 package service;
 
+import dto.ExameRequest;
+import dto.Pagina;
+import dto.Resultado;
 import model.Exame;
+import persistencia.Diario;
+import util.Impressao;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
 
+import static util.Validacoes.validarCusto;
+import static util.Validacoes.validarDataPrescricao;
+import static util.Validacoes.validarDataRealizacao;
+import static util.Validacoes.validarResultado;
+import static util.Validacoes.validarTipoExame;
+
+/**
+ * Catálogo de exames. Cadastro, atualização e remoção escrevem com a trava do catálogo, dentro
+ * da parte compartilhada de Alteracoes; buscas e leituras leem com a mesma trava e correm junto
+ * com os agendamentos, que a seguram da busca das prescrições até o diário (ver Alteracoes).
+ *
+ * Um exame sem data de realização está pendente (prescrito e ainda não realizado). Para cada
+ * tipo há índices ordenados por número de cadastro, por data de prescrição, por data de
+ * realização e dos pendentes: as buscas por período leem só as datas do período e a busca por
+ * tipo lê o primeiro exame do índice do tipo, sem percorrer o catálogo.
+ */
 public class ExameService {
 
     private final List<Exame> exames = new ArrayList<>();
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private final Map<String, IndiceTipo> indicesPorTipo = new HashMap<>();
+    private Alteracoes alteracoes = new Alteracoes();
+    // Trava deste catálogo (ver Alteracoes): escrita nas alterações, leitura nas listagens e buscas
+    private final ReentrantReadWriteLock cadastro = new ReentrantReadWriteLock();
+    // Próximo número de cadastro (ver Paginas); protegido pela escrita do catálogo
+    private long proximoId;
+    private Diario diario = Diario.NENHUM;
 
     /**
-     * Cadastra um novo exame, validando os campos obrigatórios.
+     * Define o diário que recebe as alterações de exames (cadastro, atualização e remoção).
      */
-    public void cadastrarExame() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Cadastro de Exame ===");
-
-        // Validação do Tipo (aceita SANGUE, RAIO_X ou ULTRASSOM)
-        String tipo;
-        while (true) {
-            System.out.print("Digite o tipo do exame (SANGUE, RAIO_X, ULTRASSOM): ");
-            tipo = scanner.nextLine().trim().toUpperCase();
-            if (!tipo.equals("SANGUE") && !tipo.equals("RAIO_X") && !tipo.equals("ULTRASSOM")) {
-                System.out.println("Tipo inválido! Informe SANGUE, RAIO_X ou ULTRASSOM.");
-            } else {
-                break;
-            }
-        }
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
 
-        // Validação da Data de Prescrição
-        LocalDate dataPrescricao;
-        while (true) {
-            System.out.print("Digite a data de prescrição (DD-MM-YYYY): ");
-            String dataInput = scanner.nextLine();
-            try {
-                dataPrescricao = LocalDate.parse(dataInput, formatter);
-                if (dataPrescricao.isAfter(LocalDate.now())) {
-                    System.out.println("A data de prescrição não pode ser futura.");
-                    continue;
-                }
-                break;
-            } catch (Exception e) {
-                System.out.println("Formato inválido! Utilize DD-MM-YYYY.");
-            }
+    Alteracoes getAlteracoes() {
+        return alteracoes;
+    }
+
+    // Passa a usar a trava do conjunto de serviços ao qual foi ligado (ver Alteracoes)
+    void setAlteracoes(Alteracoes alteracoes) {
+        this.alteracoes = alteracoes;
+    }
+
+    // Leitura do catálogo, que o agendamento segura da busca das prescrições até o diário
+    Lock leituraCatalogo() {
+        return cadastro.readLock();
+    }
+
+    /**
+     * Cadastra um novo exame, validando os campos obrigatórios:
+     * - Tipo: SANGUE, RAIO_X ou ULTRASSOM;
+     * - Data de prescrição: não pode ser futura;
+     * - Data de realização: não pode ser anterior à prescrição nem futura; sem ela o exame fica pendente;
+     * - Resultado: não pode ser vazio se o exame foi realizado;
+     * - Custo: não pode ser negativo.
+     */
+    public Resultado<Exame> cadastrarExame(ExameRequest request) {
+        Resultado<Exame> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = cadastrar(request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
         }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
 
-        // Validação da Data de Realização (não pode ser anterior à prescrição nem futura)
-        LocalDate dataRealizacao;
-        while (true) {
-            System.out.print("Digite a data de realização (DD-MM-YYYY): ");
-            String dataInput = scanner.nextLine();
+    /**
+     * Cadastra os exames em sequência, com as validações de cadastrarExame, esperando o diário
+     * uma vez só para o lote todo (importação). O catálogo é travado a cada
+     * Alteracoes.CADASTROS_POR_TRAVA exames, como em PacienteService.cadastrarPacientes.
+     */
+    public List<Resultado<Exame>> cadastrarExames(List<ExameRequest> requests) {
+        List<Resultado<Exame>> resultados = new ArrayList<>(requests.size());
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        for (int inicio = 0; inicio < requests.size(); inicio += Alteracoes.CADASTROS_POR_TRAVA) {
+            int fim = Math.min(inicio + Alteracoes.CADASTROS_POR_TRAVA, requests.size());
+            alteracao.lock();
+            escrita.lock();
             try {
-                dataRealizacao = LocalDate.parse(dataInput, formatter);
-                if (dataRealizacao.isBefore(dataPrescricao)) {
-                    System.out.println("A data de realização não pode ser anterior à data de prescrição.");
-                    continue;
-                }
-                if (dataRealizacao.isAfter(LocalDate.now())) {
-                    System.out.println("A data de realização não pode ser futura.");
-                    continue;
+                for (int i = inicio; i < fim; i++) {
+                    resultados.add(cadastrar(requests.get(i)));
                 }
-                break;
-            } catch (Exception e) {
-                System.out.println("Formato inválido! Utilize DD-MM-YYYY.");
+            } catch (RuntimeException | Error e) {
+                diario.cancelar();
+                throw e;
+            } finally {
+                escrita.unlock();
+                alteracao.unlock();
             }
         }
+        diario.confirmar();
+        return resultados;
+    }
 
-        // Validação do Resultado (não pode ser vazio)
-        String resultado;
-        while (true) {
-            System.out.print("Digite o resultado do exame: ");
-            resultado = scanner.nextLine();
-            if (resultado == null || resultado.trim().isEmpty()) {
-                System.out.println("Resultado inválido! Informe o resultado do exame.");
-            } else {
-                break;
-            }
+    private Resultado<Exame> cadastrar(ExameRequest request) {
+        String erro = validarTipoExame(request.getTipo());
+        if (erro == null) {
+            erro = validarDataPrescricao(request.getDataPrescricao());
         }
-
-        // Validação do Custo (valor numérico e não negativo)
-        double custo;
-        while (true) {
-            System.out.print("Digite o custo do exame: ");
-            String custoInput = scanner.nextLine();
-            try {
-                custo = Double.parseDouble(custoInput);
-                if (custo < 0) {
-                    System.out.println("Custo inválido! O valor não pode ser negativo.");
-                    continue;
-                }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("Valor inválido! Informe um número.");
-            }
+        boolean realizado = request.getDataRealizacao() != null;
+        if (erro == null && realizado) {
+            erro = validarDataRealizacao(request.getDataRealizacao(), request.getDataPrescricao());
+        }
+        if (erro == null && realizado) {
+            erro = validarResultado(request.getResultado());
         }
+        if (erro == null) {
+            erro = validarCusto(request.getCusto());
+        }
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
+
+        String resultado = informado(request.getResultado()) ? request.getResultado() : null;
+        long id = proximoId++;
+        diario.exameCadastrado(id, request);
+        Exame exame = new Exame(request.getTipo(), request.getDataPrescricao(), request.getDataRealizacao(),
+                resultado, request.getCusto());
+        exame.setId(id);
+        exames.add(exame);
+        indexar(exame);
+        return Resultado.sucesso(exame);
+    }
 
-        Exame exame = new Exame(tipo, dataPrescricao, dataRealizacao, resultado, custo);
+    /**
+     * Inclui um exame já validado, lido de um snapshot, sem registrar no diário.
+     */
+    public void restaurarExame(Exame exame) {
+        exame.setId(proximoId++);
         exames.add(exame);
-        System.out.println("Exame cadastrado com sucesso!");
+        indexar(exame);
     }
 
     /**
-     * Lista todos os exames cadastrados.
+     * Lista todos os exames cadastrados, uma página por escrita.
      */
     public void listarExames() {
-        if (exames.isEmpty()) {
-            System.out.println("Nenhum exame cadastrado.");
-        } else {
-            System.out.println("=== Lista de Exames ===");
-            for (int i = 0; i < exames.size(); i++) {
-                Exame ex = exames.get(i);
-                System.out.println("Índice: " + i +
-                        " | Tipo: " + ex.getTipo() +
-                        " | Data Prescrição: " + ex.getDataPrescricao().format(formatter) +
-                        " | Data Realização: " + ex.getDataRealizacao().format(formatter) +
-                        " | Resultado: " + ex.getResultado() +
-                        " | Custo: " + ex.getCusto());
+        Pagina<Exame> pagina = buscarPagina(Pagina.INICIO, Paginas.ITENS_POR_ESCRITA);
+        imprimirPagina(pagina);
+        while (pagina.temProxima()) {
+            pagina = buscarPagina(pagina.getProximoCursor(), Paginas.ITENS_POR_ESCRITA);
+            imprimirPagina(pagina);
+        }
+    }
+
+    /**
+     * Página de exames na ordem de cadastro, a partir do cursor (Pagina.INICIO na primeira).
+     */
+    public Pagina<Exame> buscarPagina(long cursor, int tamanho) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Paginas.deLista(exames, Exame::getId, cursor, tamanho);
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    /**
+     * Imprime uma página de exames numa única escrita, com o índice de cada um; a primeira leva
+     * o título da lista.
+     */
+    public void imprimirPagina(Pagina<Exame> pagina) {
+        Impressao impressao = new Impressao();
+        if (pagina.getPrimeiroIndice() == 0) {
+            impressao.linha(pagina.getItens().isEmpty() ? "Nenhum exame cadastrado." : "=== Lista de Exames ===");
+        }
+        int indice = pagina.getPrimeiroIndice();
+        for (Exame ex : pagina.getItens()) {
+            impressao.texto("Índice: ").numero(indice++)
+                    .texto(" | Tipo: ").texto(ex.getTipo())
+                    .texto(" | Data Prescrição: ").data(ex.getDataPrescricao())
+                    .texto(" | Data Realização: ");
+            if (ex.getDataRealizacao() != null) {
+                impressao.data(ex.getDataRealizacao()).texto(" | Resultado: ").texto(ex.getResultado());
+            } else {
+                impressao.texto("Pendente");
             }
+            impressao.texto(" | Custo: ").numero(ex.getCusto()).linha();
         }
+        impressao.imprimir();
     }
 
     /**
-     * Atualiza os dados de um exame já cadastrado.
-     * O usuário informa o índice e, se o campo ficar em branco, o valor atual é mantido.
+     * Exame na posição informada da listagem, ou null se não houver.
      */
-    public Exame atualizarExame() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Atualização de Exame ===");
-
-        // Listar exames para seleção
-        listarExames();
-        System.out.print("Informe o índice do exame que deseja atualizar: ");
-        int indice = -1;
+    public Exame buscarExameNoIndice(int indice) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
         try {
-            indice = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Índice inválido!");
-            return null;
+            return indice < 0 || indice >= exames.size() ? null : exames.get(indice);
+        } finally {
+            leitura.unlock();
         }
-        if (indice < 0 || indice >= exames.size()) {
-            System.out.println("Índice não encontrado!");
-            return null;
+    }
+
+    /**
+     * Retorna os exames cadastrados, na ordem de cadastro (somente leitura).
+     */
+    public List<Exame> getExames() {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(exames));
+        } finally {
+            leitura.unlock();
         }
-        Exame exame = exames.get(indice);
+    }
 
-        // Atualizar Tipo
-        System.out.print("Tipo (atual: " + exame.getTipo() + ") [SANGUE, RAIO_X, ULTRASSOM]: ");
-        String novoTipo = scanner.nextLine().trim().toUpperCase();
-        if (!novoTipo.isEmpty()) {
-            while (!novoTipo.equals("SANGUE") && !novoTipo.equals("RAIO_X") && !novoTipo.equals("ULTRASSOM")) {
-                System.out.print("Tipo inválido! Informe SANGUE, RAIO_X ou ULTRASSOM: ");
-                novoTipo = scanner.nextLine().trim().toUpperCase();
-            }
-            exame.setTipo(novoTipo);
-        }
-
-        // Atualizar Data de Prescrição
-        System.out.print("Data de Prescrição (atual: " + exame.getDataPrescricao().format(formatter) + ") (DD-MM-YYYY): ");
-        String novaDataPrescricao = scanner.nextLine();
-        if (!novaDataPrescricao.trim().isEmpty()) {
-            LocalDate novaData;
-            while (true) {
-                try {
-                    novaData = LocalDate.parse(novaDataPrescricao, formatter);
-                    if (novaData.isAfter(LocalDate.now())) {
-                        System.out.print("Data de prescrição não pode ser futura. Informe novamente (DD-MM-YYYY): ");
-                        novaDataPrescricao = scanner.nextLine();
-                        continue;
-                    }
-                    exame.setDataPrescricao(novaData);
-                    break;
-                } catch (Exception e) {
-                    System.out.print("Formato inválido! Use DD-MM-YYYY: ");
-                    novaDataPrescricao = scanner.nextLine();
-                }
-            }
+    /**
+     * Atualiza os dados do exame no índice informado.
+     * Campos nulos ou em branco na requisição mantêm o valor atual; um exame pendente passa a
+     * realizado quando recebe a data de realização, que exige também um resultado.
+     * Nenhum dado é alterado se algum campo informado for inválido.
+     */
+    public Resultado<Exame> atualizarExame(int indice, ExameRequest request) {
+        Resultado<Exame> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = atualizar(indice, request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
         }
+        return resultado;
+    }
 
-        // Atualizar Data de Realização
-        System.out.print("Data de Realização (atual: " + exame.getDataRealizacao().format(formatter) + ") (DD-MM-YYYY): ");
-        String novaDataRealizacao = scanner.nextLine();
-        if (!novaDataRealizacao.trim().isEmpty()) {
-            LocalDate novaData;
-            while (true) {
-                try {
-                    novaData = LocalDate.parse(novaDataRealizacao, formatter);
-                    if (novaData.isBefore(exame.getDataPrescricao())) {
-                        System.out.print("Data de realização não pode ser anterior à data de prescrição. Informe novamente (DD-MM-YYYY): ");
-                        novaDataRealizacao = scanner.nextLine();
-                        continue;
-                    }
-                    if (novaData.isAfter(LocalDate.now())) {
-                        System.out.print("Data de realização não pode ser futura. Informe novamente (DD-MM-YYYY): ");
-                        novaDataRealizacao = scanner.nextLine();
-                        continue;
-                    }
-                    exame.setDataRealizacao(novaData);
-                    break;
-                } catch (Exception e) {
-                    System.out.print("Formato inválido! Use DD-MM-YYYY: ");
-                    novaDataRealizacao = scanner.nextLine();
-                }
-            }
+    private Resultado<Exame> atualizar(int indice, ExameRequest request) {
+        if (indice < 0 || indice >= exames.size()) {
+            return Resultado.falha("Índice não encontrado!");
         }
+        Exame exame = exames.get(indice);
 
-        // Atualizar Resultado
-        System.out.print("Resultado (atual: " + exame.getResultado() + "): ");
-        String novoResultado = scanner.nextLine();
-        if (!novoResultado.trim().isEmpty()) {
-            exame.setResultado(novoResultado);
-        }
-
-        // Atualizar Custo
-        System.out.print("Custo (atual: " + exame.getCusto() + "): ");
-        String novoCusto = scanner.nextLine();
-        if (!novoCusto.trim().isEmpty()) {
-            double custoValor;
-            while (true) {
-                try {
-                    custoValor = Double.parseDouble(novoCusto);
-                    if (custoValor < 0) {
-                        System.out.print("Custo não pode ser negativo. Informe um valor válido: ");
-                        novoCusto = scanner.nextLine();
-                        continue;
-                    }
-                    exame.setCusto(custoValor);
-                    break;
-                } catch (NumberFormatException e) {
-                    System.out.print("Valor inválido! Informe um número: ");
-                    novoCusto = scanner.nextLine();
-                }
-            }
+        String novoTipo = request.getTipo() == null || request.getTipo().trim().isEmpty()
+                ? exame.getTipo() : request.getTipo();
+        LocalDate novaPrescricao = request.getDataPrescricao() != null
+                ? request.getDataPrescricao() : exame.getDataPrescricao();
+        LocalDate novaRealizacao = request.getDataRealizacao() != null
+                ? request.getDataRealizacao() : exame.getDataRealizacao();
+        String novoResultado = request.getResultado() == null || request.getResultado().trim().isEmpty()
+                ? exame.getResultado() : request.getResultado();
+        double novoCusto = request.getCusto() != null ? request.getCusto() : exame.getCusto();
+
+        String erro = validarTipoExame(novoTipo);
+        if (erro == null) {
+            erro = validarDataPrescricao(novaPrescricao);
+        }
+        if (erro == null && novaRealizacao != null) {
+            erro = validarDataRealizacao(novaRealizacao, novaPrescricao);
+        }
+        if (erro == null && novaRealizacao != null) {
+            erro = validarResultado(novoResultado);
+        }
+        if (erro == null) {
+            erro = validarCusto(novoCusto);
+        }
+        if (erro != null) {
+            return Resultado.falha(erro);
         }
 
-        System.out.println("Exame atualizado com sucesso!");
-        return exame;
+        diario.exameAtualizado(indice, exame.getId(), request);
+        desindexar(exame);
+        exame.setTipo(novoTipo);
+        exame.setDataPrescricao(novaPrescricao);
+        exame.setDataRealizacao(novaRealizacao);
+        exame.setResultado(novoResultado);
+        exame.setCusto(novoCusto);
+        indexar(exame);
+        return Resultado.sucesso(exame);
     }
 
     /**
-     * Remove um exame da lista com base no índice informado.
+     * Remove o exame do índice informado.
      */
-    public String removerExame() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Remoção de Exame ===");
-
-        listarExames();
-        System.out.print("Informe o índice do exame que deseja remover: ");
-        int indice = -1;
+    public Resultado<Exame> removerExame(int indice) {
+        Resultado<Exame> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
         try {
-            indice = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            return "Índice inválido!";
+            resultado = remover(indice);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
         }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
+
+    private Resultado<Exame> remover(int indice) {
         if (indice < 0 || indice >= exames.size()) {
-            return "Índice não encontrado!";
+            return Resultado.falha("Índice não encontrado!");
         }
-        exames.remove(indice);
-        return "Exame removido com sucesso!";
+        diario.exameRemovido(indice, exames.get(indice).getId());
+        Exame exame = exames.remove(indice);
+        desindexar(exame);
+        return Resultado.sucesso(exame);
     }
 
+    /**
+     * O primeiro exame cadastrado do tipo informado, ou null se não houver.
+     */
     public Exame buscarExamePorTipo (String tipo) {
-        for (Exame ex : exames) {
-            if (ex.getTipo().equals(tipo)) {
-                return ex;
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return buscarPorTipo(tipo);
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    // O primeiro cadastrado do tipo: o de menor número de cadastro no índice do tipo
+    private Exame buscarPorTipo(String tipo) {
+        IndiceTipo indice = indicesPorTipo.get(tipo);
+        if (indice == null || indice.porCadastro.isEmpty()) {
+            return null;
+        }
+        return indice.porCadastro.firstEntry().getValue();
+    }
+
+    /**
+     * Exames do tipo prescritos entre as datas (inclusive), em ordem de data de prescrição.
+     */
+    public Resultado<List<Exame>> buscarExamesPrescritos(String tipo, LocalDate inicio, LocalDate fim) {
+        return buscarNoPeriodo(tipo, inicio, fim, indice -> indice.porPrescricao);
+    }
+
+    /**
+     * Exames do tipo realizados entre as datas (inclusive), em ordem de data de realização.
+     */
+    public Resultado<List<Exame>> buscarExamesRealizados(String tipo, LocalDate inicio, LocalDate fim) {
+        return buscarNoPeriodo(tipo, inicio, fim, indice -> indice.porRealizacao);
+    }
+
+    /**
+     * Exames do tipo prescritos entre as datas (inclusive) e ainda não realizados, em ordem de
+     * data de prescrição.
+     */
+    public Resultado<List<Exame>> buscarExamesPendentes(String tipo, LocalDate inicio, LocalDate fim) {
+        return buscarNoPeriodo(tipo, inicio, fim, indice -> indice.pendentes);
+    }
+
+    /**
+     * Quantidade de exames pendentes do tipo, sem percorrer os exames.
+     */
+    public int contarExamesPendentes(String tipo) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            IndiceTipo indice = indicesPorTipo.get(tipo);
+            return indice == null ? 0 : indice.quantidadePendentes;
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    private Resultado<List<Exame>> buscarNoPeriodo(String tipo, LocalDate inicio, LocalDate fim,
+                                                   Function<IndiceTipo, TreeMap<LocalDate, List<Exame>>> porData) {
+        String erro = validarTipoExame(tipo);
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
+        if (inicio == null || fim == null) {
+            return Resultado.falha("Formato de data inválido. Use DD-MM-YYYY.");
+        }
+        if (fim.isBefore(inicio)) {
+            return Resultado.falha("A data final não pode ser anterior à inicial.");
+        }
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            List<Exame> encontrados = new ArrayList<>();
+            IndiceTipo indice = indicesPorTipo.get(tipo);
+            if (indice != null) {
+                for (List<Exame> mesmaData : porData.apply(indice).subMap(inicio, true, fim, true).values()) {
+                    encontrados.addAll(mesmaData);
+                }
             }
+            return Resultado.sucesso(encontrados);
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    private void indexar(Exame exame) {
+        IndiceTipo indice = indicesPorTipo.computeIfAbsent(exame.getTipo(), tipo -> new IndiceTipo());
+        indice.porCadastro.put(exame.getId(), exame);
+        adicionar(indice.porPrescricao, exame.getDataPrescricao(), exame);
+        if (exame.getDataRealizacao() != null) {
+            adicionar(indice.porRealizacao, exame.getDataRealizacao(), exame);
+        } else {
+            adicionar(indice.pendentes, exame.getDataPrescricao(), exame);
+            indice.quantidadePendentes++;
         }
-        return null;
+    }
+
+    private void desindexar(Exame exame) {
+        IndiceTipo indice = indicesPorTipo.get(exame.getTipo());
+        indice.porCadastro.remove(exame.getId());
+        retirar(indice.porPrescricao, exame.getDataPrescricao(), exame);
+        if (exame.getDataRealizacao() != null) {
+            retirar(indice.porRealizacao, exame.getDataRealizacao(), exame);
+        } else {
+            retirar(indice.pendentes, exame.getDataPrescricao(), exame);
+            indice.quantidadePendentes--;
+        }
+    }
+
+    private static void adicionar(TreeMap<LocalDate, List<Exame>> porData, LocalDate data, Exame exame) {
+        porData.computeIfAbsent(data, d -> new ArrayList<>(2)).add(exame);
+    }
+
+    // Exame não sobrescreve equals: a remoção é pela identidade do exame
+    private static void retirar(TreeMap<LocalDate, List<Exame>> porData, LocalDate data, Exame exame) {
+        List<Exame> mesmaData = porData.get(data);
+        if (mesmaData != null && mesmaData.remove(exame) && mesmaData.isEmpty()) {
+            porData.remove(data);
+        }
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.trim().isEmpty();
+    }
+
+    /**
+     * Exames de um tipo por data. Em cada data, os exames ficam na ordem em que entraram no índice.
+     */
+    private static final class IndiceTipo {
+        // Por número de cadastro, que segue a ordem da lista (ver Paginas)
+        final TreeMap<Long, Exame> porCadastro = new TreeMap<>();
+        final TreeMap<LocalDate, List<Exame>> porPrescricao = new TreeMap<>();
+        final TreeMap<LocalDate, List<Exame>> porRealizacao = new TreeMap<>();
+        // Só os pendentes, por data de prescrição
+        final TreeMap<LocalDate, List<Exame>> pendentes = new TreeMap<>();
+        int quantidadePendentes;
     }
 }
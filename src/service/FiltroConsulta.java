@@ -0,0 +1,42 @@
+package service;
+
+import model.StatusConsulta;
+import model.TabelaConsultas;
+
+import java.time.LocalDate;
+
+/**
+ * Condição de um relatório, avaliada direto nas colunas da TabelaConsultas para não criar uma
+ * visão Consulta por linha.
+ */
+@FunctionalInterface
+public interface FiltroConsulta {
+
+    FiltroConsulta TODAS = (tabela, linha) -> true;
+
+    boolean aceita(TabelaConsultas tabela, int linha);
+
+    default FiltroConsulta e(FiltroConsulta outro) {
+        return (tabela, linha) -> aceita(tabela, linha) && outro.aceita(tabela, linha);
+    }
+
+    /**
+     * Consultas com data entre inicio e fim (inclusive); um extremo nulo deixa o período aberto.
+     */
+    static FiltroConsulta periodo(LocalDate inicio, LocalDate fim) {
+        long primeiro = inicio == null ? Integer.MIN_VALUE + 1 : inicio.toEpochDay();
+        long ultimo = fim == null ? Integer.MAX_VALUE : fim.toEpochDay();
+        return (tabela, linha) -> {
+            int dia = tabela.getDia(linha);
+            return dia >= primeiro && dia <= ultimo;
+        };
+    }
+
+    static FiltroConsulta status(StatusConsulta status) {
+        return (tabela, linha) -> tabela.getStatus(linha) == status;
+    }
+
+    static FiltroConsulta pagas() {
+        return (tabela, linha) -> tabela.getPagamento(linha) != null;
+    }
+}
@@ -0,0 +1,344 @@
+package service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import static util.Textos.normalizar;
+
+/**
+ * Índice de trigramas para a busca aproximada por nome. O nome normalizado (ver
+ * Textos.normalizar), com um espaço em cada ponta, é quebrado em sequências de três caracteres;
+ * cada trigrama guarda os itens cujo nome o contém, e cada item guarda os trigramas do seu nome.
+ * A semelhança é o número de trigramas da consulta que aparecem no nome: nomes incompletos ou
+ * com erros de digitação ainda compartilham a maior parte deles.
+ *
+ * As listas guardam os ids em ordem crescente e a busca anda por elas juntas, id a id. Quando
+ * já há "quantidade" candidatos, um item novo precisa de pelo menos tantos trigramas quanto o
+ * pior deles; as listas mais longas que, somadas, não chegam a isso não geram candidatos, só são
+ * consultadas (por busca binária) para os candidatos das listas curtas. Assim os trigramas mais
+ * comuns, como os de "Maria" ou "Silva", quase nunca são percorridos inteiros.
+ *
+ * Não é thread-safe: quem usa cuida da trava (o PacienteService usa Alteracoes).
+ */
+final class IndiceTrigramas<T> {
+
+    // Fração mínima dos trigramas da consulta que o nome precisa ter para ser candidato
+    private static final double SEMELHANCA_MINIMA = 1.0 / 3;
+    private static final int[] NENHUM = new int[0];
+    private static final int FIM_DA_LISTA = Integer.MAX_VALUE;
+
+    private final Map<Integer, Postagens> idsPorTrigrama = new HashMap<>();
+    private final Map<T, Integer> idPorItem = new IdentityHashMap<>();
+    // Cada inclusão recebe um id maior que os anteriores, para as listas ficarem em ordem só com
+    // acréscimos no fim; os ids das remoções são recuperados renumerando tudo (ver compactar)
+    private Object[] itens = new Object[16];
+    private int[][] trigramasPorId = new int[16][];
+    // Quantidade de trigramas de cada nome, à parte para o desempate não ler o vetor de cada item
+    private int[] tamanhos = new int[16];
+    private int proximoId;
+
+    void adicionar(T item, String nome) {
+        int id = proximoId++;
+        if (id == itens.length) {
+            itens = Arrays.copyOf(itens, id * 2);
+            trigramasPorId = Arrays.copyOf(trigramasPorId, id * 2);
+            tamanhos = Arrays.copyOf(tamanhos, id * 2);
+        }
+        int[] trigramas = trigramas(nome);
+        for (int trigrama : trigramas) {
+            idsPorTrigrama.computeIfAbsent(trigrama, t -> new Postagens()).adicionar(id);
+        }
+        itens[id] = item;
+        trigramasPorId[id] = trigramas;
+        tamanhos[id] = trigramas.length;
+        idPorItem.put(item, id);
+    }
+
+    void remover(T item) {
+        Integer id = idPorItem.remove(item);
+        if (id == null) {
+            return;
+        }
+        for (int trigrama : trigramasPorId[id]) {
+            Postagens postagens = idsPorTrigrama.get(trigrama);
+            if (postagens.remover(id) && postagens.tamanho == 0) {
+                idsPorTrigrama.remove(trigrama);
+            }
+        }
+        itens[id] = null;
+        trigramasPorId[id] = null;
+        if (proximoId > 1024 && proximoId > 2 * idPorItem.size()) {
+            compactar();
+        }
+    }
+
+    // Renumera os itens em sequência, na mesma ordem, quando metade dos ids já foi removida
+    private void compactar() {
+        idsPorTrigrama.clear();
+        int total = 0;
+        for (int id = 0; id < proximoId; id++) {
+            if (itens[id] == null) {
+                continue;
+            }
+            @SuppressWarnings("unchecked")
+            T item = (T) itens[id];
+            itens[total] = item;
+            trigramasPorId[total] = trigramasPorId[id];
+            tamanhos[total] = tamanhos[id];
+            idPorItem.put(item, total);
+            for (int trigrama : trigramasPorId[total]) {
+                idsPorTrigrama.computeIfAbsent(trigrama, t -> new Postagens()).adicionar(total);
+            }
+            total++;
+        }
+        Arrays.fill(itens, total, proximoId, null);
+        Arrays.fill(trigramasPorId, total, proximoId, null);
+        proximoId = total;
+    }
+
+    /**
+     * Até "quantidade" itens, do mais parecido com a consulta para o menos: primeiro os que têm
+     * mais trigramas da consulta e, no empate, os de nome mais curto.
+     */
+    List<T> buscar(String consulta, int quantidade) {
+        int[] trigramas = trigramas(consulta);
+        if (trigramas.length == 0 || quantidade <= 0) {
+            return new ArrayList<>();
+        }
+        Postagens[] listas = new Postagens[trigramas.length];
+        int existentes = 0;
+        for (int trigrama : trigramas) {
+            Postagens postagens = idsPorTrigrama.get(trigrama);
+            if (postagens != null) {
+                listas[existentes++] = postagens;
+            }
+        }
+        Arrays.sort(listas, 0, existentes, (a, b) -> Integer.compare(a.tamanho, b.tamanho));
+
+        Melhores melhores = new Melhores(quantidade, minimo(trigramas.length));
+        int[] posicoes = new int[existentes];
+        // Id na posição atual de cada lista, ou FIM_DA_LISTA
+        int[] atuais = new int[existentes];
+        for (int lista = 0; lista < existentes; lista++) {
+            atuais[lista] = listas[lista].ids[0];
+        }
+        while (true) {
+            int necessarios = melhores.necessarios();
+            // Só as listas mais curtas geram candidatos: um item fora delas teria no máximo
+            // necessarios - 1 trigramas em comum
+            int geradoras = existentes - (necessarios - 1);
+            if (geradoras <= 0) {
+                break;
+            }
+            int id = FIM_DA_LISTA;
+            for (int lista = 0; lista < geradoras; lista++) {
+                id = Math.min(id, atuais[lista]);
+            }
+            if (id == FIM_DA_LISTA) {
+                break;
+            }
+            int comuns = 0;
+            for (int lista = 0; lista < geradoras; lista++) {
+                if (atuais[lista] == id) {
+                    comuns++;
+                    atuais[lista] = listas[lista].id(++posicoes[lista]);
+                }
+            }
+            for (int lista = geradoras; lista < existentes && comuns + existentes - lista >= necessarios; lista++) {
+                if (atuais[lista] < id) {
+                    posicoes[lista] = listas[lista].avancar(posicoes[lista], id);
+                    atuais[lista] = listas[lista].id(posicoes[lista]);
+                }
+                if (atuais[lista] == id) {
+                    comuns++;
+                }
+            }
+            if (comuns >= necessarios) {
+                melhores.oferecer(id, comuns, tamanhos[id]);
+            }
+        }
+        return melhores.itens();
+    }
+
+    /**
+     * Ordena os candidatos como {@link #buscar}, sem usar as listas: para quando outro índice já
+     * reduziu a busca a poucos itens. Candidatos fora do índice são ignorados.
+     */
+    List<T> classificar(String consulta, Collection<T> candidatos, int quantidade) {
+        int[] trigramas = trigramas(consulta);
+        if (trigramas.length == 0 || quantidade <= 0) {
+            return new ArrayList<>();
+        }
+        Melhores melhores = new Melhores(quantidade, minimo(trigramas.length));
+        for (T candidato : candidatos) {
+            Integer id = idPorItem.get(candidato);
+            if (id != null) {
+                melhores.oferecer(id, comuns(trigramas, trigramasPorId[id]), tamanhos[id]);
+            }
+        }
+        return melhores.itens();
+    }
+
+    private static int minimo(int trigramasConsulta) {
+        return Math.max(1, (int) Math.ceil(trigramasConsulta * SEMELHANCA_MINIMA));
+    }
+
+    // Trigramas em comum entre dois vetores ordenados
+    private static int comuns(int[] a, int[] b) {
+        int comuns = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                comuns++;
+                i++;
+                j++;
+            }
+        }
+        return comuns;
+    }
+
+    // Trigramas distintos do nome normalizado, com um espaço em cada ponta, em ordem crescente
+    private static int[] trigramas(String nome) {
+        if (nome == null) {
+            return NENHUM;
+        }
+        String texto = " " + normalizar(nome) + " ";
+        if (texto.length() < 3) {
+            return NENHUM;
+        }
+        int[] trigramas = new int[texto.length() - 2];
+        for (int i = 0; i < trigramas.length; i++) {
+            trigramas[i] = codigo(texto.charAt(i), texto.charAt(i + 1), texto.charAt(i + 2));
+        }
+        Arrays.sort(trigramas);
+        int distintos = 0;
+        for (int i = 0; i < trigramas.length; i++) {
+            if (i == 0 || trigramas[i] != trigramas[i - 1]) {
+                trigramas[distintos++] = trigramas[i];
+            }
+        }
+        return Arrays.copyOf(trigramas, distintos);
+    }
+
+    // Três caracteres de até 10 bits cabem exatos num int; os demais (raros depois da
+    // normalização) viram um hash com o bit 30 ligado, que não colide com os exatos
+    private static int codigo(char a, char b, char c) {
+        if (a < 1024 && b < 1024 && c < 1024) {
+            return a << 20 | b << 10 | c;
+        }
+        return ((a * 31 + b) * 31 + c) & 0x3FFFFFFF | 0x40000000;
+    }
+
+    /**
+     * Os melhores itens vistos até agora. Cada um é uma chave long que cresce com a semelhança:
+     * trigramas em comum, depois nome mais curto, depois id menor.
+     */
+    private final class Melhores {
+        private final int quantidade;
+        private final int minimo;
+        // Heap de mínimo: a raiz é a pior chave, a primeira a sair
+        private final PriorityQueue<Long> chaves;
+
+        Melhores(int quantidade, int minimo) {
+            this.quantidade = quantidade;
+            this.minimo = minimo;
+            this.chaves = new PriorityQueue<>(Math.min(quantidade, 1024) + 1);
+        }
+
+        // Trigramas em comum que um item novo precisa ter para poder entrar (no empate com o
+        // pior, ainda entra se tiver o nome mais curto)
+        int necessarios() {
+            if (chaves.size() < quantidade) {
+                return minimo;
+            }
+            return Math.max(minimo, (int) (chaves.peek() >>> 47));
+        }
+
+        void oferecer(int id, int comuns, int trigramasNome) {
+            if (comuns < minimo) {
+                return;
+            }
+            long chave = (long) Math.min(comuns, 0xFFFF) << 47 | (long) (0xFFFF - Math.min(trigramasNome, 0xFFFF)) << 31
+                    | (Integer.MAX_VALUE - id);
+            if (chaves.size() < quantidade) {
+                chaves.add(chave);
+            } else if (chave > chaves.peek()) {
+                chaves.poll();
+                chaves.add(chave);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        List<T> itens() {
+            List<T> encontrados = new ArrayList<>(chaves.size());
+            while (!chaves.isEmpty()) {
+                encontrados.add((T) itens[Integer.MAX_VALUE - (int) (chaves.poll() & Integer.MAX_VALUE)]);
+            }
+            Collections.reverse(encontrados);
+            return encontrados;
+        }
+    }
+
+    /**
+     * Lista de ids em ordem crescente; os acréscimos sempre têm o maior id.
+     */
+    private static final class Postagens {
+        int[] ids = new int[4];
+        int tamanho;
+
+        void adicionar(int id) {
+            if (tamanho == ids.length) {
+                ids = Arrays.copyOf(ids, tamanho * 2);
+            }
+            ids[tamanho++] = id;
+        }
+
+        boolean remover(int id) {
+            int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+            if (posicao < 0) {
+                return false;
+            }
+            System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+            tamanho--;
+            return true;
+        }
+
+        int id(int posicao) {
+            return posicao < tamanho ? ids[posicao] : FIM_DA_LISTA;
+        }
+
+        // Primeira posição a partir de "de" com id maior ou igual ao informado: alguns passos
+        // simples (as listas longas são densas) e depois saltos que dobram e busca binária
+        int avancar(int de, int id) {
+            for (int passos = 0; passos < 8; passos++, de++) {
+                if (de >= tamanho || ids[de] >= id) {
+                    return de;
+                }
+            }
+            int salto = 1;
+            int ate = de;
+            while (ate < tamanho && ids[ate] < id) {
+                de = ate + 1;
+                ate += salto;
+                salto <<= 1;
+            }
+            if (ate > tamanho) {
+                ate = tamanho;
+            }
+            int posicao = Arrays.binarySearch(ids, de, ate, id);
+            return posicao >= 0 ? posicao : -posicao - 1;
+        }
+    }
+}
@@ -1,196 +1,388 @@
 package service;
 
+import dto.MedicamentoRequest;
+import dto.Pagina;
+import dto.Resultado;
 import model.Medicamento;
+import persistencia.Diario;
+import util.Impressao;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static util.Textos.normalizar;
+import static util.Validacoes.validarPreco;
+import static util.Validacoes.validarTextoObrigatorio;
+
+/**
+ * Catálogo de medicamentos. Cadastro, atualização e remoção escrevem com a trava do catálogo,
+ * dentro da parte compartilhada de Alteracoes; buscas e leituras leem com a mesma trava e correm
+ * junto com os agendamentos, que a seguram da busca das prescrições até o diário (ver Alteracoes).
+ *
+ * As buscas por nome não diferenciam maiúsculas, acentos e espaços (ver Textos.normalizar) e
+ * usam um índice em ordem alfabética: a busca por prefixo é um intervalo do índice, encontrado
+ * em tempo logarítmico, do qual só são lidas as primeiras sugestões.
+ */
 public class MedicamentoService {
 
     private final List<Medicamento> medicamentos = new ArrayList<>();
+    // Medicamentos por nome normalizado; cada nome guarda os seus medicamentos na ordem de cadastro
+    private final TreeMap<String, List<Medicamento>> medicamentosPorNome = new TreeMap<>();
+    private Alteracoes alteracoes = new Alteracoes();
+    // Trava deste catálogo (ver Alteracoes): escrita nas alterações, leitura nas listagens e buscas
+    private final ReentrantReadWriteLock cadastro = new ReentrantReadWriteLock();
+    // Próximo número de cadastro (ver Paginas); protegido pela escrita do catálogo
+    private long proximoId;
+    private Diario diario = Diario.NENHUM;
 
     /**
-     * Cadastra um novo medicamento, validando os campos obrigatórios.
+     * Define o diário que recebe as alterações de medicamentos (cadastro, atualização e remoção).
      */
-    public void cadastrarMedicamento() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Cadastro de Medicamento ===");
-
-        // Validação do Nome
-        String nome;
-        while (true) {
-            System.out.print("Digite o nome do medicamento: ");
-            nome = scanner.nextLine().trim();
-            if (nome.isEmpty()) {
-                System.out.println("Nome inválido! Informe um nome.");
-            } else {
-                break;
-            }
-        }
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
 
-        // Validação da Dosagem
-        String dosagem;
-        while (true) {
-            System.out.print("Digite a dosagem (ex: 500mg): ");
-            dosagem = scanner.nextLine().trim();
-            if (dosagem.isEmpty()) {
-                System.out.println("Dosagem inválida! Informe a dosagem.");
-            } else {
-                break;
-            }
-        }
+    Alteracoes getAlteracoes() {
+        return alteracoes;
+    }
 
-        // Validação da Posologia
-        String posologia;
-        while (true) {
-            System.out.print("Digite a posologia (ex: 1 comprimido a cada 8 horas): ");
-            posologia = scanner.nextLine().trim();
-            if (posologia.isEmpty()) {
-                System.out.println("Posologia inválida! Informe as instruções de uso.");
-            } else {
-                break;
-            }
+    // Passa a usar a trava do conjunto de serviços ao qual foi ligado (ver Alteracoes)
+    void setAlteracoes(Alteracoes alteracoes) {
+        this.alteracoes = alteracoes;
+    }
+
+    // Leitura do catálogo, que o agendamento segura da busca das prescrições até o diário
+    Lock leituraCatalogo() {
+        return cadastro.readLock();
+    }
+
+    /**
+     * Cadastra um novo medicamento, validando os campos obrigatórios:
+     * nome, dosagem e posologia não podem ser vazios e o preço não pode ser negativo.
+     */
+    public Resultado<Medicamento> cadastrarMedicamento(MedicamentoRequest request) {
+        Resultado<Medicamento> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = cadastrar(request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
         }
+        return resultado;
+    }
 
-        // Validação do Preço
-        double preco;
-        while (true) {
-            System.out.print("Digite o preço do medicamento: ");
-            String precoInput = scanner.nextLine();
+    /**
+     * Cadastra os medicamentos em sequência, com as validações de cadastrarMedicamento, esperando
+     * o diário uma vez só para o lote todo (importação). O catálogo é travado a cada
+     * Alteracoes.CADASTROS_POR_TRAVA medicamentos, como em PacienteService.cadastrarPacientes.
+     */
+    public List<Resultado<Medicamento>> cadastrarMedicamentos(List<MedicamentoRequest> requests) {
+        List<Resultado<Medicamento>> resultados = new ArrayList<>(requests.size());
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        for (int inicio = 0; inicio < requests.size(); inicio += Alteracoes.CADASTROS_POR_TRAVA) {
+            int fim = Math.min(inicio + Alteracoes.CADASTROS_POR_TRAVA, requests.size());
+            alteracao.lock();
+            escrita.lock();
             try {
-                preco = Double.parseDouble(precoInput);
-                if (preco < 0) {
-                    System.out.println("Preço inválido! O valor não pode ser negativo.");
-                    continue;
+                for (int i = inicio; i < fim; i++) {
+                    resultados.add(cadastrar(requests.get(i)));
                 }
-                break;
-            } catch (NumberFormatException e) {
-                System.out.println("Valor inválido! Informe um número.");
+            } catch (RuntimeException | Error e) {
+                diario.cancelar();
+                throw e;
+            } finally {
+                escrita.unlock();
+                alteracao.unlock();
             }
         }
+        diario.confirmar();
+        return resultados;
+    }
+
+    private Resultado<Medicamento> cadastrar(MedicamentoRequest request) {
+        String erro = validarTextoObrigatorio(request.getNome(), "Nome inválido! Informe um nome.");
+        if (erro == null) {
+            erro = validarTextoObrigatorio(request.getDosagem(), "Dosagem inválida! Informe a dosagem.");
+        }
+        if (erro == null) {
+            erro = validarTextoObrigatorio(request.getPosologia(),
+                    "Posologia inválida! Informe as instruções de uso.");
+        }
+        if (erro == null) {
+            erro = validarPreco(request.getPreco());
+        }
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
 
-        Medicamento medicamento = new Medicamento(nome, dosagem, posologia, preco);
+        long id = proximoId++;
+        diario.medicamentoCadastrado(id, request);
+        Medicamento medicamento = new Medicamento(request.getNome().trim(), request.getDosagem().trim(),
+                request.getPosologia().trim(), request.getPreco());
+        medicamento.setId(id);
         medicamentos.add(medicamento);
-        System.out.println("Medicamento cadastrado com sucesso!");
+        indexar(medicamento);
+        return Resultado.sucesso(medicamento);
     }
 
     /**
-     * Lista todos os medicamentos cadastrados.
+     * Inclui um medicamento já validado, lido de um snapshot, sem registrar no diário.
+     */
+    public void restaurarMedicamento(Medicamento medicamento) {
+        medicamento.setId(proximoId++);
+        medicamentos.add(medicamento);
+        indexar(medicamento);
+    }
+
+    /**
+     * Lista todos os medicamentos cadastrados, uma página por escrita.
      */
     public void listarMedicamentos() {
-        if (medicamentos.isEmpty()) {
-            System.out.println("Nenhum medicamento cadastrado.");
-        } else {
-            System.out.println("=== Lista de Medicamentos ===");
-            for (int i = 0; i < medicamentos.size(); i++) {
-                Medicamento med = medicamentos.get(i);
-                System.out.println("Índice: " + i +
-                        " | Nome: " + med.getNome() +
-                        " | Dosagem: " + med.getDosagem() +
-                        " | Posologia: " + med.getPosologia() +
-                        " | Preço: " + med.getPreco());
-            }
+        Pagina<Medicamento> pagina = buscarPagina(Pagina.INICIO, Paginas.ITENS_POR_ESCRITA);
+        imprimirPagina(pagina);
+        while (pagina.temProxima()) {
+            pagina = buscarPagina(pagina.getProximoCursor(), Paginas.ITENS_POR_ESCRITA);
+            imprimirPagina(pagina);
         }
     }
 
     /**
-     * Atualiza os dados de um medicamento cadastrado.
-     * Caso o campo seja deixado em branco, o valor atual é mantido.
+     * Página de medicamentos na ordem de cadastro, a partir do cursor (Pagina.INICIO na primeira).
      */
-    public void atualizarMedicamento() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Atualização de Medicamento ===");
-
-        // Listar medicamentos para seleção
-        listarMedicamentos();
-        System.out.print("Informe o índice do medicamento que deseja atualizar: ");
-        int indice = -1;
+    public Pagina<Medicamento> buscarPagina(long cursor, int tamanho) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
         try {
-            indice = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            System.out.println("Índice inválido!");
-            return;
+            return Paginas.deLista(medicamentos, Medicamento::getId, cursor, tamanho);
+        } finally {
+            leitura.unlock();
         }
-        if (indice < 0 || indice >= medicamentos.size()) {
-            System.out.println("Índice não encontrado!");
-            return;
+    }
+
+    /**
+     * Imprime uma página de medicamentos numa única escrita, com o índice de cada um; a primeira
+     * leva o título da lista.
+     */
+    public void imprimirPagina(Pagina<Medicamento> pagina) {
+        Impressao impressao = new Impressao();
+        if (pagina.getPrimeiroIndice() == 0) {
+            impressao.linha(pagina.getItens().isEmpty() ? "Nenhum medicamento cadastrado." : "=== Lista de Medicamentos ===");
         }
-        Medicamento med = medicamentos.get(indice);
+        int indice = pagina.getPrimeiroIndice();
+        for (Medicamento med : pagina.getItens()) {
+            impressao.texto("Índice: ").numero(indice++)
+                    .texto(" | Nome: ").texto(med.getNome())
+                    .texto(" | Dosagem: ").texto(med.getDosagem())
+                    .texto(" | Posologia: ").texto(med.getPosologia())
+                    .texto(" | Preço: ").numero(med.getPreco()).linha();
+        }
+        impressao.imprimir();
+    }
 
-        // Atualizar Nome
-        System.out.print("Nome (atual: " + med.getNome() + "): ");
-        String novoNome = scanner.nextLine().trim();
-        if (!novoNome.isEmpty()) {
-            med.setNome(novoNome);
-        }
-
-        // Atualizar Dosagem
-        System.out.print("Dosagem (atual: " + med.getDosagem() + "): ");
-        String novaDosagem = scanner.nextLine().trim();
-        if (!novaDosagem.isEmpty()) {
-            med.setDosagem(novaDosagem);
-        }
-
-        // Atualizar Posologia
-        System.out.print("Posologia (atual: " + med.getPosologia() + "): ");
-        String novaPosologia = scanner.nextLine().trim();
-        if (!novaPosologia.isEmpty()) {
-            med.setPosologia(novaPosologia);
-        }
-
-        // Atualizar Preço
-        System.out.print("Preço (atual: " + med.getPreco() + "): ");
-        String novoPreco = scanner.nextLine().trim();
-        if (!novoPreco.isEmpty()) {
-            double precoValor;
-            while (true) {
-                try {
-                    precoValor = Double.parseDouble(novoPreco);
-                    if (precoValor < 0) {
-                        System.out.print("Preço não pode ser negativo. Informe um valor válido: ");
-                        novoPreco = scanner.nextLine().trim();
-                        continue;
-                    }
-                    med.setPreco(precoValor);
-                    break;
-                } catch (NumberFormatException e) {
-                    System.out.print("Valor inválido! Informe um número: ");
-                    novoPreco = scanner.nextLine().trim();
-                }
-            }
+    /**
+     * Medicamento na posição informada da listagem, ou null se não houver.
+     */
+    public Medicamento buscarMedicamentoNoIndice(int indice) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return indice < 0 || indice >= medicamentos.size() ? null : medicamentos.get(indice);
+        } finally {
+            leitura.unlock();
         }
+    }
 
-        System.out.println("Medicamento atualizado com sucesso!");
+    /**
+     * Retorna os medicamentos cadastrados, na ordem de cadastro (somente leitura).
+     */
+    public List<Medicamento> getMedicamentos() {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(medicamentos));
+        } finally {
+            leitura.unlock();
+        }
     }
 
     /**
-     * Remove um medicamento da lista com base no índice informado.
+     * Atualiza os dados do medicamento no índice informado.
+     * Campos nulos ou em branco na requisição mantêm o valor atual.
      */
-    public String removerMedicamento() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("=== Remoção de Medicamento ===");
+    public Resultado<Medicamento> atualizarMedicamento(int indice, MedicamentoRequest request) {
+        Resultado<Medicamento> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = atualizar(indice, request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
 
-        listarMedicamentos();
-        System.out.print("Informe o índice do medicamento que deseja remover: ");
-        int indice = -1;
+    private Resultado<Medicamento> atualizar(int indice, MedicamentoRequest request) {
+        if (indice < 0 || indice >= medicamentos.size()) {
+            return Resultado.falha("Índice não encontrado!");
+        }
+        if (request.getPreco() != null) {
+            String erro = validarPreco(request.getPreco());
+            if (erro != null) {
+                return Resultado.falha(erro);
+            }
+        }
+        Medicamento med = medicamentos.get(indice);
+        diario.medicamentoAtualizado(indice, med.getId(), request);
+
+        if (informado(request.getNome())) {
+            desindexar(med);
+            med.setNome(request.getNome().trim());
+            indexar(med);
+        }
+        if (informado(request.getDosagem())) {
+            med.setDosagem(request.getDosagem().trim());
+        }
+        if (informado(request.getPosologia())) {
+            med.setPosologia(request.getPosologia().trim());
+        }
+        if (request.getPreco() != null) {
+            med.setPreco(request.getPreco());
+        }
+        return Resultado.sucesso(med);
+    }
+
+    /**
+     * Remove o medicamento do índice informado.
+     */
+    public Resultado<Medicamento> removerMedicamento(int indice) {
+        Resultado<Medicamento> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
         try {
-            indice = Integer.parseInt(scanner.nextLine());
-        } catch (NumberFormatException e) {
-            return "Índice inválido!";
+            resultado = remover(indice);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
         }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
+
+    private Resultado<Medicamento> remover(int indice) {
         if (indice < 0 || indice >= medicamentos.size()) {
-            return "Índice não encontrado!";
+            return Resultado.falha("Índice não encontrado!");
         }
-        medicamentos.remove(indice);
-        return "Medicamento removido com sucesso!";
+        diario.medicamentoRemovido(indice, medicamentos.get(indice).getId());
+        Medicamento medicamento = medicamentos.remove(indice);
+        desindexar(medicamento);
+        return Resultado.sucesso(medicamento);
     }
 
+    /**
+     * Busca um medicamento pelo nome, sem diferenciar maiúsculas, acentos e espaços. Se mais de
+     * um tiver o mesmo nome normalizado, vale o de grafia idêntica ou, sem ele, o mais antigo.
+     */
     public Medicamento buscarMedicamento(String nome) {
-        for (Medicamento med : medicamentos) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return buscar(nome);
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    private Medicamento buscar(String nome) {
+        if (nome == null) {
+            return null;
+        }
+        List<Medicamento> mesmoNome = medicamentosPorNome.get(normalizar(nome));
+        if (mesmoNome == null) {
+            return null;
+        }
+        for (Medicamento med : mesmoNome) {
             if (med.getNome().equals(nome)) {
                 return med;
             }
         }
-        return null;
+        return mesmoNome.get(0);
+    }
+
+    /**
+     * Até "quantidade" medicamentos cujo nome começa com o prefixo (sem diferenciar maiúsculas,
+     * acentos e espaços), em ordem alfabética do nome normalizado.
+     */
+    public List<Medicamento> sugerirMedicamentos(String prefixo, int quantidade) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            List<Medicamento> sugestoes = new ArrayList<>(Math.min(Math.max(quantidade, 0), 64));
+            if (prefixo == null || quantidade <= 0) {
+                return sugestoes;
+            }
+            String chave = normalizar(prefixo);
+            for (Map.Entry<String, List<Medicamento>> nome : medicamentosPorNome.tailMap(chave, true).entrySet()) {
+                if (!nome.getKey().startsWith(chave)) {
+                    break;
+                }
+                for (Medicamento med : nome.getValue()) {
+                    sugestoes.add(med);
+                    if (sugestoes.size() == quantidade) {
+                        return sugestoes;
+                    }
+                }
+            }
+            return sugestoes;
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    private void indexar(Medicamento medicamento) {
+        medicamentosPorNome.computeIfAbsent(normalizar(medicamento.getNome()), nome -> new ArrayList<>(1))
+                .add(medicamento);
+    }
+
+    private void desindexar(Medicamento medicamento) {
+        String nome = normalizar(medicamento.getNome());
+        List<Medicamento> mesmoNome = medicamentosPorNome.get(nome);
+        if (mesmoNome != null && mesmoNome.remove(medicamento) && mesmoNome.isEmpty()) {
+            medicamentosPorNome.remove(nome);
+        }
+    }
+
+    private static boolean informado(String valor) {
+        return valor != null && !valor.trim().isEmpty();
     }
 }
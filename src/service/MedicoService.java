@@ -1,253 +1,500 @@
 package service;
 
+import dto.MedicoRequest;
+import dto.Pagina;
+import dto.Resultado;
 import model.Medico;
-import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import persistencia.Diario;
+import util.Impressao;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static util.Textos.normalizar;
+import static util.Textos.reduzirEspacos;
+import static util.ValidaCPF.cpfParaLong;
 import static util.ValidaCPF.formatarCPF;
+import static util.Validacoes.validarCpf;
+import static util.Validacoes.validarCrm;
+import static util.Validacoes.validarDataNascimento;
+import static util.Validacoes.validarEspecialidade;
+import static util.Validacoes.validarNome;
 
+/**
+ * Cadastro de médicos. As buscas por CRM, CPF e especialidade não usam trava e podem correr
+ * junto com os agendamentos; cadastro e atualização escrevem com a trava do cadastro, dentro da
+ * parte compartilhada de Alteracoes, e não esperam os agendamentos; as leituras da lista leem
+ * com a mesma trava. A atualização troca o CRM com o médico travado, como o agendamento que o
+ * confere (ver Alteracoes).
+ */
 public class MedicoService {
 
     private final List<Medico> medicos = new ArrayList<>();
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    // Índices por CRM e por CPF (11 dígitos como long), mantidos junto com a lista
+    private final Map<String, Medico> medicosPorCrm = new ConcurrentHashMap<>();
+    private final Map<Long, Medico> medicosPorCpf = new ConcurrentHashMap<>();
+    // Médicos de cada especialidade, na ordem em que entraram nela. A chave é a especialidade
+    // normalizada: sem acentos, em minúsculas e com os espaços reduzidos a um só
+    private final Map<String, Especialidade> medicosPorEspecialidade = new ConcurrentHashMap<>();
+    private Alteracoes alteracoes = new Alteracoes();
+    // Trava deste cadastro (ver Alteracoes): escrita nas alterações, leitura nas listagens e buscas
+    private final ReentrantReadWriteLock cadastro = new ReentrantReadWriteLock();
+    // Próximo número de cadastro (ver Paginas); protegido pela escrita do cadastro
+    private long proximoId;
+    private Diario diario = Diario.NENHUM;
+
+    /**
+     * Define o diário que recebe as alterações de médicos (cadastro, atualização e remoção).
+     */
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
+
+    Alteracoes getAlteracoes() {
+        return alteracoes;
+    }
+
+    // Passa a usar a trava do conjunto de serviços ao qual foi ligado (ver Alteracoes)
+    void setAlteracoes(Alteracoes alteracoes) {
+        this.alteracoes = alteracoes;
+    }
 
     /**
      * Realiza o cadastro de um novo médico, aplicando as seguintes validações:
-     * - ID: deve ser um número inteiro positivo.
      * - Nome: não pode ser vazio.
      * - CPF: deve conter exatamente 11 dígitos numéricos, ser formatado e não pode já estar cadastrado.
-     * - Data de Nascimento: deve ser uma data válida no formato DD-MM-YYYY e não pode ser futura.
+     * - Data de Nascimento: deve ser informada e não pode ser futura.
      * - CRM: não pode ser vazio e não pode estar duplicado.
      * - Especialidade: não pode ser vazia.
      */
-    public void cadastrarMedico() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Bem vindo ao sistema de cadastro do médico:");
-
-        // Validação do Nome
-        String nome;
-        while (true) {
-            System.out.print("Digite o nome do Medico: ");
-            nome = scanner.nextLine();
-            if (nome == null || nome.trim().isEmpty()) {
-                System.out.println("Nome inválido! Por favor, informe um nome.");
-            } else {
-                break;
-            }
+    public Resultado<Medico> cadastrarMedico(MedicoRequest request) {
+        Resultado<Medico> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = cadastrar(request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
         }
-
-        // Validação do CPF
-        String cpf;
-        while (true) {
-            System.out.print("Digite o CPF (apenas números): ");
-            cpf = scanner.nextLine();
-            if (!cpf.matches("\\d{11}")) {
-                System.out.println("CPF inválido! Digite exatamente 11 números.");
-                continue;
-            }
-            // Formata o CPF (exemplo: 000.000.000-00)
-            cpf = formatarCPF(cpf);
-            if (buscarPorCpf(cpf) != null) {
-                System.out.println("Já existe um médico cadastrado com este CPF. Informe outro.");
-                continue;
-            }
-            break;
+        if (resultado.isSucesso()) {
+            diario.confirmar();
         }
+        return resultado;
+    }
 
-        // Validação da Data de Nascimento
-        LocalDate dataNascimento;
-        while (true) {
-            System.out.print("Digite a Data de Nascimento (DD-MM-YYYY): ");
-            String dataInput = scanner.nextLine();
+    /**
+     * Cadastra os médicos em sequência, com as validações de cadastrarMedico, esperando o diário
+     * uma vez só para o lote todo (importação). O cadastro é travado a cada
+     * Alteracoes.CADASTROS_POR_TRAVA médicos, como em PacienteService.cadastrarPacientes.
+     */
+    public List<Resultado<Medico>> cadastrarMedicos(List<MedicoRequest> requests) {
+        List<Resultado<Medico>> resultados = new ArrayList<>(requests.size());
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        for (int inicio = 0; inicio < requests.size(); inicio += Alteracoes.CADASTROS_POR_TRAVA) {
+            int fim = Math.min(inicio + Alteracoes.CADASTROS_POR_TRAVA, requests.size());
+            alteracao.lock();
+            escrita.lock();
             try {
-                dataNascimento = LocalDate.parse(dataInput, formatter);
-                if (dataNascimento.isAfter(LocalDate.now())) {
-                    System.out.println("Data de nascimento não pode ser no futuro.");
-                    continue;
+                for (int i = inicio; i < fim; i++) {
+                    resultados.add(cadastrar(requests.get(i)));
                 }
-                break;
-            } catch (Exception e) {
-                System.out.println("Formato inválido! Use DD-MM-YYYY.");
+            } catch (RuntimeException | Error e) {
+                diario.cancelar();
+                throw e;
+            } finally {
+                escrita.unlock();
+                alteracao.unlock();
             }
         }
+        diario.confirmar();
+        return resultados;
+    }
 
-        // Validação do CRM
-        String crm;
-        while (true) {
-            System.out.print("Digite o CRM: ");
-            crm = scanner.nextLine();
-            if (crm == null || crm.trim().isEmpty()) {
-                System.out.println("CRM inválido! Informe o CRM.");
-            } else if (buscaPorCrm(crm) != null) {
-                System.out.println("Já existe um médico cadastrado com este CRM. Informe outro.");
-            } else {
-                break;
-            }
+    private Resultado<Medico> cadastrar(MedicoRequest request) {
+        String erro = validarNome(request.getNome());
+        if (erro == null) {
+            erro = validarCpf(request.getCpf());
+        }
+        if (erro == null) {
+            erro = validarDataNascimento(request.getDataNascimento());
+        }
+        if (erro == null) {
+            erro = validarCrm(request.getCrm());
+        }
+        if (erro == null) {
+            erro = validarEspecialidade(request.getEspecialidade());
+        }
+        if (erro != null) {
+            return Resultado.falha(erro);
         }
 
-        // Validação da Especialidade
-        String especialidade;
-        while (true) {
-            System.out.print("Digite a Especialidade: ");
-            especialidade = scanner.nextLine();
-            if (especialidade == null || especialidade.trim().isEmpty()) {
-                System.out.println("Especialidade inválida! Informe a especialidade.");
-            } else {
-                break;
-            }
+        long chaveCpf = cpfParaLong(request.getCpf());
+        if (medicosPorCpf.containsKey(chaveCpf)) {
+            return Resultado.falha("Já existe um médico cadastrado com este CPF. Informe outro.");
+        }
+        if (medicosPorCrm.containsKey(request.getCrm())) {
+            return Resultado.falha("Já existe um médico cadastrado com este CRM. Informe outro.");
         }
 
-        Medico medico = new Medico(nome, cpf, dataNascimento, crm, especialidade, new ArrayList<>());
+        diario.medicoCadastrado(request.getCrm(), request);
+        Medico medico = new Medico(request.getNome(), formatarCPF(chaveCpf), request.getDataNascimento(),
+                request.getCrm(), request.getEspecialidade(), new ArrayList<>());
+        medico.setId(proximoId++);
         medicos.add(medico);
-        System.out.println("Médico cadastrado com sucesso!");
+        medicosPorCrm.put(medico.getCrm(), medico);
+        medicosPorCpf.put(chaveCpf, medico);
+        incluirNaEspecialidade(medico);
+        return Resultado.sucesso(medico);
+    }
+
+    /**
+     * Inclui um médico já validado, lido de um snapshot, sem registrar no diário.
+     */
+    public void restaurarMedico(Medico medico) {
+        medico.setId(proximoId++);
+        medicos.add(medico);
+        medicosPorCrm.put(medico.getCrm(), medico);
+        medicosPorCpf.put(cpfParaLong(medico.getCpf()), medico);
+        incluirNaEspecialidade(medico);
     }
 
     /**
      * Busca um médico pelo CRM.
      */
     public Medico buscaPorCrm(String crm) {
-        for (Medico m : medicos) {
-            if (m.getCrm().equals(crm)) {
-                return m;
-            }
+        if (crm == null) {
+            return null;
         }
-        return null;
+        return medicosPorCrm.get(crm);
     }
 
     /**
-     * Busca um médico pelo CPF (deve estar formatado da mesma forma que no cadastro).
+     * Médicos da especialidade informada, na ordem em que entraram nela, sem diferenciar
+     * maiúsculas, acentos e espaços (somente leitura). Retorna uma lista vazia se não houver nenhum.
+     */
+    public List<Medico> buscarPorEspecialidade(String especialidade) {
+        if (especialidade == null) {
+            return List.of();
+        }
+        Especialidade medicos = medicosPorEspecialidade.get(chaveEspecialidade(especialidade));
+        return medicos == null ? List.of() : medicos.lista();
+    }
+
+    /**
+     * Especialidades com pelo menos um médico, em ordem alfabética, com a grafia usada quando
+     * cada uma foi cadastrada pela primeira vez.
+     */
+    public List<String> getEspecialidades() {
+        List<String> especialidades = new ArrayList<>();
+        for (Especialidade especialidade : medicosPorEspecialidade.values()) {
+            especialidades.add(especialidade.nome);
+        }
+        especialidades.sort(String.CASE_INSENSITIVE_ORDER);
+        return especialidades;
+    }
+
+    /**
+     * Busca um médico pelo CPF, formatado (000.000.000-00) ou apenas com números.
      */
     public Medico buscarPorCpf(String cpf) {
-        for (Medico m : medicos) {
-            if (m.getCpf().equals(cpf)) {
-                return m;
-            }
+        long chave = cpfParaLong(cpf);
+        if (chave < 0) {
+            return null;
+        }
+        return medicosPorCpf.get(chave);
+    }
+
+    /**
+     * Troca o CPF do médico e atualiza o índice na mesma operação.
+     * Retorna false (sem alterar nada) se o CPF já pertencer a outro médico.
+     */
+    private boolean alterarCpf(Medico medico, long novaChave) {
+        Medico existente = medicosPorCpf.get(novaChave);
+        if (existente != null && existente != medico) {
+            return false;
+        }
+        medicosPorCpf.remove(cpfParaLong(medico.getCpf()));
+        medicosPorCpf.put(novaChave, medico);
+        medico.setCpf(formatarCPF(novaChave));
+        return true;
+    }
+
+    /**
+     * Troca o CRM do médico e atualiza o índice na mesma operação.
+     * Retorna false (sem alterar nada) se o CRM já pertencer a outro médico.
+     */
+    private boolean alterarCrm(Medico medico, String novoCrm) {
+        Medico existente = medicosPorCrm.get(novoCrm);
+        if (existente != null && existente != medico) {
+            return false;
+        }
+        medicosPorCrm.remove(medico.getCrm());
+        medicosPorCrm.put(novoCrm, medico);
+        medico.setCrm(novoCrm);
+        return true;
+    }
+
+    /**
+     * Retorna os médicos cadastrados, na ordem de cadastro (somente leitura).
+     */
+    public List<Medico> getMedicos() {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(medicos));
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    /**
+     * Página de médicos na ordem de cadastro, a partir do cursor (Pagina.INICIO na primeira).
+     */
+    public Pagina<Medico> buscarPagina(long cursor, int tamanho) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Paginas.deLista(medicos, Medico::getId, cursor, tamanho);
+        } finally {
+            leitura.unlock();
         }
-        return null;
     }
 
     /**
-     * Retorna a lista de médicos cadastrados.
+     * Retorna a lista de médicos cadastrados, uma página por escrita.
      */
     public void listarMedicos() {
-        if (medicos.isEmpty()) {
-            System.out.println("Nenhum médico cadastrado.");
+        Pagina<Medico> pagina = buscarPagina(Pagina.INICIO, Paginas.ITENS_POR_ESCRITA);
+        imprimirPagina(pagina);
+        while (pagina.temProxima()) {
+            pagina = buscarPagina(pagina.getProximoCursor(), Paginas.ITENS_POR_ESCRITA);
+            imprimirPagina(pagina);
+        }
+    }
+
+    /**
+     * Imprime uma página de médicos numa única escrita; a primeira leva o título da lista.
+     */
+    public void imprimirPagina(Pagina<Medico> pagina) {
+        Impressao impressao = new Impressao();
+        if (pagina.getPrimeiroIndice() == 0) {
+            impressao.linha(pagina.getItens().isEmpty() ? "Nenhum médico cadastrado." : "Lista de médicos:");
+        }
+        for (Medico m : pagina.getItens()) {
+            impressao.texto("Nome: ").texto(m.getNome())
+                    .texto(" - CPF: ").texto(m.getCpf())
+                    .texto(" - Data de Nascimento: ").data(m.getDataNascimento())
+                    .texto(" - CRM: ").texto(m.getCrm())
+                    .texto(" - Especialidade: ").texto(m.getEspecialidade()).linha();
+        }
+        impressao.imprimir();
+    }
+
+    /**
+     * Lista os médicos da especialidade informada.
+     */
+    public void listarMedicos(String especialidade) {
+        Especialidade encontrada = medicosPorEspecialidade.get(chaveEspecialidade(especialidade));
+        if (encontrada == null) {
+            System.out.println("Nenhum médico com a especialidade " + especialidade.trim() + ".");
         } else {
-            System.out.println("Lista de médicos:");
-            for (Medico m : medicos) {
-                System.out.println("Nome: " + m.getNome() +
-                        " - CPF: " + m.getCpf() +
-                        " - Data de Nascimento: " + m.getDataNascimento().format(formatter) +
-                        " - CRM: " + m.getCrm() +
-                        " - Especialidade: " + m.getEspecialidade());
+            Impressao impressao = new Impressao();
+            impressao.linha("Médicos de " + encontrada.nome + ":");
+            for (Medico m : encontrada.lista()) {
+                impressao.texto("Nome: ").texto(m.getNome()).texto(" - CRM: ").texto(m.getCrm()).linha();
             }
+            impressao.imprimir();
         }
     }
 
     /**
-     * Atualiza o cadastro do médico, permitindo a alteração dos dados.
-     * Caso o usuário deixe o campo em branco, o valor atual é mantido.
+     * Atualiza o cadastro do médico, com as mesmas validações do cadastro.
+     * Campos nulos ou em branco na requisição mantêm o valor atual.
+     * Todos os campos são validados antes de qualquer alteração, inclusive a unicidade de CPF e CRM.
      */
-    public void atualizarCadastroMedico(Medico medico) {
-        if (medico == null) {
-            System.out.println("Médico não encontrado.");
-            return;
+    public Resultado<Medico> atualizarCadastroMedico(Medico medico, MedicoRequest request) {
+        Resultado<Medico> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = atualizar(medico, request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
         }
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("Atualizando cadastro do médico:");
+        return resultado;
+    }
 
-        // Atualiza o Nome
-        System.out.print("Nome (atual: " + medico.getNome() + "): ");
-        String novoNome = scanner.nextLine();
-        if (!novoNome.trim().isEmpty()) {
-            medico.setNome(novoNome);
+    private Resultado<Medico> atualizar(Medico medico, MedicoRequest request) {
+        if (medico == null || buscaPorCrm(medico.getCrm()) != medico) {
+            return Resultado.falha("Médico não encontrado.");
         }
 
-        // Atualiza o CPF com validação
-        System.out.print("CPF (apenas números) (atual: " + medico.getCpf() + "): ");
-        String novoCpf = scanner.nextLine();
-        if (!novoCpf.trim().isEmpty()) {
-            while (true) {
-                if (!novoCpf.matches("\\d{11}")) {
-                    System.out.print("CPF inválido! Digite exatamente 11 números: ");
-                    novoCpf = scanner.nextLine();
-                    continue;
-                }
-                novoCpf = formatarCPF(novoCpf);
-                // Se o novo CPF for diferente do atual, verifica duplicidade
-                if (!novoCpf.equals(medico.getCpf()) && buscarPorCpf(novoCpf) != null) {
-                    System.out.print("Já existe um médico com este CPF. Informe outro: ");
-                    novoCpf = scanner.nextLine();
-                    continue;
-                }
-                break;
+        boolean alteraNome = informado(request.getNome());
+        boolean alteraCpf = informado(request.getCpf());
+        boolean alteraCrm = informado(request.getCrm());
+        boolean alteraEspecialidade = informado(request.getEspecialidade());
+
+        long novaChave = -1;
+        if (alteraCpf) {
+            String erro = validarCpf(request.getCpf());
+            if (erro != null) {
+                return Resultado.falha(erro);
             }
-            medico.setCpf(novoCpf);
-        }
-
-        // Atualiza a Data de Nascimento com validação
-        System.out.print("Data de Nascimento (DD-MM-YYYY) (atual: " +
-                medico.getDataNascimento().format(formatter) + "): ");
-        String novaData = scanner.nextLine();
-        if (!novaData.trim().isEmpty()) {
-            LocalDate novaDataNascimento;
-            while (true) {
-                try {
-                    novaDataNascimento = LocalDate.parse(novaData, formatter);
-                    if (novaDataNascimento.isAfter(LocalDate.now())) {
-                        System.out.print("Data de nascimento não pode ser no futuro. Digite uma data válida: ");
-                        novaData = scanner.nextLine();
-                        continue;
-                    }
-                    break;
-                } catch (Exception e) {
-                    System.out.print("Formato inválido! Use DD-MM-YYYY: ");
-                    novaData = scanner.nextLine();
-                }
+            novaChave = cpfParaLong(request.getCpf());
+            Medico existente = medicosPorCpf.get(novaChave);
+            if (existente != null && existente != medico) {
+                return Resultado.falha("Já existe um médico com este CPF. Informe outro.");
             }
-            medico.setDataNascimento(novaDataNascimento);
-        }
-
-        // Atualiza o CRM com validação
-        System.out.print("CRM (atual: " + medico.getCrm() + "): ");
-        String novoCrm = scanner.nextLine();
-        if (!novoCrm.trim().isEmpty()) {
-            while (true) {
-                if (novoCrm.trim().isEmpty()) {
-                    System.out.print("CRM inválido! Informe um CRM: ");
-                    novoCrm = scanner.nextLine();
-                    continue;
-                }
-                // Se o CRM for alterado, verifica duplicidade
-                if (!novoCrm.equals(medico.getCrm()) && buscaPorCrm(novoCrm) != null) {
-                    System.out.print("Já existe um médico cadastrado com este CRM. Informe outro: ");
-                    novoCrm = scanner.nextLine();
-                    continue;
-                }
-                break;
+        }
+        if (request.getDataNascimento() != null) {
+            String erro = validarDataNascimento(request.getDataNascimento());
+            if (erro != null) {
+                return Resultado.falha(erro);
+            }
+        }
+        if (alteraCrm) {
+            Medico existente = medicosPorCrm.get(request.getCrm());
+            if (existente != null && existente != medico) {
+                return Resultado.falha("Já existe um médico cadastrado com este CRM. Informe outro.");
             }
-            medico.setCrm(novoCrm);
         }
 
-        // Atualiza a Especialidade
-        System.out.print("Especialidade (atual: " + medico.getEspecialidade() + "): ");
-        String novaEspecialidade = scanner.nextLine();
-        if (!novaEspecialidade.trim().isEmpty()) {
-            medico.setEspecialidade(novaEspecialidade);
+        // Com o médico travado, um agendamento que já conferiu o CRM entra no diário antes da troca
+        synchronized (medico) {
+            String crmAnterior = medico.getCrm();
+            diario.medicoAtualizado(crmAnterior, alteraCrm ? request.getCrm() : crmAnterior, request);
+            if (alteraNome) {
+                medico.setNome(request.getNome());
+            }
+            if (alteraCpf) {
+                alterarCpf(medico, novaChave);
+            }
+            if (request.getDataNascimento() != null) {
+                medico.setDataNascimento(request.getDataNascimento());
+            }
+            if (alteraCrm) {
+                alterarCrm(medico, request.getCrm());
+            }
+            if (alteraEspecialidade) {
+                retirarDaEspecialidade(medico);
+                medico.setEspecialidade(request.getEspecialidade());
+                incluirNaEspecialidade(medico);
+            }
+        }
+        return Resultado.sucesso(medico);
+    }
+
+    /**
+     * Remove o médico sem esperar o diário, para quem já está numa alteração exclusiva e
+     * confirma depois de soltá-la. Não confere as consultas do médico: a remoção pública é
+     * ConsultaService.removerMedico, que recusa ou remove as consultas antes.
+     */
+    boolean remover(Medico medico) {
+        Lock escrita = cadastro.writeLock();
+        escrita.lock();
+        try {
+            int posicao = medico == null ? -1 : Paginas.posicaoDe(medicos, Medico::getId, medico);
+            if (posicao < 0) {
+                return false;
+            }
+            diario.medicoRemovido(medico.getCrm());
+            medicos.remove(posicao);
+            medicosPorCrm.remove(medico.getCrm());
+            medicosPorCpf.remove(cpfParaLong(medico.getCpf()));
+            retirarDaEspecialidade(medico);
+            return true;
+        } finally {
+            escrita.unlock();
         }
+    }
+
+    private void incluirNaEspecialidade(Medico medico) {
+        medicosPorEspecialidade.compute(chaveEspecialidade(medico.getEspecialidade()),
+                (chave, atual) -> atual == null ? new Especialidade(medico) : atual.com(medico));
+    }
+
+    private void retirarDaEspecialidade(Medico medico) {
+        medicosPorEspecialidade.computeIfPresent(chaveEspecialidade(medico.getEspecialidade()),
+                (chave, atual) -> atual.sem(medico));
+    }
+
+    private static String chaveEspecialidade(String especialidade) {
+        return normalizar(especialidade);
+    }
 
-        System.out.println("Cadastro do médico atualizado com sucesso!");
+    private static boolean informado(String valor) {
+        return valor != null && !valor.trim().isEmpty();
     }
 
     /**
-     * Remove o médico da lista, se encontrado.
+     * Médicos de uma especialidade: as posições de 0 a tamanho - 1 do vetor nunca mudam depois de
+     * publicadas no mapa, então a leitura não precisa de trava. A inclusão escreve na primeira
+     * posição livre (que nenhuma versão publicada enxerga) e publica uma nova versão com o tamanho
+     * seguinte; a remoção copia o vetor. As alterações de uma especialidade são feitas uma de cada
+     * vez (compute do mapa, com a escrita do cadastro).
      */
-    public void removerMedico(Medico medico) {
-        if (medico != null) {
-            medicos.remove(medico);
+    private static final class Especialidade {
+
+        // Grafia exibida, a do primeiro médico da especialidade
+        private final String nome;
+        private final Medico[] medicos;
+        private final int tamanho;
+
+        Especialidade(Medico primeiro) {
+            this(reduzirEspacos(primeiro.getEspecialidade()), new Medico[] {primeiro, null, null, null}, 1);
+        }
+
+        private Especialidade(String nome, Medico[] medicos, int tamanho) {
+            this.nome = nome;
+            this.medicos = medicos;
+            this.tamanho = tamanho;
+        }
+
+        Especialidade com(Medico medico) {
+            Medico[] vetor = tamanho < medicos.length ? medicos : Arrays.copyOf(medicos, tamanho * 2);
+            vetor[tamanho] = medico;
+            return new Especialidade(nome, vetor, tamanho + 1);
+        }
+
+        // Retorna null (a especialidade sai do mapa) se o médico era o último
+        Especialidade sem(Medico medico) {
+            for (int i = 0; i < tamanho; i++) {
+                if (medicos[i] == medico) {
+                    if (tamanho == 1) {
+                        return null;
+                    }
+                    Medico[] vetor = new Medico[medicos.length];
+                    System.arraycopy(medicos, 0, vetor, 0, i);
+                    System.arraycopy(medicos, i + 1, vetor, i, tamanho - i - 1);
+                    return new Especialidade(nome, vetor, tamanho - 1);
+                }
+            }
+            return this;
+        }
+
+        List<Medico> lista() {
+            return Collections.unmodifiableList(Arrays.asList(medicos).subList(0, tamanho));
         }
     }
 }
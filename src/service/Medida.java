@@ -0,0 +1,35 @@
+package service;
+
+import model.TabelaConsultas;
+
+/**
+ * O que um relatório soma em cada grupo. A soma é feita em inteiros (o valor em centavos) e
+ * convertida só no resultado.
+ */
+public enum Medida {
+
+    VALOR(100) {
+        @Override
+        long medir(TabelaConsultas tabela, int linha) {
+            return tabela.getValorCentavos(linha);
+        }
+    },
+    DURACAO(1) {
+        @Override
+        long medir(TabelaConsultas tabela, int linha) {
+            return tabela.getDuracao(linha);
+        }
+    };
+
+    private final double divisor;
+
+    Medida(double divisor) {
+        this.divisor = divisor;
+    }
+
+    abstract long medir(TabelaConsultas tabela, int linha);
+
+    double converter(long soma) {
+        return soma / divisor;
+    }
+}
@@ -1,185 +1,351 @@
 package service;
 
+import dto.PacienteRequest;
+import dto.Pagina;
+import dto.Resultado;
 import model.Paciente;
+import persistencia.Diario;
+import util.Impressao;
 
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Scanner;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
 
+import static util.ValidaCPF.cpfParaLong;
 import static util.ValidaCPF.formatarCPF;
+import static util.Validacoes.validarCpf;
+import static util.Validacoes.validarDataNascimento;
+import static util.Validacoes.validarNome;
 
+/**
+ * Cadastro de pacientes. A busca por CPF não usa trava e pode correr junto com os agendamentos;
+ * cadastro e atualização escrevem com a trava do cadastro, dentro da parte compartilhada de
+ * Alteracoes, e não esperam os agendamentos; as leituras da lista e a busca por nome leem com a
+ * mesma trava. A atualização troca o CPF com o paciente travado, como o agendamento que o
+ * confere (ver Alteracoes).
+ */
 public class PacienteService {
 
     private final List<Paciente> pacientes = new ArrayList<>();
-    private final DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    // Índice dos pacientes pelo CPF (11 dígitos como long), mantido junto com a lista
+    private final Map<Long, Paciente> pacientesPorCpf = new ConcurrentHashMap<>();
+    // Índices da busca por nome: trigramas do nome e data de nascimento; usam a trava do cadastro
+    private final IndiceTrigramas<Paciente> pacientesPorNome = new IndiceTrigramas<>();
+    private final Map<LocalDate, List<Paciente>> pacientesPorNascimento = new HashMap<>();
+    private Alteracoes alteracoes = new Alteracoes();
+    // Trava deste cadastro (ver Alteracoes): escrita nas alterações, leitura nas listagens e buscas
+    private final ReentrantReadWriteLock cadastro = new ReentrantReadWriteLock();
+    // Próximo número de cadastro (ver Paginas); protegido pela escrita do cadastro
+    private long proximoId;
+    private Diario diario = Diario.NENHUM;
+
+    /**
+     * Define o diário que recebe as alterações de pacientes (cadastro, atualização e remoção).
+     */
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
+
+    Alteracoes getAlteracoes() {
+        return alteracoes;
+    }
+
+    // Passa a usar a trava do conjunto de serviços ao qual foi ligado (ver Alteracoes)
+    void setAlteracoes(Alteracoes alteracoes) {
+        this.alteracoes = alteracoes;
+    }
 
     /**
      * Cadastra um novo paciente, validando:
      * - Nome não pode ser vazio;
      * - CPF deve ter 11 dígitos, ser numérico, formatado e não pode estar duplicado;
-     * - Data de nascimento deve estar no formato correto e não pode ser uma data futura.
+     * - Data de nascimento deve ser informada e não pode ser uma data futura.
      */
-    public void cadastrarPaciente() {
-        Scanner scanner = new Scanner(System.in);
-
-        System.out.println("Bem vindo ao sistema de cadastro do paciente:");
-
-        // Validação do nome
-        String nome;
-        while (true) {
-            System.out.print("Digite o nome do Paciente: ");
-            nome = scanner.nextLine();
-            if (nome == null || nome.trim().isEmpty()) {
-                System.out.println("Nome inválido! Por favor, informe um nome.");
-            } else {
-                break;
-            }
+    public Resultado<Paciente> cadastrarPaciente(PacienteRequest request) {
+        Resultado<Paciente> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = cadastrar(request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
         }
-
-        // Validação do CPF
-        String cpf;
-        while (true) {
-            System.out.print("Digite o CPF (apenas números): ");
-            cpf = scanner.nextLine();
-            if (!cpf.matches("\\d{11}")) {
-                System.out.println("CPF inválido! Digite exatamente 11 números.");
-                continue;
-            }
-            cpf = formatarCPF(cpf); // formata o CPF conforme padrão (ex: 000.000.000-00)
-            if (buscarPorCpf(cpf) != null) {
-                System.out.println("Já existe um paciente cadastrado com este CPF. Informe outro.");
-                continue;
-            }
-            // Aqui você pode incluir uma validação mais completa (algoritmo de verificação do CPF)
-            break;
+        if (resultado.isSucesso()) {
+            diario.confirmar();
         }
+        return resultado;
+    }
 
-        // Validação da Data de Nascimento
-        LocalDate dataNascimento;
-        while (true) {
-            System.out.print("Digite a Data de Nascimento (DD-MM-YYYY): ");
-            String dataInput = scanner.nextLine();
+    /**
+     * Cadastra os pacientes em sequência, com as validações de cadastrarPaciente, esperando o
+     * diário uma vez só para o lote todo (importação). O cadastro é travado a cada
+     * Alteracoes.CADASTROS_POR_TRAVA pacientes, então um lote grande não segura o snapshot, a
+     * remoção em cascata e as listagens até o fim.
+     */
+    public List<Resultado<Paciente>> cadastrarPacientes(List<PacienteRequest> requests) {
+        List<Resultado<Paciente>> resultados = new ArrayList<>(requests.size());
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        for (int inicio = 0; inicio < requests.size(); inicio += Alteracoes.CADASTROS_POR_TRAVA) {
+            int fim = Math.min(inicio + Alteracoes.CADASTROS_POR_TRAVA, requests.size());
+            alteracao.lock();
+            escrita.lock();
             try {
-                dataNascimento = LocalDate.parse(dataInput, formatter);
-                if (dataNascimento.isAfter(LocalDate.now())) {
-                    System.out.println("Data de nascimento não pode ser no futuro.");
-                    continue;
+                for (int i = inicio; i < fim; i++) {
+                    resultados.add(cadastrar(requests.get(i)));
                 }
-                break;
-            } catch (Exception e) {
-                System.out.println("Formato inválido! Use DD-MM-YYYY.");
+            } catch (RuntimeException | Error e) {
+                diario.cancelar();
+                throw e;
+            } finally {
+                escrita.unlock();
+                alteracao.unlock();
             }
         }
+        diario.confirmar();
+        return resultados;
+    }
+
+    private Resultado<Paciente> cadastrar(PacienteRequest request) {
+        String erro = validarNome(request.getNome());
+        if (erro == null) {
+            erro = validarCpf(request.getCpf());
+        }
+        if (erro == null) {
+            erro = validarDataNascimento(request.getDataNascimento());
+        }
+        if (erro != null) {
+            return Resultado.falha(erro);
+        }
 
-        Paciente paciente = new Paciente(nome, cpf, dataNascimento, new ArrayList<>(), new ArrayList<>());
+        long chave = cpfParaLong(request.getCpf());
+        if (pacientesPorCpf.containsKey(chave)) {
+            return Resultado.falha("Já existe um paciente cadastrado com este CPF. Informe outro.");
+        }
+
+        diario.pacienteCadastrado(formatarCPF(chave), request);
+        Paciente paciente = new Paciente(request.getNome(), formatarCPF(chave), request.getDataNascimento(),
+                new ArrayList<>(), new ArrayList<>());
+        paciente.setId(proximoId++);
+        pacientes.add(paciente);
+        pacientesPorCpf.put(chave, paciente);
+        indexarNomeENascimento(paciente);
+        return Resultado.sucesso(paciente);
+    }
+
+    /**
+     * Inclui um paciente já validado, lido de um snapshot, sem registrar no diário.
+     */
+    public void restaurarPaciente(Paciente paciente) {
+        paciente.setId(proximoId++);
         pacientes.add(paciente);
-        System.out.println("Paciente cadastrado com sucesso!");
+        pacientesPorCpf.put(cpfParaLong(paciente.getCpf()), paciente);
+        indexarNomeENascimento(paciente);
     }
 
     /**
-     * Busca um paciente pelo CPF (deve estar formatado da mesma forma que no cadastro).
+     * Busca um paciente pelo CPF, formatado (000.000.000-00) ou apenas com números.
      */
     public Paciente buscarPorCpf(String cpf) {
-        for (Paciente p : pacientes) {
-            if (p.getCpf().equals(cpf)) {
-                return p;
+        long chave = cpfParaLong(cpf);
+        if (chave < 0) {
+            return null;
+        }
+        return pacientesPorCpf.get(chave);
+    }
+
+    /**
+     * Busca aproximada pelo nome, para quando só se sabe parte do nome ou a grafia é incerta.
+     * Devolve até "quantidade" pacientes, do mais parecido para o menos; com a data de
+     * nascimento informada, só os nascidos nessa data.
+     */
+    public List<Paciente> buscarPorNome(String nome, LocalDate dataNascimento, int quantidade) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            if (dataNascimento == null) {
+                return pacientesPorNome.buscar(nome, quantidade);
             }
+            List<Paciente> nascidos = pacientesPorNascimento.getOrDefault(dataNascimento, Collections.emptyList());
+            return pacientesPorNome.classificar(nome, nascidos, quantidade);
+        } finally {
+            leitura.unlock();
         }
-        return null;
     }
 
     /**
-     * Lista todos os pacientes cadastrados.
+     * Retorna os pacientes cadastrados, na ordem de cadastro (somente leitura).
+     */
+    public List<Paciente> getPacientes() {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(pacientes));
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    /**
+     * Página de pacientes na ordem de cadastro, a partir do cursor (Pagina.INICIO na primeira).
+     */
+    public Pagina<Paciente> buscarPagina(long cursor, int tamanho) {
+        Lock leitura = cadastro.readLock();
+        leitura.lock();
+        try {
+            return Paginas.deLista(pacientes, Paciente::getId, cursor, tamanho);
+        } finally {
+            leitura.unlock();
+        }
+    }
+
+    /**
+     * Lista todos os pacientes cadastrados, uma página por escrita.
      */
     public void listarPacientes() {
-        if (pacientes.isEmpty()) {
-            System.out.println("Nenhum paciente cadastrado.");
-        } else {
-            System.out.println("Lista de pacientes:");
-            for (Paciente p : pacientes) {
-                System.out.println("Nome: " + p.getNome() +
-                        " - CPF: " + p.getCpf() +
-                        " - Data de Nascimento: " + p.getDataNascimento().format(formatter));
-            }
+        Pagina<Paciente> pagina = buscarPagina(Pagina.INICIO, Paginas.ITENS_POR_ESCRITA);
+        imprimirPagina(pagina);
+        while (pagina.temProxima()) {
+            pagina = buscarPagina(pagina.getProximoCursor(), Paginas.ITENS_POR_ESCRITA);
+            imprimirPagina(pagina);
+        }
+    }
+
+    /**
+     * Imprime uma página de pacientes numa única escrita; a primeira leva o título da lista.
+     */
+    public void imprimirPagina(Pagina<Paciente> pagina) {
+        Impressao impressao = new Impressao();
+        if (pagina.getPrimeiroIndice() == 0) {
+            impressao.linha(pagina.getItens().isEmpty() ? "Nenhum paciente cadastrado." : "Lista de pacientes:");
         }
+        for (Paciente p : pagina.getItens()) {
+            impressao.texto("Nome: ").texto(p.getNome())
+                    .texto(" - CPF: ").texto(p.getCpf())
+                    .texto(" - Data de Nascimento: ").data(p.getDataNascimento()).linha();
+        }
+        impressao.imprimir();
     }
 
     /**
      * Atualiza os dados do paciente, realizando as mesmas validações do cadastro.
-     * Se o usuário deixar o campo em branco, o valor atual é mantido.
+     * Campos nulos ou em branco na requisição mantêm o valor atual.
+     * Nenhum dado é alterado se algum campo informado for inválido.
      */
-    public void atualizarCadastroPaciente(Paciente paciente) {
-        if (paciente == null) {
-            System.out.println("Paciente não encontrado.");
-            return;
-        }
-        Scanner scanner = new Scanner(System.in);
-
-        System.out.println("Atualizando cadastro do paciente:");
-
-        // Atualiza o nome, se informado
-        System.out.print("Nome (atual: " + paciente.getNome() + "): ");
-        String novoNome = scanner.nextLine();
-        if (!novoNome.trim().isEmpty()) {
-            paciente.setNome(novoNome);
-        }
-
-        // Atualiza o CPF, se informado (com validação e verificação de duplicidade)
-        System.out.print("CPF (apenas números) (atual: " + paciente.getCpf() + "): ");
-        String novoCpf = scanner.nextLine();
-        if (!novoCpf.trim().isEmpty()) {
-            while (true) {
-                if (!novoCpf.matches("\\d{11}")) {
-                    System.out.print("CPF inválido! Digite exatamente 11 números: ");
-                    novoCpf = scanner.nextLine();
-                    continue;
-                }
-                novoCpf = formatarCPF(novoCpf);
-                // Se o novo CPF for diferente do atual, verifica duplicidade
-                if (!novoCpf.equals(paciente.getCpf()) && buscarPorCpf(novoCpf) != null) {
-                    System.out.print("Já existe um paciente com este CPF. Informe outro: ");
-                    novoCpf = scanner.nextLine();
-                    continue;
-                }
-                break;
+    public Resultado<Paciente> atualizarCadastroPaciente(Paciente paciente, PacienteRequest request) {
+        Resultado<Paciente> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        Lock escrita = cadastro.writeLock();
+        alteracao.lock();
+        escrita.lock();
+        try {
+            resultado = atualizar(paciente, request);
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            escrita.unlock();
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
+
+    private Resultado<Paciente> atualizar(Paciente paciente, PacienteRequest request) {
+        if (paciente == null || buscarPorCpf(paciente.getCpf()) != paciente) {
+            return Resultado.falha("Paciente não encontrado.");
+        }
+
+        boolean alteraNome = request.getNome() != null && !request.getNome().trim().isEmpty();
+        boolean alteraCpf = request.getCpf() != null && !request.getCpf().trim().isEmpty();
+
+        long novaChave = -1;
+        if (alteraCpf) {
+            String erro = validarCpf(request.getCpf());
+            if (erro != null) {
+                return Resultado.falha(erro);
             }
-            paciente.setCpf(novoCpf);
-        }
-
-        // Atualiza a data de nascimento, se informado (com validação do formato e se não é data futura)
-        System.out.print("Data de Nascimento (DD-MM-YYYY) (atual: " +
-                paciente.getDataNascimento().format(formatter) + "): ");
-        String novaData = scanner.nextLine();
-        if (!novaData.trim().isEmpty()) {
-            LocalDate novaDataNascimento;
-            while (true) {
-                try {
-                    novaDataNascimento = LocalDate.parse(novaData, formatter);
-                    if (novaDataNascimento.isAfter(LocalDate.now())) {
-                        System.out.print("Data de nascimento não pode ser no futuro. Digite uma data válida: ");
-                        novaData = scanner.nextLine();
-                        continue;
-                    }
-                    break;
-                } catch (Exception e) {
-                    System.out.print("Formato inválido! Use DD-MM-YYYY: ");
-                    novaData = scanner.nextLine();
-                }
+            novaChave = cpfParaLong(request.getCpf());
+            Paciente existente = pacientesPorCpf.get(novaChave);
+            if (existente != null && existente != paciente) {
+                return Resultado.falha("Já existe um paciente com este CPF. Informe outro.");
+            }
+        }
+        if (request.getDataNascimento() != null) {
+            String erro = validarDataNascimento(request.getDataNascimento());
+            if (erro != null) {
+                return Resultado.falha(erro);
             }
-            paciente.setDataNascimento(novaDataNascimento);
         }
 
-        System.out.println("Cadastro atualizado com sucesso!");
+        // Com o paciente travado, um agendamento que já conferiu o CPF entra no diário antes da troca
+        synchronized (paciente) {
+            String cpfAnterior = paciente.getCpf();
+            diario.pacienteAtualizado(cpfAnterior, alteraCpf ? formatarCPF(novaChave) : cpfAnterior, request);
+            desindexarNomeENascimento(paciente);
+            if (alteraNome) {
+                paciente.setNome(request.getNome());
+            }
+            if (alteraCpf) {
+                pacientesPorCpf.remove(cpfParaLong(paciente.getCpf()));
+                pacientesPorCpf.put(novaChave, paciente);
+                paciente.setCpf(formatarCPF(novaChave));
+            }
+            if (request.getDataNascimento() != null) {
+                paciente.setDataNascimento(request.getDataNascimento());
+            }
+            indexarNomeENascimento(paciente);
+        }
+        return Resultado.sucesso(paciente);
     }
 
     /**
-     * Remove o paciente da lista, se existir.
+     * Remove o paciente sem esperar o diário, para quem já está numa alteração exclusiva e
+     * confirma depois de soltá-la. Não confere as consultas do paciente: a remoção pública é
+     * ConsultaService.removerPaciente, que recusa ou remove as consultas antes.
      */
-    public void removerPaciente(Paciente paciente) {
-        if (paciente != null) {
-            pacientes.remove(paciente);
+    boolean remover(Paciente paciente) {
+        Lock escrita = cadastro.writeLock();
+        escrita.lock();
+        try {
+            int posicao = paciente == null ? -1 : Paginas.posicaoDe(pacientes, Paciente::getId, paciente);
+            if (posicao < 0) {
+                return false;
+            }
+            diario.pacienteRemovido(paciente.getCpf());
+            pacientes.remove(posicao);
+            pacientesPorCpf.remove(cpfParaLong(paciente.getCpf()));
+            desindexarNomeENascimento(paciente);
+            return true;
+        } finally {
+            escrita.unlock();
+        }
+    }
+
+    private void indexarNomeENascimento(Paciente paciente) {
+        pacientesPorNome.adicionar(paciente, paciente.getNome());
+        pacientesPorNascimento.computeIfAbsent(paciente.getDataNascimento(), data -> new ArrayList<>(1)).add(paciente);
+    }
+
+    private void desindexarNomeENascimento(Paciente paciente) {
+        pacientesPorNome.remover(paciente);
+        List<Paciente> nascidos = pacientesPorNascimento.get(paciente.getDataNascimento());
+        if (nascidos != null && nascidos.remove(paciente) && nascidos.isEmpty()) {
+            pacientesPorNascimento.remove(paciente.getDataNascimento());
         }
     }
 }
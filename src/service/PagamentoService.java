@@ -1,84 +1,82 @@
 package service;
 
-import model.Consulta;
+import dto.Resultado;
+import model.Paciente;
 import model.Pagamento;
+import persistencia.Diario;
 
-import java.util.Scanner;
-
-import static util.ValidaCPF.formatarCPF;
+import java.util.concurrent.locks.Lock;
 
 public class PagamentoService {
 
-    public void realizarPagamento(PacienteService pacienteService) {
-        Scanner scanner = new Scanner(System.in);
-
-        try {
-            pacienteService.listarPacientes();
-            System.out.print("Digite o CPF do paciente que deseja pagar: ");
-            String cpf = scanner.nextLine();
-
-            var paciente = pacienteService.buscarPorCpf(formatarCPF(cpf));
-
-            if (paciente == null) {
-                System.out.println("Paciente não encontrado.");
-                return;
-            }
-
-            if (paciente.getHistoricoMedico().isEmpty()) {
-                System.out.println("O paciente não tem consultas pendentes para pagamento.");
-                return;
-            }
-
-            // Calcula o total pendente (considerando apenas consultas ainda não pagas)
-            double totalPendente = paciente.getHistoricoMedico().stream()
-                    .filter(consulta -> paciente.getPagamentos().stream()
-                            .noneMatch(p -> p.getValor() == consulta.getValor() && p.isPago()))
-                    .mapToDouble(Consulta::getValor)
-                    .sum();
-
-            if (totalPendente == 0) {
-                System.out.println("Todas as consultas já foram pagas.");
-                return;
-            }
+    private ConsultaService consultaService;
+    private final Alteracoes alteracoes;
+    private Diario diario = Diario.NENHUM;
 
-            System.out.println("Total pendente: R$" + totalPendente);
+    public PagamentoService(ConsultaService consultaService) {
+        this.consultaService = consultaService;
+        this.alteracoes = consultaService.getAlteracoes();
+    }
 
-            double valorPago = 0;
-            boolean entradaValida = false;
+    public PagamentoService() {
+        this.alteracoes = new Alteracoes();
+    }
 
-            while (!entradaValida) {
-                System.out.print("Digite o valor total para pagamento (R$" + totalPendente + "): ");
-                try {
-                    valorPago = Double.parseDouble(scanner.nextLine());
+    /**
+     * Define o diário que recebe os pagamentos realizados.
+     */
+    public void setDiario(Diario diario) {
+        this.diario = diario;
+    }
 
-                    if (valorPago <= 0) {
-                        System.out.println("Erro! O valor deve ser maior que zero.");
-                    } else if (valorPago != totalPendente) {
-                        System.out.println("Erro! Você deve pagar o valor exato de R$" + totalPendente);
-                    } else {
-                        entradaValida = true;
-                    }
-                } catch (NumberFormatException e) {
-                    System.out.println("Erro! Digite um valor numérico válido.");
-                }
+    /**
+     * Quita todas as consultas pendentes do paciente. O valor informado deve ser
+     * exatamente o saldo devedor do paciente.
+     */
+    public Resultado<Pagamento> realizarPagamento(Paciente paciente, double valorPago) {
+        if (paciente == null) {
+            return Resultado.falha("Paciente não encontrado.");
+        }
+        Resultado<Pagamento> resultado;
+        Lock alteracao = alteracoes.compartilhada();
+        alteracao.lock();
+        try {
+            // Mesma trava dos agendamentos do paciente: o saldo conferido é o saldo quitado
+            synchronized (paciente) {
+                resultado = pagar(paciente, valorPago);
             }
+        } catch (RuntimeException | Error e) {
+            diario.cancelar();
+            throw e;
+        } finally {
+            alteracao.unlock();
+        }
+        if (resultado.isSucesso()) {
+            diario.confirmar();
+        }
+        return resultado;
+    }
 
-            // Se chegou até aqui, o pagamento foi validado
-            for (Consulta consulta : paciente.getHistoricoMedico()) {
-                boolean consultaJaPaga = paciente.getPagamentos().stream()
-                        .anyMatch(p -> p.getValor() == consulta.getValor() && p.isPago());
-
-                if (!consultaJaPaga) {
-                    Pagamento pagamento = new Pagamento();
-                    pagamento.setValor(consulta.getValor());
-                    pagamento.setPago(true);
-                    paciente.getPagamentos().add(pagamento);
-                }
-            }
+    private Resultado<Pagamento> pagar(Paciente paciente, double valorPago) {
+        if (paciente.getHistoricoMedico().isEmpty()) {
+            return Resultado.falha("O paciente não tem consultas pendentes para pagamento.");
+        }
+        if (!paciente.temPagamentoPendente()) {
+            return Resultado.falha("Todas as consultas já foram pagas.");
+        }
+        if (valorPago <= 0) {
+            return Resultado.falha("Erro! O valor deve ser maior que zero.");
+        }
+        if (Math.round(valorPago * 100) != paciente.getSaldoDevedorCentavos()) {
+            return Resultado.falha("Erro! Você deve pagar o valor exato de R$" + paciente.getSaldoDevedor());
+        }
 
-            System.out.println("Pagamento de R$" + totalPendente + " realizado com sucesso!");
-        } finally {
-            scanner.close();
+        // Pagamento validado: registra no diário e quita apenas as consultas pendentes
+        diario.pagamentoRealizado(paciente.getCpf(), valorPago);
+        Pagamento pagamento = paciente.quitarPendencias();
+        if (consultaService != null) {
+            consultaService.registrarPagamento(pagamento);
         }
+        return Resultado.sucesso(pagamento);
     }
 }
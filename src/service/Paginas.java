@@ -0,0 +1,55 @@
+package service;
+
+import dto.Pagina;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Paginação das listas de cadastro (pacientes, médicos, exames e medicamentos). Cada item
+ * recebe do serviço um número de cadastro crescente (getId), então a lista fica em ordem de
+ * número; o cursor é o número do próximo item e a página seguinte é encontrada por busca
+ * binária. Se itens forem removidos ou incluídos entre uma página e outra, a listagem continua
+ * do item certo, como o cursor por linha das consultas; só os índices exibidos mudam.
+ */
+final class Paginas {
+
+    // Itens por escrita nas listagens completas (listar*)
+    static final int ITENS_POR_ESCRITA = 1024;
+
+    private Paginas() {}
+
+    // Chamado com a leitura do cadastro travada
+    static <T> Pagina<T> deLista(List<T> lista, ToLongFunction<T> id, long cursor, int tamanho) {
+        if (cursor < 0 || tamanho <= 0) {
+            throw new IllegalArgumentException("Cursor ou tamanho de página inválido.");
+        }
+        int inicio = primeiroAPartirDe(lista, id, cursor);
+        int fim = (int) Math.min((long) inicio + tamanho, lista.size());
+        List<T> itens = Collections.unmodifiableList(new ArrayList<>(lista.subList(inicio, fim)));
+        return new Pagina<>(itens, inicio, fim < lista.size() ? id.applyAsLong(lista.get(fim)) : Pagina.FIM);
+    }
+
+    // Posição do item na lista pelo número de cadastro, ou -1 se ele não estiver nela
+    static <T> int posicaoDe(List<T> lista, ToLongFunction<T> id, T item) {
+        int posicao = primeiroAPartirDe(lista, id, id.applyAsLong(item));
+        return posicao < lista.size() && lista.get(posicao) == item ? posicao : -1;
+    }
+
+    // Posição do primeiro item com número maior ou igual a "cursor" (o tamanho da lista se não houver)
+    private static <T> int primeiroAPartirDe(List<T> lista, ToLongFunction<T> id, long cursor) {
+        int baixo = 0;
+        int alto = lista.size();
+        while (baixo < alto) {
+            int meio = (baixo + alto) >>> 1;
+            if (id.applyAsLong(lista.get(meio)) < cursor) {
+                baixo = meio + 1;
+            } else {
+                alto = meio;
+            }
+        }
+        return baixo;
+    }
+}
@@ -0,0 +1,231 @@
+package service;
+
+import dto.LinhaRelatorio;
+import dto.Resultado;
+import model.ListaConsultas;
+import model.StatusConsulta;
+import model.TabelaConsultas;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import static util.Textos.normalizar;
+
+/**
+ * Relatórios avulsos sobre as consultas cadastradas, para as perguntas que os totais mantidos
+ * pelo ConsultaService não respondem: filtra, agrupa e soma uma medida.
+ *
+ * A lista de consultas é copiada (só os números das linhas) e dividida em blocos, varridos em
+ * paralelo num ForkJoinPool direto nas colunas da TabelaConsultas. Cada bloco soma os seus
+ * grupos numa tabela de códigos própria e os resultados são juntados de dois em dois, então
+ * as threads não disputam nada durante a varredura. As alterações não são travadas: uma
+ * consulta alterada durante o relatório entra com os dados de antes ou de depois.
+ */
+public class RelatorioService {
+
+    // Linhas varridas por tarefa: blocos grandes o bastante para a divisão não pesar
+    private static final int LINHAS_POR_TAREFA = 1 << 15;
+
+    private final ConsultaService consultaService;
+    private final ForkJoinPool pool;
+
+    public RelatorioService(ConsultaService consultaService) {
+        this(consultaService, ForkJoinPool.commonPool());
+    }
+
+    public RelatorioService(ConsultaService consultaService, ForkJoinPool pool) {
+        this.consultaService = consultaService;
+        this.pool = pool;
+    }
+
+    /**
+     * Soma a medida das consultas aceitas pelo filtro em cada grupo, em ordem de rótulo.
+     */
+    public List<LinhaRelatorio> gerar(FiltroConsulta filtro, Agrupamento agrupamento, Medida medida) {
+        TabelaConsultas tabela = consultaService.getTabela();
+        ListaConsultas linhas = consultaService.copiarConsultas();
+        Grupos grupos = pool.invoke(new Varredura(tabela, linhas, 0, linhas.size(), filtro, agrupamento, medida));
+
+        // Rótulo de cada código; códigos com o mesmo rótulo viram uma linha só
+        Map<String, Integer> posicoes = new HashMap<>();
+        List<String> rotulos = new ArrayList<>();
+        List<long[]> totais = new ArrayList<>();
+        for (int i = 0; i < grupos.codigos.length; i++) {
+            if (grupos.exemplos[i] < 0) {
+                continue;
+            }
+            String rotulo = agrupamento.rotulo(tabela, grupos.exemplos[i]);
+            Integer posicao = posicoes.putIfAbsent(normalizar(rotulo), rotulos.size());
+            if (posicao == null) {
+                rotulos.add(rotulo);
+                totais.add(new long[] {grupos.quantidades[i], grupos.somas[i]});
+            } else {
+                // Entre grafias diferentes fica a menor, para o resultado não depender da ordem dos grupos
+                if (rotulo.compareTo(rotulos.get(posicao)) < 0) {
+                    rotulos.set(posicao, rotulo);
+                }
+                totais.get(posicao)[0] += grupos.quantidades[i];
+                totais.get(posicao)[1] += grupos.somas[i];
+            }
+        }
+
+        List<LinhaRelatorio> resultado = new ArrayList<>(rotulos.size());
+        for (int i = 0; i < rotulos.size(); i++) {
+            long[] total = totais.get(i);
+            resultado.add(new LinhaRelatorio(rotulos.get(i), total[0], medida.converter(total[1])));
+        }
+        resultado.sort(Comparator.comparing(LinhaRelatorio::getRotulo, String.CASE_INSENSITIVE_ORDER));
+        return resultado;
+    }
+
+    /**
+     * Valor das consultas realizadas no período por especialidade e trimestre.
+     */
+    public Resultado<List<LinhaRelatorio>> receitaPorEspecialidadeETrimestre(LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && fim.isBefore(inicio)) {
+            return Resultado.falha("A data final não pode ser anterior à inicial.");
+        }
+        FiltroConsulta filtro = FiltroConsulta.periodo(inicio, fim).e(FiltroConsulta.status(StatusConsulta.REALIZADA));
+        return Resultado.sucesso(gerar(filtro, Agrupamento.porEspecialidade().e(Agrupamento.porTrimestre()),
+                Medida.VALOR));
+    }
+
+    /**
+     * Duração das consultas não canceladas do período por médico; a média fica em
+     * {@link LinhaRelatorio#getMedia()}.
+     */
+    public Resultado<List<LinhaRelatorio>> duracaoPorMedico(LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && fim.isBefore(inicio)) {
+            return Resultado.falha("A data final não pode ser anterior à inicial.");
+        }
+        FiltroConsulta naoCanceladas = (tabela, linha) -> tabela.getStatus(linha) != StatusConsulta.CANCELADA;
+        return Resultado.sucesso(gerar(FiltroConsulta.periodo(inicio, fim).e(naoCanceladas),
+                Agrupamento.porMedico(), Medida.DURACAO));
+    }
+
+    /**
+     * Varre as posições [inicio, fim) da lista, dividindo ao meio até blocos de LINHAS_POR_TAREFA.
+     */
+    private static final class Varredura extends RecursiveTask<Grupos> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final TabelaConsultas tabela;
+        private final ListaConsultas linhas;
+        private final int inicio;
+        private final int fim;
+        private final FiltroConsulta filtro;
+        private final Agrupamento agrupamento;
+        private final Medida medida;
+
+        Varredura(TabelaConsultas tabela, ListaConsultas linhas, int inicio, int fim, FiltroConsulta filtro,
+                  Agrupamento agrupamento, Medida medida) {
+            this.tabela = tabela;
+            this.linhas = linhas;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.filtro = filtro;
+            this.agrupamento = agrupamento;
+            this.medida = medida;
+        }
+
+        @Override
+        protected Grupos compute() {
+            if (fim - inicio <= LINHAS_POR_TAREFA) {
+                Grupos grupos = new Grupos();
+                for (int posicao = inicio; posicao < fim; posicao++) {
+                    int linha = linhas.getLinha(posicao);
+                    if (filtro.aceita(tabela, linha)) {
+                        grupos.somar(agrupamento.codigo(tabela, linha), linha, 1, medida.medir(tabela, linha));
+                    }
+                }
+                return grupos;
+            }
+            int meio = (inicio + fim) >>> 1;
+            Varredura esquerda = new Varredura(tabela, linhas, inicio, meio, filtro, agrupamento, medida);
+            esquerda.fork();
+            Grupos direita = new Varredura(tabela, linhas, meio, fim, filtro, agrupamento, medida).compute();
+            return esquerda.join().juntar(direita);
+        }
+    }
+
+    /**
+     * Quantidade e soma por código, em endereçamento aberto (sondagem linear). Cada grupo
+     * guarda também uma linha de exemplo, de onde sai o rótulo; -1 marca posição vazia.
+     */
+    private static final class Grupos {
+
+        long[] codigos = new long[16];
+        int[] exemplos = vazios(16);
+        long[] quantidades = new long[16];
+        long[] somas = new long[16];
+        private int tamanho;
+
+        void somar(long codigo, int exemplo, long quantidade, long soma) {
+            int mascara = codigos.length - 1;
+            int posicao = espalhar(codigo) & mascara;
+            while (exemplos[posicao] >= 0) {
+                if (codigos[posicao] == codigo) {
+                    quantidades[posicao] += quantidade;
+                    somas[posicao] += soma;
+                    return;
+                }
+                posicao = (posicao + 1) & mascara;
+            }
+            codigos[posicao] = codigo;
+            exemplos[posicao] = exemplo;
+            quantidades[posicao] = quantidade;
+            somas[posicao] = soma;
+            if (++tamanho * 2 > codigos.length) {
+                crescer();
+            }
+        }
+
+        // Soma o menor no maior e devolve o maior
+        Grupos juntar(Grupos outros) {
+            Grupos maior = tamanho >= outros.tamanho ? this : outros;
+            Grupos menor = maior == this ? outros : this;
+            for (int i = 0; i < menor.codigos.length; i++) {
+                if (menor.exemplos[i] >= 0) {
+                    maior.somar(menor.codigos[i], menor.exemplos[i], menor.quantidades[i], menor.somas[i]);
+                }
+            }
+            return maior;
+        }
+
+        private void crescer() {
+            long[] antigosCodigos = codigos;
+            int[] antigosExemplos = exemplos;
+            long[] antigasQuantidades = quantidades;
+            long[] antigasSomas = somas;
+            int capacidade = antigosCodigos.length * 2;
+            codigos = new long[capacidade];
+            exemplos = vazios(capacidade);
+            quantidades = new long[capacidade];
+            somas = new long[capacidade];
+            tamanho = 0;
+            for (int i = 0; i < antigosCodigos.length; i++) {
+                if (antigosExemplos[i] >= 0) {
+                    somar(antigosCodigos[i], antigosExemplos[i], antigasQuantidades[i], antigasSomas[i]);
+                }
+            }
+        }
+
+        private static int[] vazios(int capacidade) {
+            int[] exemplos = new int[capacidade];
+            Arrays.fill(exemplos, -1);
+            return exemplos;
+        }
+
+        private static int espalhar(long codigo) {
+            long misturado = codigo * 0x9E3779B97F4A7C15L;
+            return (int) (misturado ^ (misturado >>> 32));
+        }
+    }
+}
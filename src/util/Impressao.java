@@ -0,0 +1,119 @@
+package util;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.DecimalFormatSymbols;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+
+/**
+ * Monta o texto de uma listagem num buffer e escreve tudo na saída padrão de uma vez, em vez
+ * de uma chamada de println ou printf por linha. Datas, horários e valores são escritos direto
+ * no buffer, com o mesmo texto dos formatos usados nas telas (dd-MM-yyyy, HH:mm e %.2f).
+ *
+ * Não é thread-safe: cada listagem usa a sua.
+ */
+public class Impressao {
+
+    private static final DateTimeFormatter FORMATO_DATA = DateTimeFormatter.ofPattern("dd-MM-yyyy");
+    private static final String FIM_DE_LINHA = System.lineSeparator();
+
+    private final StringBuilder texto;
+    private final char separadorDecimal;
+    private final boolean digitosComuns;
+
+    public Impressao() {
+        this(8192);
+    }
+
+    public Impressao(int capacidade) {
+        this.texto = new StringBuilder(capacidade);
+        DecimalFormatSymbols simbolos = DecimalFormatSymbols.getInstance(Locale.getDefault(Locale.Category.FORMAT));
+        this.separadorDecimal = simbolos.getDecimalSeparator();
+        this.digitosComuns = simbolos.getZeroDigit() == '0';
+    }
+
+    public Impressao texto(String valor) {
+        texto.append(valor);
+        return this;
+    }
+
+    public Impressao texto(Object valor) {
+        texto.append(valor);
+        return this;
+    }
+
+    public Impressao numero(long valor) {
+        texto.append(valor);
+        return this;
+    }
+
+    // Como Double.toString (o mesmo texto de uma concatenação)
+    public Impressao numero(double valor) {
+        texto.append(valor);
+        return this;
+    }
+
+    // Como o formato dd-MM-yyyy
+    public Impressao data(LocalDate data) {
+        int ano = data.getYear();
+        if (ano < 0 || ano > 9999) {
+            texto.append(data.format(FORMATO_DATA));
+            return this;
+        }
+        doisDigitos(data.getDayOfMonth()).append('-');
+        doisDigitos(data.getMonthValue()).append('-');
+        doisDigitos(ano / 100);
+        doisDigitos(ano % 100);
+        return this;
+    }
+
+    // Como o formato HH:mm
+    public Impressao horario(LocalTime horario) {
+        doisDigitos(horario.getHour()).append(':');
+        doisDigitos(horario.getMinute());
+        return this;
+    }
+
+    // Como o formato %.2f no idioma padrão (arredondamento para cima a partir da metade)
+    public Impressao decimal(double valor) {
+        if (!Double.isFinite(valor) || !digitosComuns) {
+            texto.append(String.format("%.2f", valor));
+            return this;
+        }
+        String digitos = BigDecimal.valueOf(valor).setScale(2, RoundingMode.HALF_UP).toPlainString();
+        int ponto = digitos.length() - 3;
+        texto.append(digitos, 0, ponto).append(separadorDecimal).append(digitos, ponto + 1, digitos.length());
+        return this;
+    }
+
+    public Impressao linha() {
+        texto.append(FIM_DE_LINHA);
+        return this;
+    }
+
+    public Impressao linha(String valor) {
+        return texto(valor).linha();
+    }
+
+    public boolean isVazia() {
+        return texto.length() == 0;
+    }
+
+    /**
+     * Escreve o texto acumulado na saída padrão numa única escrita e esvazia o buffer.
+     */
+    public void imprimir() {
+        if (texto.length() > 0) {
+            System.out.print(texto);
+            System.out.flush();
+            texto.setLength(0);
+        }
+    }
+
+    private StringBuilder doisDigitos(int valor) {
+        return texto.append((char) ('0' + valor / 10)).append((char) ('0' + valor % 10));
+    }
+}
@@ -0,0 +1,52 @@
+package util;
+
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Normalização de textos usados como chave de busca (especialidades, nomes de medicamentos).
+ */
+public class Textos {
+
+    private static final Pattern ACENTOS = Pattern.compile("\\p{M}");
+    private static final Pattern ESPACOS = Pattern.compile("[\\s\\x00-\\x20]+");
+
+    /**
+     * Texto sem acentos, em minúsculas, sem espaços nas pontas e com os espaços internos
+     * reduzidos a um só: "  Clínica   Geral" vira "clinica geral".
+     */
+    public static String normalizar(String texto) {
+        // Caminho rápido para o caso comum, texto só com ASCII: uma passada, sem Normalizer nem regex
+        StringBuilder normalizado = new StringBuilder(texto.length());
+        boolean espaco = false;
+        for (int i = 0; i < texto.length(); i++) {
+            char c = texto.charAt(i);
+            if (c >= 0x80) {
+                return normalizarComAcentos(texto);
+            }
+            if (c <= ' ') {
+                espaco = normalizado.length() > 0;
+                continue;
+            }
+            if (espaco) {
+                normalizado.append(' ');
+                espaco = false;
+            }
+            normalizado.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return normalizado.toString();
+    }
+
+    private static String normalizarComAcentos(String texto) {
+        String semAcentos = ACENTOS.matcher(Normalizer.normalize(texto, Normalizer.Form.NFD)).replaceAll("");
+        return reduzirEspacos(semAcentos).toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Texto sem espaços nas pontas e com os espaços internos reduzidos a um só.
+     */
+    public static String reduzirEspacos(String texto) {
+        return ESPACOS.matcher(texto.trim()).replaceAll(" ");
+    }
+}
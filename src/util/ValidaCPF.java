@@ -2,10 +2,53 @@ package util;
 
 public class ValidaCPF {
 
+    /**
+     * Formata um CPF de 11 dígitos no padrão 000.000.000-00.
+     */
     public static String formatarCPF(String cpf) {
         return cpf.substring(0, 3) + "." +
                 cpf.substring(3, 6) + "." +
                 cpf.substring(6, 9) + "-" +
                 cpf.substring(9, 11);
     }
+
+    /**
+     * Converte um CPF (formatado ou apenas com números) para a chave numérica usada nos índices.
+     * Pontos e traço são ignorados; retorna -1 se o CPF não tiver exatamente 11 dígitos.
+     */
+    public static long cpfParaLong(String cpf) {
+        if (cpf == null) {
+            return -1;
+        }
+        long chave = 0;
+        int digitos = 0;
+        for (int i = 0; i < cpf.length(); i++) {
+            char c = cpf.charAt(i);
+            if (c >= '0' && c <= '9') {
+                chave = chave * 10 + (c - '0');
+                digitos++;
+            } else if (c != '.' && c != '-') {
+                return -1;
+            }
+        }
+        return digitos == 11 ? chave : -1;
+    }
+
+    /**
+     * Formata a chave numérica do CPF no padrão 000.000.000-00.
+     */
+    public static String formatarCPF(long cpf) {
+        char[] formatado = new char[14];
+        for (int i = 13; i >= 0; i--) {
+            if (i == 11) {
+                formatado[i] = '-';
+            } else if (i == 3 || i == 7) {
+                formatado[i] = '.';
+            } else {
+                formatado[i] = (char) ('0' + cpf % 10);
+                cpf /= 10;
+            }
+        }
+        return new String(formatado);
+    }
 }
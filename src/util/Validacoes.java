@@ -0,0 +1,124 @@
+package util;
+
+import model.StatusConsulta;
+
+import java.time.LocalDate;
+
+/**
+ * Validações compartilhadas entre os serviços e as telas do console.
+ * Cada método retorna a mensagem de erro ou null quando o valor é válido.
+ */
+public class Validacoes {
+
+    public static String validarNome(String nome) {
+        if (nome == null || nome.trim().isEmpty()) {
+            return "Nome inválido! Por favor, informe um nome.";
+        }
+        return null;
+    }
+
+    /**
+     * Aceita o CPF apenas com números ou já formatado (000.000.000-00).
+     */
+    public static String validarCpf(String cpf) {
+        if (ValidaCPF.cpfParaLong(cpf) < 0) {
+            return "CPF inválido! Digite exatamente 11 números.";
+        }
+        return null;
+    }
+
+    public static String validarDataNascimento(LocalDate dataNascimento) {
+        if (dataNascimento == null) {
+            return "Data de nascimento inválida! Use DD-MM-YYYY.";
+        }
+        if (dataNascimento.isAfter(LocalDate.now())) {
+            return "Data de nascimento não pode ser no futuro.";
+        }
+        return null;
+    }
+
+    public static String validarCrm(String crm) {
+        if (crm == null || crm.trim().isEmpty()) {
+            return "CRM inválido! Informe o CRM.";
+        }
+        return null;
+    }
+
+    public static String validarEspecialidade(String especialidade) {
+        if (especialidade == null || especialidade.trim().isEmpty()) {
+            return "Especialidade inválida! Informe a especialidade.";
+        }
+        return null;
+    }
+
+    public static String validarTipoExame(String tipo) {
+        if (tipo == null || (!tipo.equals("SANGUE") && !tipo.equals("RAIO_X") && !tipo.equals("ULTRASSOM"))) {
+            return "Tipo inválido! Informe SANGUE, RAIO_X ou ULTRASSOM.";
+        }
+        return null;
+    }
+
+    public static String validarStatusConsulta(String status) {
+        if (StatusConsulta.deTexto(status) == null) {
+            return "Status inválido. Use AGENDADA, CANCELADA ou REALIZADA.";
+        }
+        return null;
+    }
+
+    public static String validarDataPrescricao(LocalDate dataPrescricao) {
+        if (dataPrescricao == null) {
+            return "Data de prescrição inválida! Utilize DD-MM-YYYY.";
+        }
+        if (dataPrescricao.isAfter(LocalDate.now())) {
+            return "A data de prescrição não pode ser futura.";
+        }
+        return null;
+    }
+
+    public static String validarDataRealizacao(LocalDate dataRealizacao, LocalDate dataPrescricao) {
+        if (dataRealizacao == null) {
+            return "Data de realização inválida! Utilize DD-MM-YYYY.";
+        }
+        if (dataRealizacao.isBefore(dataPrescricao)) {
+            return "A data de realização não pode ser anterior à data de prescrição.";
+        }
+        if (dataRealizacao.isAfter(LocalDate.now())) {
+            return "A data de realização não pode ser futura.";
+        }
+        return null;
+    }
+
+    public static String validarResultado(String resultado) {
+        if (resultado == null || resultado.trim().isEmpty()) {
+            return "Resultado inválido! Informe o resultado do exame.";
+        }
+        return null;
+    }
+
+    public static String validarCusto(Double custo) {
+        if (custo == null) {
+            return "Valor inválido! Informe um número.";
+        }
+        if (custo < 0) {
+            return "Custo inválido! O valor não pode ser negativo.";
+        }
+        return null;
+    }
+
+    public static String validarTextoObrigatorio(String valor, String mensagemErro) {
+        if (valor == null || valor.trim().isEmpty()) {
+            return mensagemErro;
+        }
+        return null;
+    }
+
+    public static String validarPreco(Double preco) {
+        if (preco == null) {
+            return "Valor inválido! Informe um número.";
+        }
+        if (preco < 0) {
+            return "Preço inválido! O valor não pode ser negativo.";
+        }
+        return null;
+    }
+}